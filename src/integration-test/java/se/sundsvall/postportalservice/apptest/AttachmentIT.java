@@ -1,8 +1,14 @@
 package se.sundsvall.postportalservice.apptest;
 
+import static org.springframework.http.HttpHeaders.CONTENT_RANGE;
 import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
+import static org.springframework.http.HttpHeaders.RANGE;
 import static org.springframework.http.HttpMethod.GET;
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
 import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.HttpStatus.PARTIAL_CONTENT;
 import static org.springframework.http.MediaType.APPLICATION_PDF_VALUE;
 
 import java.io.IOException;
@@ -23,6 +29,7 @@ import se.sundsvall.postportalservice.Application;
 class AttachmentIT extends AbstractAppTest {
 
 	private static final String FILE_NAME = "attachment.pdf";
+	private static final String CONTENT_HASH_ETAG = "\"be7bb1606e843d0d07e04d2c66e23494b1224a4c951af64d4e89215b2bd4eb3c\"";
 
 	@Test
 	void test01_downloadAttachment() throws IOException {
@@ -34,4 +41,27 @@ class AttachmentIT extends AbstractAppTest {
 			.withExpectedBinaryResponse(FILE_NAME)
 			.sendRequestAndVerifyResponse();
 	}
+
+	@Test
+	void test02_downloadAttachmentNotModified() {
+		setupCall()
+			.withServicePath("/2281/attachments/5a70a27f-997e-431e-9155-cc50d01e80c5")
+			.withHttpMethod(GET)
+			.withHeader(IF_NONE_MATCH, CONTENT_HASH_ETAG)
+			.withExpectedResponseStatus(NOT_MODIFIED)
+			.withExpectedResponseHeader(ETAG, List.of(CONTENT_HASH_ETAG))
+			.withExpectedResponseBodyIsNull()
+			.sendRequestAndVerifyResponse();
+	}
+
+	@Test
+	void test03_downloadAttachmentRange() {
+		setupCall()
+			.withServicePath("/2281/attachments/5a70a27f-997e-431e-9155-cc50d01e80c5")
+			.withHttpMethod(GET)
+			.withHeader(RANGE, "bytes=0-7")
+			.withExpectedResponseStatus(PARTIAL_CONTENT)
+			.withExpectedResponseHeader(CONTENT_RANGE, List.of("bytes 0-7/[0-9]+"))
+			.sendRequestAndVerifyResponse();
+	}
 }
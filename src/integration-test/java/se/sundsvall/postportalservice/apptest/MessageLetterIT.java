@@ -8,6 +8,7 @@ import static org.springframework.http.HttpMethod.POST;
 import static org.springframework.http.HttpStatus.CREATED;
 import static org.springframework.http.MediaType.MULTIPART_FORM_DATA;
 import static se.sundsvall.postportalservice.Constants.SENT;
+import static se.sundsvall.postportalservice.Constants.TRIGGERED;
 import static se.sundsvall.postportalservice.integration.db.converter.MessageType.DIGITAL_MAIL;
 import static se.sundsvall.postportalservice.integration.db.converter.MessageType.LETTER;
 import static se.sundsvall.postportalservice.integration.db.converter.MessageType.SNAIL_MAIL;
@@ -100,6 +101,7 @@ class MessageLetterIT extends AbstractAppTest {
 						assertThat(recipientEntity.getStatus()).isEqualTo(SENT);
 						assertThat(recipientEntity.getMessageType()).isEqualTo(SNAIL_MAIL);
 					});
+				assertThat(message.getSnailMailBatchStatus()).isEqualTo(TRIGGERED);
 			});
 		appTest.verifyAllStubs();
 	}
@@ -135,6 +137,7 @@ class MessageLetterIT extends AbstractAppTest {
 					.containsExactlyInAnyOrder(MessageType.SNAIL_MAIL, DIGITAL_MAIL);
 				assertThat(message.getRecipients())
 					.allSatisfy(recipientEntity -> assertThat(recipientEntity.getStatus()).isEqualTo(SENT));
+				assertThat(message.getSnailMailBatchStatus()).isEqualTo(TRIGGERED);
 			});
 		appTest.verifyAllStubs();
 	}
@@ -166,6 +169,7 @@ class MessageLetterIT extends AbstractAppTest {
 				assertThat(message.getRecipients()).hasSize(1);
 				assertThat(message.getRecipients())
 					.allSatisfy(recipientEntity -> assertThat(recipientEntity.getStatus()).isEqualTo(SENT));
+				assertThat(message.getSnailMailBatchStatus()).isEqualTo(TRIGGERED);
 			});
 		appTest.verifyAllStubs();
 	}
@@ -201,6 +205,7 @@ class MessageLetterIT extends AbstractAppTest {
 						tuple("11111111-1111-1111-1111-111111111111", DIGITAL_MAIL, "SENT"),
 						tuple("22222222-2222-2222-2222-222222222222", SNAIL_MAIL, "SENT"),
 						tuple("33333333-3333-3333-3333-333333333333", LETTER, "UNDELIVERABLE"));
+				assertThat(message.getSnailMailBatchStatus()).isEqualTo(TRIGGERED);
 			});
 		appTest.verifyAllStubs();
 	}
@@ -339,6 +344,7 @@ class MessageLetterIT extends AbstractAppTest {
 						tuple("aaaaaaaa-aaaa-aaaa-aaaa-aaaaaaaaaaaa", DIGITAL_MAIL, "SENT", ENTERPRISE),
 						tuple("bbbbbbbb-bbbb-bbbb-bbbb-bbbbbbbbbbbb", SNAIL_MAIL, "SENT", ENTERPRISE),
 						tuple("cccccccc-cccc-cccc-cccc-cccccccccccc", LETTER, "UNDELIVERABLE", ENTERPRISE));
+				assertThat(message.getSnailMailBatchStatus()).isEqualTo(TRIGGERED);
 			});
 		appTest.verifyAllStubs();
 	}
@@ -93,12 +93,21 @@ VALUES ('4972e098-21b8-4fda-9a0b-4d1b1377f7e4', '2281', '9a8b6e67-6007-4379-a717
         '4724b00c-1b1a-490d-ae43-9fb6237c6171', 'LETTER', '2025-08-05 10:00:00', 'Test message subject',
         'This is the message body content.');
 
-INSERT INTO attachment(id, file_name, content_type, created, message_id, content)
+INSERT INTO attachment_content (hash, content, reference_count, created)
+VALUES ('be7bb1606e843d0d07e04d2c66e23494b1224a4c951af64d4e89215b2bd4eb3c',
+        FROM_BASE64('JVBERi0xLjUKJbXtrvsKNCAwIG9iago8PCAvTGVuZ3RoIDUgMCBSCiAgIC9GaWx0ZXIgL0ZsYXRlRGVjb2RlCj4+CnN0cmVhbQp4nDNUMABCXUMgYW5ppJCcy1UIhGaGRhBxkBhcRj/RQCG9WEG/wlzBJZ8rEAgBf7IM0QplbmRzdHJlYW0KZW5kb2JqCjUgMCBvYmoKICAgNTAKZW5kb2JqCjMgMCBvYmoKPDwKICAgL0V4dEdTdGF0ZSA8PAogICAgICAvYTAgPDwgL0NBIDEgL2NhIDEgPj4KICAgPj4KICAgL1hPYmplY3QgPDwgL3g3IDcgMCBSID4+Cj4+CmVuZG9iago5IDAgb2JqCjw8IC9MZW5ndGggMTAgMCBSCiAgIC9GaWx0ZXIgL0ZsYXRlRGVjb2RlCiAgIC9UeXBlIC9YT2JqZWN0CiAgIC9TdWJ0eXBlIC9JbWFnZQogICAvV2lkdGggMTcwMAogICAvSGVpZ2h0IDIyMDAKICAgL0NvbG9yU3BhY2UgL0RldmljZUdyYXkKICAgL0ludGVycG9sYXRlIHRydWUKICAgL0JpdHNQZXJDb21wb25lbnQgOAo+PgpzdHJlYW0KeJzt3X+slXUdB/DvRVHclR8KgoJIgkoWiaHFppa1mizdGJrhmjrnJCSjqA2TiubNWIEVXCwBjSlrjpVSJhUGAkIFKt5EUhlTBE0qDJWQxc/u/fScc889PziM7lnIduH1+ud7v9/neZ97v3+9d8/znOekBAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAcpbpN3fDu3+e1+/RR8zJX1PQbJuUiZ9X4ZwFAz/X/vv3WVza0//zPzIr4ak2/4uxrl0ZcWOsfBsAx78G4I6Vb2t9RKX261o5KaYqOAqBmvfbHpSl1a6whoqMAOCJGR5xTY0RHAXBENET0rzGSddSEGiNZRw2tMQLAMW9mxJk1RrKOGl9jJOuoITVGADjmzanoqB6DP3haxeHTh5zX7cBI1lFjUqeBF/SvK611OmVArwNOO2lQ6ecpuXcUuwweUv7iB4kAQJtutz70VsS6pqam87LZiRNeiMzmKd0Lh3tP35LNW5675biKVNZRE3/6bnbkzemn5hfqf7F+fzbd1tg1m3wie7WmAenjC/Y+X4pkHTXq8X3ZORvGH18dSfc1FdX6LiIAR6kBjY1/iZjb2NjYL6VTVsemG84598ZXY+PA/NELt8byEQM+NGln/O6k8lTWUbuWzf3+vS9HvJK/ltUr1n/p4kFjdsWy3Kz/jIjPLcoKqLKjti2c9b15WSP+pnN1ZMWeRbPuamiYnhXipUdk4wB0BKX3+hbEW31zY+8tsTbXIydvjj/k/+m5rDnuLY+03dd33LSIlbkfesXFueFHEcNz45iIjXdfPfSRyo7K39fXY2nEd6ojK1qvb82OmP2ebBKADqnYUR+J+G7r0viIG7Ph9ohPtS4siOb3lUVK954/E/GxbOi+OH9lanTEF3Jj1lGjsmHQ0lKkeO95752xo74qsiJ/8JKW+Fv3BAAFxY6a2do3mTMjFmfDuth9QuvCDRHfKIuUOmpsxPSK9fzVpEJHlSt9Pmp+xMiqyEW5C16dX4y4+nBsCYCjRLGjno5ou+tue2yvS/XN8VJhPjTi12WRUkdlB56sXj9kR02IuPNgL5XStyN+9X9uBoCjSrGj3oyWtrWXInqk8yOWF+anVdz/UFYsPaPQYycPv+amsT9pT0d9NgoXtyoimcF7Ykffw7YtAI4CxY7aHbva1p6NOCsNj1hUmNdHbCqLlDoqO7A5Gwb9cn+89tSyNe3pqKsiHqyOpFS3ImLc4d0aAB1csaN2xL62tecjTk8fjlhSmPeIKH8ueqmjekW8kFK/f8TKs1M73+u7NuLH1ZF86E91CQBKih21OaJwi0R6NVq6pAERqwrz/hFPlUVKxfL+iKUpTY0YWL5+yI4aFzG5OpL6vBN7zz+8OwOgoyt21MKIwsOLjt8XL6dU9694o3DO5RH3l0VKHTUy4gcpPRnbKtYP2VHTI66qjqSft91KMexrh29vAHRsxY6aEDG6demSiPuy4dGIPq0L34z4fFmk1FEzIz6Z0tr4Z8X6ITtqXezsWh25MmJ9639xk+86jJsDoEMrdlTPnW23ft8fLcOy4YqIr+TnnTbE1hPLIsWO6v52rKtLaUm09ClfP1RHXRZxT6qK1L9WfAjScg/sA6Cg9CyksdFyfW68rrnwwdz58XbuCzU6zYyWis5p66Kui2LXRdk4OeKxM1Kfm5753x117qbY2K06MiNiVv68LqP2XP+ebBOADmfED/8aseTum/M19eVdsfjOhidi/7RO+YMnPBC7H/rWtBdj+3UVoWHb4/XHHpj9yDvxRv7JFKe+HhHNsfWaiD9+sU/vccsiHp84oiIybm+se3junN/vi9V9qyND/xOxvqmp6c9bmiMqgwAcs8Y3tPpoftbvjoVr1vx2cum744dNfeK5VQ/f1uOAVOfLJ/1s5dpV828uPA79jBlPP/vobfVpYvZKQz7Q+opfr4x0Hzllweq1K+ZcmQ4SuaChTK3fuAgAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAHOv+C0jaOxIKZW5kc3RyZWFtCmVuZG9iagoxMCAwIG9iagogICA1MDM5CmVuZG9iago3IDAgb2JqCjw8IC9MZW5ndGggMTEgMCBSCiAgIC9GaWx0ZXIgL0ZsYXRlRGVjb2RlCiAgIC9UeXBlIC9YT2JqZWN0CiAgIC9TdWJ0eXBlIC9JbWFnZQogICAvV2lkdGggMTcwMAogICAvSGVpZ2h0IDIyMDAKICAgL0NvbG9yU3BhY2UgL0RldmljZUdyYXkKICAgL0ludGVycG9sYXRlIHRydWUKICAgL0JpdHNQZXJDb21wb25lbnQgMQogICAvU01hc2sgOSAwIFIKPj4Kc3RyZWFtCnic7cExAQAAAMKg9U9tCU+gAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAD4GJuEAAQplbmRzdHJlYW0KZW5kb2JqCjExIDAgb2JqCiAgIDQ3NwplbmRvYmoKOCAwIG9iago8PCAvVHlwZSAvT2JqU3RtCiAgIC9MZW5ndGggMTIgMCBSCiAgIC9OIDEKICAgL0ZpcnN0IDQKICAgL0ZpbHRlciAvRmxhdGVEZWNvZGUKPj4Kc3RyZWFtCnicM1Mw4IrmiuUCAAY4AV0KZW5kc3RyZWFtCmVuZG9iagoxMiAwIG9iagogICAxNgplbmRvYmoKMTMgMCBvYmoKPDwgL1R5cGUgL09ialN0bQogICAvTGVuZ3RoIDE2IDAgUgogICAvTiA0CiAgIC9GaXJzdCAyMwogICAvRmlsdGVyIC9GbGF0ZURlY29kZQo+PgpzdHJlYW0KeJxVkVFrgzAUhd/9FedlTBlobqrrVqQPVShjDMTubewhpMEKw0gSx/rvl9jaMfJ0P87NOYdLYBHlKFjEQQVFVGC1zqOyRPZ+HhWyRnTKRgCy1/5o8QEOhhafM6r0NDhQtN3OG43Rx0kqg1iK3mhQSk9pjvjk3Gg3WTbTzojx1EubatMlyeUbo4Tr9VALpxDXG854QYwR5Tmj9QPj94wli8lfLNx567DfCKNCjpBsBm/q2Iud/vFxmX+PxLF+5rfQg/Nyi/ym3xs9jSjLMIT54jHTBR08NWKwY/CS5wW/wJlJLVPlVbX67qVq97sAfebAW2X1ZKSyWN08D35Rukt066/wr14lnPjS3bWdv8C1nBf9Aht2bs0KZW5kc3RyZWFtCmVuZG9iagoxNiAwIG9iagogICAyNzgKZW5kb2JqCjE3IDAgb2JqCjw8IC9UeXBlIC9YUmVmCiAgIC9MZW5ndGggNzIKICAgL0ZpbHRlciAvRmxhdGVEZWNvZGUKICAgL1NpemUgMTgKICAgL1cgWzEgMiAyXQogICAvUm9vdCAxNSAwIFIKICAgL0luZm8gMTQgMCBSCj4+CnN0cmVhbQp4nGNgYPj/n4mBl4EBRDAxMixmYGBk4AcRfSAxDiBLdDmQkGgBEozsIG4/iJsLJCRBXElZiF5GEMHMKLUCKCa1n4EBAJM2CBEKZW5kc3RyZWFtCmVuZG9iagpzdGFydHhyZWYKNjg0NwolJUVPRgoxOCAwIG9iag0KPDwvU2l6ZSAxOSAvUm9vdCAxNSAwIFIgL1ByZXYgNjg0NyAvVHlwZSAvWFJlZiAvSW5kZXggWzAgMSAxNCAxIDE4IDEgXSAvVyBbMSA0IDIgXSAvTGVuZ3RoIDIxID4+IHN0cmVhbQ0KAAAAAAH//wAAAAAPAAIBAAAbsAAADQplbmRzdHJlYW0NCg0KZW5kb2JqDQpzdGFydHhyZWYNCjcwODgNCiUlRU9GDQo='),
+        1, '2025-08-05 10:00:00'),
+       ('2b200a668f372eb923099cbdb250d0aa340de0163088de1e23482b1a4c50ae9b', 'dGVzdA==', 1, '2025-08-05 10:00:00');
+
+UPDATE attachment_content
+SET content_length = LENGTH(content);
+
+INSERT INTO attachment(id, file_name, content_type, created, message_id, content_hash)
 VALUES ('5a70a27f-997e-431e-9155-cc50d01e80c5', 'attachment.pdf',
         'application/pdf', '2025-08-05 10:00:00', '4972e098-21b8-4fda-9a0b-4d1b1377f7e4',
-        FROM_BASE64('JVBERi0xLjUKJbXtrvsKNCAwIG9iago8PCAvTGVuZ3RoIDUgMCBSCiAgIC9GaWx0ZXIgL0ZsYXRlRGVjb2RlCj4+CnN0cmVhbQp4nDNUMABCXUMgYW5ppJCcy1UIhGaGRhBxkBhcRj/RQCG9WEG/wlzBJZ8rEAgBf7IM0QplbmRzdHJlYW0KZW5kb2JqCjUgMCBvYmoKICAgNTAKZW5kb2JqCjMgMCBvYmoKPDwKICAgL0V4dEdTdGF0ZSA8PAogICAgICAvYTAgPDwgL0NBIDEgL2NhIDEgPj4KICAgPj4KICAgL1hPYmplY3QgPDwgL3g3IDcgMCBSID4+Cj4+CmVuZG9iago5IDAgb2JqCjw8IC9MZW5ndGggMTAgMCBSCiAgIC9GaWx0ZXIgL0ZsYXRlRGVjb2RlCiAgIC9UeXBlIC9YT2JqZWN0CiAgIC9TdWJ0eXBlIC9JbWFnZQogICAvV2lkdGggMTcwMAogICAvSGVpZ2h0IDIyMDAKICAgL0NvbG9yU3BhY2UgL0RldmljZUdyYXkKICAgL0ludGVycG9sYXRlIHRydWUKICAgL0JpdHNQZXJDb21wb25lbnQgOAo+PgpzdHJlYW0KeJzt3X+slXUdB/DvRVHclR8KgoJIgkoWiaHFppa1mizdGJrhmjrnJCSjqA2TiubNWIEVXCwBjSlrjpVSJhUGAkIFKt5EUhlTBE0qDJWQxc/u/fScc889PziM7lnIduH1+ud7v9/neZ97v3+9d8/znOekBAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAcpbpN3fDu3+e1+/RR8zJX1PQbJuUiZ9X4ZwFAz/X/vv3WVza0//zPzIr4ak2/4uxrl0ZcWOsfBsAx78G4I6Vb2t9RKX261o5KaYqOAqBmvfbHpSl1a6whoqMAOCJGR5xTY0RHAXBENET0rzGSddSEGiNZRw2tMQLAMW9mxJk1RrKOGl9jJOuoITVGADjmzanoqB6DP3haxeHTh5zX7cBI1lFjUqeBF/SvK611OmVArwNOO2lQ6ecpuXcUuwweUv7iB4kAQJtutz70VsS6pqam87LZiRNeiMzmKd0Lh3tP35LNW5675biKVNZRE3/6bnbkzemn5hfqf7F+fzbd1tg1m3wie7WmAenjC/Y+X4pkHTXq8X3ZORvGH18dSfc1FdX6LiIAR6kBjY1/iZjb2NjYL6VTVsemG84598ZXY+PA/NELt8byEQM+NGln/O6k8lTWUbuWzf3+vS9HvJK/ltUr1n/p4kFjdsWy3Kz/jIjPLcoKqLKjti2c9b15WSP+pnN1ZMWeRbPuamiYnhXipUdk4wB0BKX3+hbEW31zY+8tsTbXIydvjj/k/+m5rDnuLY+03dd33LSIlbkfesXFueFHEcNz45iIjXdfPfSRyo7K39fXY2nEd6ojK1qvb82OmP2ebBKADqnYUR+J+G7r0viIG7Ph9ohPtS4siOb3lUVK954/E/GxbOi+OH9lanTEF3Jj1lGjsmHQ0lKkeO95752xo74qsiJ/8JKW+Fv3BAAFxY6a2do3mTMjFmfDuth9QuvCDRHfKIuUOmpsxPSK9fzVpEJHlSt9Pmp+xMiqyEW5C16dX4y4+nBsCYCjRLGjno5ou+tue2yvS/XN8VJhPjTi12WRUkdlB56sXj9kR02IuPNgL5XStyN+9X9uBoCjSrGj3oyWtrWXInqk8yOWF+anVdz/UFYsPaPQYycPv+amsT9pT0d9NgoXtyoimcF7Ykffw7YtAI4CxY7aHbva1p6NOCsNj1hUmNdHbCqLlDoqO7A5Gwb9cn+89tSyNe3pqKsiHqyOpFS3ImLc4d0aAB1csaN2xL62tecjTk8fjlhSmPeIKH8ueqmjekW8kFK/f8TKs1M73+u7NuLH1ZF86E91CQBKih21OaJwi0R6NVq6pAERqwrz/hFPlUVKxfL+iKUpTY0YWL5+yI4aFzG5OpL6vBN7zz+8OwOgoyt21MKIwsOLjt8XL6dU9694o3DO5RH3l0VKHTUy4gcpPRnbKtYP2VHTI66qjqSft91KMexrh29vAHRsxY6aEDG6demSiPuy4dGIPq0L34z4fFmk1FEzIz6Z0tr4Z8X6ITtqXezsWh25MmJ9639xk+86jJsDoEMrdlTPnW23ft8fLcOy4YqIr+TnnTbE1hPLIsWO6v52rKtLaUm09ClfP1RHXRZxT6qK1L9WfAjScg/sA6Cg9CyksdFyfW68rrnwwdz58XbuCzU6zYyWis5p66Kui2LXRdk4OeKxM1Kfm5753x117qbY2K06MiNiVv68LqP2XP+ebBOADmfED/8aseTum/M19eVdsfjOhidi/7RO+YMnPBC7H/rWtBdj+3UVoWHb4/XHHpj9yDvxRv7JFKe+HhHNsfWaiD9+sU/vccsiHp84oiIybm+se3junN/vi9V9qyND/xOxvqmp6c9bmiMqgwAcs8Y3tPpoftbvjoVr1vx2cum744dNfeK5VQ/f1uOAVOfLJ/1s5dpV828uPA79jBlPP/vobfVpYvZKQz7Q+opfr4x0Hzllweq1K+ZcmQ4SuaChTK3fuAgAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAHOv+C0jaOxIKZW5kc3RyZWFtCmVuZG9iagoxMCAwIG9iagogICA1MDM5CmVuZG9iago3IDAgb2JqCjw8IC9MZW5ndGggMTEgMCBSCiAgIC9GaWx0ZXIgL0ZsYXRlRGVjb2RlCiAgIC9UeXBlIC9YT2JqZWN0CiAgIC9TdWJ0eXBlIC9JbWFnZQogICAvV2lkdGggMTcwMAogICAvSGVpZ2h0IDIyMDAKICAgL0NvbG9yU3BhY2UgL0RldmljZUdyYXkKICAgL0ludGVycG9sYXRlIHRydWUKICAgL0JpdHNQZXJDb21wb25lbnQgMQogICAvU01hc2sgOSAwIFIKPj4Kc3RyZWFtCnic7cExAQAAAMKg9U9tCU+gAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAD4GJuEAAQplbmRzdHJlYW0KZW5kb2JqCjExIDAgb2JqCiAgIDQ3NwplbmRvYmoKOCAwIG9iago8PCAvVHlwZSAvT2JqU3RtCiAgIC9MZW5ndGggMTIgMCBSCiAgIC9OIDEKICAgL0ZpcnN0IDQKICAgL0ZpbHRlciAvRmxhdGVEZWNvZGUKPj4Kc3RyZWFtCnicM1Mw4IrmiuUCAAY4AV0KZW5kc3RyZWFtCmVuZG9iagoxMiAwIG9iagogICAxNgplbmRvYmoKMTMgMCBvYmoKPDwgL1R5cGUgL09ialN0bQogICAvTGVuZ3RoIDE2IDAgUgogICAvTiA0CiAgIC9GaXJzdCAyMwogICAvRmlsdGVyIC9GbGF0ZURlY29kZQo+PgpzdHJlYW0KeJxVkVFrgzAUhd/9FedlTBlobqrrVqQPVShjDMTubewhpMEKw0gSx/rvl9jaMfJ0P87NOYdLYBHlKFjEQQVFVGC1zqOyRPZ+HhWyRnTKRgCy1/5o8QEOhhafM6r0NDhQtN3OG43Rx0kqg1iK3mhQSk9pjvjk3Gg3WTbTzojx1EubatMlyeUbo4Tr9VALpxDXG854QYwR5Tmj9QPj94wli8lfLNx567DfCKNCjpBsBm/q2Iud/vFxmX+PxLF+5rfQg/Nyi/ym3xs9jSjLMIT54jHTBR08NWKwY/CS5wW/wJlJLVPlVbX67qVq97sAfebAW2X1ZKSyWN08D35Rukt066/wr14lnPjS3bWdv8C1nBf9Aht2bs0KZW5kc3RyZWFtCmVuZG9iagoxNiAwIG9iagogICAyNzgKZW5kb2JqCjE3IDAgb2JqCjw8IC9UeXBlIC9YUmVmCiAgIC9MZW5ndGggNzIKICAgL0ZpbHRlciAvRmxhdGVEZWNvZGUKICAgL1NpemUgMTgKICAgL1cgWzEgMiAyXQogICAvUm9vdCAxNSAwIFIKICAgL0luZm8gMTQgMCBSCj4+CnN0cmVhbQp4nGNgYPj/n4mBl4EBRDAxMixmYGBk4AcRfSAxDiBLdDmQkGgBEozsIG4/iJsLJCRBXElZiF5GEMHMKLUCKCa1n4EBAJM2CBEKZW5kc3RyZWFtCmVuZG9iagpzdGFydHhyZWYKNjg0NwolJUVPRgoxOCAwIG9iag0KPDwvU2l6ZSAxOSAvUm9vdCAxNSAwIFIgL1ByZXYgNjg0NyAvVHlwZSAvWFJlZiAvSW5kZXggWzAgMSAxNCAxIDE4IDEgXSAvVyBbMSA0IDIgXSAvTGVuZ3RoIDIxID4+IHN0cmVhbQ0KAAAAAAH//wAAAAAPAAIBAAAbsAAADQplbmRzdHJlYW0NCg0KZW5kb2JqDQpzdGFydHhyZWYNCjcwODgNCiUlRU9GDQo=')),
+        'be7bb1606e843d0d07e04d2c66e23494b1224a4c951af64d4e89215b2bd4eb3c'),
        ('attachment4', 'image.png', 'image/png', '2025-08-05 10:00:00', '4972e098-21b8-4fda-9a0b-4d1b1377f7e4',
-        'dGVzdA==');
+        '2b200a668f372eb923099cbdb250d0aa340de0163088de1e23482b1a4c50ae9b');
 
 -- 25 SNAIL_MAIL, 5 DIGITAL_MAIL, 5 SMS
 INSERT INTO recipient (id, party_id, first_name, last_name, message_id, type, status, created, phone_number, address,
@@ -299,3 +308,11 @@ VALUES ('7c9e6679-7425-40de-944b-e07fc1f90ae7', 'b2cd4957-228f-46f0-a263-d4eae2e
 INSERT INTO signing (id, message_id, provider_case_id, provider, status, created)
 VALUES ('a1b2c3d4-0000-4000-8000-000000000001', '1decdead-52b8-42d9-aa62-5ef08c4a701e',
         'comfact-case-1', 'comfact', 'PENDING', '2025-09-07 12:05:00');
+
+-- Delivery progress counters of the snail-mail message above (used by MessageProgressRepository)
+INSERT INTO message_progress (message_id, pending, sent, delivered, failed, undeliverable)
+VALUES ('ab4cdf50-b854-48f8-a061-1e89f9792c9a', 0, 2, 0, 1, 0);
+
+-- A completed CSV job of the message above (used by CsvJobRepository)
+INSERT INTO csv_job (id, message_id, phase, processed, total, detail, created)
+VALUES ('5a1c4c5e-9e8a-4b7f-bd2a-6f3f1f0c2d11', 'ab4cdf50-b854-48f8-a061-1e89f9792c9a', 'COMPLETED', 3, 3, NULL, '2025-09-05 10:00:00');
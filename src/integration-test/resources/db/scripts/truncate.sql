@@ -2,7 +2,10 @@ SET FOREIGN_KEY_CHECKS = 0;
 TRUNCATE TABLE signing;
 TRUNCATE TABLE message;
 TRUNCATE TABLE recipient;
+TRUNCATE TABLE message_progress;
+TRUNCATE TABLE csv_job;
 TRUNCATE TABLE attachment;
+TRUNCATE TABLE attachment_content;
 TRUNCATE TABLE user;
 TRUNCATE TABLE department;
 SET FOREIGN_KEY_CHECKS = 1;
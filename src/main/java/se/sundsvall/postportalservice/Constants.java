@@ -15,4 +15,12 @@ public final class Constants {
 	// E-signing recipient (signatory) and case status. SIGNED is terminal for signing cases.
 	public static final String SIGNED = "SIGNED";
 	public static final String DECLINED = "DECLINED";
+
+	// Delivery outbox state of a recipient. A recipient that is not (or no longer) waiting for delivery has no state.
+	public static final String QUEUED = "QUEUED";
+	public static final String CLAIMED = "CLAIMED";
+
+	// Snail-mail batch status of a message. A message whose batch has not (yet) been triggered has no status.
+	public static final String TRIGGERING = "TRIGGERING";
+	public static final String TRIGGERED = "TRIGGERED";
 }
@@ -6,7 +6,9 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.ServletServerHttpRequest;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -20,7 +22,6 @@ import se.sundsvall.postportalservice.service.AttachmentService;
 
 import static org.springframework.http.MediaType.ALL_VALUE;
 import static org.springframework.http.MediaType.APPLICATION_PROBLEM_JSON_VALUE;
-import static org.springframework.http.ResponseEntity.ok;
 
 @Validated
 @RestController
@@ -39,17 +40,16 @@ class AttachmentResource {
 		this.attachmentService = attachmentService;
 	}
 
-	@Operation(summary = "Downloads letter attachment content", description = "Retrieves attachment content by id", responses = {
+	@Operation(summary = "Downloads letter attachment content", description = "Retrieves attachment content by id. Supports conditional requests and single byte ranges", responses = {
 		@ApiResponse(responseCode = "200", description = "Successful Operation - OK", content = @Content(mediaType = ALL_VALUE, schema = @Schema(type = "string", format = "binary"))),
+		@ApiResponse(responseCode = "206", description = "Partial Content", content = @Content(mediaType = ALL_VALUE, schema = @Schema(type = "string", format = "binary"))),
+		@ApiResponse(responseCode = "304", description = "Not Modified"),
+		@ApiResponse(responseCode = "416", description = "Range Not Satisfiable"),
 		@ApiResponse(responseCode = "404", description = "Not Found", content = @Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = Problem.class)))
 	})
 	@GetMapping(value = "/{attachmentId}", produces = ALL_VALUE)
-	ResponseEntity<StreamingResponseBody> downloadAttachment(@PathVariable @ValidMunicipalityId final String municipalityId, @PathVariable @ValidUuid final String attachmentId) {
-		var attachmentData = attachmentService.getAttachmentData(municipalityId, attachmentId);
-
-		return ok()
-			.headers(headers -> headers.setContentDisposition(attachmentData.contentDisposition()))
-			.contentType(attachmentData.contentType())
-			.body(attachmentData.contentStream());
+	ResponseEntity<StreamingResponseBody> downloadAttachment(@PathVariable @ValidMunicipalityId final String municipalityId, @PathVariable @ValidUuid final String attachmentId,
+		final HttpServletRequest request) {
+		return attachmentService.downloadAttachment(municipalityId, attachmentId, new ServletServerHttpRequest(request).getHeaders());
 	}
 }
@@ -0,0 +1,30 @@
+package se.sundsvall.postportalservice.api;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.postportalservice.service.DeliveryBacklogFullException;
+
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+import static org.springframework.http.MediaType.APPLICATION_PROBLEM_JSON;
+
+/**
+ * Answers a message rejected by admission control with 503 and the estimated delay, in seconds, in
+ * {@code Retry-After}. Ordered ahead of the default problem handling, which has no way to set response headers.
+ */
+@RestControllerAdvice
+@Order(Ordered.HIGHEST_PRECEDENCE)
+class DeliveryBacklogExceptionHandler {
+
+	@ExceptionHandler(DeliveryBacklogFullException.class)
+	ResponseEntity<Problem> handleDeliveryBacklogFull(final DeliveryBacklogFullException exception) {
+		return ResponseEntity.status(SERVICE_UNAVAILABLE)
+			.header(RETRY_AFTER, String.valueOf(exception.getRetryAfter().toSeconds()))
+			.contentType(APPLICATION_PROBLEM_JSON)
+			.body(Problem.valueOf(SERVICE_UNAVAILABLE, exception.getMessage()));
+	}
+}
@@ -7,12 +7,12 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import jakarta.validation.Valid;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import se.sundsvall.dept44.common.validators.annotation.ValidMunicipalityId;
@@ -37,20 +37,27 @@ import static org.springframework.http.ResponseEntity.ok;
 class ESigningEventResource {
 
 	private final SigningEventService signingEventService;
+	private final SigningEventReader signingEventReader;
 
-	ESigningEventResource(final SigningEventService signingEventService) {
+	ESigningEventResource(final SigningEventService signingEventService, final SigningEventReader signingEventReader) {
 		this.signingEventService = signingEventService;
+		this.signingEventReader = signingEventReader;
 	}
 
 	@Operation(summary = "Receive a signing event and update the signing case identified by the message id", responses = {
 		@ApiResponse(responseCode = "200", description = "OK", useReturnTypeSchema = true)
 	})
+	@io.swagger.v3.oas.annotations.parameters.RequestBody(required = true, content = @Content(mediaType = APPLICATION_JSON_VALUE, schema = @Schema(implementation = SigningEvent.class)))
 	@PostMapping(value = "/events/{messageId}", consumes = APPLICATION_JSON_VALUE)
 	ResponseEntity<Void> receiveSigningEvent(
 		@Parameter(name = "municipalityId", description = "Municipality ID", example = "2281") @ValidMunicipalityId @PathVariable final String municipalityId,
 		@Parameter(name = "messageId", description = "The Postportalen message id the signing case belongs to", example = "550e8400-e29b-41d4-a716-446655440000") @ValidUuid @PathVariable final String messageId,
-		@Valid @RequestBody final SigningEvent event) {
-		signingEventService.handleSigningEvent(municipalityId, messageId, event);
+		final HttpServletRequest request) throws IOException {
+		// The body is read with the streaming parser, so that a signed document is never held in memory
+		final var receivedEvent = signingEventReader.read(request.getInputStream());
+		try (var signedDocumentContent = receivedEvent.signedDocumentContent()) {
+			signingEventService.handleSigningEvent(municipalityId, messageId, receivedEvent.event(), signedDocumentContent);
+		}
 		return ok().build();
 	}
 }
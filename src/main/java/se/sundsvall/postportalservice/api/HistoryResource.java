@@ -7,8 +7,10 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.ServletServerHttpRequest;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -19,6 +21,7 @@ import se.sundsvall.dept44.common.validators.annotation.ValidMunicipalityId;
 import se.sundsvall.dept44.common.validators.annotation.ValidUuid;
 import se.sundsvall.dept44.problem.Problem;
 import se.sundsvall.postportalservice.api.model.MessageDetails;
+import se.sundsvall.postportalservice.api.model.MessageProgress;
 import se.sundsvall.postportalservice.api.model.Messages;
 import se.sundsvall.postportalservice.api.model.SigningInformation;
 import se.sundsvall.postportalservice.service.HistoryService;
@@ -70,6 +73,17 @@ class HistoryResource {
 		return ok(historyService.getMessageDetails(municipalityId, username, messageId));
 	}
 
+	@GetMapping(value = "/messages/{messageId}/progress", produces = APPLICATION_JSON_VALUE)
+	@Operation(summary = "Get delivery progress of a message", description = "Returns the number of recipients per delivery outcome, without loading the recipients", responses = {
+		@ApiResponse(responseCode = "200", description = "Successful Operation - OK", useReturnTypeSchema = true),
+		@ApiResponse(responseCode = "404", description = "Not Found", content = @Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = Problem.class)))
+	})
+	ResponseEntity<MessageProgress> getMessageProgress(
+		@Parameter(name = "municipalityId", description = "Municipality ID", example = "2281") @ValidMunicipalityId @PathVariable final String municipalityId,
+		@Parameter(name = "messageId", description = "Message ID", example = "9ce333ec-a473-438b-8406-a71e957dc107") @PathVariable @ValidUuid final String messageId) {
+		return ok(historyService.getMessageProgress(municipalityId, messageId));
+	}
+
 	@GetMapping(value = "/messages/{messageId}/signinginfo", produces = APPLICATION_JSON_VALUE)
 	@Operation(summary = "Get signing information", description = "Retrieves signing information connected to letter matching provided id", responses = {
 		@ApiResponse(responseCode = "200", description = "Successful Operation - OK", useReturnTypeSchema = true),
@@ -94,15 +108,19 @@ class HistoryResource {
 	}
 
 	@GetMapping(value = "/messages/{messageId}/signed-document", produces = ALL_VALUE)
-	@Operation(summary = "Download the signed document for an e-signing message", description = "Streams the signed (merged) PDF produced once the e-signing case has completed", responses = {
+	@Operation(summary = "Download the signed document for an e-signing message", description = "Streams the signed (merged) PDF produced once the e-signing case has completed. Supports conditional requests and single byte ranges", responses = {
 		@ApiResponse(responseCode = "200", description = "Successful Operation - OK", content = @Content(mediaType = ALL_VALUE, schema = @Schema(type = "string", format = "binary"))),
+		@ApiResponse(responseCode = "206", description = "Partial Content", content = @Content(mediaType = ALL_VALUE, schema = @Schema(type = "string", format = "binary"))),
+		@ApiResponse(responseCode = "304", description = "Not Modified"),
+		@ApiResponse(responseCode = "416", description = "Range Not Satisfiable"),
 		@ApiResponse(responseCode = "404", description = "Not Found", content = @Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = Problem.class)))
 	})
 	ResponseEntity<StreamingResponseBody> downloadSignedDocument(
 		@Parameter(name = "municipalityId", description = "Municipality ID", example = "2281") @ValidMunicipalityId @PathVariable final String municipalityId,
-		@Parameter(name = "messageId", description = "Message ID", example = "9ce333ec-a473-438b-8406-a71e957dc107") @PathVariable @ValidUuid final String messageId) {
+		@Parameter(name = "messageId", description = "Message ID", example = "9ce333ec-a473-438b-8406-a71e957dc107") @PathVariable @ValidUuid final String messageId,
+		final HttpServletRequest request) {
 
-		return historyService.getSignedDocument(municipalityId, messageId);
+		return historyService.getSignedDocument(municipalityId, messageId, new ServletServerHttpRequest(request).getHeaders());
 	}
 
 }
@@ -14,11 +14,13 @@ import java.util.List;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
@@ -26,6 +28,7 @@ import se.sundsvall.dept44.common.validators.annotation.ValidMunicipalityId;
 import se.sundsvall.dept44.common.validators.annotation.ValidUuid;
 import se.sundsvall.dept44.problem.Problem;
 import se.sundsvall.dept44.support.Identifier;
+import se.sundsvall.postportalservice.api.model.CsvJobStatus;
 import se.sundsvall.postportalservice.api.model.DigitalRegisteredLetterRequest;
 import se.sundsvall.postportalservice.api.model.ESigningRequest;
 import se.sundsvall.postportalservice.api.model.LetterCsvRequest;
@@ -36,14 +39,18 @@ import se.sundsvall.postportalservice.api.validation.NoDuplicateFileNames;
 import se.sundsvall.postportalservice.api.validation.ValidCsv;
 import se.sundsvall.postportalservice.api.validation.ValidIdentifier;
 import se.sundsvall.postportalservice.api.validation.ValidPdf;
+import se.sundsvall.postportalservice.service.CsvJobService;
 import se.sundsvall.postportalservice.service.MessageService;
 
 import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
 import static org.springframework.http.MediaType.ALL_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 import static org.springframework.http.MediaType.APPLICATION_PROBLEM_JSON_VALUE;
 import static org.springframework.http.MediaType.MULTIPART_FORM_DATA_VALUE;
+import static org.springframework.http.ResponseEntity.accepted;
 import static org.springframework.http.ResponseEntity.created;
 import static org.springframework.http.ResponseEntity.noContent;
+import static org.springframework.http.ResponseEntity.ok;
 import static org.springframework.web.util.UriComponentsBuilder.fromPath;
 
 @Validated
@@ -58,14 +65,18 @@ import static org.springframework.web.util.UriComponentsBuilder.fromPath;
 class MessageResource {
 
 	private static final String MESSAGE_HISTORY_PATH = "/{municipalityId}/history/users/{userId}/messages/{messageId}"; // NOSONAR
+	private static final String CSV_JOB_PATH = "/{municipalityId}/messages/jobs/{jobId}"; // NOSONAR
 	private final MessageService messageService;
+	private final CsvJobService csvJobService;
 
-	MessageResource(final MessageService messageService) {
+	MessageResource(final MessageService messageService, final CsvJobService csvJobService) {
 		this.messageService = messageService;
+		this.csvJobService = csvJobService;
 	}
 
 	@Operation(summary = "Send a message by either digital mail or as a physical letter. Digital mail is always preferred if possible.", responses = {
-		@ApiResponse(responseCode = "200", description = "OK", useReturnTypeSchema = true)
+		@ApiResponse(responseCode = "200", description = "OK", useReturnTypeSchema = true),
+		@ApiResponse(responseCode = "503", description = "Service Unavailable - too many recipients awaiting delivery, retry after the number of seconds in the Retry-After header", content = @Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = Problem.class)))
 	})
 	@PostMapping(value = "/letter", produces = ALL_VALUE, consumes = MULTIPART_FORM_DATA_VALUE)
 	ResponseEntity<Void> sendLetter(
@@ -83,18 +94,30 @@ class MessageResource {
 			.build();
 	}
 
-	@Operation(summary = "Send a message by either digital mail or as a physical letter. Digital mail is always preferred if possible.", responses = {
-		@ApiResponse(responseCode = "200", description = "OK", useReturnTypeSchema = true)
+	@Operation(summary = "Send a message by either digital mail or as a physical letter. Digital mail is always preferred if possible.", description = "With async the recipients are resolved in the background, and the location of the job status is returned as soon as the message is persisted", responses = {
+		@ApiResponse(responseCode = "200", description = "OK", useReturnTypeSchema = true),
+		@ApiResponse(responseCode = "202", description = "Accepted - the recipients are resolved in the background, see the job status at the location", useReturnTypeSchema = true),
+		@ApiResponse(responseCode = "503", description = "Service Unavailable - too many recipients awaiting delivery, retry after the number of seconds in the Retry-After header", content = @Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = Problem.class)))
 	})
 	@PostMapping(value = "/letter/csv", produces = ALL_VALUE, consumes = MULTIPART_FORM_DATA_VALUE)
 	ResponseEntity<Void> sendLetterCSV(
 		@RequestHeader(value = Identifier.HEADER_NAME) @ValidIdentifier final String xSentBy,
 		@Parameter(name = "municipalityId", description = "Municipality ID", example = "2281") @ValidMunicipalityId @PathVariable final String municipalityId,
+		@Parameter(name = "async", description = "Resolve the recipients in the background", example = "true") @RequestParam(name = "async", defaultValue = "false") final boolean async,
 		@RequestPart(name = "request") @Valid final LetterCsvRequest request,
 		@RequestPart(name = "csv-file") @ValidCsv final MultipartFile csvFile,
 		@RequestPart(name = "attachments", required = false) @NotEmpty @NoDuplicateFileNames final List<MultipartFile> attachments) {
 		Identifier.set(Identifier.parse(xSentBy));
 
+		if (async) {
+			final var jobId = csvJobService.submitLetterJob(municipalityId, request, csvFile, attachments);
+
+			return accepted()
+				.location(fromPath(CSV_JOB_PATH).buildAndExpand(municipalityId, jobId).toUri())
+				.header(CONTENT_TYPE, ALL_VALUE)
+				.build();
+		}
+
 		final var messageId = messageService.processCsvLetterRequest(municipalityId, request, csvFile, attachments);
 
 		return created(fromPath(MESSAGE_HISTORY_PATH)
@@ -103,6 +126,18 @@ class MessageResource {
 			.build();
 	}
 
+	@Operation(summary = "Get the status of a CSV send made in asynchronous mode", description = "Returns the phase of the job and how many CSV entries it has processed", responses = {
+		@ApiResponse(responseCode = "200", description = "OK", useReturnTypeSchema = true),
+		@ApiResponse(responseCode = "404", description = "Not Found", content = @Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = Problem.class)))
+	})
+	@GetMapping(value = "/jobs/{jobId}", produces = APPLICATION_JSON_VALUE)
+	ResponseEntity<CsvJobStatus> getCsvJobStatus(
+		@Parameter(name = "municipalityId", description = "Municipality ID", example = "2281") @ValidMunicipalityId @PathVariable final String municipalityId,
+		@Parameter(name = "jobId", description = "Job ID", example = "5a1c4c5e-9e8a-4b7f-bd2a-6f3f1f0c2d11") @PathVariable @ValidUuid final String jobId) {
+
+		return ok(csvJobService.getJobStatus(municipalityId, jobId));
+	}
+
 	@Operation(summary = "Send a digital registered letter.", responses = {
 		@ApiResponse(responseCode = "200", description = "OK", useReturnTypeSchema = true)
 	})
@@ -157,7 +192,8 @@ class MessageResource {
 	}
 
 	@Operation(summary = "Send an SMS", responses = {
-		@ApiResponse(responseCode = "200", description = "OK", useReturnTypeSchema = true)
+		@ApiResponse(responseCode = "200", description = "OK", useReturnTypeSchema = true),
+		@ApiResponse(responseCode = "503", description = "Service Unavailable - too many recipients awaiting delivery, retry after the number of seconds in the Retry-After header", content = @Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = Problem.class)))
 	})
 	@PostMapping(value = "/sms", produces = ALL_VALUE)
 	ResponseEntity<Void> sendSms(
@@ -175,7 +211,8 @@ class MessageResource {
 	}
 
 	@Operation(summary = "Send SMS to recipients from a CSV file", responses = {
-		@ApiResponse(responseCode = "200", description = "OK", useReturnTypeSchema = true)
+		@ApiResponse(responseCode = "200", description = "OK", useReturnTypeSchema = true),
+		@ApiResponse(responseCode = "503", description = "Service Unavailable - too many recipients awaiting delivery, retry after the number of seconds in the Retry-After header", content = @Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = Problem.class)))
 	})
 	@PostMapping(value = "/sms/csv", produces = ALL_VALUE, consumes = MULTIPART_FORM_DATA_VALUE)
 	ResponseEntity<Void> sendSmsCsv(
@@ -0,0 +1,129 @@
+package se.sundsvall.postportalservice.api;
+
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import org.springframework.stereotype.Component;
+import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.postportalservice.api.model.SignedDocument;
+import se.sundsvall.postportalservice.api.model.SigningEvent;
+import se.sundsvall.postportalservice.service.util.SpooledContent;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.node.ObjectNode;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static tools.jackson.core.JsonToken.PROPERTY_NAME;
+import static tools.jackson.core.JsonToken.START_OBJECT;
+import static tools.jackson.core.JsonToken.VALUE_STRING;
+
+/**
+ * Reads a {@link SigningEvent} from a request body with the streaming parser, so that the content of a signed document
+ * - which may be large - is never held in memory. The Base64 content is decoded as it is read and spooled to a
+ * temporary file, from which it is hashed and stored. All other properties are bound and validated as usual.
+ */
+@Component
+class SigningEventReader {
+
+	private static final String SIGNED_DOCUMENT = "signedDocument";
+	private static final String CONTENT = "content";
+
+	private final JsonMapper jsonMapper;
+	private final Validator validator;
+
+	SigningEventReader(final JsonMapper jsonMapper, final Validator validator) {
+		this.jsonMapper = jsonMapper;
+		this.validator = validator;
+	}
+
+	/**
+	 * Reads and validates a signing event. The content of its signed document, if any, is returned separately and must be
+	 * closed by the caller.
+	 *
+	 * @param  body the request body
+	 * @return      the event, with the content of its signed document
+	 */
+	ReceivedSigningEvent read(final InputStream body) {
+		SpooledContent signedDocumentContent = null;
+		try (var parser = jsonMapper.createParser(body)) {
+			if (parser.nextToken() != START_OBJECT) {
+				throw Problem.valueOf(BAD_REQUEST, "Could not read signing event: expected a JSON object");
+			}
+
+			final var eventNode = jsonMapper.createObjectNode();
+			ObjectNode documentNode = null;
+			while (parser.nextToken() == PROPERTY_NAME) {
+				final var name = parser.currentName();
+				if (parser.nextToken() == START_OBJECT && SIGNED_DOCUMENT.equals(name)) {
+					documentNode = jsonMapper.createObjectNode();
+					while (parser.nextToken() == PROPERTY_NAME) {
+						final var documentPropertyName = parser.currentName();
+						if (CONTENT.equals(documentPropertyName) && parser.nextToken() == VALUE_STRING) {
+							close(signedDocumentContent);
+							signedDocumentContent = spool(parser);
+						} else {
+							if (parser.currentToken() == PROPERTY_NAME) {
+								parser.nextToken();
+							}
+							documentNode.set(documentPropertyName, jsonMapper.readTree(parser));
+						}
+					}
+				} else {
+					eventNode.set(name, jsonMapper.readTree(parser));
+				}
+			}
+
+			final var event = jsonMapper.treeToValue(eventNode, SigningEvent.class);
+			// The content of the signed document is not bound, so the document is attached once the event is validated
+			final var violations = validator.validate(event);
+			if (!violations.isEmpty()) {
+				throw new ConstraintViolationException(violations);
+			}
+			if (documentNode != null) {
+				if (signedDocumentContent == null) {
+					throw Problem.valueOf(BAD_REQUEST, "Could not read signing event: signedDocument.content must not be blank");
+				}
+				event.setSignedDocument(jsonMapper.treeToValue(documentNode, SignedDocument.class));
+			}
+			return new ReceivedSigningEvent(event, signedDocumentContent);
+		} catch (final JacksonException e) {
+			close(signedDocumentContent);
+			throw Problem.valueOf(BAD_REQUEST, "Could not read signing event: " + e.getOriginalMessage());
+		} catch (final RuntimeException e) {
+			close(signedDocumentContent);
+			throw e;
+		}
+	}
+
+	/**
+	 * Decodes the Base64 string the parser is at as it is read. Empty content is treated as no content.
+	 */
+	private static SpooledContent spool(final JsonParser parser) {
+		final SpooledContent content;
+		try {
+			content = SpooledContent.spool(parser::readBinaryValue);
+		} catch (final IOException e) {
+			throw Problem.valueOf(INTERNAL_SERVER_ERROR, "Could not spool signed document content: " + e.getMessage());
+		}
+		if (content.getLength() == 0) {
+			content.close();
+			return null;
+		}
+		return content;
+	}
+
+	private static void close(final SpooledContent content) {
+		if (content != null) {
+			content.close();
+		}
+	}
+
+	/**
+	 * A signing event as received, with the decoded content of its signed document ({@code null} if there is none).
+	 */
+	record ReceivedSigningEvent(SigningEvent event, SpooledContent signedDocumentContent) {
+	}
+}
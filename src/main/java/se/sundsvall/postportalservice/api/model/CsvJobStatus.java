@@ -0,0 +1,135 @@
+package se.sundsvall.postportalservice.api.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.Objects;
+
+@Schema(description = "Status of a CSV send made in asynchronous mode, i.e. of resolving its recipients and starting delivery")
+public class CsvJobStatus {
+
+	@Schema(description = "Job id", examples = "5a1c4c5e-9e8a-4b7f-bd2a-6f3f1f0c2d11")
+	private String jobId;
+
+	@Schema(description = "Id of the message the job sends", examples = "9ce333ec-a473-438b-8406-a71e957dc107")
+	private String messageId;
+
+	@Schema(description = "The phase the job is in", examples = "RESOLVING", allowableValues = {
+		"QUEUED", "RESOLVING", "ENQUEUING", "COMPLETED", "FAILED"
+	})
+	private String phase;
+
+	@Schema(description = "Number of CSV entries whose recipients have been resolved", examples = "25000")
+	private Integer processed;
+
+	@Schema(description = "Total number of CSV entries", examples = "100000")
+	private Integer total;
+
+	@Schema(description = "Why the job failed, only present in phase FAILED", examples = "Bad Gateway: party error")
+	private String detail;
+
+	public static CsvJobStatus create() {
+		return new CsvJobStatus();
+	}
+
+	public String getJobId() {
+		return jobId;
+	}
+
+	public CsvJobStatus withJobId(String jobId) {
+		this.jobId = jobId;
+		return this;
+	}
+
+	public void setJobId(String jobId) {
+		this.jobId = jobId;
+	}
+
+	public String getMessageId() {
+		return messageId;
+	}
+
+	public CsvJobStatus withMessageId(String messageId) {
+		this.messageId = messageId;
+		return this;
+	}
+
+	public void setMessageId(String messageId) {
+		this.messageId = messageId;
+	}
+
+	public String getPhase() {
+		return phase;
+	}
+
+	public CsvJobStatus withPhase(String phase) {
+		this.phase = phase;
+		return this;
+	}
+
+	public void setPhase(String phase) {
+		this.phase = phase;
+	}
+
+	public Integer getProcessed() {
+		return processed;
+	}
+
+	public CsvJobStatus withProcessed(Integer processed) {
+		this.processed = processed;
+		return this;
+	}
+
+	public void setProcessed(Integer processed) {
+		this.processed = processed;
+	}
+
+	public Integer getTotal() {
+		return total;
+	}
+
+	public CsvJobStatus withTotal(Integer total) {
+		this.total = total;
+		return this;
+	}
+
+	public void setTotal(Integer total) {
+		this.total = total;
+	}
+
+	public String getDetail() {
+		return detail;
+	}
+
+	public CsvJobStatus withDetail(String detail) {
+		this.detail = detail;
+		return this;
+	}
+
+	public void setDetail(String detail) {
+		this.detail = detail;
+	}
+
+	@Override
+	public String toString() {
+		return "CsvJobStatus{" +
+			"jobId='" + jobId + '\'' +
+			", messageId='" + messageId + '\'' +
+			", phase='" + phase + '\'' +
+			", processed=" + processed +
+			", total=" + total +
+			", detail='" + detail + '\'' +
+			'}';
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (o == null || getClass() != o.getClass())
+			return false;
+		CsvJobStatus that = (CsvJobStatus) o;
+		return Objects.equals(jobId, that.jobId) && Objects.equals(messageId, that.messageId) && Objects.equals(phase, that.phase) && Objects.equals(processed, that.processed) && Objects.equals(total, that.total) && Objects.equals(detail, that.detail);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(jobId, messageId, phase, processed, total, detail);
+	}
+}
@@ -0,0 +1,150 @@
+package se.sundsvall.postportalservice.api.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.Objects;
+
+@Schema(description = "Delivery progress of a message, as the number of recipients per delivery outcome")
+public class MessageProgress {
+
+	@Schema(description = "Message id", examples = "9ce333ec-a473-438b-8406-a71e957dc107")
+	private String messageId;
+
+	@Schema(description = "Total number of recipients", examples = "100000")
+	private Integer total;
+
+	@Schema(description = "Number of recipients awaiting delivery", examples = "41200")
+	private Integer pending;
+
+	@Schema(description = "Number of recipients the message has been sent to", examples = "55000")
+	private Integer sent;
+
+	@Schema(description = "Number of recipients the message has been confirmed delivered to", examples = "0")
+	private Integer delivered;
+
+	@Schema(description = "Number of recipients the delivery failed for", examples = "800")
+	private Integer failed;
+
+	@Schema(description = "Number of recipients the message could not be delivered to, e.g. for lack of an address", examples = "3000")
+	private Integer undeliverable;
+
+	public static MessageProgress create() {
+		return new MessageProgress();
+	}
+
+	public String getMessageId() {
+		return messageId;
+	}
+
+	public MessageProgress withMessageId(String messageId) {
+		this.messageId = messageId;
+		return this;
+	}
+
+	public void setMessageId(String messageId) {
+		this.messageId = messageId;
+	}
+
+	public Integer getTotal() {
+		return total;
+	}
+
+	public MessageProgress withTotal(Integer total) {
+		this.total = total;
+		return this;
+	}
+
+	public void setTotal(Integer total) {
+		this.total = total;
+	}
+
+	public Integer getPending() {
+		return pending;
+	}
+
+	public MessageProgress withPending(Integer pending) {
+		this.pending = pending;
+		return this;
+	}
+
+	public void setPending(Integer pending) {
+		this.pending = pending;
+	}
+
+	public Integer getSent() {
+		return sent;
+	}
+
+	public MessageProgress withSent(Integer sent) {
+		this.sent = sent;
+		return this;
+	}
+
+	public void setSent(Integer sent) {
+		this.sent = sent;
+	}
+
+	public Integer getDelivered() {
+		return delivered;
+	}
+
+	public MessageProgress withDelivered(Integer delivered) {
+		this.delivered = delivered;
+		return this;
+	}
+
+	public void setDelivered(Integer delivered) {
+		this.delivered = delivered;
+	}
+
+	public Integer getFailed() {
+		return failed;
+	}
+
+	public MessageProgress withFailed(Integer failed) {
+		this.failed = failed;
+		return this;
+	}
+
+	public void setFailed(Integer failed) {
+		this.failed = failed;
+	}
+
+	public Integer getUndeliverable() {
+		return undeliverable;
+	}
+
+	public MessageProgress withUndeliverable(Integer undeliverable) {
+		this.undeliverable = undeliverable;
+		return this;
+	}
+
+	public void setUndeliverable(Integer undeliverable) {
+		this.undeliverable = undeliverable;
+	}
+
+	@Override
+	public String toString() {
+		return "MessageProgress{" +
+			"messageId='" + messageId + '\'' +
+			", total=" + total +
+			", pending=" + pending +
+			", sent=" + sent +
+			", delivered=" + delivered +
+			", failed=" + failed +
+			", undeliverable=" + undeliverable +
+			'}';
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (o == null || getClass() != o.getClass())
+			return false;
+		MessageProgress that = (MessageProgress) o;
+		return Objects.equals(messageId, that.messageId) && Objects.equals(total, that.total) && Objects.equals(pending, that.pending) && Objects.equals(sent, that.sent) && Objects.equals(delivered, that.delivered) && Objects.equals(failed, that.failed) && Objects.equals(undeliverable, that.undeliverable);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(messageId, total, pending, sent, delivered, failed, undeliverable);
+	}
+}
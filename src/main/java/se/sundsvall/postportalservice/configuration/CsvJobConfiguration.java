@@ -0,0 +1,57 @@
+package se.sundsvall.postportalservice.configuration;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Defines the executor that runs CSV jobs, i.e. resolves the recipients of CSV sends made in asynchronous mode. The
+ * jobs run on their own small pool, separate from the delivery executor, so a large file being resolved never holds
+ * threads needed for delivery and vice versa.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(CsvJobConfiguration.CsvJobProperties.class)
+public class CsvJobConfiguration {
+
+	public static final String CSV_JOB_EXECUTOR = "csvJobExecutor";
+
+	@Bean(name = CSV_JOB_EXECUTOR, destroyMethod = "shutdown")
+	ThreadPoolTaskExecutor csvJobExecutor(final CsvJobProperties properties, final MdcTaskDecorator mdcTaskDecorator) {
+		final var executor = new ThreadPoolTaskExecutor();
+
+		executor.setCorePoolSize(properties.concurrency());
+		executor.setMaxPoolSize(properties.concurrency());
+		// Jobs are only claimed while fewer than concurrency are running; the queue only covers a thread that is just
+		// finishing its previous job
+		executor.setQueueCapacity(properties.concurrency());
+
+		executor.setThreadNamePrefix("csv-job-");
+		executor.setTaskDecorator(mdcTaskDecorator);
+
+		// A job interrupted by shutdown is claimed again, by any instance, once its lease has expired
+		executor.setWaitForTasksToCompleteOnShutdown(false);
+
+		executor.initialize();
+		return executor;
+	}
+
+	/**
+	 * Configuration for CSV jobs. At most {@code concurrency} jobs run at a time per instance, and a worker looks for new
+	 * jobs every {@code pollInterval}. The recipients of a job are resolved {@code chunkSize} CSV entries at a time, and
+	 * its progress is recorded after each chunk. {@code lease} must exceed the worst-case time it takes to resolve one
+	 * chunk, otherwise a slow job may be claimed, and started over, by another worker.
+	 */
+	@ConfigurationProperties("csv-job")
+	public record CsvJobProperties(
+		@DefaultValue("2") int concurrency,
+		@DefaultValue("500") int chunkSize,
+		@DefaultValue("PT10M") Duration lease,
+		@DefaultValue("PT1S") Duration pollInterval) {
+	}
+}
@@ -1,26 +1,46 @@
 package se.sundsvall.postportalservice.configuration;
 
 import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.context.properties.bind.DefaultValue;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import se.sundsvall.postportalservice.integration.db.converter.MessageType;
+import se.sundsvall.postportalservice.service.DeliveryLane;
+import se.sundsvall.postportalservice.service.DeliveryOperation;
 
 /**
- * Defines the thread pool used to fan out deliveries to the messaging service. The pool size is the concurrency limit -
- * the blocking messaging call runs on the pool thread, so the limit governs the resource that actually blocks.
+ * Defines the executor used to fan out deliveries to the messaging service. By default this is a fixed platform thread
+ * pool whose size is the concurrency limit - the blocking messaging call runs on the pool thread, so the limit governs
+ * the resource that actually blocks. With {@code delivery.executor.virtual-threads} enabled every delivery runs on its
+ * own virtual thread instead, and concurrency is governed solely by the per-channel and per-operation limits in
+ * {@link DeliveryConcurrencyProperties}, so a slow channel no longer holds threads another channel needs.
  */
 @Configuration
-@EnableConfigurationProperties(DeliveryExecutorConfiguration.DeliveryExecutorProperties.class)
+@EnableConfigurationProperties({
+	DeliveryExecutorConfiguration.DeliveryExecutorProperties.class,
+	DeliveryExecutorConfiguration.DeliveryConcurrencyProperties.class,
+	DeliveryExecutorConfiguration.DeliveryBatchProperties.class,
+	DeliveryExecutorConfiguration.DeliverySchedulingProperties.class,
+	DeliveryExecutorConfiguration.DeliveryAdmissionProperties.class,
+	DeliveryExecutorConfiguration.DeliveryStatusWriterProperties.class
+})
 public class DeliveryExecutorConfiguration {
 
 	public static final String DELIVERY_EXECUTOR = "letterDeliveryExecutor";
 
+	private static final String THREAD_NAME_PREFIX = "letter-delivery-";
+
 	@Bean(name = DELIVERY_EXECUTOR, destroyMethod = "shutdown")
+	@ConditionalOnProperty(prefix = "delivery.executor", name = "virtual-threads", havingValue = "false", matchIfMissing = true)
 	ThreadPoolTaskExecutor letterDeliveryExecutor(final DeliveryExecutorProperties properties, final MdcTaskDecorator mdcTaskDecorator) {
 		final var executor = new ThreadPoolTaskExecutor();
 
@@ -28,7 +48,7 @@ public class DeliveryExecutorConfiguration {
 		executor.setMaxPoolSize(properties.poolSize());
 		executor.setQueueCapacity(Integer.MAX_VALUE);
 
-		executor.setThreadNamePrefix("letter-delivery-");
+		executor.setThreadNamePrefix(THREAD_NAME_PREFIX);
 		executor.setTaskDecorator(mdcTaskDecorator);
 
 		// Graceful shutdown, tries to handle in-flight messages before shutting down.
@@ -39,23 +59,177 @@ public class DeliveryExecutorConfiguration {
 		return executor;
 	}
 
+	/**
+	 * Runs each delivery on a new virtual thread. A delivery waiting for a concurrency permit or a messaging response
+	 * parks its virtual thread rather than occupying a platform thread.
+	 */
+	@Bean(name = DELIVERY_EXECUTOR, destroyMethod = "close")
+	@ConditionalOnProperty(prefix = "delivery.executor", name = "virtual-threads", havingValue = "true")
+	SimpleAsyncTaskExecutor virtualThreadLetterDeliveryExecutor(final DeliveryExecutorProperties properties, final MdcTaskDecorator mdcTaskDecorator) {
+		final var executor = new SimpleAsyncTaskExecutor(THREAD_NAME_PREFIX);
+
+		executor.setVirtualThreads(true);
+		executor.setTaskDecorator(mdcTaskDecorator);
+
+		// Graceful shutdown, waits for in-flight deliveries before shutting down.
+		executor.setTaskTerminationTimeout(properties.awaitTerminationSeconds() * 1000L);
+		return executor;
+	}
+
 	/**
 	 * Exposes the delivery pool as Micrometer metrics (queue depth, active threads, pool size, ...) under the
 	 * {@code letter.delivery} prefix, e.g. at {@code /actuator/metrics/executor.queued?tag=name:letter.delivery}.
 	 */
 	@Bean
+	@ConditionalOnProperty(prefix = "delivery.executor", name = "virtual-threads", havingValue = "false", matchIfMissing = true)
 	ExecutorServiceMetrics letterDeliveryExecutorMetrics(@Qualifier(DELIVERY_EXECUTOR) final ThreadPoolTaskExecutor letterDeliveryExecutor) {
 		return new ExecutorServiceMetrics(letterDeliveryExecutor.getThreadPoolExecutor(), "letter.delivery", List.of());
 	}
 
 	/**
-	 * Configuration for the delivery pool. {@code poolSize} is the concurrency limit towards messaging - the blocking
-	 * call runs on the pool thread. The work queue is unbounded: a recipient is never rejected, at the cost of growing
-	 * memory (and potentially OOM) under sustained overload.
+	 * Configuration for the delivery executor. {@code poolSize} is the concurrency limit towards messaging when running
+	 * on the platform thread pool - the blocking call runs on the pool thread. The work queue is unbounded: a recipient
+	 * is never rejected once accepted, so under sustained overload memory keeps growing (potentially to OOM) unless new
+	 * messages are turned away by {@link DeliveryAdmissionProperties admission control}.
+	 * {@code virtualThreads} replaces the pool with one virtual thread per delivery; {@code poolSize} is then unused.
 	 */
 	@ConfigurationProperties("delivery.executor")
 	public record DeliveryExecutorProperties(
 		@DefaultValue("8") int poolSize,
-		@DefaultValue("30") int awaitTerminationSeconds) {
+		@DefaultValue("30") int awaitTerminationSeconds,
+		@DefaultValue("false") boolean virtualThreads) {
+	}
+
+	/**
+	 * Concurrency limits towards the messaging service, applied to every delivery regardless of executor. A delivery
+	 * needs a permit for its channel ({@link MessageType}) as well as for the downstream operation it performs
+	 * ({@link DeliveryOperation}), e.g. a snail-mail recipient may be delivered as a callback email. Channels and
+	 * operations without a configured limit are unlimited, which is the default. The limits are meant for
+	 * {@code delivery.executor.virtual-threads}: on the platform pool a delivery waiting for a permit holds one of the pool
+	 * threads, so deliveries of other channels queue behind it. With {@code adaptive.enabled} every messaging call also needs a
+	 * slot within a shared limit that grows while messaging answers fast and shrinks on slow answers and server errors.
+	 */
+	@ConfigurationProperties("delivery.concurrency")
+	public record DeliveryConcurrencyProperties(
+		@DefaultValue Map<MessageType, Integer> channels,
+		@DefaultValue Map<DeliveryOperation, Integer> operations,
+		@DefaultValue Adaptive adaptive) {
+
+		/**
+		 * AIMD limit on concurrent messaging calls. The limit starts at {@code initialLimit}, grows by about one per window
+		 * of calls answered within {@code latencyThreshold} and is multiplied by {@code backoffRatio} on every slow call,
+		 * server error or timeout, always staying within {@code minLimit} and {@code maxLimit}.
+		 */
+		public record Adaptive(
+			@DefaultValue("false") boolean enabled,
+			@DefaultValue("8") int initialLimit,
+			@DefaultValue("1") int minLimit,
+			@DefaultValue("64") int maxLimit,
+			@DefaultValue("0.9") double backoffRatio,
+			@DefaultValue("PT5S") Duration latencyThreshold) {
+		}
+	}
+
+	/**
+	 * Batch delivery modes towards the messaging service. With {@code sms.enabled} the SMS recipients of a message are
+	 * sent in batches of at most {@code sms.size} parties per messaging call, instead of one call per recipient. The same
+	 * goes for {@code digital-mail}, where a batch also means the attachments are sent once per batch instead of once per
+	 * recipient.
+	 */
+	@ConfigurationProperties("delivery.batch")
+	public record DeliveryBatchProperties(
+		@DefaultValue Batch sms,
+		@DefaultValue Batch digitalMail) {
+
+		/**
+		 * Returns the batch settings of a channel. Channels without batch support are never batched.
+		 */
+		public Batch forChannel(final MessageType messageType) {
+			return switch (messageType) {
+				case SMS -> sms;
+				case DIGITAL_MAIL -> digitalMail;
+				case null, default -> Batch.DISABLED;
+			};
+		}
+
+		public record Batch(
+			@DefaultValue("false") boolean enabled,
+			@DefaultValue("500") int size) {
+
+			static final Batch DISABLED = new Batch(false, 1);
+		}
+	}
+
+	/**
+	 * Fair scheduling of deliveries across senders. With {@code enabled} deliveries are queued per municipality and
+	 * department and handed to the delivery executor in deficit round-robin order, at most {@code maxInFlight} at a time
+	 * - on the platform thread pool this should equal {@code delivery.executor.pool-size}, so that no work waits in the
+	 * executor's own FIFO queue. Each sender is granted {@code quantum} recipients per round, so a bulk send only gets
+	 * capacity that no other sender is waiting for. With {@code lanes.enabled} senders are further split into
+	 * {@link DeliveryLane priority lanes}.
+	 */
+	@ConfigurationProperties("delivery.scheduling")
+	public record DeliverySchedulingProperties(
+		@DefaultValue("false") boolean enabled,
+		@DefaultValue("8") int maxInFlight,
+		@DefaultValue("1") int quantum,
+		@DefaultValue Lanes lanes) {
+
+		/**
+		 * Priority lanes. A message sent through a CSV endpoint, or to more than {@code bulkThreshold} recipients, is
+		 * delivered in the bulk lane and any other message in the interactive lane. Interactive deliveries are always
+		 * released first, and {@code reservedInteractive} of the {@code maxInFlight} slots are never used by bulk
+		 * deliveries, so a single letter starts within seconds even while a mass mailing is draining. Without
+		 * {@code enabled} every message is delivered in the interactive lane.
+		 */
+		public record Lanes(
+			@DefaultValue("false") boolean enabled,
+			@DefaultValue("10") int bulkThreshold,
+			@DefaultValue("2") int reservedInteractive) {
+
+			/**
+			 * Returns the lane of a message.
+			 *
+			 * @param  bulkRequest whether the message was sent through a bulk (CSV) endpoint
+			 * @param  recipients  the number of recipients of the message
+			 * @return             the lane to deliver the message in
+			 */
+			public DeliveryLane laneOf(final boolean bulkRequest, final int recipients) {
+				return enabled && (bulkRequest || recipients > bulkThreshold) ? DeliveryLane.BULK : DeliveryLane.INTERACTIVE;
+			}
+		}
+
+		/**
+		 * Returns the number of in-flight slots the bulk lane may use, always at least one.
+		 */
+		public int bulkMaxInFlight() {
+			return lanes.enabled() ? Math.max(1, maxInFlight - lanes.reservedInteractive()) : maxInFlight;
+		}
+	}
+
+	/**
+	 * Admission control for new messages. With {@code enabled} a message whose recipients would push the recipients
+	 * awaiting delivery past {@code maxQueuedRecipients} is rejected with 503 and a {@code Retry-After} estimated from
+	 * the current delivery rate, clamped to {@code minRetryAfter} and {@code maxRetryAfter}. A message is always
+	 * accepted while nothing is awaiting delivery, however many recipients it has.
+	 */
+	@ConfigurationProperties("delivery.admission")
+	public record DeliveryAdmissionProperties(
+		@DefaultValue("false") boolean enabled,
+		@DefaultValue("50000") int maxQueuedRecipients,
+		@DefaultValue("PT1S") Duration minRetryAfter,
+		@DefaultValue("PT5M") Duration maxRetryAfter) {
+	}
+
+	/**
+	 * Write-behind of recipient statuses. With {@code enabled} the outcome of each delivery is collected in memory,
+	 * coalesced per recipient, and written as one JDBC batch once {@code batchSize} recipients are waiting or every
+	 * {@code flushInterval}, whichever comes first. Whatever is waiting is written on shutdown.
+	 */
+	@ConfigurationProperties("delivery.status-writer")
+	public record DeliveryStatusWriterProperties(
+		@DefaultValue("false") boolean enabled,
+		@DefaultValue("100") int batchSize,
+		@DefaultValue("PT1S") Duration flushInterval) {
 	}
 }
@@ -0,0 +1,70 @@
+package se.sundsvall.postportalservice.configuration;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Enables the database-backed delivery outbox. When enabled, recipients are queued in the database instead of being
+ * handed directly to the delivery pool, and a scheduled worker claims them in batches. Nothing is held in memory
+ * between the request and the delivery, so a restart or deploy never loses a recipient - a recipient that was claimed
+ * but not finished is claimed again once its lease has expired.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties({
+	DeliveryOutboxConfiguration.DeliveryOutboxProperties.class,
+	DeliveryOutboxConfiguration.DeliveryRetryProperties.class,
+	DeliveryOutboxConfiguration.DeliveryAttachmentCacheProperties.class
+})
+public class DeliveryOutboxConfiguration {
+
+	/**
+	 * Configuration for the delivery outbox. {@code maxInFlight} bounds the number of claimed recipients held in memory
+	 * (queued on or running in the delivery pool) and {@code batchSize} the number claimed per poll. {@code lease} must
+	 * exceed the worst-case time a recipient spends in memory - roughly {@code maxInFlight / poolSize} times the
+	 * messaging read timeout - otherwise a slow recipient may be claimed, and delivered, twice. Delivery contexts
+	 * (message, attachments and messaging settings) are cached per message, bounded by {@code contextCacheSize}.
+	 */
+	@ConfigurationProperties("delivery.outbox")
+	public record DeliveryOutboxProperties(
+		@DefaultValue("false") boolean enabled,
+		@DefaultValue("50") int batchSize,
+		@DefaultValue("200") int maxInFlight,
+		@DefaultValue("PT15M") Duration lease,
+		@DefaultValue("PT1S") Duration pollInterval,
+		@DefaultValue("50") int contextCacheSize,
+		@DefaultValue("PT10M") Duration contextCacheTtl) {
+	}
+
+	/**
+	 * Retries of transient delivery failures - timeouts, open circuit breakers, 429 and 5xx from messaging. A recipient
+	 * whose attempt fails transiently is queued in the outbox again, to be claimed no earlier than {@code initialBackoff}
+	 * times {@code multiplier} to the power of the number of earlier failures, capped at {@code maxBackoff} and spread by
+	 * up to {@code jitter} (a fraction) in either direction. After {@code maxAttempts} attempts in total the recipient is
+	 * marked as failed. Retries are delivered by the outbox worker and so only apply with {@code delivery.outbox.enabled}.
+	 */
+	@ConfigurationProperties("delivery.retry")
+	public record DeliveryRetryProperties(
+		@DefaultValue("false") boolean enabled,
+		@DefaultValue("5") int maxAttempts,
+		@DefaultValue("PT30S") Duration initialBackoff,
+		@DefaultValue("PT30M") Duration maxBackoff,
+		@DefaultValue("2.0") double multiplier,
+		@DefaultValue("0.2") double jitter) {
+	}
+
+	/**
+	 * The Base64 encoded attachment content that the delivery workers share, so that content is read from the attachment
+	 * store and encoded once rather than for each message or recipient it is delivered with. Entries are weighed by their
+	 * encoded size, and the least recently used evicted once the total exceeds {@code maxSize}.
+	 */
+	@ConfigurationProperties("delivery.attachment-cache")
+	public record DeliveryAttachmentCacheProperties(
+		@DefaultValue("64MB") DataSize maxSize) {
+	}
+}
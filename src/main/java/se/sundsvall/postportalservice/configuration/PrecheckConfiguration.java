@@ -0,0 +1,49 @@
+package se.sundsvall.postportalservice.configuration;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+/**
+ * Defines the executor that runs the private and the enterprise branch of a precheck concurrently, as well as the
+ * chunks of a large private branch. Each branch or chunk is a chain of blocking remote calls (party, messaging, citizen
+ * or legal entity), so every one runs on its own virtual thread, which parks rather than occupies a platform thread
+ * while it waits.
+ */
+@Configuration
+@EnableConfigurationProperties(PrecheckConfiguration.PrecheckProperties.class)
+public class PrecheckConfiguration {
+
+	public static final String PRECHECK_EXECUTOR = "precheckExecutor";
+
+	@Bean(name = PRECHECK_EXECUTOR, destroyMethod = "close")
+	SimpleAsyncTaskExecutor precheckExecutor(final MdcTaskDecorator mdcTaskDecorator) {
+		final var executor = new SimpleAsyncTaskExecutor("precheck-");
+
+		executor.setVirtualThreads(true);
+		executor.setTaskDecorator(mdcTaskDecorator);
+		return executor;
+	}
+
+	/**
+	 * Configuration for prechecks of mixed private and enterprise recipients. With {@code concurrent} the two branches run
+	 * concurrently, so the precheck takes about as long as the slower branch instead of both. A precheck of party ids has
+	 * a deadline, {@code timeout} from its start, whether its branches run concurrently or not - a precheck not complete
+	 * by then fails with 504. Recipients of CSV sends are resolved without a deadline.
+	 * <p>
+	 * Private legal ids are prechecked in chunks of {@code chunkSize}, each chunk passing through party lookup, mailbox
+	 * check, citizen lookup and categorization on its own, with at most {@code maxInFlightChunks} chunks in flight at a
+	 * time.
+	 */
+	@ConfigurationProperties("precheck")
+	public record PrecheckProperties(
+		@DefaultValue("true") boolean concurrent,
+		@DefaultValue("PT2M") Duration timeout,
+		@DefaultValue("1000") int chunkSize,
+		@DefaultValue("4") int maxInFlightChunks) {
+	}
+}
@@ -0,0 +1,60 @@
+package se.sundsvall.postportalservice.integration.attachmentstore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import org.springframework.core.io.InputStreamSource;
+
+/**
+ * Holds the bytes of attachment content, keyed by the SHA-256 hash of the content, hex encoded. The reference counts
+ * and other metadata of the content are kept in the database by AttachmentContentRepository, whatever the store.
+ * <p>
+ * As a key always identifies the same bytes, storing content under a key that is already stored is harmless, and
+ * content once stored never changes.
+ */
+public interface AttachmentStore {
+
+	/**
+	 * Stores content, streaming it into the store.
+	 *
+	 * @param key     the SHA-256 hash of the content, hex encoded
+	 * @param content the content
+	 * @param length  the length of the content, in bytes
+	 */
+	void put(String key, InputStreamSource content, long length);
+
+	/**
+	 * Opens stored content for reading. The caller must close it.
+	 *
+	 * @param  key the SHA-256 hash of the content, hex encoded
+	 * @return     the content
+	 */
+	StoredContent get(String key);
+
+	/**
+	 * Opens a range of stored content for reading, without reading the content before it. The caller must close it.
+	 * <p>
+	 * The stream starts at {@code offset}, but may continue past the range - only its first {@code length} bytes belong
+	 * to the range, which is the length of the returned content.
+	 *
+	 * @param  key    the SHA-256 hash of the content, hex encoded
+	 * @param  offset the index of the first byte of the range
+	 * @param  length the length of the range, in bytes
+	 * @return        the range of the content
+	 */
+	StoredContent get(String key, long offset, long length);
+
+	/**
+	 * Content read from a store.
+	 *
+	 * @param inputStream the content
+	 * @param length      the length of the content, in bytes
+	 */
+	record StoredContent(InputStream inputStream, long length) implements Closeable {
+
+		@Override
+		public void close() throws IOException {
+			inputStream.close();
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package se.sundsvall.postportalservice.integration.attachmentstore;
+
+import java.io.ByteArrayInputStream;
+import java.util.Map;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.support.SqlBinaryValue;
+import se.sundsvall.dept44.problem.Problem;
+
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+
+/**
+ * Stores attachment content in the database, in the content column of attachment_content - next to the metadata of the
+ * content. The default store.
+ */
+public class DatabaseAttachmentStore implements AttachmentStore {
+
+	private final NamedParameterJdbcTemplate jdbcTemplate;
+
+	public DatabaseAttachmentStore(final NamedParameterJdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Inserts the content without any reference, which AttachmentContentRepository adds when the content is stored.
+	 */
+	@Override
+	public void put(final String key, final InputStreamSource content, final long length) {
+		var sql = """
+			INSERT INTO attachment_content (hash, content, reference_count, created)
+			VALUES (:hash, :content, 0, NOW())
+			ON DUPLICATE KEY UPDATE content = COALESCE(content, VALUES(content))
+			""";
+
+		jdbcTemplate.update(sql, new MapSqlParameterSource()
+			.addValue("hash", key)
+			.addValue("content", new SqlBinaryValue(content, length)));
+	}
+
+	/**
+	 * Reads the content into memory, as the database driver reads whole rows anyway.
+	 */
+	@Override
+	public StoredContent get(final String key) {
+		var sql = """
+			SELECT content FROM attachment_content WHERE hash = :hash AND content IS NOT NULL
+			""";
+
+		return jdbcTemplate.query(sql, Map.of("hash", key), resultSet -> {
+			if (!resultSet.next()) {
+				throw Problem.valueOf(INTERNAL_SERVER_ERROR, "No content stored with key '%s'".formatted(key));
+			}
+			final var bytes = resultSet.getBytes("content");
+			return new StoredContent(new ByteArrayInputStream(bytes), bytes.length);
+		});
+	}
+
+	/**
+	 * Reads only the range into memory, as SUBSTRING is evaluated by the database.
+	 */
+	@Override
+	public StoredContent get(final String key, final long offset, final long length) {
+		var sql = """
+			SELECT SUBSTRING(content, :position, :length) AS content FROM attachment_content WHERE hash = :hash AND content IS NOT NULL
+			""";
+
+		return jdbcTemplate.query(sql, Map.of("hash", key, "position", offset + 1, "length", length), resultSet -> {
+			if (!resultSet.next()) {
+				throw Problem.valueOf(INTERNAL_SERVER_ERROR, "No content stored with key '%s'".formatted(key));
+			}
+			final var bytes = resultSet.getBytes("content");
+			return new StoredContent(new ByteArrayInputStream(bytes), bytes.length);
+		});
+	}
+}
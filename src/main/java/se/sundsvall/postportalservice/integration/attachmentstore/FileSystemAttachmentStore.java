@@ -0,0 +1,121 @@
+package se.sundsvall.postportalservice.integration.attachmentstore;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.regex.Pattern;
+import org.springframework.core.io.InputStreamSource;
+import se.sundsvall.dept44.problem.Problem;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+
+/**
+ * Stores attachment content as files below a root directory, sharded on the first two byte pairs of the key
+ * ({@code ab/cd/abcd...}) so that no directory grows too large. Content is written to a temporary file that is synced
+ * to disk before it is moved into place, and the directory is synced after the move - so a file under its final name
+ * is always complete and survives a crash once put has returned.
+ */
+public class FileSystemAttachmentStore implements AttachmentStore {
+
+	private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+	private final Path root;
+
+	public FileSystemAttachmentStore(final Path root) {
+		this.root = root;
+	}
+
+	@Override
+	public void put(final String key, final InputStreamSource content, final long length) {
+		final var path = toPath(key);
+		if (Files.exists(path)) {
+			return;
+		}
+
+		try {
+			final var directory = Files.createDirectories(path.getParent());
+			final var temporaryFile = Files.createTempFile(directory, key, ".tmp");
+			try {
+				try (var input = content.getInputStream(); var channel = FileChannel.open(temporaryFile, WRITE)) {
+					input.transferTo(Channels.newOutputStream(channel));
+					channel.force(true);
+				}
+				Files.move(temporaryFile, path, ATOMIC_MOVE, REPLACE_EXISTING);
+			} finally {
+				Files.deleteIfExists(temporaryFile);
+			}
+			syncDirectory(directory);
+		} catch (final IOException e) {
+			throw Problem.valueOf(INTERNAL_SERVER_ERROR, "Could not store content with key '%s': %s".formatted(key, e.getMessage()));
+		}
+	}
+
+	@Override
+	public StoredContent get(final String key) {
+		return open(key, channel -> new StoredContent(Channels.newInputStream(channel), channel.size()));
+	}
+
+	/**
+	 * Positions the file at the offset, so the content before it is never read.
+	 */
+	@Override
+	public StoredContent get(final String key, final long offset, final long length) {
+		return open(key, channel -> new StoredContent(Channels.newInputStream(channel.position(offset)), length));
+	}
+
+	private StoredContent open(final String key, final ChannelReader reader) {
+		final var path = toPath(key);
+		FileChannel channel = null;
+		try {
+			channel = FileChannel.open(path, READ);
+			return reader.read(channel);
+		} catch (final NoSuchFileException _) {
+			throw Problem.valueOf(INTERNAL_SERVER_ERROR, "No content stored with key '%s'".formatted(key));
+		} catch (final IOException e) {
+			closeQuietly(channel);
+			throw Problem.valueOf(INTERNAL_SERVER_ERROR, "Could not read content with key '%s': %s".formatted(key, e.getMessage()));
+		}
+	}
+
+	Path toPath(final String key) {
+		if (key == null || !KEY_PATTERN.matcher(key).matches()) {
+			throw Problem.valueOf(INTERNAL_SERVER_ERROR, "Invalid content key '%s'".formatted(key));
+		}
+		return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+	}
+
+	/**
+	 * Makes the entry of a moved file durable. Not all platforms can open a directory for syncing, in which case the
+	 * platform is trusted to do it.
+	 */
+	private static void syncDirectory(final Path directory) {
+		try (var channel = FileChannel.open(directory, READ)) {
+			channel.force(true);
+		} catch (final IOException _) {
+			// Not supported on this platform
+		}
+	}
+
+	private static void closeQuietly(final FileChannel channel) {
+		if (channel == null) {
+			return;
+		}
+		try {
+			channel.close();
+		} catch (final IOException _) {
+			// Nothing more to read
+		}
+	}
+
+	@FunctionalInterface
+	private interface ChannelReader {
+		StoredContent read(FileChannel channel) throws IOException;
+	}
+}
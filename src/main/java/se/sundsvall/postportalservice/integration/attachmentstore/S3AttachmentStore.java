@@ -0,0 +1,184 @@
+package se.sundsvall.postportalservice.integration.attachmentstore;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandler;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.core.io.InputStreamSource;
+import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.postportalservice.integration.attachmentstore.configuration.AttachmentStoreProperties;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.time.ZoneOffset.UTC;
+import static org.springframework.http.HttpStatus.BAD_GATEWAY;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+/**
+ * Stores attachment content as objects in an S3 compatible object store, e.g. MinIO or Ceph. Requests are signed with
+ * AWS signature version 4. Content is streamed in both directions, and as the key of content is its SHA-256 hash, the
+ * key is also the signed payload hash of an upload - so the object store verifies that the content arrived intact.
+ */
+public class S3AttachmentStore implements AttachmentStore {
+
+	private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}");
+	private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+	private static final String SIGNED_HEADERS = "host;x-amz-content-sha256;x-amz-date";
+	private static final String EMPTY_PAYLOAD_HASH = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+	private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(UTC);
+	private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd").withZone(UTC);
+
+	private final AttachmentStoreProperties.S3 properties;
+	private final HttpClient httpClient;
+	private final Clock clock;
+
+	public S3AttachmentStore(final AttachmentStoreProperties.S3 properties, final Clock clock) {
+		this.properties = properties;
+		this.httpClient = HttpClient.newBuilder()
+			.connectTimeout(Duration.ofSeconds(properties.connectTimeout()))
+			.build();
+		this.clock = clock;
+	}
+
+	@Override
+	public void put(final String key, final InputStreamSource content, final long length) {
+		final var body = length == 0 ? BodyPublishers.noBody() : BodyPublishers.fromPublisher(BodyPublishers.ofInputStream(() -> open(content)), length);
+		final var request = signedRequest("PUT", key, key)
+			.PUT(body)
+			.build();
+
+		final var response = send(request, BodyHandlers.discarding(), key);
+		if (response.statusCode() / 100 != 2) {
+			throw Problem.valueOf(BAD_GATEWAY, "Could not store content with key '%s', object store responded with status %d".formatted(key, response.statusCode()));
+		}
+	}
+
+	@Override
+	public StoredContent get(final String key) {
+		return get(key, signedRequest("GET", key, EMPTY_PAYLOAD_HASH)
+			.GET()
+			.build());
+	}
+
+	/**
+	 * Requests only the range from the object store, which responds with the range alone.
+	 */
+	@Override
+	public StoredContent get(final String key, final long offset, final long length) {
+		return get(key, signedRequest("GET", key, EMPTY_PAYLOAD_HASH)
+			.header("Range", "bytes=%d-%d".formatted(offset, offset + length - 1))
+			.GET()
+			.build());
+	}
+
+	private StoredContent get(final String key, final HttpRequest request) {
+		final var response = send(request, BodyHandlers.ofInputStream(), key);
+		if (response.statusCode() / 100 != 2) {
+			closeQuietly(response.body());
+			if (response.statusCode() == NOT_FOUND.value()) {
+				throw Problem.valueOf(INTERNAL_SERVER_ERROR, "No content stored with key '%s'".formatted(key));
+			}
+			throw Problem.valueOf(BAD_GATEWAY, "Could not read content with key '%s', object store responded with status %d".formatted(key, response.statusCode()));
+		}
+
+		final var length = response.headers().firstValueAsLong("Content-Length").orElse(-1);
+		if (length < 0) {
+			closeQuietly(response.body());
+			throw Problem.valueOf(BAD_GATEWAY, "Could not read content with key '%s', object store responded without length".formatted(key));
+		}
+		return new StoredContent(response.body(), length);
+	}
+
+	/**
+	 * Builds a request for an object, signed with the headers that AWS signature version 4 requires.
+	 */
+	HttpRequest.Builder signedRequest(final String method, final String key, final String payloadHash) {
+		if (key == null || !KEY_PATTERN.matcher(key).matches()) {
+			throw Problem.valueOf(INTERNAL_SERVER_ERROR, "Invalid content key '%s'".formatted(key));
+		}
+
+		final var uri = URI.create("%s/%s/%s".formatted(properties.endpoint().replaceAll("/+$", ""), properties.bucket(), key));
+		final var host = uri.getPort() == -1 ? uri.getHost() : uri.getHost() + ":" + uri.getPort();
+		final var now = clock.instant();
+		final var dateTime = DATE_TIME_FORMATTER.format(now);
+		final var date = DATE_FORMATTER.format(now);
+		final var scope = "%s/%s/s3/aws4_request".formatted(date, properties.region());
+
+		final var canonicalRequest = String.join("\n", method, uri.getRawPath(), "",
+			"host:" + host, "x-amz-content-sha256:" + payloadHash, "x-amz-date:" + dateTime, "",
+			SIGNED_HEADERS, payloadHash);
+		final var stringToSign = String.join("\n", ALGORITHM, dateTime, scope, sha256Hex(canonicalRequest));
+
+		var signingKey = hmacSha256(("AWS4" + properties.secretKey()).getBytes(UTF_8), date);
+		signingKey = hmacSha256(signingKey, properties.region());
+		signingKey = hmacSha256(signingKey, "s3");
+		signingKey = hmacSha256(signingKey, "aws4_request");
+		final var signature = HexFormat.of().formatHex(hmacSha256(signingKey, stringToSign));
+
+		return HttpRequest.newBuilder(uri)
+			.timeout(Duration.ofSeconds(properties.readTimeout()))
+			.header("x-amz-content-sha256", payloadHash)
+			.header("x-amz-date", dateTime)
+			.header("Authorization", "%s Credential=%s/%s, SignedHeaders=%s, Signature=%s".formatted(ALGORITHM, properties.accessKey(), scope, SIGNED_HEADERS, signature));
+	}
+
+	private <T> HttpResponse<T> send(final HttpRequest request, final BodyHandler<T> bodyHandler, final String key) {
+		try {
+			return httpClient.send(request, bodyHandler);
+		} catch (final IOException | UncheckedIOException e) {
+			throw Problem.valueOf(BAD_GATEWAY, "Could not reach object store for content with key '%s': %s".formatted(key, e.getMessage()));
+		} catch (final InterruptedException _) {
+			Thread.currentThread().interrupt();
+			throw Problem.valueOf(INTERNAL_SERVER_ERROR, "Interrupted while transferring content with key '%s'".formatted(key));
+		}
+	}
+
+	private static InputStream open(final InputStreamSource content) {
+		try {
+			return content.getInputStream();
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void closeQuietly(final InputStream inputStream) {
+		try {
+			inputStream.close();
+		} catch (final IOException _) {
+			// Nothing more to read
+		}
+	}
+
+	private static String sha256Hex(final String value) {
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(UTF_8)));
+		} catch (final GeneralSecurityException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static byte[] hmacSha256(final byte[] key, final String value) {
+		try {
+			final var mac = Mac.getInstance("HmacSHA256");
+			mac.init(new SecretKeySpec(key, "HmacSHA256"));
+			return mac.doFinal(value.getBytes(UTF_8));
+		} catch (final GeneralSecurityException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
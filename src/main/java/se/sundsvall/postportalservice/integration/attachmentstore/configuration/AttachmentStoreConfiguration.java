@@ -0,0 +1,31 @@
+package se.sundsvall.postportalservice.integration.attachmentstore.configuration;
+
+import java.time.Clock;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import se.sundsvall.postportalservice.integration.attachmentstore.AttachmentStore;
+import se.sundsvall.postportalservice.integration.attachmentstore.DatabaseAttachmentStore;
+import se.sundsvall.postportalservice.integration.attachmentstore.FileSystemAttachmentStore;
+import se.sundsvall.postportalservice.integration.attachmentstore.S3AttachmentStore;
+
+import static java.util.Objects.requireNonNull;
+
+@Configuration
+@EnableConfigurationProperties(AttachmentStoreProperties.class)
+public class AttachmentStoreConfiguration {
+
+	@Bean
+	AttachmentStore attachmentStore(final AttachmentStoreProperties properties, final NamedParameterJdbcTemplate jdbcTemplate) {
+		return switch (properties.type()) {
+			case DATABASE -> new DatabaseAttachmentStore(jdbcTemplate);
+			case FILE_SYSTEM -> new FileSystemAttachmentStore(requireNonNull(properties.fileSystem().root(), "integration.attachment-store.file-system.root must be set"));
+			case S3 -> {
+				requireNonNull(properties.s3().endpoint(), "integration.attachment-store.s3.endpoint must be set");
+				requireNonNull(properties.s3().bucket(), "integration.attachment-store.s3.bucket must be set");
+				yield new S3AttachmentStore(properties.s3(), Clock.systemUTC());
+			}
+		};
+	}
+}
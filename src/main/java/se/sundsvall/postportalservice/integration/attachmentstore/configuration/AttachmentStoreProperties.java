@@ -0,0 +1,49 @@
+package se.sundsvall.postportalservice.integration.attachmentstore.configuration;
+
+import java.nio.file.Path;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration of where attachment content is stored. {@code fileSystem} is used when {@code type} is
+ * {@code FILE_SYSTEM}, and {@code s3} when it is {@code S3}.
+ */
+@ConfigurationProperties("integration.attachment-store")
+public record AttachmentStoreProperties(
+	@DefaultValue("DATABASE") Type type,
+	@DefaultValue FileSystem fileSystem,
+	@DefaultValue S3 s3) {
+
+	public enum Type {
+		DATABASE,
+		FILE_SYSTEM,
+		S3
+	}
+
+	/**
+	 * @param root the directory below which content is stored
+	 */
+	public record FileSystem(Path root) {
+	}
+
+	/**
+	 * An S3 compatible object store, addressed path-style ({@code endpoint/bucket/key}).
+	 *
+	 * @param endpoint       the url of the object store
+	 * @param region         the region the requests are signed for
+	 * @param bucket         the bucket content is stored in
+	 * @param accessKey      the access key id
+	 * @param secretKey      the secret access key
+	 * @param connectTimeout the connect timeout, in seconds
+	 * @param readTimeout    the timeout of a request, in seconds
+	 */
+	public record S3(
+		String endpoint,
+		@DefaultValue("us-east-1") String region,
+		String bucket,
+		String accessKey,
+		String secretKey,
+		@DefaultValue("10") int connectTimeout,
+		@DefaultValue("60") int readTimeout) {
+	}
+}
@@ -1,28 +1,113 @@
 package se.sundsvall.postportalservice.integration.citizen;
 
 import generated.se.sundsvall.citizen.CitizenExtended;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
+import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.postportalservice.integration.citizen.configuration.CitizenProperties;
+import se.sundsvall.postportalservice.util.FailureUtil;
 
 import static java.util.Collections.emptyList;
 import static java.util.Optional.ofNullable;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
 
 @Component
 public class CitizenIntegration {
 
 	public static final String POPULATION_REGISTRATION_ADDRESS = "POPULATION_REGISTRATION_ADDRESS";
 
+	private static final Logger LOG = LoggerFactory.getLogger(CitizenIntegration.class);
+
 	private final CitizenClient client;
+	private final CitizenProperties citizenProperties;
+	private final ExecutorService lookupExecutor;
 
-	public CitizenIntegration(final CitizenClient client) {
+	public CitizenIntegration(final CitizenClient client, final CitizenProperties citizenProperties) {
 		this.client = client;
+		this.citizenProperties = citizenProperties;
+		this.lookupExecutor = Executors.newFixedThreadPool(citizenProperties.maxConcurrentCalls());
+	}
+
+	@PreDestroy
+	void shutdown() {
+		lookupExecutor.shutdown();
 	}
 
+	/**
+	 * Get citizens for the provided partyIds, with at most {@code maxPartyIdsPerCall} partyIds per call. The chunks are
+	 * fetched in parallel, at most {@code maxConcurrentCalls} at a time, and a chunk that fails transiently is retried on
+	 * its own after {@code retryDelay} (up to {@code maxAttemptsPerCall} attempts) without fetching the other chunks
+	 * again. Other failures, such as a rejected request or an open circuit breaker, are not retried.
+	 *
+	 * @param  municipalityId the municipality id
+	 * @param  partyIds       the partyIds
+	 * @return                the citizens, in the order of the chunks
+	 */
 	public List<CitizenExtended> getCitizens(final String municipalityId, final List<String> partyIds) {
 		if (ofNullable(partyIds).orElse(emptyList()).isEmpty()) {
 			return emptyList();
 		}
 
-		return client.getCitizens(municipalityId, partyIds);
+		final var chunks = new ArrayList<List<String>>();
+		for (var i = 0; i < partyIds.size(); i += citizenProperties.maxPartyIdsPerCall()) {
+			chunks.add(partyIds.subList(i, Math.min(i + citizenProperties.maxPartyIdsPerCall(), partyIds.size())));
+		}
+
+		// Spring Cloud OpenFeign's SpringDecoder lazily initializes its HttpMessageConverters list on first use;
+		// concurrent first calls race, and the losers see an empty list ('messageConverters must not be empty').
+		// Fetch the first chunk synchronously so the converter list is populated before fetching the rest.
+		final var firstChunk = getCitizensChunk(municipalityId, chunks.getFirst());
+		if (chunks.size() == 1) {
+			return firstChunk;
+		}
+
+		final var futures = chunks.subList(1, chunks.size()).stream()
+			.map(chunk -> CompletableFuture.supplyAsync(() -> getCitizensChunk(municipalityId, chunk), lookupExecutor))
+			.toList();
+
+		final var result = new ArrayList<>(firstChunk);
+		try {
+			futures.forEach(future -> result.addAll(future.join()));
+		} catch (final CompletionException e) {
+			// Chunks not yet started are not fetched, as the lookup as a whole has failed
+			futures.forEach(future -> future.cancel(false));
+			if (e.getCause() instanceof final RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw e;
+		}
+		return result;
+	}
+
+	private List<CitizenExtended> getCitizensChunk(final String municipalityId, final List<String> partyIds) {
+		for (var attempt = 1;; attempt++) {
+			try {
+				return ofNullable(client.getCitizens(municipalityId, partyIds)).orElse(emptyList());
+			} catch (final RuntimeException e) {
+				if (!FailureUtil.isTransient(e) || attempt >= citizenProperties.maxAttemptsPerCall()) {
+					throw e;
+				}
+				LOG.warn("Citizen lookup of {} partyIds failed (attempt {} of {}), retrying: {}", partyIds.size(), attempt, citizenProperties.maxAttemptsPerCall(), e.getMessage());
+				pause(citizenProperties.retryDelay());
+			}
+		}
+	}
+
+	private static void pause(final Duration delay) {
+		try {
+			Thread.sleep(delay);
+		} catch (final InterruptedException _) {
+			Thread.currentThread().interrupt();
+			throw Problem.valueOf(INTERNAL_SERVER_ERROR, "Interrupted while waiting to retry citizen lookup");
+		}
 	}
 }
@@ -1,10 +1,15 @@
 package se.sundsvall.postportalservice.integration.citizen.configuration;
 
+import java.time.Duration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.bind.DefaultValue;
 
 @ConfigurationProperties(prefix = "integration.citizen")
 public record CitizenProperties(
 	@DefaultValue("5") int connectTimeout,
-	@DefaultValue("30") int readTimeout) {
+	@DefaultValue("30") int readTimeout,
+	@DefaultValue("1000") int maxPartyIdsPerCall,
+	@DefaultValue("4") int maxConcurrentCalls,
+	@DefaultValue("2") int maxAttemptsPerCall,
+	@DefaultValue("PT0.5S") Duration retryDelay) {
 }
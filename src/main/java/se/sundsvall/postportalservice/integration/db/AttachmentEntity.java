@@ -1,14 +1,11 @@
 package se.sundsvall.postportalservice.integration.db;
 
-import jakarta.persistence.Basic;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
-import jakarta.persistence.Lob;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
 import jakarta.persistence.Transient;
@@ -37,12 +34,18 @@ public class AttachmentEntity {
 	@Column(name = "content_type", columnDefinition = "VARCHAR(50)")
 	private String contentType;
 
-	@Lob
-	@Basic(fetch = FetchType.LAZY)
-	@Column(name = "content", columnDefinition = "LONGBLOB")
+	// The content is stored once per distinct content by AttachmentContentRepository, in the configured AttachmentStore,
+	// and read from the store by this key
+	@Column(name = "content_hash", columnDefinition = "VARCHAR(64)")
+	private String contentHash;
+
+	// The content of an upload, only for use while the request that uploaded it lasts (see BlobUtil), and only set for
+	// integrations that send the upload as a file
+	@Transient
 	private Blob content;
 
-	// This is used to avoid having to convert Blob to String n(recipient) times when mapping to requests
+	// The stored content, Base64 encoded, read on demand when the attachment is about to be sent (see AttachmentMapper and
+	// DeliveryContextLoader), so it is not converted n(recipient) times when mapping to requests
 	@Transient
 	private String contentString;
 
@@ -124,6 +127,19 @@ public class AttachmentEntity {
 		return this;
 	}
 
+	public String getContentHash() {
+		return contentHash;
+	}
+
+	public void setContentHash(String contentHash) {
+		this.contentHash = contentHash;
+	}
+
+	public AttachmentEntity withContentHash(String contentHash) {
+		this.contentHash = contentHash;
+		return this;
+	}
+
 	public OffsetDateTime getCreated() {
 		return created;
 	}
@@ -137,13 +153,14 @@ public class AttachmentEntity {
 		if (o == null || getClass() != o.getClass())
 			return false;
 		AttachmentEntity that = (AttachmentEntity) o;
-		return Objects.equals(id, that.id) && Objects.equals(fileName, that.fileName) && Objects.equals(contentType, that.contentType) && Objects.equals(content, that.content) && Objects.equals(contentString,
+		return Objects.equals(id, that.id) && Objects.equals(fileName, that.fileName) && Objects.equals(contentType, that.contentType) && Objects.equals(contentHash, that.contentHash)
+			&& Objects.equals(content, that.content) && Objects.equals(contentString,
 			that.contentString) && Objects.equals(created, that.created);
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(id, fileName, contentType, content, contentString, created);
+		return Objects.hash(id, fileName, contentType, contentHash, content, contentString, created);
 	}
 
 	@Override
@@ -152,6 +169,7 @@ public class AttachmentEntity {
 			"id='" + id + '\'' +
 			", fileName='" + fileName + '\'' +
 			", contentType='" + contentType + '\'' +
+			", contentHash='" + contentHash + '\'' +
 			", content=" + content +
 			", contentString='" + contentString + '\'' +
 			", created=" + created +
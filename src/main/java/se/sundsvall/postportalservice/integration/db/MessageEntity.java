@@ -59,6 +59,13 @@ public class MessageEntity {
 	@Column(name = "content_type", columnDefinition = "VARCHAR(100)")
 	private String contentType;
 
+	@Column(name = "snail_mail_batch_status", columnDefinition = "VARCHAR(20)")
+	private String snailMailBatchStatus;
+
+	@Column(name = "snail_mail_batch_triggered", columnDefinition = "DATETIME")
+	@TimeZoneStorage(NORMALIZE)
+	private OffsetDateTime snailMailBatchTriggered;
+
 	@Column(name = "created", columnDefinition = "DATETIME")
 	@TimeZoneStorage(NORMALIZE)
 	private OffsetDateTime created;
@@ -187,6 +194,32 @@ public class MessageEntity {
 		return this;
 	}
 
+	public String getSnailMailBatchStatus() {
+		return snailMailBatchStatus;
+	}
+
+	public void setSnailMailBatchStatus(String snailMailBatchStatus) {
+		this.snailMailBatchStatus = snailMailBatchStatus;
+	}
+
+	public MessageEntity withSnailMailBatchStatus(String snailMailBatchStatus) {
+		this.snailMailBatchStatus = snailMailBatchStatus;
+		return this;
+	}
+
+	public OffsetDateTime getSnailMailBatchTriggered() {
+		return snailMailBatchTriggered;
+	}
+
+	public void setSnailMailBatchTriggered(OffsetDateTime snailMailBatchTriggered) {
+		this.snailMailBatchTriggered = snailMailBatchTriggered;
+	}
+
+	public MessageEntity withSnailMailBatchTriggered(OffsetDateTime snailMailBatchTriggered) {
+		this.snailMailBatchTriggered = snailMailBatchTriggered;
+		return this;
+	}
+
 	public OffsetDateTime getCreated() {
 		return created;
 	}
@@ -262,6 +295,8 @@ public class MessageEntity {
 			", body='" + body + '\'' +
 			", subject='" + subject + '\'' +
 			", contentType='" + contentType + '\'' +
+			", snailMailBatchStatus='" + snailMailBatchStatus + '\'' +
+			", snailMailBatchTriggered=" + snailMailBatchTriggered +
 			", created=" + created +
 			", user=" + user +
 			", department=" + department +
@@ -275,12 +310,13 @@ public class MessageEntity {
 			return false;
 		MessageEntity that = (MessageEntity) o;
 		return Objects.equals(id, that.id) && Objects.equals(municipalityId, that.municipalityId) && Objects.equals(displayName, that.displayName) && messageType == that.messageType && Objects.equals(body, that.body)
-			&& Objects.equals(subject, that.subject) && Objects.equals(contentType, that.contentType) && Objects.equals(created, that.created) && Objects.equals(user, that.user) && Objects.equals(department,
+			&& Objects.equals(subject, that.subject) && Objects.equals(contentType, that.contentType) && Objects.equals(snailMailBatchStatus, that.snailMailBatchStatus)
+			&& Objects.equals(snailMailBatchTriggered, that.snailMailBatchTriggered) && Objects.equals(created, that.created) && Objects.equals(user, that.user) && Objects.equals(department,
 				that.department) && Objects.equals(recipients, that.recipients);
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(id, municipalityId, displayName, messageType, body, subject, contentType, created, user, department, recipients);
+		return Objects.hash(id, municipalityId, displayName, messageType, body, subject, contentType, snailMailBatchStatus, snailMailBatchTriggered, created, user, department, recipients);
 	}
 }
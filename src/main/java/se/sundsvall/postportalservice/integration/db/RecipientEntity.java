@@ -22,7 +22,8 @@ import static org.hibernate.annotations.TimeZoneStorageType.NORMALIZE;
 @Entity
 @Table(name = "recipient", indexes = {
 	@Index(name = "IDX_RECIPIENT_MESSAGE_ID", columnList = "message_id"),
-	@Index(name = "IDX_RECIPIENT_MESSAGE_TYPE", columnList = "type")
+	@Index(name = "IDX_RECIPIENT_MESSAGE_TYPE", columnList = "type"),
+	@Index(name = "IDX_RECIPIENT_DELIVERY_STATE", columnList = "delivery_state, lease_expires")
 })
 public class RecipientEntity {
 
@@ -85,6 +86,24 @@ public class RecipientEntity {
 	@Column(name = "external_id", columnDefinition = "VARCHAR(36)")
 	private String externalId;
 
+	// Delivery outbox state (QUEUED/CLAIMED), null when the recipient is not waiting for delivery
+	@Column(name = "delivery_state", columnDefinition = "VARCHAR(20)")
+	private String deliveryState;
+
+	// Point in time when a CLAIMED recipient may be claimed again, i.e. when the claiming worker is considered lost
+	@Column(name = "lease_expires", columnDefinition = "DATETIME")
+	@TimeZoneStorage(NORMALIZE)
+	private OffsetDateTime leaseExpires;
+
+	// Number of failed delivery attempts, null until the first attempt fails
+	@Column(name = "attempts", columnDefinition = "INT")
+	private Integer attempts;
+
+	// Point in time when a QUEUED recipient whose last attempt failed transiently may be delivered again
+	@Column(name = "next_attempt", columnDefinition = "DATETIME")
+	@TimeZoneStorage(NORMALIZE)
+	private OffsetDateTime nextAttempt;
+
 	@Column(name = "created", columnDefinition = "DATETIME")
 	@TimeZoneStorage(NORMALIZE)
 	private OffsetDateTime created;
@@ -332,6 +351,58 @@ public class RecipientEntity {
 		return this;
 	}
 
+	public String getDeliveryState() {
+		return deliveryState;
+	}
+
+	public void setDeliveryState(String deliveryState) {
+		this.deliveryState = deliveryState;
+	}
+
+	public RecipientEntity withDeliveryState(String deliveryState) {
+		this.deliveryState = deliveryState;
+		return this;
+	}
+
+	public OffsetDateTime getLeaseExpires() {
+		return leaseExpires;
+	}
+
+	public void setLeaseExpires(OffsetDateTime leaseExpires) {
+		this.leaseExpires = leaseExpires;
+	}
+
+	public RecipientEntity withLeaseExpires(OffsetDateTime leaseExpires) {
+		this.leaseExpires = leaseExpires;
+		return this;
+	}
+
+	public Integer getAttempts() {
+		return attempts;
+	}
+
+	public void setAttempts(Integer attempts) {
+		this.attempts = attempts;
+	}
+
+	public RecipientEntity withAttempts(Integer attempts) {
+		this.attempts = attempts;
+		return this;
+	}
+
+	public OffsetDateTime getNextAttempt() {
+		return nextAttempt;
+	}
+
+	public void setNextAttempt(OffsetDateTime nextAttempt) {
+		this.nextAttempt = nextAttempt;
+	}
+
+	public RecipientEntity withNextAttempt(OffsetDateTime nextAttempt) {
+		this.nextAttempt = nextAttempt;
+		return this;
+	}
+
 	public OffsetDateTime getCreated() {
 		return created;
 	}
@@ -366,6 +437,10 @@ public class RecipientEntity {
 			", messageType=" + messageType +
 			", statusDetail='" + statusDetail + '\'' +
 			", externalId='" + externalId + '\'' +
+			", deliveryState='" + deliveryState + '\'' +
+			", leaseExpires=" + leaseExpires +
+			", attempts=" + attempts +
+			", nextAttempt=" + nextAttempt +
 			", created=" + created +
 			'}';
 	}
@@ -378,11 +453,12 @@ public class RecipientEntity {
 		return Objects.equals(id, that.id) && Objects.equals(partyId, that.partyId) && partyType == that.partyType && Objects.equals(email, that.email) && Objects.equals(phoneNumber, that.phoneNumber) && Objects.equals(firstName,
 			that.firstName) && Objects.equals(lastName, that.lastName) && Objects.equals(organizationName, that.organizationName) && Objects.equals(streetAddress, that.streetAddress) && Objects.equals(apartmentNumber, that.apartmentNumber)
 			&& Objects.equals(careOf, that.careOf) && Objects.equals(zipCode, that.zipCode) && Objects.equals(city, that.city) && Objects.equals(country, that.country) && Objects.equals(status, that.status) && messageType == that.messageType
-			&& Objects.equals(statusDetail, that.statusDetail) && Objects.equals(externalId, that.externalId) && Objects.equals(created, that.created);
+			&& Objects.equals(statusDetail, that.statusDetail) && Objects.equals(externalId, that.externalId) && Objects.equals(deliveryState, that.deliveryState)
+			&& Objects.equals(leaseExpires, that.leaseExpires) && Objects.equals(attempts, that.attempts) && Objects.equals(nextAttempt, that.nextAttempt) && Objects.equals(created, that.created);
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(id, partyId, partyType, email, phoneNumber, firstName, lastName, organizationName, streetAddress, apartmentNumber, careOf, zipCode, city, country, status, messageType, statusDetail, externalId, created);
+		return Objects.hash(id, partyId, partyType, email, phoneNumber, firstName, lastName, organizationName, streetAddress, apartmentNumber, careOf, zipCode, city, country, status, messageType, statusDetail, externalId, deliveryState, leaseExpires, attempts, nextAttempt, created);
 	}
 }
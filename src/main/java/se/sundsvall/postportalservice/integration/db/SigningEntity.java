@@ -56,10 +56,10 @@ public class SigningEntity {
 	private String status;
 
 	// Eager: a nullable owning @OneToOne can't be lazily proxied without bytecode enhancement. Negligible - a signing is
-	// only ever loaded one at a time.
+	// only ever loaded one at a time. A replaced signed document is removed along with its attachment.
 	@OneToOne(cascade = {
 		CascadeType.MERGE, CascadeType.PERSIST
-	})
+	}, orphanRemoval = true)
 	@JoinColumn(name = "attachment_id", columnDefinition = "VARCHAR(36)", foreignKey = @ForeignKey(name = "FK_SIGNING_ATTACHMENT"))
 	private AttachmentEntity attachment;
 
@@ -0,0 +1,109 @@
+package se.sundsvall.postportalservice.integration.db.dao;
+
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import se.sundsvall.postportalservice.integration.attachmentstore.AttachmentStore;
+
+/**
+ * Stores the content of attachments once per distinct content, keyed by its SHA-256 hash, and counts the attachments
+ * referring to it. The bytes are held by the configured {@link AttachmentStore}, and the hash and reference count in
+ * attachment_content, along with the length of the content. Content that is already stored is never read or written
+ * again - only its reference count is incremented. A count may end up too high (when the transaction storing the
+ * attachment itself fails), but never too low, so content still referred to is never mistaken for unused.
+ */
+@Repository
+public class AttachmentContentRepository {
+
+	private final NamedParameterJdbcTemplate jdbcTemplate;
+	private final AttachmentStore attachmentStore;
+
+	public AttachmentContentRepository(final NamedParameterJdbcTemplate jdbcTemplate, final AttachmentStore attachmentStore) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.attachmentStore = attachmentStore;
+	}
+
+	/**
+	 * Adds a reference to content, storing the content if it's not already stored. The content is streamed into the
+	 * store, and only read at all when not already stored. It is stored before its row is inserted, so a row always
+	 * refers to stored content.
+	 *
+	 * @param hash    the SHA-256 hash of the content, hex encoded
+	 * @param content the content
+	 * @param length  the length of the content, in bytes
+	 */
+	@CircuitBreaker(name = "attachmentContentRepository")
+	public void store(final String hash, final InputStreamSource content, final long length) {
+		var sql = """
+			UPDATE attachment_content
+			SET reference_count = reference_count + 1, content_length = COALESCE(content_length, :length)
+			WHERE hash = :hash
+			""";
+
+		if (jdbcTemplate.update(sql, Map.of("hash", hash, "length", length)) > 0) {
+			return;
+		}
+
+		attachmentStore.put(hash, content, length);
+
+		// Concurrent requests may store the same new content, in which case the one inserting last only adds its reference
+		sql = """
+			INSERT INTO attachment_content (hash, reference_count, content_length, created)
+			VALUES (:hash, 1, :length, NOW())
+			ON DUPLICATE KEY UPDATE reference_count = reference_count + 1, content_length = :length
+			""";
+
+		jdbcTemplate.update(sql, Map.of("hash", hash, "length", length));
+	}
+
+	/**
+	 * Removes a reference to content, for an attachment that no longer refers to it. Called in the transaction removing
+	 * the attachment, so the count is never lowered for an attachment that remains.
+	 *
+	 * @param hash the SHA-256 hash of the content, hex encoded
+	 */
+	@CircuitBreaker(name = "attachmentContentRepository")
+	public void release(final String hash) {
+		var sql = """
+			UPDATE attachment_content
+			SET reference_count = reference_count - 1
+			WHERE hash = :hash AND reference_count > 0
+			""";
+
+		jdbcTemplate.update(sql, Map.of("hash", hash));
+	}
+
+	/**
+	 * Returns the number of attachments referring to content, or {@code 0} if the content isn't stored.
+	 *
+	 * @param  hash the SHA-256 hash of the content, hex encoded
+	 * @return      the reference count
+	 */
+	@CircuitBreaker(name = "attachmentContentRepository")
+	public int getReferenceCount(final String hash) {
+		var sql = """
+			SELECT COALESCE(MAX(reference_count), 0) FROM attachment_content WHERE hash = :hash
+			""";
+
+		return jdbcTemplate.queryForObject(sql, Map.of("hash", hash), Integer.class);
+	}
+
+	/**
+	 * Returns the length of stored content, without reading the content. Empty if the content isn't stored, or was
+	 * stored before lengths were recorded and is held outside the database.
+	 *
+	 * @param  hash the SHA-256 hash of the content, hex encoded
+	 * @return      the length of the content, in bytes
+	 */
+	@CircuitBreaker(name = "attachmentContentRepository")
+	public Optional<Long> getLength(final String hash) {
+		var sql = """
+			SELECT content_length FROM attachment_content WHERE hash = :hash AND content_length IS NOT NULL
+			""";
+
+		return jdbcTemplate.queryForList(sql, Map.of("hash", hash), Long.class).stream().findFirst();
+	}
+}
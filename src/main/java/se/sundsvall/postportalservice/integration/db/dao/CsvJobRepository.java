@@ -0,0 +1,265 @@
+package se.sundsvall.postportalservice.integration.db.dao;
+
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.apache.commons.lang3.StringUtils.abbreviate;
+
+/**
+ * Background jobs that resolve the recipients of a CSV send. A job is created {@link Phase#QUEUED} together with its
+ * message, holding the uploaded CSV file, and is claimed by a worker that moves it through
+ * {@link Phase#RESOLVING} and {@link Phase#ENQUEUING} to {@link Phase#COMPLETED} or {@link Phase#FAILED}. A running
+ * job holds a lease that is renewed with every progress update; a job whose lease has expired, i.e. whose worker died,
+ * is claimed again and started over. Every claim stamps the job with a new claim token, and a running job is only
+ * updated by the worker holding the current token - so a worker that lost its lease, but is still running, can neither
+ * record progress for, complete nor fail a job that has since been claimed by another. All timestamps are taken from
+ * the database clock.
+ */
+@Repository
+public class CsvJobRepository {
+
+	private static final int DETAIL_MAX_LENGTH = 255;
+	private static final List<String> RUNNING = List.of(Phase.RESOLVING.name(), Phase.ENQUEUING.name());
+
+	private final NamedParameterJdbcTemplate jdbcTemplate;
+	private final CsvJobMapper csvJobMapper = new CsvJobMapper();
+	private final ClaimedCsvJobMapper claimedCsvJobMapper = new ClaimedCsvJobMapper();
+
+	public CsvJobRepository(final NamedParameterJdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Creates a queued job.
+	 *
+	 * @param  messageId the id of the message the job resolves recipients for
+	 * @param  csvFile   the content of the uploaded CSV file
+	 * @param  total     the number of entries in the CSV file
+	 * @return           the id of the job
+	 */
+	@CircuitBreaker(name = "csvJobRepository")
+	public String create(final String messageId, final byte[] csvFile, final int total) {
+		final var id = UUID.randomUUID().toString();
+		var parameters = Map.of("id", id, "messageId", messageId, "queued", Phase.QUEUED.name(), "csvFile", csvFile, "total", total);
+		var sql = """
+			INSERT INTO csv_job (id, message_id, phase, total, csv_file)
+			VALUES (:id, :messageId, :queued, :total, :csvFile)
+			""";
+
+		jdbcTemplate.update(sql, parameters);
+		return id;
+	}
+
+	/**
+	 * Claims the oldest job that is queued, or running with an expired lease, and moves it to {@link Phase#RESOLVING}
+	 * under a new claim token. Rows locked by a concurrent claim are skipped, so several workers never claim the same job.
+	 *
+	 * @param  lease for how long the job is reserved for the caller, unless renewed
+	 * @return       the claimed job, or empty if there is none to claim
+	 */
+	@Transactional
+	@CircuitBreaker(name = "csvJobRepository")
+	public Optional<ClaimedCsvJob> claim(final Duration lease) {
+		var selectParameters = Map.of("queued", Phase.QUEUED.name(), "running", RUNNING);
+		var selectSql = """
+			SELECT id, message_id
+			FROM csv_job
+			WHERE phase = :queued OR (phase IN (:running) AND lease_expires < NOW())
+			ORDER BY created
+			LIMIT 1
+			FOR UPDATE SKIP LOCKED
+			""";
+
+		final var claimed = jdbcTemplate.query(selectSql, selectParameters, claimedCsvJobMapper).stream().findFirst()
+			.map(job -> new ClaimedCsvJob(job.id(), job.messageId(), UUID.randomUUID().toString()));
+		claimed.ifPresent(job -> {
+			var updateParameters = Map.of("id", job.id(), "claim", job.claim(), "resolving", Phase.RESOLVING.name(), "leaseSeconds", lease.toSeconds());
+			var updateSql = """
+				UPDATE csv_job
+				SET phase = :resolving, processed = 0, claim = :claim, lease_expires = NOW() + INTERVAL :leaseSeconds SECOND
+				WHERE id = :id
+				""";
+
+			jdbcTemplate.update(updateSql, updateParameters);
+		});
+		return claimed;
+	}
+
+	/**
+	 * Reads the uploaded CSV file of a job.
+	 *
+	 * @param  id the id of the job
+	 * @return    the content of the CSV file, or null if the job no longer holds it
+	 */
+	@CircuitBreaker(name = "csvJobRepository")
+	public byte[] getCsvFile(final String id) {
+		var parameters = Map.of("id", id);
+		var sql = """
+			SELECT csv_file
+			FROM csv_job
+			WHERE id = :id
+			""";
+
+		return jdbcTemplate.query(sql, parameters, (resultSet, _) -> resultSet.getBytes("csv_file")).stream().findFirst().orElse(null);
+	}
+
+	/**
+	 * Records the phase and progress of a running job and renews its lease, provided the caller still holds the claim.
+	 *
+	 * @param  job       the claimed job
+	 * @param  phase     the phase the job is in
+	 * @param  processed the number of entries processed so far
+	 * @param  lease     for how long, from now, the job stays reserved for the caller
+	 * @return           true if the job was updated, false if it has been claimed by another worker or is no longer running
+	 */
+	@CircuitBreaker(name = "csvJobRepository")
+	public boolean updateProgress(final ClaimedCsvJob job, final Phase phase, final int processed, final Duration lease) {
+		var parameters = Map.of("id", job.id(), "claim", job.claim(), "running", RUNNING, "phase", phase.name(), "processed", processed, "leaseSeconds", lease.toSeconds());
+		var sql = """
+			UPDATE csv_job
+			SET phase = :phase, processed = :processed, lease_expires = NOW() + INTERVAL :leaseSeconds SECOND
+			WHERE id = :id AND claim = :claim AND phase IN (:running)
+			""";
+
+		return jdbcTemplate.update(sql, parameters) > 0;
+	}
+
+	/**
+	 * Marks a job as completed and drops its CSV file, which is no longer needed, provided the caller still holds the
+	 * claim.
+	 *
+	 * @param  job the claimed job
+	 * @return     true if the job was completed, false if it has been claimed by another worker or is no longer running
+	 */
+	@CircuitBreaker(name = "csvJobRepository")
+	public boolean complete(final ClaimedCsvJob job) {
+		return finish(job, Phase.COMPLETED, null);
+	}
+
+	/**
+	 * Marks a job as failed and drops its CSV file, provided the caller still holds the claim.
+	 *
+	 * @param  job    the claimed job
+	 * @param  detail why the job failed
+	 * @return        true if the job was failed, false if it has been claimed by another worker or is no longer running
+	 */
+	@CircuitBreaker(name = "csvJobRepository")
+	public boolean fail(final ClaimedCsvJob job, final String detail) {
+		return finish(job, Phase.FAILED, abbreviate(detail, DETAIL_MAX_LENGTH));
+	}
+
+	/**
+	 * Hands a running job back, provided the caller still holds the claim, so that it is claimed again - and started
+	 * over - once {@code delay} has passed.
+	 *
+	 * @param  job   the claimed job
+	 * @param  delay for how long, from now, the job is not claimed again
+	 * @return       true if the job was released, false if it has been claimed by another worker or is no longer running
+	 */
+	@CircuitBreaker(name = "csvJobRepository")
+	public boolean release(final ClaimedCsvJob job, final Duration delay) {
+		var parameters = Map.of("id", job.id(), "claim", job.claim(), "running", RUNNING, "delaySeconds", delay.toSeconds());
+		var sql = """
+			UPDATE csv_job
+			SET claim = NULL, lease_expires = NOW() + INTERVAL :delaySeconds SECOND
+			WHERE id = :id AND claim = :claim AND phase IN (:running)
+			""";
+
+		return jdbcTemplate.update(sql, parameters) > 0;
+	}
+
+	/**
+	 * Reads a job.
+	 *
+	 * @param  municipalityId the municipality the message of the job belongs to
+	 * @param  id             the id of the job
+	 * @return                the job, or empty if there is no such job in the municipality
+	 */
+	@CircuitBreaker(name = "csvJobRepository")
+	public Optional<CsvJob> find(final String municipalityId, final String id) {
+		var parameters = Map.of("municipalityId", municipalityId, "id", id);
+		var sql = """
+			SELECT j.id, j.message_id, j.phase, j.processed, j.total, j.detail
+			FROM csv_job j
+			JOIN message m ON m.id = j.message_id
+			WHERE j.id = :id AND m.municipality_id = :municipalityId
+			""";
+
+		return jdbcTemplate.query(sql, parameters, csvJobMapper).stream().findFirst();
+	}
+
+	private boolean finish(final ClaimedCsvJob job, final Phase phase, final String detail) {
+		final var parameters = new HashMap<String, Object>();
+		parameters.put("id", job.id());
+		parameters.put("claim", job.claim());
+		parameters.put("running", RUNNING);
+		parameters.put("phase", phase.name());
+		parameters.put("detail", detail);
+		parameters.put("completed", Phase.COMPLETED.name());
+		var sql = """
+			UPDATE csv_job
+			SET phase = :phase, detail = :detail, csv_file = NULL, lease_expires = NULL,
+				processed = CASE WHEN :phase = :completed THEN total ELSE processed END
+			WHERE id = :id AND claim = :claim AND phase IN (:running)
+			""";
+
+		return jdbcTemplate.update(sql, parameters) > 0;
+	}
+
+	/**
+	 * The phases of a job. {@code processed} counts CSV entries whose recipients have been resolved, so it only moves
+	 * during {@link #RESOLVING}.
+	 */
+	public enum Phase {
+		QUEUED,
+		RESOLVING,
+		ENQUEUING,
+		COMPLETED,
+		FAILED
+	}
+
+	/**
+	 * The phase and progress of a job.
+	 */
+	public record CsvJob(String id, String messageId, Phase phase, int processed, int total, String detail) {
+	}
+
+	/**
+	 * A job claimed by a worker, the message it resolves recipients for and the token of the claim.
+	 */
+	public record ClaimedCsvJob(String id, String messageId, String claim) {
+	}
+
+	static class CsvJobMapper implements RowMapper<CsvJob> {
+
+		@Override
+		public CsvJob mapRow(final ResultSet resultSet, final int rowNum) throws SQLException {
+			return new CsvJob(
+				resultSet.getString("id"),
+				resultSet.getString("message_id"),
+				Phase.valueOf(resultSet.getString("phase")),
+				resultSet.getInt("processed"),
+				resultSet.getInt("total"),
+				resultSet.getString("detail"));
+		}
+	}
+
+	static class ClaimedCsvJobMapper implements RowMapper<ClaimedCsvJob> {
+
+		@Override
+		public ClaimedCsvJob mapRow(final ResultSet resultSet, final int rowNum) throws SQLException {
+			return new ClaimedCsvJob(resultSet.getString("id"), resultSet.getString("message_id"), null);
+		}
+	}
+}
@@ -0,0 +1,105 @@
+package se.sundsvall.postportalservice.integration.db.dao;
+
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import static se.sundsvall.postportalservice.Constants.CLAIMED;
+import static se.sundsvall.postportalservice.Constants.PENDING;
+import static se.sundsvall.postportalservice.Constants.QUEUED;
+
+/**
+ * The delivery outbox. Recipient rows double as work items: a recipient waiting for delivery is {@code QUEUED}, and a
+ * worker that has picked it up holds it as {@code CLAIMED} until the lease expires. The final status update of the
+ * recipient clears the state, unless the delivery failed transiently and is retried - then the recipient is
+ * {@code QUEUED} again, but not eligible for a claim until its {@code next_attempt}. All timestamps are taken from
+ * the database clock, so several instances can share the outbox without depending on synchronized clocks.
+ */
+@Repository
+public class DeliveryOutboxRepository {
+
+	private final NamedParameterJdbcTemplate jdbcTemplate;
+	private final OutboxEntryMapper outboxEntryMapper = new OutboxEntryMapper();
+
+	public DeliveryOutboxRepository(final NamedParameterJdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Queues all pending recipients of a message for delivery.
+	 *
+	 * @param  messageId the id of the message
+	 * @return           the number of queued recipients
+	 */
+	@CircuitBreaker(name = "deliveryOutboxRepository")
+	public int enqueue(final String messageId) {
+		var parameters = Map.of("messageId", messageId, "pending", PENDING, "queued", QUEUED);
+		var sql = """
+			UPDATE recipient
+			SET delivery_state = :queued, lease_expires = NULL
+			WHERE message_id = :messageId AND status = :pending
+			""";
+
+		return jdbcTemplate.update(sql, parameters);
+	}
+
+	/**
+	 * Claims up to {@code limit} recipients, oldest first. Both queued recipients that are due and recipients whose lease
+	 * has expired (i.e. claimed by a worker that never finished them) are eligible. Rows locked by a concurrent claim are skipped, so
+	 * several workers never claim the same recipient.
+	 *
+	 * @param  limit the maximum number of recipients to claim
+	 * @param  lease for how long the claimed recipients are reserved for the caller
+	 * @return       the claimed recipients
+	 */
+	@Transactional
+	@CircuitBreaker(name = "deliveryOutboxRepository")
+	public List<OutboxEntry> claim(final int limit, final Duration lease) {
+		var selectParameters = Map.of("queued", QUEUED, "claimed", CLAIMED, "limit", limit);
+		var selectSql = """
+			SELECT id, message_id
+			FROM recipient
+			WHERE (delivery_state = :queued AND (next_attempt IS NULL OR next_attempt <= NOW()))
+				OR (delivery_state = :claimed AND lease_expires < NOW())
+			ORDER BY created
+			LIMIT :limit
+			FOR UPDATE SKIP LOCKED
+			""";
+
+		final var entries = jdbcTemplate.query(selectSql, selectParameters, outboxEntryMapper);
+		if (entries.isEmpty()) {
+			return entries;
+		}
+
+		var updateParameters = Map.of("claimed", CLAIMED, "leaseSeconds", lease.toSeconds(), "ids", entries.stream().map(OutboxEntry::recipientId).toList());
+		var updateSql = """
+			UPDATE recipient
+			SET delivery_state = :claimed, lease_expires = NOW() + INTERVAL :leaseSeconds SECOND
+			WHERE id IN (:ids)
+			""";
+
+		jdbcTemplate.update(updateSql, updateParameters);
+		return entries;
+	}
+
+	/**
+	 * A claimed recipient and the message it belongs to.
+	 */
+	public record OutboxEntry(String recipientId, String messageId) {
+	}
+
+	static class OutboxEntryMapper implements RowMapper<OutboxEntry> {
+
+		@Override
+		public OutboxEntry mapRow(final ResultSet resultSet, final int rowNum) throws SQLException {
+			return new OutboxEntry(resultSet.getString("id"), resultSet.getString("message_id"));
+		}
+	}
+}
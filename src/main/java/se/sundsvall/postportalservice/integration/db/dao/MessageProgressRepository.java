@@ -0,0 +1,193 @@
+package se.sundsvall.postportalservice.integration.db.dao;
+
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import se.sundsvall.postportalservice.integration.db.MessageEntity;
+import se.sundsvall.postportalservice.integration.db.RecipientEntity;
+
+import static java.util.Collections.emptyList;
+import static java.util.Optional.ofNullable;
+import static se.sundsvall.postportalservice.Constants.INELIGIBLE_MINOR;
+import static se.sundsvall.postportalservice.Constants.PENDING;
+import static se.sundsvall.postportalservice.Constants.SENT;
+import static se.sundsvall.postportalservice.Constants.SIGNED;
+import static se.sundsvall.postportalservice.Constants.UNDELIVERABLE;
+import static se.sundsvall.postportalservice.integration.db.converter.MessageType.SNAIL_MAIL;
+
+/**
+ * Keeps count of the recipients of each message per delivery outcome, so the progress of a send can be read without
+ * loading its recipients. The counters are created with the message and then moved incrementally, as recipients change
+ * status. Counters of several messages are always updated in message id order, so concurrent writers can't deadlock.
+ */
+@Repository
+public class MessageProgressRepository {
+
+	private final NamedParameterJdbcTemplate jdbcTemplate;
+	private final ProgressMapper progressMapper = new ProgressMapper();
+
+	public MessageProgressRepository(final NamedParameterJdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Creates the counters of a new message from the initial status of its recipients. Also counts the snail-mail
+	 * recipients waiting to be delivered, which the {@link SnailMailBatchRepository} counts down.
+	 *
+	 * @param messageEntity the message
+	 */
+	@CircuitBreaker(name = "messageProgressRepository")
+	public void initialize(final MessageEntity messageEntity) {
+		final var recipients = ofNullable(messageEntity.getRecipients()).orElse(emptyList());
+		final var progress = recipients.stream()
+			.map(RecipientEntity::getStatus)
+			.map(Progress::of)
+			.reduce(Progress.EMPTY, Progress::plus);
+		final var snailMailPending = recipients.stream()
+			.filter(recipient -> recipient.getMessageType() == SNAIL_MAIL && PENDING.equals(recipient.getStatus()))
+			.count();
+
+		var sql = """
+			INSERT INTO message_progress (message_id, pending, sent, delivered, failed, undeliverable, snail_mail_pending)
+			VALUES (:messageId, :pending, :sent, :delivered, :failed, :undeliverable, :snailMailPending)
+			""";
+
+		jdbcTemplate.update(sql, toParameters(messageEntity.getId(), progress).addValue("snailMailPending", snailMailPending));
+	}
+
+	/**
+	 * Adds to the counters of messages. Messages without counters are ignored.
+	 *
+	 * @param deltas the change of the counters, per message id
+	 */
+	@CircuitBreaker(name = "messageProgressRepository")
+	public void add(final Map<String, Progress> deltas) {
+		final var parameters = new TreeMap<>(deltas).entrySet().stream()
+			.filter(entry -> !entry.getValue().equals(Progress.EMPTY))
+			.map(entry -> toParameters(entry.getKey(), entry.getValue()))
+			.toArray(SqlParameterSource[]::new);
+		if (parameters.length == 0) {
+			return;
+		}
+
+		var sql = """
+			UPDATE message_progress
+			SET pending = pending + :pending, sent = sent + :sent, delivered = delivered + :delivered,
+				failed = failed + :failed, undeliverable = undeliverable + :undeliverable
+			WHERE message_id = :messageId
+			""";
+
+		jdbcTemplate.batchUpdate(sql, parameters);
+	}
+
+	/**
+	 * Moves a recipient of a message from the counter of one status to that of another.
+	 *
+	 * @param messageId      the id of the message
+	 * @param previousStatus the status the recipient had
+	 * @param status         the status the recipient has now
+	 */
+	@CircuitBreaker(name = "messageProgressRepository")
+	public void transition(final String messageId, final String previousStatus, final String status) {
+		add(Map.of(messageId, Progress.of(status).minus(Progress.of(previousStatus))));
+	}
+
+	/**
+	 * Reads the counters of a message.
+	 *
+	 * @param  municipalityId the municipality the message belongs to
+	 * @param  messageId      the id of the message
+	 * @return                the counters, or empty if there is no such message in the municipality
+	 */
+	@CircuitBreaker(name = "messageProgressRepository")
+	public Optional<Progress> find(final String municipalityId, final String messageId) {
+		var parameters = Map.of("municipalityId", municipalityId, "messageId", messageId);
+		var sql = """
+			SELECT p.pending, p.sent, p.delivered, p.failed, p.undeliverable
+			FROM message_progress p
+			JOIN message m ON m.id = p.message_id
+			WHERE p.message_id = :messageId AND m.municipality_id = :municipalityId
+			""";
+
+		return jdbcTemplate.query(sql, parameters, progressMapper).stream().findFirst();
+	}
+
+	private static MapSqlParameterSource toParameters(final String messageId, final Progress progress) {
+		return new MapSqlParameterSource()
+			.addValue("messageId", messageId)
+			.addValue("pending", progress.pending())
+			.addValue("sent", progress.sent())
+			.addValue("delivered", progress.delivered())
+			.addValue("failed", progress.failed())
+			.addValue("undeliverable", progress.undeliverable());
+	}
+
+	/**
+	 * The number of recipients of a message per delivery outcome - or, as a delta, the change of those numbers.
+	 */
+	public record Progress(int pending, int sent, int delivered, int failed, int undeliverable) {
+
+		public static final Progress EMPTY = new Progress(0, 0, 0, 0, 0);
+
+		private static final Set<String> PENDING_STATUSES = Set.of(PENDING, "AWAITING_FEEDBACK");
+		private static final Set<String> DELIVERED_STATUSES = Set.of("DELIVERED", SIGNED);
+		private static final Set<String> UNDELIVERABLE_STATUSES = Set.of(UNDELIVERABLE, INELIGIBLE_MINOR, "NO_CONTACT_SETTINGS_FOUND", "NO_CONTACT_WANTED");
+
+		/**
+		 * Returns the counters of a single recipient with the given status. A status that is neither pending, sent,
+		 * delivered nor undeliverable counts as failed.
+		 */
+		public static Progress of(final String status) {
+			if (status == null) {
+				return new Progress(0, 0, 0, 1, 0);
+			}
+			if (PENDING_STATUSES.contains(status)) {
+				return new Progress(1, 0, 0, 0, 0);
+			}
+			if (SENT.equals(status)) {
+				return new Progress(0, 1, 0, 0, 0);
+			}
+			if (DELIVERED_STATUSES.contains(status)) {
+				return new Progress(0, 0, 1, 0, 0);
+			}
+			if (UNDELIVERABLE_STATUSES.contains(status)) {
+				return new Progress(0, 0, 0, 0, 1);
+			}
+			return new Progress(0, 0, 0, 1, 0);
+		}
+
+		public Progress plus(final Progress other) {
+			return new Progress(pending + other.pending, sent + other.sent, delivered + other.delivered, failed + other.failed, undeliverable + other.undeliverable);
+		}
+
+		public Progress minus(final Progress other) {
+			return new Progress(pending - other.pending, sent - other.sent, delivered - other.delivered, failed - other.failed, undeliverable - other.undeliverable);
+		}
+
+		public int total() {
+			return pending + sent + delivered + failed + undeliverable;
+		}
+	}
+
+	static class ProgressMapper implements RowMapper<Progress> {
+
+		@Override
+		public Progress mapRow(final ResultSet resultSet, final int rowNum) throws SQLException {
+			return new Progress(
+				resultSet.getInt("pending"),
+				resultSet.getInt("sent"),
+				resultSet.getInt("delivered"),
+				resultSet.getInt("failed"),
+				resultSet.getInt("undeliverable"));
+		}
+	}
+}
@@ -1,12 +1,19 @@
 package se.sundsvall.postportalservice.integration.db.dao;
 
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import se.sundsvall.postportalservice.integration.db.AttachmentEntity;
+import se.sundsvall.postportalservice.integration.db.DepartmentEntity;
 import se.sundsvall.postportalservice.integration.db.MessageEntity;
+import se.sundsvall.postportalservice.integration.db.UserEntity;
 import se.sundsvall.postportalservice.integration.db.converter.MessageType;
 
 @Repository
@@ -17,4 +24,56 @@ public interface MessageRepository extends JpaRepository<MessageEntity, String>
 	Optional<MessageEntity> findByMunicipalityIdAndIdAndUserUsernameIgnoreCase(final String municipalityId, final String messageId, final String username);
 
 	Optional<MessageEntity> findByIdAndMessageType(final String messageId, final MessageType messageType);
+
+	/**
+	 * Reads what is needed to deliver a message without its recipients, which are always fetched with the message
+	 * entity.
+	 *
+	 * @param  messageId the id of the message
+	 * @return           the message, or empty if there is no such message
+	 */
+	@Query("""
+		SELECT m.id AS id, m.municipalityId AS municipalityId, m.displayName AS displayName, m.messageType AS messageType,
+			m.subject AS subject, m.body AS body, m.contentType AS contentType, m.created AS created, u AS user, d AS department
+		FROM MessageEntity m
+		LEFT JOIN m.user u
+		LEFT JOIN m.department d
+		WHERE m.id = :messageId
+		""")
+	Optional<DeliveryMessage> findDeliveryMessageById(@Param("messageId") final String messageId);
+
+	/**
+	 * Reads the attachments of a message, without reading the message itself.
+	 *
+	 * @param  messageId the id of the message
+	 * @return           the attachments of the message
+	 */
+	@Query("SELECT a FROM MessageEntity m JOIN m.attachments a WHERE m.id = :messageId")
+	List<AttachmentEntity> findAttachmentsByMessageId(@Param("messageId") final String messageId);
+
+	/**
+	 * A message as needed for delivery, i.e. without recipients and attachments.
+	 */
+	interface DeliveryMessage {
+
+		String getId();
+
+		String getMunicipalityId();
+
+		String getDisplayName();
+
+		MessageType getMessageType();
+
+		String getSubject();
+
+		String getBody();
+
+		String getContentType();
+
+		OffsetDateTime getCreated();
+
+		UserEntity getUser();
+
+		DepartmentEntity getDepartment();
+	}
 }
@@ -0,0 +1,129 @@
+package se.sundsvall.postportalservice.integration.db.dao;
+
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import se.sundsvall.postportalservice.integration.db.RecipientEntity;
+import se.sundsvall.postportalservice.integration.db.dao.MessageProgressRepository.Progress;
+
+import static java.util.Optional.ofNullable;
+
+/**
+ * Writes the delivery outcome of recipients with a single JDBC batch, instead of merging each recipient entity in a
+ * transaction of its own. Only the columns a delivery changes are written. The progress counters of the messages are
+ * moved in the same transaction, from the status each recipient had to the status written.
+ */
+@Repository
+public class RecipientStatusRepository {
+
+	private final NamedParameterJdbcTemplate jdbcTemplate;
+	private final MessageProgressRepository messageProgressRepository;
+
+	public RecipientStatusRepository(final NamedParameterJdbcTemplate jdbcTemplate, final MessageProgressRepository messageProgressRepository) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.messageProgressRepository = messageProgressRepository;
+	}
+
+	/**
+	 * Updates the status of the given recipients in one transaction, as one batch of statements.
+	 *
+	 * @param statuses the recipient statuses to write
+	 */
+	@Transactional
+	@CircuitBreaker(name = "recipientStatusRepository")
+	public void updateStatuses(final Collection<RecipientStatus> statuses) {
+		if (statuses.isEmpty()) {
+			return;
+		}
+
+		// Locked in id order, so concurrent writers can't deadlock
+		var selectParameters = Map.of("ids", statuses.stream().map(RecipientStatus::id).sorted().toList());
+		var selectSql = """
+			SELECT id, message_id, status
+			FROM recipient
+			WHERE id IN (:ids)
+			ORDER BY id
+			FOR UPDATE
+			""";
+
+		final var previousStatuses = new HashMap<String, PreviousStatus>();
+		jdbcTemplate.query(selectSql, selectParameters, (RowCallbackHandler) resultSet -> previousStatuses.put(resultSet.getString("id"),
+			new PreviousStatus(resultSet.getString("message_id"), resultSet.getString("status"))));
+
+		var updateSql = """
+			UPDATE recipient
+			SET status = :status, status_detail = :statusDetail, external_id = :externalId,
+				delivery_state = :deliveryState, lease_expires = :leaseExpires, attempts = :attempts, next_attempt = :nextAttempt
+			WHERE id = :id
+			""";
+
+		jdbcTemplate.batchUpdate(updateSql, statuses.stream()
+			.map(RecipientStatusRepository::toParameters)
+			.toArray(SqlParameterSource[]::new));
+
+		final var progressDeltas = new HashMap<String, Progress>();
+		statuses.forEach(status -> ofNullable(previousStatuses.get(status.id())).ifPresent(previous -> progressDeltas.merge(previous.messageId(),
+			Progress.of(status.status()).minus(Progress.of(previous.status())), Progress::plus)));
+		messageProgressRepository.add(progressDeltas);
+	}
+
+	private static SqlParameterSource toParameters(final RecipientStatus status) {
+		return new MapSqlParameterSource()
+			.addValue("id", status.id())
+			.addValue("status", status.status())
+			.addValue("statusDetail", status.statusDetail())
+			.addValue("externalId", status.externalId())
+			.addValue("deliveryState", status.deliveryState())
+			.addValue("leaseExpires", toLocalDateTime(status.leaseExpires()))
+			.addValue("attempts", status.attempts())
+			.addValue("nextAttempt", toLocalDateTime(status.nextAttempt()));
+	}
+
+	/**
+	 * The entity stores its timestamps normalized to the default time zone, so the same is done here.
+	 */
+	private static LocalDateTime toLocalDateTime(final OffsetDateTime dateTime) {
+		return ofNullable(dateTime)
+			.map(value -> value.atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime())
+			.orElse(null);
+	}
+
+	private record PreviousStatus(String messageId, String status) {
+	}
+
+	/**
+	 * A snapshot of the delivery outcome of a recipient.
+	 */
+	public record RecipientStatus(
+		String id,
+		String status,
+		String statusDetail,
+		String externalId,
+		String deliveryState,
+		OffsetDateTime leaseExpires,
+		Integer attempts,
+		OffsetDateTime nextAttempt) {
+
+		public static RecipientStatus of(final RecipientEntity recipientEntity) {
+			return new RecipientStatus(
+				recipientEntity.getId(),
+				recipientEntity.getStatus(),
+				recipientEntity.getStatusDetail(),
+				recipientEntity.getExternalId(),
+				recipientEntity.getDeliveryState(),
+				recipientEntity.getLeaseExpires(),
+				recipientEntity.getAttempts(),
+				recipientEntity.getNextAttempt());
+		}
+	}
+}
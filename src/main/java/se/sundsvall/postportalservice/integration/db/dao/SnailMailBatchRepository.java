@@ -0,0 +1,87 @@
+package se.sundsvall.postportalservice.integration.db.dao;
+
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import java.util.Map;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import static se.sundsvall.postportalservice.Constants.TRIGGERING;
+
+/**
+ * Keeps track of the snail-mail batch of a message. The batch may only be triggered once every snail-mail recipient of
+ * the message has been handled, i.e. has been accepted by messaging or has failed, and at least one of them has been
+ * accepted. Handled recipients are counted down on the message progress - created with the message by the
+ * {@link MessageProgressRepository} - so each recipient costs a constant amount of work however many recipients the
+ * message has. A recipient is counted down only once, when it is marked as handled, so a recipient delivered again -
+ * e.g. redelivered from the outbox - doesn't count twice. The trigger is claimed with a conditional update, so exactly
+ * one caller gets to make it no matter how many recipients are delivered concurrently.
+ */
+@Repository
+public class SnailMailBatchRepository {
+
+	private final NamedParameterJdbcTemplate jdbcTemplate;
+
+	public SnailMailBatchRepository(final NamedParameterJdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Records that a snail-mail recipient of a message has been handled and claims the right to trigger the snail-mail
+	 * batch of the message. A recipient already recorded as handled is not counted again. Succeeds only if the batch has
+	 * not been claimed before, no snail-mail recipient of the message is still waiting to be handled and at least one has
+	 * been accepted.
+	 *
+	 * @param  messageId   the id of the message
+	 * @param  recipientId the id of the handled recipient
+	 * @param  accepted    whether the recipient was accepted by messaging, rather than failed
+	 * @return             true if the caller should trigger the batch, false otherwise
+	 */
+	@Transactional
+	@CircuitBreaker(name = "snailMailBatchRepository")
+	public boolean claimTrigger(final String messageId, final String recipientId, final boolean accepted) {
+		var countParameters = Map.of("messageId", messageId, "recipientId", recipientId, "accepted", accepted ? 1 : 0);
+		var countSql = """
+			UPDATE recipient r
+			JOIN message_progress p ON p.message_id = r.message_id
+			SET r.snail_mail_handled = TRUE,
+				p.snail_mail_pending = p.snail_mail_pending - 1, p.snail_mail_accepted = p.snail_mail_accepted + :accepted
+			WHERE r.id = :recipientId
+			AND r.message_id = :messageId
+			AND r.snail_mail_handled = FALSE
+			""";
+
+		jdbcTemplate.update(countSql, countParameters);
+
+		var claimParameters = Map.of("messageId", messageId, "triggering", TRIGGERING);
+		var claimSql = """
+			UPDATE message m
+			JOIN message_progress p ON p.message_id = m.id
+			SET m.snail_mail_batch_status = :triggering
+			WHERE m.id = :messageId
+			AND m.snail_mail_batch_status IS NULL
+			AND p.snail_mail_pending <= 0
+			AND p.snail_mail_accepted > 0
+			""";
+
+		return jdbcTemplate.update(claimSql, claimParameters) == 1;
+	}
+
+	/**
+	 * Records the outcome of triggering the snail-mail batch of a message.
+	 *
+	 * @param messageId the id of the message
+	 * @param status    the outcome, e.g. {@code TRIGGERED} or {@code FAILED}
+	 */
+	@CircuitBreaker(name = "snailMailBatchRepository")
+	public void recordOutcome(final String messageId, final String status) {
+		var parameters = Map.of("messageId", messageId, "status", status);
+		var sql = """
+			UPDATE message
+			SET snail_mail_batch_status = :status, snail_mail_batch_triggered = NOW()
+			WHERE id = :messageId
+			""";
+
+		jdbcTemplate.update(sql, parameters);
+	}
+}
@@ -59,6 +59,13 @@ public interface MessagingClient {
 		@RequestBody final SnailmailRequest request,
 		@RequestParam final String batchId);
 
+	@PostMapping(path = "/{municipalityId}/snail-mail/batch/{batchId}")
+	void triggerSnailMailBatchProcessing(
+		@RequestHeader(Identifier.HEADER_NAME) String identifier,
+		@RequestHeader("x-origin") final String origin,
+		@PathVariable final String municipalityId,
+		@PathVariable final String batchId);
+
 	@PostMapping(path = "/{municipalityId}/{organizationNumber}/mailboxes", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
 	List<Mailbox> precheckMailboxes(
 		@PathVariable final String municipalityId,
@@ -1,8 +1,13 @@
 package se.sundsvall.postportalservice.integration.messaging;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import generated.se.sundsvall.messaging.DigitalMailRequest;
+import generated.se.sundsvall.messaging.EmailAttachment;
 import generated.se.sundsvall.messaging.Mailbox;
 import generated.se.sundsvall.messaging.MessageBatchResult;
 import generated.se.sundsvall.messaging.MessageResult;
+import generated.se.sundsvall.messaging.SnailmailRequest;
 import java.util.List;
 import java.util.Map;
 import org.slf4j.Logger;
@@ -14,12 +19,18 @@ import se.sundsvall.postportalservice.service.util.RecipientId;
 
 import static se.sundsvall.postportalservice.Constants.ORIGIN;
 import static se.sundsvall.postportalservice.integration.messaging.MessagingMapper.toDigitalMailRequest;
-import static se.sundsvall.postportalservice.integration.messaging.MessagingMapper.toEmailAttachments;
 import static se.sundsvall.postportalservice.integration.messaging.MessagingMapper.toEmailRequest;
+import static se.sundsvall.postportalservice.integration.messaging.MessagingMapper.toSmsBatchRequest;
 import static se.sundsvall.postportalservice.integration.messaging.MessagingMapper.toSmsRequest;
 import static se.sundsvall.postportalservice.integration.messaging.MessagingMapper.toSnailmailRequest;
 import static se.sundsvall.postportalservice.service.util.IdentifierUtil.getIdentifierHeaderValue;
 
+/**
+ * Sends messages through the messaging service. The parts of a request that are the same for every recipient of a
+ * message - content, department, support info and, above all, the base64 encoded attachments - are mapped once per
+ * message into a template, and each recipient's request only adds its own party and address to it. Templates are held
+ * for as long as the message entity they were built from is in use.
+ */
 @Component
 public class MessagingIntegration {
 
@@ -27,6 +38,11 @@ public class MessagingIntegration {
 
 	private final MessagingClient client;
 
+	// Weak keys compare by identity, so a template lives exactly as long as the message instance being delivered
+	private final Cache<MessageEntity, DigitalMailRequest> digitalMailTemplates = Caffeine.newBuilder().weakKeys().build();
+	private final Cache<MessageEntity, SnailmailRequest> snailmailTemplates = Caffeine.newBuilder().weakKeys().build();
+	private final Cache<MessageEntity, List<EmailAttachment>> emailAttachments = Caffeine.newBuilder().weakKeys().build();
+
 	public MessagingIntegration(final MessagingClient client) {
 		this.client = client;
 	}
@@ -34,7 +50,24 @@ public class MessagingIntegration {
 	public MessageBatchResult sendDigitalMail(final MessageEntity messageEntity, final RecipientEntity recipientEntity) {
 		LOG.info("Sending digital mail to recipient with id {}", recipientEntity.getId());
 		RecipientId.init(recipientEntity.getId());
-		final var digitalMailRequest = toDigitalMailRequest(messageEntity, recipientEntity.getPartyId());
+		final var digitalMailRequest = toDigitalMailRequest(digitalMailTemplates.get(messageEntity, MessagingMapper::toDigitalMailTemplate), List.of(recipientEntity.getPartyId()));
+
+		return client.sendDigitalMail(getIdentifierHeaderValue(messageEntity.getUser().getUsername()),
+			ORIGIN,
+			messageEntity.getMunicipalityId(),
+			messageEntity.getDepartment().getOrganizationNumber(),
+			digitalMailRequest);
+	}
+
+	/**
+	 * Sends the message as one digital mail to all the given recipients. Messaging returns one message result per party,
+	 * in the same order as the parties of the request.
+	 */
+	public MessageBatchResult sendDigitalMail(final MessageEntity messageEntity, final List<RecipientEntity> recipientEntities) {
+		LOG.info("Sending digital mail to {} recipients for message with id {}", recipientEntities.size(), messageEntity.getId());
+		final var digitalMailRequest = toDigitalMailRequest(digitalMailTemplates.get(messageEntity, MessagingMapper::toDigitalMailTemplate), recipientEntities.stream()
+			.map(RecipientEntity::getPartyId)
+			.toList());
 
 		return client.sendDigitalMail(getIdentifierHeaderValue(messageEntity.getUser().getUsername()),
 			ORIGIN,
@@ -45,7 +78,7 @@ public class MessagingIntegration {
 
 	public MessageResult sendSnailMail(final MessageEntity messageEntity, final RecipientEntity recipientEntity) {
 		RecipientId.init(recipientEntity.getId());
-		final var snailmailRequest = toSnailmailRequest(messageEntity, recipientEntity);
+		final var snailmailRequest = toSnailmailRequest(snailmailTemplates.get(messageEntity, MessagingMapper::toSnailmailTemplate), recipientEntity);
 
 		return client.sendSnailMail(getIdentifierHeaderValue(messageEntity.getUser().getUsername()),
 			ORIGIN,
@@ -54,6 +87,18 @@ public class MessagingIntegration {
 			messageEntity.getId());
 	}
 
+	/**
+	 * Triggers processing of the snail-mail batch of a message, i.e. hands every snail mail added to it over to
+	 * print-and-post. The message id is used as batch id when the snail mail is added.
+	 */
+	public void triggerSnailMailBatch(final MessageEntity messageEntity) {
+		LOG.info("Triggering snail mail batch for message with id {}", messageEntity.getId());
+		client.triggerSnailMailBatchProcessing(getIdentifierHeaderValue(messageEntity.getUser().getUsername()),
+			ORIGIN,
+			messageEntity.getMunicipalityId(),
+			messageEntity.getId());
+	}
+
 	public MessageResult sendSms(final MessageEntity messageEntity, final RecipientEntity recipientEntity) {
 		LOG.info("Sending SMS to recipient with id {}", recipientEntity.getId());
 		RecipientId.init(recipientEntity.getId());
@@ -65,6 +110,20 @@ public class MessagingIntegration {
 			smsRequest);
 	}
 
+	/**
+	 * Sends the message as one SMS batch to all the given recipients. Messaging returns one message result per party, in
+	 * the same order as the parties of the request.
+	 */
+	public MessageBatchResult sendSmsBatch(final MessageEntity messageEntity, final List<RecipientEntity> recipientEntities) {
+		LOG.info("Sending SMS batch to {} recipients for message with id {}", recipientEntities.size(), messageEntity.getId());
+		final var smsBatchRequest = toSmsBatchRequest(messageEntity, recipientEntities);
+
+		return client.sendSmsBatch(getIdentifierHeaderValue(messageEntity.getUser().getUsername()),
+			ORIGIN,
+			messageEntity.getMunicipalityId(),
+			smsBatchRequest);
+	}
+
 	public List<Mailbox> precheckMailboxes(final String municipalityId, final String organizationNumber, final List<String> partyIds) {
 		return client.precheckMailboxes(municipalityId, organizationNumber, partyIds);
 	}
@@ -72,8 +131,7 @@ public class MessagingIntegration {
 	public MessageResult sendCallbackEmail(final MessageEntity messageEntity, final RecipientEntity recipientEntity, final Map<String, String> settingsMap) {
 		RecipientId.init(recipientEntity.getId());
 		final var emailRequest = toEmailRequest(recipientEntity, settingsMap);
-		final var emailAttachments = toEmailAttachments(messageEntity);
-		emailRequest.setAttachments(emailAttachments);
+		emailRequest.setAttachments(emailAttachments.get(messageEntity, MessagingMapper::toEmailAttachments));
 
 		return client.sendEmail(
 			getIdentifierHeaderValue(messageEntity.getUser().getUsername()),
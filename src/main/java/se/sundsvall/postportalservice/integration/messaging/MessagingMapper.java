@@ -11,15 +11,12 @@ import generated.se.sundsvall.messaging.EmailRequest;
 import generated.se.sundsvall.messaging.EmailRequestParty;
 import generated.se.sundsvall.messaging.EmailSender;
 import generated.se.sundsvall.messaging.SmsBatchRequest;
+import generated.se.sundsvall.messaging.SmsBatchRequestParty;
 import generated.se.sundsvall.messaging.SmsRequest;
 import generated.se.sundsvall.messaging.SmsRequestParty;
 import generated.se.sundsvall.messaging.SnailmailAttachment;
 import generated.se.sundsvall.messaging.SnailmailParty;
 import generated.se.sundsvall.messaging.SnailmailRequest;
-import java.sql.Blob;
-import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.Base64;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -70,17 +67,48 @@ public final class MessagingMapper {
 			.party(new SmsRequestParty().partyId(recipientEntity.getPartyId()));
 	}
 
-	public static SmsBatchRequest toSmsBatchRequest() {
-		return new SmsBatchRequest();
+	public static SmsBatchRequest toSmsBatchRequest(final MessageEntity messageEntity, final List<RecipientEntity> recipientEntities) {
+		if (anyNull(messageEntity, recipientEntities)) {
+			return null;
+		}
+		return new SmsBatchRequest()
+			.sender(messageEntity.getDisplayName())
+			.message(messageEntity.getBody())
+			.department(messageEntity.getDepartment().getName())
+			.parties(recipientEntities.stream()
+				.map(MessagingMapper::toSmsBatchRequestParty)
+				.toList());
+	}
+
+	public static SmsBatchRequestParty toSmsBatchRequestParty(final RecipientEntity recipientEntity) {
+		return Optional.ofNullable(recipientEntity).map(_ -> new SmsBatchRequestParty()
+			.partyId(recipientEntity.getPartyId())
+			.mobileNumber(recipientEntity.getPhoneNumber()))
+			.orElse(null);
 	}
 
 	public static DigitalMailRequest toDigitalMailRequest(final MessageEntity messageEntity, final String partyId) {
+		return toDigitalMailRequest(messageEntity, List.of(partyId));
+	}
+
+	/**
+	 * Maps a message to a single digital mail request addressed to all the given parties, so the content and attachments
+	 * are only sent once.
+	 */
+	public static DigitalMailRequest toDigitalMailRequest(final MessageEntity messageEntity, final List<String> partyIds) {
+		return toDigitalMailRequest(toDigitalMailTemplate(messageEntity), partyIds);
+	}
+
+	/**
+	 * Maps the parts of a digital mail request that are the same for every recipient of a message, i.e. everything but
+	 * the party. The template is never sent as is, see {@link #toDigitalMailRequest(DigitalMailRequest, List)}.
+	 */
+	public static DigitalMailRequest toDigitalMailTemplate(final MessageEntity messageEntity) {
 		return Optional.ofNullable(messageEntity).map(_ -> new DigitalMailRequest()
 			.contentType(DigitalMailRequest.ContentTypeEnum.fromValue(messageEntity.getContentType()))
 			.body(messageEntity.getBody())
 			.subject(messageEntity.getSubject())
 			.department(messageEntity.getDepartment().getName())
-			.party(new DigitalMailParty().partyIds(List.of(UUID.fromString(partyId))))
 			.attachments(toDigitalMailAttachments(messageEntity.getAttachments()))
 			.sender(new DigitalMailSender().supportInfo(new DigitalMailSenderSupportInfo()
 				.emailAddress(messageEntity.getDepartment().getContactInformationEmail())
@@ -90,6 +118,22 @@ public final class MessagingMapper {
 			.orElse(null);
 	}
 
+	/**
+	 * Creates a digital mail request from a template, addressed to the given parties. The shared parts, attachments
+	 * included, are referenced rather than copied, so neither the template nor the request may be modified afterwards.
+	 */
+	public static DigitalMailRequest toDigitalMailRequest(final DigitalMailRequest template, final List<String> partyIds) {
+		return Optional.ofNullable(template).map(_ -> new DigitalMailRequest()
+			.contentType(template.getContentType())
+			.body(template.getBody())
+			.subject(template.getSubject())
+			.department(template.getDepartment())
+			.party(new DigitalMailParty().partyIds(partyIds.stream().map(UUID::fromString).toList()))
+			.attachments(template.getAttachments())
+			.sender(template.getSender()))
+			.orElse(null);
+	}
+
 	public static List<DigitalMailAttachment> toDigitalMailAttachments(final List<AttachmentEntity> attachmentEntities) {
 		return Optional.ofNullable(attachmentEntities).orElse(emptyList()).stream()
 			.map(MessagingMapper::toDigitalMailAttachment)
@@ -108,12 +152,36 @@ public final class MessagingMapper {
 		if (anyNull(messageEntity, recipientEntity)) {
 			return null;
 		}
+		return toSnailmailRequest(toSnailmailTemplate(messageEntity), recipientEntity);
+	}
+
+	/**
+	 * Maps the parts of a snail mail request that are the same for every recipient of a message, i.e. everything but
+	 * the party and address. The template is never sent as is, see {@link #toSnailmailRequest(SnailmailRequest,
+	 * RecipientEntity)}.
+	 */
+	public static SnailmailRequest toSnailmailTemplate(final MessageEntity messageEntity) {
+		return Optional.ofNullable(messageEntity).map(_ -> new SnailmailRequest()
+			.attachments(toSnailmailAttachments(messageEntity.getAttachments()))
+			.department(messageEntity.getDepartment().getName())
+			.folderName(messageEntity.getDepartment().getFolderName()))
+			.orElse(null);
+	}
+
+	/**
+	 * Creates a snail mail request from a template, addressed to the given recipient. The shared parts, attachments
+	 * included, are referenced rather than copied, so neither the template nor the request may be modified afterwards.
+	 */
+	public static SnailmailRequest toSnailmailRequest(final SnailmailRequest template, final RecipientEntity recipientEntity) {
+		if (anyNull(template, recipientEntity)) {
+			return null;
+		}
 		return new SnailmailRequest()
 			.party(new SnailmailParty().partyId(recipientEntity.getPartyId()))
 			.address(toAddress(recipientEntity))
-			.attachments(toSnailmailAttachments(messageEntity.getAttachments()))
-			.department(messageEntity.getDepartment().getName())
-			.folderName(messageEntity.getDepartment().getFolderName());
+			.attachments(template.getAttachments())
+			.department(template.getDepartment())
+			.folderName(template.getFolderName());
 	}
 
 	public static List<SnailmailAttachment> toSnailmailAttachments(final List<AttachmentEntity> attachmentEntities) {
@@ -145,11 +213,9 @@ public final class MessagingMapper {
 	}
 
 	public static List<EmailAttachment> toEmailAttachments(final MessageEntity messageEntity) {
-		final var emailAttachments = new ArrayList<EmailAttachment>();
-		ofNullable(messageEntity.getAttachments()).orElse(emptyList())
-			.forEach(entity -> emailAttachments.add(toEmailAttachment(entity)));
-
-		return emailAttachments;
+		return ofNullable(messageEntity.getAttachments()).orElse(emptyList()).stream()
+			.map(MessagingMapper::toEmailAttachment)
+			.toList();
 	}
 
 	public static EmailRequest toEmailRequest(final RecipientEntity recipientEntity, final Map<String, String> settingsMap) {
@@ -177,20 +243,8 @@ public final class MessagingMapper {
 		return new EmailAttachment()
 			.contentType(attachmentEntity.getContentType())
 			.name(attachmentEntity.getFileName())
-			.content(blobToBase64(attachmentEntity.getContent()));
-	}
-
-	private static String blobToBase64(final Blob blob) {
-		if (blob == null) {
-			throw Problem.valueOf(BAD_GATEWAY, "No attachment, nothing to attach in email.");
-		}
-
-		try {
-			byte[] bytes = blob.getBytes(1, (int) blob.length());
-			return Base64.getEncoder().encodeToString(bytes);
-		} catch (SQLException e) {
-			throw Problem.valueOf(BAD_GATEWAY, "Couldn't read blob from entity, not sending email. " + e.getMessage());
-		}
+			.content(ofNullable(attachmentEntity.getContentString())
+				.orElseThrow(() -> Problem.valueOf(BAD_GATEWAY, "No attachment, nothing to attach in email.")));
 	}
 
 }
@@ -0,0 +1,100 @@
+package se.sundsvall.postportalservice.service;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import se.sundsvall.dept44.exception.ServerProblem;
+import se.sundsvall.postportalservice.configuration.DeliveryExecutorConfiguration.DeliveryConcurrencyProperties.Adaptive;
+import se.sundsvall.postportalservice.util.FailureUtil;
+
+/**
+ * An AIMD (additive increase, multiplicative decrease) limit on the number of concurrent calls to the messaging
+ * service. Every call that succeeds within the latency threshold grows the limit by {@code 1 / limit}, i.e. by roughly
+ * one per full window of calls. A call that is slower than the threshold, fails with a server error, or times out
+ * shrinks the limit by {@code backoffRatio}. Other failures, e.g. a rejected phone number, say nothing about the health
+ * of messaging and leave the limit unchanged.
+ */
+class AdaptiveConcurrencyLimit {
+
+	private final ReentrantLock lock = new ReentrantLock(true);
+	private final Condition available = lock.newCondition();
+
+	private final int minLimit;
+	private final int maxLimit;
+	private final double backoffRatio;
+	private final long latencyThresholdNanos;
+
+	private double limit;
+	private int inFlight;
+
+	AdaptiveConcurrencyLimit(final Adaptive properties) {
+		this.minLimit = properties.minLimit();
+		this.maxLimit = properties.maxLimit();
+		this.backoffRatio = properties.backoffRatio();
+		this.latencyThresholdNanos = properties.latencyThreshold().toNanos();
+		this.limit = Math.clamp(properties.initialLimit(), minLimit, maxLimit);
+	}
+
+	/**
+	 * Waits until the number of calls in flight is below the current limit, then takes a slot.
+	 *
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	void acquire() throws InterruptedException {
+		lock.lock();
+		try {
+			while (inFlight >= getLimit()) {
+				available.await();
+			}
+			inFlight++;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the slot taken by {@link #acquire()} and adjusts the limit from the outcome of the call.
+	 *
+	 * @param latency the duration of the call
+	 * @param failure the exception the call failed with, or {@code null} if it succeeded
+	 */
+	void release(final Duration latency, final Throwable failure) {
+		lock.lock();
+		try {
+			inFlight--;
+			if (latency.toNanos() > latencyThresholdNanos || isOverload(failure)) {
+				limit = Math.max(minLimit, limit * backoffRatio);
+			} else if (failure == null) {
+				limit = Math.min(maxLimit, limit + 1 / limit);
+			}
+			available.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the current limit, i.e. the number of calls allowed in flight.
+	 */
+	int getLimit() {
+		return (int) limit;
+	}
+
+	int getInFlight() {
+		lock.lock();
+		try {
+			return inFlight;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * A failure signals overload if messaging failed with a server error or didn't answer in time. The problem error
+	 * decoder reports every error response from messaging as 502, a {@link ServerProblem} for a 5xx and a
+	 * {@code ClientProblem} for a 4xx, so the type of the failure tells them apart rather than its status.
+	 */
+	static boolean isOverload(final Throwable failure) {
+		return FailureUtil.isTransient(failure);
+	}
+}
@@ -0,0 +1,47 @@
+package se.sundsvall.postportalservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import se.sundsvall.postportalservice.configuration.DeliveryOutboxConfiguration.DeliveryAttachmentCacheProperties;
+import se.sundsvall.postportalservice.integration.attachmentstore.AttachmentStore;
+import se.sundsvall.postportalservice.service.util.BlobUtil;
+
+/**
+ * Base64 encoded attachment content, shared by deliveries so that content is read from the attachment store and
+ * encoded once rather than each time a message carrying it is delivered. Content is keyed by its hash, so attachments
+ * with the same content - also in different messages - share an entry. The cache is bounded by the total encoded size
+ * of its entries and publishes its hits, misses and evictions as the {@code attachmentPayloads} cache metrics.
+ */
+@Component
+public class AttachmentPayloadCache {
+
+	static final String CACHE_NAME = "attachmentPayloads";
+
+	private final AttachmentStore attachmentStore;
+	private final Cache<String, String> cache;
+
+	public AttachmentPayloadCache(final AttachmentStore attachmentStore, final DeliveryAttachmentCacheProperties properties, final MeterRegistry meterRegistry) {
+		this.attachmentStore = attachmentStore;
+		this.cache = Caffeine.newBuilder()
+			.maximumWeight(properties.maxSize().toBytes())
+			// A Base64 string holds one byte per character
+			.weigher((String _, String content) -> content.length())
+			.recordStats()
+			.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+	}
+
+	/**
+	 * Returns stored content, Base64 encoded. Content that is not cached is read from the attachment store; concurrent
+	 * requests for the same content wait for the one reading it.
+	 *
+	 * @param  contentHash the SHA-256 hash of the content, hex encoded
+	 * @return             the content, Base64 encoded
+	 */
+	public String getBase64(final String contentHash) {
+		return cache.get(contentHash, hash -> BlobUtil.convertStoredContentToBase64String(attachmentStore.get(hash)));
+	}
+}
@@ -3,42 +3,120 @@ package se.sundsvall.postportalservice.service;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
-import java.sql.SQLException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
 import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.InvalidMediaTypeException;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StreamUtils;
 import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.postportalservice.integration.attachmentstore.AttachmentStore;
+import se.sundsvall.postportalservice.integration.attachmentstore.AttachmentStore.StoredContent;
 import se.sundsvall.postportalservice.integration.db.AttachmentEntity;
+import se.sundsvall.postportalservice.integration.db.dao.AttachmentContentRepository;
 import se.sundsvall.postportalservice.integration.db.dao.AttachmentRepository;
 
+import static java.time.temporal.ChronoUnit.SECONDS;
 import static java.util.Optional.ofNullable;
+import static org.springframework.http.HttpHeaders.ACCEPT_RANGES;
+import static org.springframework.http.HttpHeaders.CONTENT_RANGE;
+import static org.springframework.http.HttpHeaders.IF_RANGE;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
+import static org.springframework.http.HttpStatus.PARTIAL_CONTENT;
+import static org.springframework.http.HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE;
 import static org.springframework.http.MediaType.APPLICATION_OCTET_STREAM;
 
 @Service
 public class AttachmentService {
 
 	private final AttachmentRepository attachmentRepository;
+	private final AttachmentContentRepository attachmentContentRepository;
+	private final AttachmentStore attachmentStore;
 
-	public AttachmentService(final AttachmentRepository attachmentRepository) {
+	public AttachmentService(final AttachmentRepository attachmentRepository, final AttachmentContentRepository attachmentContentRepository, final AttachmentStore attachmentStore) {
 		this.attachmentRepository = attachmentRepository;
+		this.attachmentContentRepository = attachmentContentRepository;
+		this.attachmentStore = attachmentStore;
 	}
 
-	public AttachmentData getAttachmentData(final String municipalityId, final String attachmentId) {
-		var attachmentEntity = getAttachmentById(attachmentId);
+	/**
+	 * Builds the response to a download of attachment content. The hash of the content is its entity tag, as content
+	 * never changes under its hash, and the time the attachment was created its last modification. Conditional requests
+	 * matching these are answered with 304 without reading the content, and a single byte range is answered with 206 and
+	 * read from the store alone. Several ranges in one request are answered with the whole content.
+	 *
+	 * @param  municipalityId the municipality id
+	 * @param  attachmentId   the id of the attachment
+	 * @param  requestHeaders the headers of the download request
+	 * @return                the response, streaming the content when there is any to send
+	 */
+	public ResponseEntity<StreamingResponseBody> downloadAttachment(final String municipalityId, final String attachmentId, final HttpHeaders requestHeaders) {
+		final var attachmentEntity = getAttachmentById(attachmentId);
+		final var contentHash = ofNullable(attachmentEntity.getContentHash())
+			.orElseThrow(() -> Problem.valueOf(INTERNAL_SERVER_ERROR, "No content for attachment with id '%s'".formatted(attachmentId)));
 
-		final StreamingResponseBody contentStream = output -> writeAttachmentContent(attachmentEntity, output);
-		final var contentType = parseMediaType(attachmentEntity);
+		final var eTag = "\"%s\"".formatted(contentHash);
+		final var lastModified = ofNullable(attachmentEntity.getCreated())
+			.map(created -> created.toInstant().truncatedTo(SECONDS))
+			.orElse(null);
 
-		var contentDisposition = ContentDisposition.attachment()
+		final var headers = new HttpHeaders();
+		headers.setETag(eTag);
+		ofNullable(lastModified).ifPresent(headers::setLastModified);
+
+		if (isNotModified(requestHeaders, eTag, lastModified)) {
+			return ResponseEntity.status(NOT_MODIFIED).headers(headers).build();
+		}
+
+		headers.setContentDisposition(ContentDisposition.attachment()
 			.filename(ofNullable(attachmentEntity.getFileName()).orElse("attachment"), StandardCharsets.UTF_8)
-			.build();
+			.build());
+		headers.setContentType(parseMediaType(attachmentEntity));
+
+		// Content stored in an external store before lengths were recorded can only be sent whole
+		final var length = attachmentContentRepository.getLength(contentHash);
+		if (length.isEmpty()) {
+			return ResponseEntity.ok()
+				.headers(headers)
+				.body(output -> writeContent(attachmentId, () -> attachmentStore.get(contentHash), output));
+		}
+
+		headers.set(ACCEPT_RANGES, "bytes");
+		final var contentLength = length.get();
+		final var range = getRange(requestHeaders, eTag, lastModified).filter(_ -> contentLength > 0);
+		if (range.isEmpty()) {
+			headers.setContentLength(contentLength);
+			return ResponseEntity.ok()
+				.headers(headers)
+				.body(output -> writeContent(attachmentId, () -> attachmentStore.get(contentHash), output));
+		}
+
+		final long start;
+		final long end;
+		try {
+			start = range.get().getRangeStart(contentLength);
+			end = range.get().getRangeEnd(contentLength);
+		} catch (final IllegalArgumentException _) {
+			return notSatisfiable(contentLength);
+		}
+		if (end < start) {
+			return notSatisfiable(contentLength);
+		}
 
-		return new AttachmentData(contentDisposition, contentType, contentStream);
+		headers.set(CONTENT_RANGE, "bytes %d-%d/%d".formatted(start, end, contentLength));
+		headers.setContentLength(end - start + 1);
+		return ResponseEntity.status(PARTIAL_CONTENT)
+			.headers(headers)
+			.body(output -> writeContent(attachmentId, () -> attachmentStore.get(contentHash, start, end - start + 1), output));
 	}
 
 	public AttachmentEntity getAttachmentById(final String attachmentId) {
@@ -58,19 +136,72 @@ public class AttachmentService {
 			.orElse(APPLICATION_OCTET_STREAM);
 	}
 
-	private void writeAttachmentContent(final AttachmentEntity attachmentEntity, final OutputStream output) {
-		var content = ofNullable(attachmentEntity.getContent())
-			.orElseThrow(() -> Problem.valueOf(INTERNAL_SERVER_ERROR, "No content for attachment with id '%s'".formatted(attachmentEntity.getId())));
+	/**
+	 * If-None-Match takes precedence over If-Modified-Since, as for any conditional GET. Unparsable conditions are
+	 * ignored.
+	 */
+	private static boolean isNotModified(final HttpHeaders requestHeaders, final String eTag, final Instant lastModified) {
+		final List<String> ifNoneMatch;
+		try {
+			ifNoneMatch = requestHeaders.getIfNoneMatch();
+		} catch (final IllegalArgumentException _) {
+			return false;
+		}
+		if (!ifNoneMatch.isEmpty()) {
+			return ifNoneMatch.stream()
+				.map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+				.anyMatch(tag -> "*".equals(tag) || eTag.equals(tag));
+		}
 
-		try (var input = content.getBinaryStream()) {
-			StreamUtils.copy(input, output);
-		} catch (SQLException e) {
-			throw Problem.valueOf(INTERNAL_SERVER_ERROR, "Failed to open content stream for attachment with id '%s'".formatted(attachmentEntity.getId()));
-		} catch (IOException e) {
-			throw Problem.valueOf(INTERNAL_SERVER_ERROR, "Failed to stream content for attachment with id '%s'".formatted(attachmentEntity.getId()));
+		final var ifModifiedSince = requestHeaders.getIfModifiedSince();
+		return lastModified != null && ifModifiedSince >= 0 && lastModified.toEpochMilli() <= ifModifiedSince;
+	}
+
+	/**
+	 * Returns the requested range, if exactly one valid range is requested and If-Range, when present, still matches the
+	 * content.
+	 */
+	private static Optional<HttpRange> getRange(final HttpHeaders requestHeaders, final String eTag, final Instant lastModified) {
+		final List<HttpRange> ranges;
+		try {
+			ranges = requestHeaders.getRange();
+		} catch (final IllegalArgumentException _) {
+			return Optional.empty();
 		}
+		if (ranges.size() != 1 || !isRangeCurrent(requestHeaders, eTag, lastModified)) {
+			return Optional.empty();
+		}
+		return Optional.of(ranges.getFirst());
 	}
 
-	public record AttachmentData(ContentDisposition contentDisposition, MediaType contentType, StreamingResponseBody contentStream) {
+	private static boolean isRangeCurrent(final HttpHeaders requestHeaders, final String eTag, final Instant lastModified) {
+		final var ifRange = requestHeaders.getFirst(IF_RANGE);
+		if (ifRange == null) {
+			return true;
+		}
+		if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+			// Weak entity tags never match for ranges
+			return eTag.equals(ifRange);
+		}
+		try {
+			return lastModified != null && lastModified.toEpochMilli() == requestHeaders.getFirstDate(IF_RANGE);
+		} catch (final IllegalArgumentException _) {
+			return false;
+		}
+	}
+
+	private static ResponseEntity<StreamingResponseBody> notSatisfiable(final long contentLength) {
+		return ResponseEntity.status(REQUESTED_RANGE_NOT_SATISFIABLE)
+			.header(CONTENT_RANGE, "bytes */%d".formatted(contentLength))
+			.build();
+	}
+
+	private static void writeContent(final String attachmentId, final Supplier<StoredContent> contentSupplier, final OutputStream output) {
+		try (var content = contentSupplier.get()) {
+			// A range may be read from a stream continuing past it (see AttachmentStore)
+			StreamUtils.copyRange(content.inputStream(), output, 0, content.length() - 1);
+		} catch (IOException e) {
+			throw Problem.valueOf(INTERNAL_SERVER_ERROR, "Failed to stream content for attachment with id '%s'".formatted(attachmentId));
+		}
 	}
 }
@@ -0,0 +1,178 @@
+package se.sundsvall.postportalservice.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.dept44.problem.ThrowableProblem;
+import se.sundsvall.postportalservice.api.model.CsvJobStatus;
+import se.sundsvall.postportalservice.api.model.LetterCsvRequest;
+import se.sundsvall.postportalservice.configuration.CsvJobConfiguration.CsvJobProperties;
+import se.sundsvall.postportalservice.integration.db.RecipientEntity;
+import se.sundsvall.postportalservice.integration.db.dao.CsvJobRepository;
+import se.sundsvall.postportalservice.integration.db.dao.CsvJobRepository.ClaimedCsvJob;
+import se.sundsvall.postportalservice.integration.db.dao.CsvJobRepository.Phase;
+import se.sundsvall.postportalservice.integration.db.dao.MessageProgressRepository;
+import se.sundsvall.postportalservice.integration.db.dao.MessageRepository;
+import se.sundsvall.postportalservice.integration.messagingsettings.MessagingSettingsIntegration;
+import se.sundsvall.postportalservice.service.mapper.AttachmentMapper;
+
+import static java.util.Collections.emptyList;
+import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static se.sundsvall.postportalservice.integration.db.converter.MessageType.LETTER;
+import static se.sundsvall.postportalservice.service.util.CsvUtil.parseLetterCsv;
+
+/**
+ * Asynchronous mode of CSV sends. The request only validates the CSV file and persists the message, its attachments
+ * and a {@link CsvJobRepository job} holding the file. Resolving the recipients - party ids, mailbox precheck, citizen
+ * and legal entity lookups - and starting delivery is left to the {@link CsvJobWorker}, which records the phase and
+ * progress of the job as it goes.
+ */
+@Service
+public class CsvJobService {
+
+	private final MessageService messageService;
+	private final MessagingSettingsIntegration messagingSettingsIntegration;
+	private final PrecheckService precheckService;
+	private final AttachmentMapper attachmentMapper;
+	private final MessageRepository messageRepository;
+	private final MessageProgressRepository messageProgressRepository;
+	private final CsvJobRepository csvJobRepository;
+	private final CsvJobProperties properties;
+
+	public CsvJobService(
+		final MessageService messageService,
+		final MessagingSettingsIntegration messagingSettingsIntegration,
+		final PrecheckService precheckService,
+		final AttachmentMapper attachmentMapper,
+		final MessageRepository messageRepository,
+		final MessageProgressRepository messageProgressRepository,
+		final CsvJobRepository csvJobRepository,
+		final CsvJobProperties properties) {
+		this.messageService = messageService;
+		this.messagingSettingsIntegration = messagingSettingsIntegration;
+		this.precheckService = precheckService;
+		this.attachmentMapper = attachmentMapper;
+		this.messageRepository = messageRepository;
+		this.messageProgressRepository = messageProgressRepository;
+		this.csvJobRepository = csvJobRepository;
+		this.properties = properties;
+	}
+
+	/**
+	 * Accepts a letter CSV send for asynchronous processing. The message is persisted without recipients; they are added
+	 * by the job once resolved.
+	 *
+	 * @return the id of the job
+	 */
+	@Transactional
+	public String submitLetterJob(final String municipalityId, final LetterCsvRequest request, final MultipartFile csvFile, final List<MultipartFile> attachments) {
+		final var parsed = parseLetterCsv(csvFile);
+		final var total = parsed.privateIds().size() + parsed.enterpriseIds().size();
+
+		final var settingsMap = messagingSettingsIntegration.getMessagingSettingsForUser(municipalityId);
+		final var message = messageService.createMessage(municipalityId, settingsMap, LETTER, request.getSubject(), request.getBody(), request.getContentType());
+		message.setAttachments(attachmentMapper.toAttachmentEntities(attachments));
+
+		// Flushed, so that the message exists for its job
+		messageRepository.saveAndFlush(message);
+		return csvJobRepository.create(message.getId(), readContent(csvFile), total);
+	}
+
+	public CsvJobStatus getJobStatus(final String municipalityId, final String jobId) {
+		return csvJobRepository.find(municipalityId, jobId)
+			.map(job -> CsvJobStatus.create()
+				.withJobId(job.id())
+				.withMessageId(job.messageId())
+				.withPhase(job.phase().name())
+				.withProcessed(job.processed())
+				.withTotal(job.total())
+				.withDetail(job.detail()))
+			.orElseThrow(() -> Problem.valueOf(NOT_FOUND, "CSV job with id '%s' and municipalityId '%s' not found".formatted(jobId, municipalityId)));
+	}
+
+	/**
+	 * Resolves the recipients of the CSV file of a job, {@code csv-job.chunk-size} entries at a time, recording the
+	 * progress after each chunk. Private and enterprise entries are resolved the same way as in a synchronous send.
+	 *
+	 * @param  job            the claimed job
+	 * @param  municipalityId the municipality of the message
+	 * @return                the resolved recipients
+	 */
+	public List<RecipientEntity> resolveRecipients(final ClaimedCsvJob job, final String municipalityId) {
+		final var csvFile = csvJobRepository.getCsvFile(job.id());
+		if (csvFile == null) {
+			throw Problem.valueOf(INTERNAL_SERVER_ERROR, "CSV job with id '%s' holds no CSV file".formatted(job.id()));
+		}
+		final var parsed = parseLetterCsv(new ByteArrayResource(csvFile));
+
+		final var recipients = new ArrayList<RecipientEntity>();
+		var processed = resolveInChunks(job, List.copyOf(parsed.privateIds().keySet()), 0, recipients,
+			privateIds -> precheckService.precheckLegalIds(municipalityId, privateIds, emptyList()));
+		processed = resolveInChunks(job, List.copyOf(parsed.enterpriseIds().keySet()), processed, recipients,
+			enterpriseIds -> precheckService.precheckLegalIds(municipalityId, emptyList(), enterpriseIds));
+
+		updateProgress(job, Phase.ENQUEUING, processed);
+		return recipients;
+	}
+
+	/**
+	 * Completes a job and adds the resolved recipients to its message, in one transaction - so a job that is started over
+	 * never adds its recipients twice. The job is completed first, which locks it until the transaction ends; if the
+	 * caller no longer holds the claim, nothing is added and the transaction is rolled back.
+	 *
+	 * @param job        the claimed job
+	 * @param recipients the resolved recipients
+	 */
+	@Transactional
+	public void complete(final ClaimedCsvJob job, final List<RecipientEntity> recipients) {
+		if (!csvJobRepository.complete(job)) {
+			throw claimLost(job);
+		}
+		final var message = messageRepository.findById(job.messageId())
+			.orElseThrow(() -> Problem.valueOf(NOT_FOUND, "No message found with id '%s'".formatted(job.messageId())));
+
+		message.getRecipients().addAll(recipients);
+		messageProgressRepository.initialize(message);
+	}
+
+	private int resolveInChunks(final ClaimedCsvJob job, final List<String> legalIds, final int processedBefore, final List<RecipientEntity> recipients,
+		final Function<List<String>, List<RecipientEntity>> precheck) {
+		var processed = processedBefore;
+		for (var i = 0; i < legalIds.size(); i += properties.chunkSize()) {
+			final var chunk = legalIds.subList(i, Math.min(i + properties.chunkSize(), legalIds.size()));
+			recipients.addAll(precheck.apply(chunk));
+			processed += chunk.size();
+			updateProgress(job, Phase.RESOLVING, processed);
+		}
+		return processed;
+	}
+
+	/**
+	 * Records the progress of a job, aborting it if the caller no longer holds the claim.
+	 */
+	private void updateProgress(final ClaimedCsvJob job, final Phase phase, final int processed) {
+		if (!csvJobRepository.updateProgress(job, phase, processed, properties.lease())) {
+			throw claimLost(job);
+		}
+	}
+
+	private static ThrowableProblem claimLost(final ClaimedCsvJob job) {
+		return Problem.valueOf(CONFLICT, "CSV job with id '%s' is no longer claimed by this worker".formatted(job.id()));
+	}
+
+	private static byte[] readContent(final MultipartFile csvFile) {
+		try {
+			return csvFile.getBytes();
+		} catch (final IOException e) {
+			throw Problem.valueOf(INTERNAL_SERVER_ERROR, "Could not read CSV file: %s".formatted(e.getMessage()));
+		}
+	}
+}
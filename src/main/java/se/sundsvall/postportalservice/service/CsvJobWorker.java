@@ -0,0 +1,156 @@
+package se.sundsvall.postportalservice.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import se.sundsvall.dept44.support.Identifier;
+import se.sundsvall.postportalservice.configuration.CsvJobConfiguration.CsvJobProperties;
+import se.sundsvall.postportalservice.integration.db.MessageEntity;
+import se.sundsvall.postportalservice.integration.db.dao.CsvJobRepository;
+import se.sundsvall.postportalservice.integration.db.dao.CsvJobRepository.ClaimedCsvJob;
+import se.sundsvall.postportalservice.integration.messagingsettings.MessagingSettingsIntegration;
+
+import static se.sundsvall.postportalservice.Constants.FAILED;
+import static se.sundsvall.postportalservice.Constants.PENDING;
+import static se.sundsvall.postportalservice.configuration.CsvJobConfiguration.CSV_JOB_EXECUTOR;
+import static se.sundsvall.postportalservice.service.util.MessagingSettingsUtil.applyDepartmentSettings;
+
+/**
+ * Runs CSV jobs. Each poll claims jobs while fewer than {@code csv-job.concurrency} are running on this instance and
+ * runs them on the CSV job executor. A job resolves the recipients of its message, adds them to the message and then
+ * starts delivery exactly as a synchronous CSV send would - in the bulk lane. A job whose recipients are not admitted
+ * because the delivery backlog is full is handed back and started over once the backlog is expected to have drained,
+ * as is a job the executor rejects. A job that fails before it completes is marked as failed with the reason, for the
+ * sender to see through the job status.
+ */
+@Component
+public class CsvJobWorker {
+
+	private static final Logger LOG = LoggerFactory.getLogger(CsvJobWorker.class);
+
+	private final CsvJobRepository csvJobRepository;
+	private final CsvJobService csvJobService;
+	private final DeliveryContextLoader deliveryContextLoader;
+	private final MessagingSettingsIntegration messagingSettingsIntegration;
+	private final MessageService messageService;
+	private final DeliveryAdmissionControl deliveryAdmissionControl;
+	private final RecipientStatusWriter recipientStatusWriter;
+	private final TaskExecutor csvJobExecutor;
+	private final CsvJobProperties properties;
+
+	private final AtomicInteger running = new AtomicInteger();
+
+	public CsvJobWorker(
+		final CsvJobRepository csvJobRepository,
+		final CsvJobService csvJobService,
+		final DeliveryContextLoader deliveryContextLoader,
+		final MessagingSettingsIntegration messagingSettingsIntegration,
+		final MessageService messageService,
+		final DeliveryAdmissionControl deliveryAdmissionControl,
+		final RecipientStatusWriter recipientStatusWriter,
+		@Qualifier(CSV_JOB_EXECUTOR) final TaskExecutor csvJobExecutor,
+		final CsvJobProperties properties) {
+		this.csvJobRepository = csvJobRepository;
+		this.csvJobService = csvJobService;
+		this.deliveryContextLoader = deliveryContextLoader;
+		this.messagingSettingsIntegration = messagingSettingsIntegration;
+		this.messageService = messageService;
+		this.deliveryAdmissionControl = deliveryAdmissionControl;
+		this.recipientStatusWriter = recipientStatusWriter;
+		this.csvJobExecutor = csvJobExecutor;
+		this.properties = properties;
+	}
+
+	@Scheduled(fixedDelayString = "${csv-job.poll-interval:PT1S}")
+	public void poll() {
+		while (running.get() < properties.concurrency()) {
+			final var claimed = csvJobRepository.claim(properties.lease());
+			if (claimed.isEmpty()) {
+				return;
+			}
+
+			final var job = claimed.get();
+			running.incrementAndGet();
+			try {
+				csvJobExecutor.execute(() -> {
+					try {
+						run(job);
+					} finally {
+						running.decrementAndGet();
+					}
+				});
+			} catch (final TaskRejectedException e) {
+				// Handed back right away, to be claimed again on a later poll
+				running.decrementAndGet();
+				LOG.warn("CSV job with id {} was rejected by the executor, releasing it: {}", job.id(), e.getMessage());
+				csvJobRepository.release(job, Duration.ZERO);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Runs a claimed job on behalf of the user that sent its message, with the same messaging settings the request
+	 * thread would have used.
+	 */
+	void run(final ClaimedCsvJob job) {
+		LOG.info("Starting CSV job with id {} for message with id {}", job.id(), job.messageId());
+		try {
+			final var message = deliveryContextLoader.loadMessage(job.messageId());
+
+			Identifier.set(Identifier.create()
+				.withType(Identifier.Type.AD_ACCOUNT)
+				.withValue(message.getUser().getUsername()));
+			try {
+				final var settingsMap = messagingSettingsIntegration.getMessagingSettingsForUser(message.getMunicipalityId());
+				applyDepartmentSettings(message.getDepartment(), settingsMap);
+
+				final var recipients = csvJobService.resolveRecipients(job, message.getMunicipalityId());
+				try {
+					deliveryAdmissionControl.admit(recipients.size());
+				} catch (final DeliveryBacklogFullException e) {
+					LOG.info("CSV job with id {} is started over in {}: {}", job.id(), e.getRetryAfter(), e.getMessage());
+					csvJobRepository.release(job, e.getRetryAfter());
+					return;
+				}
+				csvJobService.complete(job, recipients);
+				LOG.info("CSV job with id {} resolved {} recipients for message with id {}", job.id(), recipients.size(), job.messageId());
+
+				startDelivery(job, message.withRecipients(recipients), settingsMap);
+			} finally {
+				Identifier.remove();
+			}
+		} catch (final Exception e) {
+			LOG.error("CSV job with id {} for message with id {} failed", job.id(), job.messageId(), e);
+			csvJobRepository.fail(job, e.getMessage());
+		}
+	}
+
+	/**
+	 * Starts delivery of the recipients added by a completed job. A completed job is never started over, so if delivery
+	 * cannot be started its pending recipients are marked as failed rather than left pending for good.
+	 */
+	private void startDelivery(final ClaimedCsvJob job, final MessageEntity message, final Map<String, String> settingsMap) {
+		try {
+			messageService.processRecipients(message, settingsMap, true);
+		} catch (final RuntimeException e) {
+			LOG.error("CSV job with id {} could not start delivery for message with id {}", job.id(), job.messageId(), e);
+			final var pending = message.getRecipients().stream()
+				.filter(recipient -> PENDING.equals(recipient.getStatus()))
+				.map(recipient -> recipient.withStatus(FAILED).withStatusDetail(e.getMessage()))
+				.toList();
+			recipientStatusWriter.writeAll(pending);
+		}
+	}
+
+	int getRunning() {
+		return running.get();
+	}
+}
@@ -0,0 +1,91 @@
+package se.sundsvall.postportalservice.service;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.stereotype.Component;
+import se.sundsvall.postportalservice.configuration.DeliveryExecutorConfiguration.DeliveryAdmissionProperties;
+
+/**
+ * Decides whether a new message may be accepted for delivery. The recipients awaiting delivery are held in memory until
+ * delivered, so with {@code delivery.admission.enabled} a message that would push them past
+ * {@code delivery.admission.max-queued-recipients} is rejected with a {@link DeliveryBacklogFullException} rather than
+ * risking the heap, and every accepted message with it. The check is made without reserving capacity, so concurrent
+ * requests may overshoot the limit by at most their own recipients.
+ */
+@Component
+public class DeliveryAdmissionControl {
+
+	private static final long SAMPLE_INTERVAL_NANOS = Duration.ofSeconds(1).toNanos();
+
+	private final DeliveryScheduler deliveryScheduler;
+	private final DeliveryAdmissionProperties properties;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private long sampleNanos;
+	private long sampleCompleted = -1;
+	private double recipientsPerSecond;
+
+	public DeliveryAdmissionControl(final DeliveryScheduler deliveryScheduler, final DeliveryAdmissionProperties properties) {
+		this.deliveryScheduler = deliveryScheduler;
+		this.properties = properties;
+	}
+
+	/**
+	 * Admits a message with the given number of recipients for delivery.
+	 *
+	 * @param  recipients                  the number of recipients of the message
+	 * @throws DeliveryBacklogFullException if the message would push the recipients awaiting delivery past the limit
+	 */
+	public void admit(final int recipients) {
+		if (!properties.enabled()) {
+			return;
+		}
+
+		final var pending = deliveryScheduler.getPendingRecipients();
+		if (pending == 0 || pending + recipients <= properties.maxQueuedRecipients()) {
+			return;
+		}
+
+		// The recipients that have to be delivered before this message fits - at most all of them
+		final var excess = Math.min(pending, pending + recipients - properties.maxQueuedRecipients());
+		final var retryAfter = retryAfter(excess, sampleDeliveryRate(), properties.minRetryAfter(), properties.maxRetryAfter());
+		throw new DeliveryBacklogFullException(
+			"Delivery backlog is full with %s recipients awaiting delivery, retry in %s seconds".formatted(pending, retryAfter.toSeconds()), retryAfter);
+	}
+
+	/**
+	 * Returns the recipients delivered per second, measured over the time since the previous sample. Sampling only
+	 * happens while messages are being rejected, so the measurement reflects the backlog draining. The first sample only
+	 * sets the baseline, and samples less than a second apart reuse the previous measurement.
+	 */
+	double sampleDeliveryRate() {
+		lock.lock();
+		try {
+			final var now = System.nanoTime();
+			if (sampleCompleted < 0) {
+				sampleCompleted = deliveryScheduler.getCompletedRecipients();
+				sampleNanos = now;
+			} else if (now - sampleNanos >= SAMPLE_INTERVAL_NANOS) {
+				final var completed = deliveryScheduler.getCompletedRecipients();
+				recipientsPerSecond = (completed - sampleCompleted) * 1e9 / (now - sampleNanos);
+				sampleCompleted = completed;
+				sampleNanos = now;
+			}
+			return recipientsPerSecond;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Estimates how long it will take to deliver the given number of recipients at the given rate. Without a measured
+	 * rate the longest retry delay is used.
+	 */
+	static Duration retryAfter(final int recipients, final double recipientsPerSecond, final Duration min, final Duration max) {
+		if (recipientsPerSecond <= 0) {
+			return max;
+		}
+		final var seconds = (long) Math.ceil(recipients / recipientsPerSecond);
+		return Duration.ofSeconds(Math.clamp(seconds, min.toSeconds(), max.toSeconds()));
+	}
+}
@@ -0,0 +1,24 @@
+package se.sundsvall.postportalservice.service;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a message is rejected because too many recipients are already awaiting delivery. Carries the estimated
+ * time until the backlog has drained enough for the message to be accepted, returned to the client as
+ * {@code Retry-After}.
+ */
+public class DeliveryBacklogFullException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final transient Duration retryAfter;
+
+	public DeliveryBacklogFullException(final String message, final Duration retryAfter) {
+		super(message);
+		this.retryAfter = retryAfter;
+	}
+
+	public Duration getRetryAfter() {
+		return retryAfter;
+	}
+}
@@ -0,0 +1,131 @@
+package se.sundsvall.postportalservice.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+import se.sundsvall.postportalservice.configuration.DeliveryExecutorConfiguration.DeliveryConcurrencyProperties;
+import se.sundsvall.postportalservice.integration.db.converter.MessageType;
+
+/**
+ * Bounds the number of concurrent messaging calls per channel and per downstream operation. A call waits until a
+ * permit is available for both its channel and its operation. Permits are always acquired channel first, so two
+ * callers can never wait on each other. With {@code delivery.concurrency.adaptive.enabled} the call finally needs a
+ * slot within the {@link AdaptiveConcurrencyLimit} shared by all messaging calls, whose current limit is published as
+ * the {@code delivery.concurrency.limit} gauge.
+ */
+@Component
+public class DeliveryConcurrencyLimiter {
+
+	private final Map<MessageType, Semaphore> channelPermits = new EnumMap<>(MessageType.class);
+	private final Map<DeliveryOperation, Semaphore> operationPermits = new EnumMap<>(DeliveryOperation.class);
+	private final AdaptiveConcurrencyLimit adaptiveLimit;
+
+	public DeliveryConcurrencyLimiter(final DeliveryConcurrencyProperties properties, final MeterRegistry meterRegistry) {
+		properties.channels().forEach((channel, limit) -> channelPermits.put(channel, new Semaphore(limit, true)));
+		properties.operations().forEach((operation, limit) -> operationPermits.put(operation, new Semaphore(limit, true)));
+
+		if (properties.adaptive().enabled()) {
+			adaptiveLimit = new AdaptiveConcurrencyLimit(properties.adaptive());
+			Gauge.builder("delivery.concurrency.limit", adaptiveLimit, AdaptiveConcurrencyLimit::getLimit)
+				.description("Current adaptive limit on concurrent messaging calls")
+				.register(meterRegistry);
+			Gauge.builder("delivery.concurrency.in.flight", adaptiveLimit, AdaptiveConcurrencyLimit::getInFlight)
+				.description("Messaging calls currently in flight within the adaptive limit")
+				.register(meterRegistry);
+		} else {
+			adaptiveLimit = null;
+		}
+	}
+
+	/**
+	 * Performs the call once a permit is available for both the channel and the operation, and a slot within the
+	 * adaptive limit if enabled.
+	 *
+	 * @param  channel               the channel the recipient is delivered through
+	 * @param  operation             the downstream operation performed by the call
+	 * @param  call                  the messaging call
+	 * @return                       the result of the call
+	 * @throws IllegalStateException if interrupted while waiting for a permit
+	 */
+	public <T> T execute(final MessageType channel, final DeliveryOperation operation, final Supplier<T> call) {
+		final var channelPermit = channelPermits.get(channel);
+		final var operationPermit = operationPermits.get(operation);
+
+		acquire(channelPermit, channel);
+		try {
+			acquire(operationPermit, operation);
+			try {
+				return adaptiveLimit == null ? call.get() : executeWithinAdaptiveLimit(operation, call);
+			} finally {
+				release(operationPermit);
+			}
+		} finally {
+			release(channelPermit);
+		}
+	}
+
+	private <T> T executeWithinAdaptiveLimit(final DeliveryOperation operation, final Supplier<T> call) {
+		try {
+			adaptiveLimit.acquire();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for an adaptive delivery permit for " + operation, e);
+		}
+
+		final var start = System.nanoTime();
+		Throwable failure = null;
+		try {
+			return call.get();
+		} catch (final RuntimeException e) {
+			failure = e;
+			throw e;
+		} finally {
+			adaptiveLimit.release(Duration.ofNanos(System.nanoTime() - start), failure);
+		}
+	}
+
+	/**
+	 * Returns the current adaptive limit, or {@code -1} if the adaptive limit is disabled.
+	 */
+	int adaptiveLimit() {
+		return Optional.ofNullable(adaptiveLimit).map(AdaptiveConcurrencyLimit::getLimit).orElse(-1);
+	}
+
+	/**
+	 * Returns the number of currently available permits for the channel, or {@code -1} if the channel is unlimited.
+	 */
+	int availablePermits(final MessageType channel) {
+		return Optional.ofNullable(channelPermits.get(channel)).map(Semaphore::availablePermits).orElse(-1);
+	}
+
+	/**
+	 * Returns the number of currently available permits for the operation, or {@code -1} if the operation is unlimited.
+	 */
+	int availablePermits(final DeliveryOperation operation) {
+		return Optional.ofNullable(operationPermits.get(operation)).map(Semaphore::availablePermits).orElse(-1);
+	}
+
+	private static void acquire(final Semaphore permit, final Enum<?> key) {
+		if (permit == null) {
+			return;
+		}
+		try {
+			permit.acquire();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for a delivery permit for " + key, e);
+		}
+	}
+
+	private static void release(final Semaphore permit) {
+		if (permit != null) {
+			permit.release();
+		}
+	}
+}
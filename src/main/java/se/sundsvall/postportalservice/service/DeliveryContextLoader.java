@@ -0,0 +1,60 @@
+package se.sundsvall.postportalservice.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.postportalservice.integration.db.MessageEntity;
+import se.sundsvall.postportalservice.integration.db.dao.MessageRepository;
+
+import static java.util.Optional.ofNullable;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+/**
+ * Loads what is needed to deliver a message that was queued in the delivery outbox, i.e. what the request thread
+ * otherwise hands over in memory.
+ */
+@Component
+public class DeliveryContextLoader {
+
+	private final MessageRepository messageRepository;
+	private final AttachmentPayloadCache attachmentPayloadCache;
+
+	public DeliveryContextLoader(final MessageRepository messageRepository, final AttachmentPayloadCache attachmentPayloadCache) {
+		this.messageRepository = messageRepository;
+		this.attachmentPayloadCache = attachmentPayloadCache;
+	}
+
+	/**
+	 * Returns a detached copy of the message, with the attachment content read into memory (shared
+	 * through the {@link AttachmentPayloadCache}). The copy holds no recipients
+	 * - those are loaded per claim, and are never read here - so it is cheap to load and to keep around for the duration
+	 * of a delivery, however many recipients the message has.
+	 *
+	 * @param  messageId the id of the message
+	 * @return           a copy of the message, ready to be delivered
+	 */
+	@Transactional(readOnly = true)
+	public MessageEntity loadMessage(final String messageId) {
+		final var message = messageRepository.findDeliveryMessageById(messageId)
+			.orElseThrow(() -> Problem.valueOf(NOT_FOUND, "No message found with id '%s'".formatted(messageId)));
+
+		final var attachments = messageRepository.findAttachmentsByMessageId(messageId).stream()
+			.map(attachment -> attachment.withContentString(ofNullable(attachment.getContentHash())
+				.map(attachmentPayloadCache::getBase64)
+				.orElse(null)))
+			.toList();
+
+		return MessageEntity.create()
+			.withId(message.getId())
+			.withMunicipalityId(message.getMunicipalityId())
+			.withDisplayName(message.getDisplayName())
+			.withMessageType(message.getMessageType())
+			.withSubject(message.getSubject())
+			.withBody(message.getBody())
+			.withContentType(message.getContentType())
+			.withCreated(message.getCreated())
+			.withUser(message.getUser())
+			.withDepartment(message.getDepartment())
+			.withAttachments(attachments);
+	}
+}
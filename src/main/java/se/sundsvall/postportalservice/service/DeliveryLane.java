@@ -0,0 +1,11 @@
+package se.sundsvall.postportalservice.service;
+
+/**
+ * The priority lanes of the {@link DeliveryScheduler}. Deliveries in the interactive lane, e.g. a caseworker sending a
+ * single letter, are always released before those in the bulk lane, e.g. a CSV mass mailing, and part of the delivery
+ * capacity is reserved for them.
+ */
+public enum DeliveryLane {
+	INTERACTIVE,
+	BULK
+}
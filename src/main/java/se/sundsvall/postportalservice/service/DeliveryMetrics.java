@@ -0,0 +1,122 @@
+package se.sundsvall.postportalservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+import se.sundsvall.postportalservice.integration.db.MessageEntity;
+import se.sundsvall.postportalservice.integration.db.RecipientEntity;
+import se.sundsvall.postportalservice.integration.db.converter.MessageType;
+import se.sundsvall.postportalservice.service.MessageService.Delivery;
+
+import static java.util.Optional.ofNullable;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Micrometer instrumentation of the delivery pipeline. Every meter is tagged with the channel ({@link MessageType}) and
+ * the municipality of the message:
+ * <ul>
+ * <li>{@code delivery.queue.wait} - timer of the time from a delivery being submitted until it starts running</li>
+ * <li>{@code delivery.in.flight} - gauge of the recipients currently being delivered (untagged)</li>
+ * <li>{@code delivery.call} - timer of each messaging call, also tagged with the {@link DeliveryOperation} and the
+ * outcome ({@code success} or {@code failure}). Time spent waiting for a concurrency permit is not included</li>
+ * <li>{@code delivery.recipients} - counter of the recipients delivered, tagged with the resulting recipient status.
+ * {@code PENDING} means another attempt has been scheduled</li>
+ * </ul>
+ * The timers publish percentile histograms, so latency SLOs can be set and alerted on.
+ */
+@Component
+public class DeliveryMetrics {
+
+	static final String UNKNOWN = "unknown";
+
+	private final MeterRegistry meterRegistry;
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	public DeliveryMetrics(final MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+		Gauge.builder("delivery.in.flight", inFlight, AtomicInteger::get)
+			.description("Recipients currently being delivered")
+			.register(meterRegistry);
+	}
+
+	/**
+	 * Wraps the task of a delivery that is being submitted, so that it records its queue wait when it starts and counts
+	 * its recipients as in flight while it runs.
+	 *
+	 * @param  message  the message being delivered
+	 * @param  delivery the delivery being submitted
+	 * @return          the instrumented task
+	 */
+	public Runnable instrument(final MessageEntity message, final Delivery delivery) {
+		final var submitted = System.nanoTime();
+		final var recipients = delivery.recipients().size();
+		final var channel = delivery.recipients().isEmpty() ? null : delivery.recipients().getFirst().getMessageType();
+
+		return () -> {
+			Timer.builder("delivery.queue.wait")
+				.description("Time from a delivery being submitted until it starts")
+				.tags("channel", tagValue(channel), "municipality", tagValue(message.getMunicipalityId()))
+				.publishPercentileHistogram()
+				.register(meterRegistry)
+				.record(System.nanoTime() - submitted, NANOSECONDS);
+
+			inFlight.addAndGet(recipients);
+			try {
+				delivery.task().run();
+			} finally {
+				inFlight.addAndGet(-recipients);
+			}
+		};
+	}
+
+	/**
+	 * Performs a messaging call and records its latency and outcome.
+	 *
+	 * @param  message   the message being delivered
+	 * @param  channel   the channel the recipients are delivered through
+	 * @param  operation the downstream operation performed by the call
+	 * @param  call      the messaging call
+	 * @return           the result of the call
+	 */
+	public <T> T recordCall(final MessageEntity message, final MessageType channel, final DeliveryOperation operation, final Supplier<T> call) {
+		final var sample = Timer.start(meterRegistry);
+		var outcome = "failure";
+		try {
+			final var result = call.get();
+			outcome = "success";
+			return result;
+		} finally {
+			sample.stop(Timer.builder("delivery.call")
+				.description("Latency of messaging calls")
+				.tags("channel", tagValue(channel), "operation", tagValue(operation), "municipality", tagValue(message.getMunicipalityId()), "outcome", outcome)
+				.publishPercentileHistogram()
+				.register(meterRegistry));
+		}
+	}
+
+	/**
+	 * Counts a recipient whose delivery has been handled, by the status it ended up with.
+	 *
+	 * @param message   the message being delivered
+	 * @param recipient the recipient
+	 */
+	public void recordOutcome(final MessageEntity message, final RecipientEntity recipient) {
+		Counter.builder("delivery.recipients")
+			.description("Recipients delivered, per resulting status")
+			.tags("channel", tagValue(recipient.getMessageType()), "municipality", tagValue(message.getMunicipalityId()), "status", tagValue(recipient.getStatus()))
+			.register(meterRegistry)
+			.increment();
+	}
+
+	int getInFlight() {
+		return inFlight.get();
+	}
+
+	private static String tagValue(final Object value) {
+		return ofNullable(value).map(String::valueOf).orElse(UNKNOWN);
+	}
+}
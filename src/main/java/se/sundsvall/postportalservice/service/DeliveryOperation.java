@@ -0,0 +1,14 @@
+package se.sundsvall.postportalservice.service;
+
+/**
+ * The downstream messaging operations a delivery may perform. Used to limit concurrency per operation, independently
+ * of the channel the recipient is delivered through.
+ */
+public enum DeliveryOperation {
+	SEND_SMS,
+	SEND_SMS_BATCH,
+	SEND_DIGITAL_MAIL,
+	SEND_DIGITAL_MAIL_BATCH,
+	SEND_SNAIL_MAIL,
+	SEND_CALLBACK_EMAIL
+}
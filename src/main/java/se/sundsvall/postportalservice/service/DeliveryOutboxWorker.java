@@ -0,0 +1,157 @@
+package se.sundsvall.postportalservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import se.sundsvall.dept44.support.Identifier;
+import se.sundsvall.postportalservice.configuration.DeliveryExecutorConfiguration.DeliverySchedulingProperties;
+import se.sundsvall.postportalservice.configuration.DeliveryOutboxConfiguration.DeliveryOutboxProperties;
+import se.sundsvall.postportalservice.integration.db.MessageEntity;
+import se.sundsvall.postportalservice.integration.db.dao.DeliveryOutboxRepository;
+import se.sundsvall.postportalservice.integration.db.dao.DeliveryOutboxRepository.OutboxEntry;
+import se.sundsvall.postportalservice.integration.db.dao.MessageProgressRepository;
+import se.sundsvall.postportalservice.integration.db.dao.MessageProgressRepository.Progress;
+import se.sundsvall.postportalservice.integration.db.dao.RecipientRepository;
+import se.sundsvall.postportalservice.integration.messagingsettings.MessagingSettingsIntegration;
+import se.sundsvall.postportalservice.service.MessageService.Delivery;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toList;
+import static se.sundsvall.postportalservice.service.util.MessagingSettingsUtil.applyDepartmentSettings;
+
+/**
+ * Drains the delivery outbox. Each poll claims as many queued recipients as there is free in-flight capacity for and
+ * hands them to the delivery scheduler, so the number of recipients held in memory never exceeds
+ * {@code delivery.outbox.max-in-flight} regardless of how many are queued. Claims are made with
+ * {@code FOR UPDATE SKIP LOCKED}, so any number of instances can poll the same outbox. The lane a message is delivered
+ * in is chosen from its total number of recipients, as the endpoint it was sent through is not known here.
+ */
+@Component
+@ConditionalOnProperty(prefix = "delivery.outbox", name = "enabled", havingValue = "true")
+public class DeliveryOutboxWorker {
+
+	private static final Logger LOG = LoggerFactory.getLogger(DeliveryOutboxWorker.class);
+
+	private final DeliveryScheduler deliveryScheduler;
+	private final DeliveryOutboxRepository deliveryOutboxRepository;
+	private final RecipientRepository recipientRepository;
+	private final MessageProgressRepository messageProgressRepository;
+	private final DeliveryContextLoader deliveryContextLoader;
+	private final MessagingSettingsIntegration messagingSettingsIntegration;
+	private final MessageService messageService;
+	private final DeliveryOutboxProperties properties;
+	private final DeliverySchedulingProperties schedulingProperties;
+
+	private final Cache<String, DeliveryContext> deliveryContexts;
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	public DeliveryOutboxWorker(
+		final DeliveryScheduler deliveryScheduler,
+		final DeliveryOutboxRepository deliveryOutboxRepository,
+		final RecipientRepository recipientRepository,
+		final MessageProgressRepository messageProgressRepository,
+		final DeliveryContextLoader deliveryContextLoader,
+		final MessagingSettingsIntegration messagingSettingsIntegration,
+		final MessageService messageService,
+		final DeliveryOutboxProperties properties,
+		final DeliverySchedulingProperties schedulingProperties) {
+		this.deliveryScheduler = deliveryScheduler;
+		this.deliveryOutboxRepository = deliveryOutboxRepository;
+		this.recipientRepository = recipientRepository;
+		this.messageProgressRepository = messageProgressRepository;
+		this.deliveryContextLoader = deliveryContextLoader;
+		this.messagingSettingsIntegration = messagingSettingsIntegration;
+		this.messageService = messageService;
+		this.properties = properties;
+		this.schedulingProperties = schedulingProperties;
+		this.deliveryContexts = Caffeine.newBuilder()
+			.maximumSize(properties.contextCacheSize())
+			.expireAfterAccess(properties.contextCacheTtl())
+			.build();
+	}
+
+	@Scheduled(fixedDelayString = "${delivery.outbox.poll-interval:PT1S}")
+	public void poll() {
+		final var capacity = properties.maxInFlight() - inFlight.get();
+		if (capacity <= 0) {
+			return;
+		}
+
+		final var claimed = deliveryOutboxRepository.claim(Math.min(capacity, properties.batchSize()), properties.lease());
+		claimed.stream()
+			.collect(groupingBy(OutboxEntry::messageId, LinkedHashMap::new, mapping(OutboxEntry::recipientId, toList())))
+			.forEach(this::dispatch);
+	}
+
+	/**
+	 * Hands the claimed recipients of a message to the delivery pool. If the delivery context can't be loaded, e.g.
+	 * because messaging settings is unavailable, the recipients are left claimed and are retried once the lease expires.
+	 */
+	void dispatch(final String messageId, final List<String> recipientIds) {
+		final DeliveryContext context;
+		try {
+			context = deliveryContexts.get(messageId, this::loadDeliveryContext);
+		} catch (final Exception e) {
+			LOG.error("Could not load delivery context for message with id {}, {} recipients will be retried when their lease expires", messageId, recipientIds.size(), e);
+			return;
+		}
+
+		final var recipients = recipientRepository.findAllById(recipientIds);
+		recipients.forEach(recipient -> {
+			// The delivery ends with saving the recipient, which also takes it out of the outbox
+			recipient.setDeliveryState(null);
+			recipient.setLeaseExpires(null);
+		});
+
+		messageService.createDeliveries(context.message(), recipients, context.settingsMap())
+			.forEach(delivery -> submit(context.message(), context.lane(), delivery));
+	}
+
+	private void submit(final MessageEntity message, final DeliveryLane lane, final Delivery delivery) {
+		final var size = delivery.recipients().size();
+		inFlight.addAndGet(size);
+		deliveryScheduler.submit(message, lane, new Delivery(delivery.recipients(), () -> {
+			try {
+				delivery.task().run();
+			} finally {
+				inFlight.addAndGet(-size);
+			}
+		}));
+	}
+
+	/**
+	 * Loads the message and resolves the messaging settings of the user that sent it - the same settings the request
+	 * thread would have handed over in memory - and the lane to deliver it in.
+	 */
+	DeliveryContext loadDeliveryContext(final String messageId) {
+		final var message = deliveryContextLoader.loadMessage(messageId);
+
+		Identifier.set(Identifier.create()
+			.withType(Identifier.Type.AD_ACCOUNT)
+			.withValue(message.getUser().getUsername()));
+		try {
+			final var settingsMap = messagingSettingsIntegration.getMessagingSettingsForUser(message.getMunicipalityId());
+			applyDepartmentSettings(message.getDepartment(), settingsMap);
+			final var recipients = messageProgressRepository.find(message.getMunicipalityId(), messageId).map(Progress::total).orElse(0);
+			return new DeliveryContext(message, settingsMap, schedulingProperties.lanes().laneOf(false, recipients));
+		} finally {
+			Identifier.remove();
+		}
+	}
+
+	int getInFlight() {
+		return inFlight.get();
+	}
+
+	record DeliveryContext(MessageEntity message, Map<String, String> settingsMap, DeliveryLane lane) {
+	}
+}
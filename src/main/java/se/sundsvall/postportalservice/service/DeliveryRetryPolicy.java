@@ -0,0 +1,78 @@
+package se.sundsvall.postportalservice.service;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.stereotype.Component;
+import se.sundsvall.postportalservice.configuration.DeliveryOutboxConfiguration.DeliveryOutboxProperties;
+import se.sundsvall.postportalservice.configuration.DeliveryOutboxConfiguration.DeliveryRetryProperties;
+import se.sundsvall.postportalservice.integration.db.RecipientEntity;
+import se.sundsvall.postportalservice.util.FailureUtil;
+
+import static java.util.Optional.ofNullable;
+import static se.sundsvall.postportalservice.Constants.PENDING;
+import static se.sundsvall.postportalservice.Constants.QUEUED;
+
+/**
+ * Decides whether a failed delivery attempt is retried. A transient failure - messaging timed out, its circuit breaker
+ * is open, or it answered with a server error - is likely to succeed a little later, so the recipient is queued in the
+ * delivery outbox again with an exponential, jittered backoff until {@code delivery.retry.max-attempts} is spent. Any
+ * other failure, e.g. a rejected phone number, is permanent.
+ */
+@Component
+public class DeliveryRetryPolicy {
+
+	private final DeliveryRetryProperties retryProperties;
+	private final DeliveryOutboxProperties outboxProperties;
+
+	public DeliveryRetryPolicy(final DeliveryRetryProperties retryProperties, final DeliveryOutboxProperties outboxProperties) {
+		this.retryProperties = retryProperties;
+		this.outboxProperties = outboxProperties;
+	}
+
+	/**
+	 * Records a failed delivery attempt and, if the failure is transient and the attempts are not yet spent, schedules
+	 * another attempt by queueing the recipient in the outbox with its next attempt time. The caller saves the recipient
+	 * either way.
+	 *
+	 * @param  recipientEntity the recipient whose delivery failed
+	 * @param  failure         the cause of the failure
+	 * @return                 {@code true} if another attempt is scheduled, {@code false} if the recipient has failed
+	 */
+	public boolean scheduleRetry(final RecipientEntity recipientEntity, final Throwable failure) {
+		if (!retryProperties.enabled() || !outboxProperties.enabled()) {
+			return false;
+		}
+
+		final var attempts = ofNullable(recipientEntity.getAttempts()).orElse(0) + 1;
+		recipientEntity.setAttempts(attempts);
+		if (!isTransient(failure) || attempts >= retryProperties.maxAttempts()) {
+			return false;
+		}
+
+		final var nextAttempt = OffsetDateTime.now(ZoneId.systemDefault()).plus(backoff(attempts));
+		recipientEntity.setStatus(PENDING);
+		recipientEntity.setStatusDetail("Attempt %s of %s failed, retrying at %s: %s".formatted(attempts, retryProperties.maxAttempts(), nextAttempt, failure.getMessage()));
+		recipientEntity.setDeliveryState(QUEUED);
+		recipientEntity.setLeaseExpires(null);
+		recipientEntity.setNextAttempt(nextAttempt);
+		return true;
+	}
+
+	/**
+	 * Returns the delay before the attempt following the given number of failed attempts.
+	 */
+	Duration backoff(final int failedAttempts) {
+		final var exponential = retryProperties.initialBackoff().toMillis() * Math.pow(retryProperties.multiplier(), failedAttempts - 1.0);
+		final var capped = Math.min(exponential, retryProperties.maxBackoff().toMillis());
+		final var jitter = retryProperties.jitter() * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+		return Duration.ofMillis(Math.round(capped * (1 + jitter)));
+	}
+
+	static boolean isTransient(final Throwable failure) {
+		// An open circuit breaker is transient too, as the attempt is scheduled after the breaker has had time to close
+		return FailureUtil.isTransient(failure) || failure instanceof CallNotPermittedException;
+	}
+}
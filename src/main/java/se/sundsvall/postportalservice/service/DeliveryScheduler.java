@@ -0,0 +1,261 @@
+package se.sundsvall.postportalservice.service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import se.sundsvall.postportalservice.configuration.DeliveryExecutorConfiguration.DeliverySchedulingProperties;
+import se.sundsvall.postportalservice.integration.db.DepartmentEntity;
+import se.sundsvall.postportalservice.integration.db.MessageEntity;
+import se.sundsvall.postportalservice.service.MessageService.Delivery;
+
+import static java.util.Optional.ofNullable;
+import static se.sundsvall.postportalservice.configuration.DeliveryExecutorConfiguration.DELIVERY_EXECUTOR;
+
+/**
+ * Hands deliveries to the delivery executor. With {@code delivery.scheduling.enabled} deliveries are queued per sender
+ * - the municipality and department of the message - and released to the executor in deficit round-robin order, at
+ * most {@code delivery.scheduling.max-in-flight} at a time. Each sender with queued deliveries is granted
+ * {@code quantum} recipients per round, so a single urgent SMS waits for at most one round instead of behind every
+ * recipient of a large CSV send, while a lone bulk send still gets all capacity. On top of that every delivery is
+ * submitted in a {@link DeliveryLane}: interactive deliveries are released before any bulk delivery, and bulk deliveries
+ * never occupy the in-flight slots reserved for interactive ones. Otherwise deliveries go straight to the executor in
+ * submission order. Either way the scheduler keeps count of the recipients submitted but not yet delivered, which
+ * {@link DeliveryAdmissionControl} bounds, and every delivery is instrumented by {@link DeliveryMetrics} with the time it
+ * waited before starting.
+ */
+@Component
+public class DeliveryScheduler {
+
+	private final TaskExecutor deliveryExecutor;
+	private final DeliverySchedulingProperties properties;
+	private final DeliveryMetrics deliveryMetrics;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Map<String, Flow> flows = new HashMap<>();
+	private final Map<DeliveryLane, Deque<Flow>> activeFlows = new EnumMap<>(DeliveryLane.class);
+	private int inFlight;
+	private int bulkInFlight;
+
+	private final AtomicInteger pendingRecipients = new AtomicInteger();
+	private final AtomicLong completedRecipients = new AtomicLong();
+
+	public DeliveryScheduler(@Qualifier(DELIVERY_EXECUTOR) final TaskExecutor deliveryExecutor, final DeliverySchedulingProperties properties, final DeliveryMetrics deliveryMetrics) {
+		this.deliveryExecutor = deliveryExecutor;
+		this.properties = properties;
+		this.deliveryMetrics = deliveryMetrics;
+		for (final var lane : DeliveryLane.values()) {
+			activeFlows.put(lane, new ArrayDeque<>());
+		}
+	}
+
+	/**
+	 * Submits a delivery of the message for execution.
+	 *
+	 * @param message  the message being delivered, identifying the sender
+	 * @param lane     the lane to deliver in
+	 * @param delivery the delivery
+	 */
+	public void submit(final MessageEntity message, final DeliveryLane lane, final Delivery delivery) {
+		final var recipients = delivery.recipients().size();
+		pendingRecipients.addAndGet(recipients);
+		final var instrumented = deliveryMetrics.instrument(message, delivery);
+		final var tracked = new Delivery(delivery.recipients(), () -> {
+			try {
+				instrumented.run();
+			} finally {
+				pendingRecipients.addAndGet(-recipients);
+				completedRecipients.addAndGet(recipients);
+			}
+		});
+
+		if (!properties.enabled()) {
+			try {
+				deliveryExecutor.execute(tracked.task());
+			} catch (final RuntimeException e) {
+				pendingRecipients.addAndGet(-recipients);
+				throw e;
+			}
+			return;
+		}
+
+		lock.lock();
+		try {
+			final var flow = flows.computeIfAbsent(lane + ":" + flowKey(message), Flow::new);
+			if (flow.deliveries.isEmpty()) {
+				// A sender that becomes active joins the end of its lane's round with a fresh quantum
+				flow.deficit = properties.quantum();
+				activeFlows.get(lane).addLast(flow);
+			}
+			flow.deliveries.addLast(tracked);
+		} finally {
+			lock.unlock();
+		}
+		dispatch();
+	}
+
+	/**
+	 * Releases queued deliveries to the executor while there is in-flight capacity.
+	 */
+	private void dispatch() {
+		while (true) {
+			final DeliveryLane lane;
+			final Delivery delivery;
+			lock.lock();
+			try {
+				if (inFlight >= properties.maxInFlight()) {
+					return;
+				}
+				lane = nextLane();
+				if (lane == null) {
+					return;
+				}
+				delivery = next(lane);
+				acquire(lane);
+			} finally {
+				lock.unlock();
+			}
+
+			try {
+				deliveryExecutor.execute(() -> run(lane, delivery));
+			} catch (final RuntimeException e) {
+				release(lane);
+				pendingRecipients.addAndGet(-delivery.recipients().size());
+				throw e;
+			}
+		}
+	}
+
+	private void run(final DeliveryLane lane, final Delivery delivery) {
+		try {
+			delivery.task().run();
+		} finally {
+			release(lane);
+			dispatch();
+		}
+	}
+
+	/**
+	 * Picks the lane to release a delivery from: the interactive lane whenever it has queued deliveries, otherwise the bulk
+	 * lane as long as it is within its share of the in-flight slots. Must be called holding the lock.
+	 */
+	private DeliveryLane nextLane() {
+		if (!activeFlows.get(DeliveryLane.INTERACTIVE).isEmpty()) {
+			return DeliveryLane.INTERACTIVE;
+		}
+		if (!activeFlows.get(DeliveryLane.BULK).isEmpty() && bulkInFlight < properties.bulkMaxInFlight()) {
+			return DeliveryLane.BULK;
+		}
+		return null;
+	}
+
+	private void acquire(final DeliveryLane lane) {
+		inFlight++;
+		if (lane == DeliveryLane.BULK) {
+			bulkInFlight++;
+		}
+	}
+
+	private void release(final DeliveryLane lane) {
+		lock.lock();
+		try {
+			inFlight--;
+			if (lane == DeliveryLane.BULK) {
+				bulkInFlight--;
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Picks the next delivery of a lane in deficit round-robin order. The sender at the head of the round is served as
+	 * long as its deficit covers the recipients of its next delivery; otherwise it is moved to the end of the round with
+	 * another quantum added. Must be called holding the lock, with at least one active sender in the lane.
+	 */
+	private Delivery next(final DeliveryLane lane) {
+		final var laneFlows = activeFlows.get(lane);
+		while (true) {
+			final var flow = laneFlows.getFirst();
+			final var delivery = flow.deliveries.getFirst();
+			final var cost = Math.max(1, delivery.recipients().size());
+
+			if (flow.deficit >= cost) {
+				flow.deficit -= cost;
+				flow.deliveries.removeFirst();
+				if (flow.deliveries.isEmpty()) {
+					laneFlows.removeFirst();
+					flows.remove(flow.key);
+				}
+				return delivery;
+			}
+			laneFlows.removeFirst();
+			flow.deficit += properties.quantum();
+			laneFlows.addLast(flow);
+		}
+	}
+
+	/**
+	 * Returns the number of recipients submitted for delivery that have not yet been delivered, whether queued here, in
+	 * the executor's queue or being delivered.
+	 */
+	public int getPendingRecipients() {
+		return pendingRecipients.get();
+	}
+
+	/**
+	 * Returns the total number of recipients delivered, successfully or not, since startup.
+	 */
+	public long getCompletedRecipients() {
+		return completedRecipients.get();
+	}
+
+	int getInFlight() {
+		lock.lock();
+		try {
+			return inFlight;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	int getBulkInFlight() {
+		lock.lock();
+		try {
+			return bulkInFlight;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	int getQueued() {
+		lock.lock();
+		try {
+			return flows.values().stream().mapToInt(flow -> flow.deliveries.size()).sum();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	static String flowKey(final MessageEntity message) {
+		return message.getMunicipalityId() + "/" + ofNullable(message.getDepartment()).map(DepartmentEntity::getOrganizationId).orElse(null);
+	}
+
+	private static final class Flow {
+
+		private final String key;
+		private final Deque<Delivery> deliveries = new ArrayDeque<>();
+		private int deficit;
+
+		private Flow(final String key) {
+			this.key = key;
+		}
+	}
+}
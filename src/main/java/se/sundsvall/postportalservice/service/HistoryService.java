@@ -8,6 +8,7 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
@@ -15,18 +16,19 @@ import se.sundsvall.dept44.models.api.paging.PagingAndSortingMetaData;
 import se.sundsvall.dept44.problem.Problem;
 import se.sundsvall.postportalservice.api.model.Message;
 import se.sundsvall.postportalservice.api.model.MessageDetails;
+import se.sundsvall.postportalservice.api.model.MessageProgress;
 import se.sundsvall.postportalservice.api.model.Messages;
 import se.sundsvall.postportalservice.api.model.SigningInformation;
 import se.sundsvall.postportalservice.integration.db.AttachmentEntity;
 import se.sundsvall.postportalservice.integration.db.MessageEntity;
 import se.sundsvall.postportalservice.integration.db.SigningEntity;
+import se.sundsvall.postportalservice.integration.db.dao.MessageProgressRepository;
 import se.sundsvall.postportalservice.integration.db.dao.MessageRepository;
 import se.sundsvall.postportalservice.integration.db.dao.SigningRepository;
 import se.sundsvall.postportalservice.integration.digitalregisteredletter.DigitalRegisteredLetterIntegration;
 import se.sundsvall.postportalservice.integration.party.PartyIntegration;
 import se.sundsvall.postportalservice.service.mapper.HistoryMapper;
 
-import static org.springframework.http.HttpHeaders.CONTENT_DISPOSITION;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 import static se.sundsvall.postportalservice.integration.db.converter.MessageType.DIGITAL_REGISTERED_LETTER;
 
@@ -34,6 +36,7 @@ import static se.sundsvall.postportalservice.integration.db.converter.MessageTyp
 public class HistoryService {
 	private final DigitalRegisteredLetterIntegration digitalRegisteredLetterIntegration;
 	private final MessageRepository messageRepository;
+	private final MessageProgressRepository messageProgressRepository;
 	private final SigningRepository signingRepository;
 	private final AttachmentService attachmentService;
 	private final HistoryMapper historyMapper;
@@ -42,11 +45,13 @@ public class HistoryService {
 	public HistoryService(
 		final DigitalRegisteredLetterIntegration digitalRegisteredLetterIntegration,
 		final MessageRepository messageRepository,
+		final MessageProgressRepository messageProgressRepository,
 		final SigningRepository signingRepository,
 		final AttachmentService attachmentService,
 		final HistoryMapper historyMapper, final PartyIntegration partyIntegration) {
 		this.digitalRegisteredLetterIntegration = digitalRegisteredLetterIntegration;
 		this.messageRepository = messageRepository;
+		this.messageProgressRepository = messageProgressRepository;
 		this.signingRepository = signingRepository;
 		this.attachmentService = attachmentService;
 		this.historyMapper = historyMapper;
@@ -121,6 +126,15 @@ public class HistoryService {
 		return messageDetails;
 	}
 
+	/**
+	 * Returns the delivery progress of a message from its counters, without loading the message or its recipients.
+	 */
+	public MessageProgress getMessageProgress(final String municipalityId, final String messageId) {
+		return messageProgressRepository.find(municipalityId, messageId)
+			.map(progress -> historyMapper.toMessageProgress(messageId, progress))
+			.orElseThrow(() -> Problem.valueOf(NOT_FOUND, "Message with id '%s' and municipalityId '%s' not found".formatted(messageId, municipalityId)));
+	}
+
 	public SigningInformation getSigningInformation(final String municipalityId, final String messageId) {
 		final var message = getDigitalRegisteredLetterMessage(messageId);
 		final var letterId = getLetterIdFromMessage(message);
@@ -138,20 +152,15 @@ public class HistoryService {
 	/**
 	 * Streams the signed (merged) document for an e-signing message. The signed PDF is stored as an attachment the
 	 * signing case points at once the case completes; until then (or for a non-e-signing message) there is nothing to
-	 * download and a 404 is returned.
+	 * download and a 404 is returned. Conditional and range requests are answered as for any attachment.
 	 */
-	public ResponseEntity<StreamingResponseBody> getSignedDocument(final String municipalityId, final String messageId) {
+	public ResponseEntity<StreamingResponseBody> getSignedDocument(final String municipalityId, final String messageId, final HttpHeaders requestHeaders) {
 		final var signedAttachmentId = signingRepository.findByMessageId(messageId)
 			.map(SigningEntity::getAttachment)
 			.map(AttachmentEntity::getId)
 			.orElseThrow(() -> Problem.valueOf(NOT_FOUND, "No signed document available for message with id '%s'".formatted(messageId)));
 
-		final var attachmentData = attachmentService.getAttachmentData(municipalityId, signedAttachmentId);
-
-		return ResponseEntity.ok()
-			.header(CONTENT_DISPOSITION, attachmentData.contentDisposition().toString())
-			.contentType(attachmentData.contentType())
-			.body(attachmentData.contentStream());
+		return attachmentService.downloadAttachment(municipalityId, signedAttachmentId, requestHeaders);
 	}
 
 	private MessageEntity getDigitalRegisteredLetterMessage(final String messageId) {
@@ -2,18 +2,19 @@ package se.sundsvall.postportalservice.service;
 
 import generated.se.sundsvall.esigning.StartSigningResponse;
 import generated.se.sundsvall.messaging.DeliveryResult;
+import generated.se.sundsvall.messaging.MessageBatchResult;
 import generated.se.sundsvall.messaging.MessageResult;
 import generated.se.sundsvall.messaging.MessageStatus;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -26,6 +27,9 @@ import se.sundsvall.postportalservice.api.model.LetterRequest;
 import se.sundsvall.postportalservice.api.model.Recipient;
 import se.sundsvall.postportalservice.api.model.SmsCsvRequest;
 import se.sundsvall.postportalservice.api.model.SmsRequest;
+import se.sundsvall.postportalservice.configuration.DeliveryExecutorConfiguration.DeliveryBatchProperties;
+import se.sundsvall.postportalservice.configuration.DeliveryExecutorConfiguration.DeliverySchedulingProperties;
+import se.sundsvall.postportalservice.configuration.DeliveryOutboxConfiguration.DeliveryOutboxProperties;
 import se.sundsvall.postportalservice.integration.citizen.CitizenIntegration;
 import se.sundsvall.postportalservice.integration.db.DepartmentEntity;
 import se.sundsvall.postportalservice.integration.db.MessageEntity;
@@ -34,9 +38,10 @@ import se.sundsvall.postportalservice.integration.db.SigningEntity;
 import se.sundsvall.postportalservice.integration.db.UserEntity;
 import se.sundsvall.postportalservice.integration.db.converter.MessageType;
 import se.sundsvall.postportalservice.integration.db.converter.PartyType;
+import se.sundsvall.postportalservice.integration.db.dao.DeliveryOutboxRepository;
 import se.sundsvall.postportalservice.integration.db.dao.DepartmentRepository;
+import se.sundsvall.postportalservice.integration.db.dao.MessageProgressRepository;
 import se.sundsvall.postportalservice.integration.db.dao.MessageRepository;
-import se.sundsvall.postportalservice.integration.db.dao.RecipientRepository;
 import se.sundsvall.postportalservice.integration.db.dao.SigningRepository;
 import se.sundsvall.postportalservice.integration.db.dao.UserRepository;
 import se.sundsvall.postportalservice.integration.digitalregisteredletter.DigitalRegisteredLetterIntegration;
@@ -57,31 +62,34 @@ import static se.sundsvall.postportalservice.Constants.CANCELLED;
 import static se.sundsvall.postportalservice.Constants.FAILED;
 import static se.sundsvall.postportalservice.Constants.PENDING;
 import static se.sundsvall.postportalservice.Constants.SIGNED;
-import static se.sundsvall.postportalservice.configuration.DeliveryExecutorConfiguration.DELIVERY_EXECUTOR;
+import static se.sundsvall.postportalservice.integration.db.converter.MessageType.DIGITAL_MAIL;
 import static se.sundsvall.postportalservice.integration.db.converter.MessageType.DIGITAL_REGISTERED_LETTER;
 import static se.sundsvall.postportalservice.integration.db.converter.MessageType.E_SIGNING;
 import static se.sundsvall.postportalservice.integration.db.converter.MessageType.LETTER;
 import static se.sundsvall.postportalservice.integration.db.converter.MessageType.SMS;
+import static se.sundsvall.postportalservice.integration.db.converter.MessageType.SNAIL_MAIL;
+import static se.sundsvall.postportalservice.service.DeliveryOperation.SEND_CALLBACK_EMAIL;
+import static se.sundsvall.postportalservice.service.DeliveryOperation.SEND_DIGITAL_MAIL;
+import static se.sundsvall.postportalservice.service.DeliveryOperation.SEND_DIGITAL_MAIL_BATCH;
+import static se.sundsvall.postportalservice.service.DeliveryOperation.SEND_SMS;
+import static se.sundsvall.postportalservice.service.DeliveryOperation.SEND_SMS_BATCH;
+import static se.sundsvall.postportalservice.service.DeliveryOperation.SEND_SNAIL_MAIL;
 import static se.sundsvall.postportalservice.service.util.CsvUtil.parseLetterCsv;
 import static se.sundsvall.postportalservice.service.util.CsvUtil.validateSmsCsv;
-import static se.sundsvall.postportalservice.service.util.MessagingSettingsUtil.CONTACT_INFORMATION_EMAIL;
-import static se.sundsvall.postportalservice.service.util.MessagingSettingsUtil.CONTACT_INFORMATION_PHONE_NUMBER;
-import static se.sundsvall.postportalservice.service.util.MessagingSettingsUtil.CONTACT_INFORMATION_URL;
 import static se.sundsvall.postportalservice.service.util.MessagingSettingsUtil.DEPARTMENT_ID;
 import static se.sundsvall.postportalservice.service.util.MessagingSettingsUtil.DEPARTMENT_NAME;
-import static se.sundsvall.postportalservice.service.util.MessagingSettingsUtil.FOLDER_NAME;
-import static se.sundsvall.postportalservice.service.util.MessagingSettingsUtil.ORGANIZATION_NUMBER;
 import static se.sundsvall.postportalservice.service.util.MessagingSettingsUtil.SMS_SENDER;
 import static se.sundsvall.postportalservice.service.util.MessagingSettingsUtil.SNAILMAIL_METHOD;
 import static se.sundsvall.postportalservice.service.util.MessagingSettingsUtil.SNAILMAIL_METHOD_VALUE;
-import static se.sundsvall.postportalservice.service.util.MessagingSettingsUtil.SUPPORT_TEXT;
+import static se.sundsvall.postportalservice.service.util.MessagingSettingsUtil.applyDepartmentSettings;
 
 @Service
 public class MessageService {
 
 	private static final Logger LOG = LoggerFactory.getLogger(MessageService.class);
 
-	private final ThreadPoolTaskExecutor deliveryExecutor;
+	private final DeliveryScheduler deliveryScheduler;
+	private final DeliveryAdmissionControl deliveryAdmissionControl;
 
 	private final DigitalRegisteredLetterIntegration digitalRegisteredLetterIntegration;
 	private final MessagingIntegration messagingIntegration;
@@ -94,15 +102,25 @@ public class MessageService {
 	private final DepartmentRepository departmentRepository;
 	private final UserRepository userRepository;
 	private final MessageRepository messageRepository;
-	private final RecipientRepository recipientRepository;
+	private final RecipientStatusWriter recipientStatusWriter;
+	private final MessageProgressRepository messageProgressRepository;
 	private final CitizenIntegration citizenIntegration;
 	private final PartyIntegration partyIntegration;
 	private final EsigningIntegration esigningIntegration;
 	private final EsigningMapper esigningMapper;
 	private final SigningRepository signingRepository;
+	private final DeliveryOutboxRepository deliveryOutboxRepository;
+	private final DeliveryOutboxProperties deliveryOutboxProperties;
+	private final DeliveryConcurrencyLimiter deliveryConcurrencyLimiter;
+	private final DeliveryBatchProperties deliveryBatchProperties;
+	private final DeliverySchedulingProperties deliverySchedulingProperties;
+	private final SnailMailBatchService snailMailBatchService;
+	private final DeliveryRetryPolicy deliveryRetryPolicy;
+	private final DeliveryMetrics deliveryMetrics;
 
 	public MessageService(
-		@Qualifier(DELIVERY_EXECUTOR) final ThreadPoolTaskExecutor deliveryExecutor,
+		final DeliveryScheduler deliveryScheduler,
+		final DeliveryAdmissionControl deliveryAdmissionControl,
 		final DigitalRegisteredLetterIntegration digitalRegisteredLetterIntegration,
 		final MessagingIntegration messagingIntegration,
 		final MessagingSettingsIntegration messagingSettingsIntegration,
@@ -112,13 +130,23 @@ public class MessageService {
 		final DepartmentRepository departmentRepository,
 		final UserRepository userRepository,
 		final MessageRepository messageRepository,
-		final RecipientRepository recipientRepository,
+		final RecipientStatusWriter recipientStatusWriter,
+		final MessageProgressRepository messageProgressRepository,
 		final CitizenIntegration citizenIntegration,
 		final PartyIntegration partyIntegration,
 		final EsigningIntegration esigningIntegration,
 		final EsigningMapper esigningMapper,
-		final SigningRepository signingRepository) {
-		this.deliveryExecutor = deliveryExecutor;
+		final SigningRepository signingRepository,
+		final DeliveryOutboxRepository deliveryOutboxRepository,
+		final DeliveryOutboxProperties deliveryOutboxProperties,
+		final DeliveryConcurrencyLimiter deliveryConcurrencyLimiter,
+		final DeliveryBatchProperties deliveryBatchProperties,
+		final DeliverySchedulingProperties deliverySchedulingProperties,
+		final SnailMailBatchService snailMailBatchService,
+		final DeliveryRetryPolicy deliveryRetryPolicy,
+		final DeliveryMetrics deliveryMetrics) {
+		this.deliveryScheduler = deliveryScheduler;
+		this.deliveryAdmissionControl = deliveryAdmissionControl;
 		this.digitalRegisteredLetterIntegration = digitalRegisteredLetterIntegration;
 		this.messagingIntegration = messagingIntegration;
 		this.messagingSettingsIntegration = messagingSettingsIntegration;
@@ -128,12 +156,21 @@ public class MessageService {
 		this.departmentRepository = departmentRepository;
 		this.userRepository = userRepository;
 		this.messageRepository = messageRepository;
-		this.recipientRepository = recipientRepository;
+		this.recipientStatusWriter = recipientStatusWriter;
+		this.messageProgressRepository = messageProgressRepository;
 		this.citizenIntegration = citizenIntegration;
 		this.partyIntegration = partyIntegration;
 		this.esigningIntegration = esigningIntegration;
 		this.esigningMapper = esigningMapper;
 		this.signingRepository = signingRepository;
+		this.deliveryOutboxRepository = deliveryOutboxRepository;
+		this.deliveryOutboxProperties = deliveryOutboxProperties;
+		this.deliveryConcurrencyLimiter = deliveryConcurrencyLimiter;
+		this.deliveryBatchProperties = deliveryBatchProperties;
+		this.deliverySchedulingProperties = deliverySchedulingProperties;
+		this.snailMailBatchService = snailMailBatchService;
+		this.deliveryRetryPolicy = deliveryRetryPolicy;
+		this.deliveryMetrics = deliveryMetrics;
 	}
 
 	public String processDigitalRegisteredLetterRequest(final String municipalityId, final DigitalRegisteredLetterRequest request, final List<MultipartFile> attachments) {
@@ -156,12 +193,13 @@ public class MessageService {
 			.withMessageType(DIGITAL_REGISTERED_LETTER);
 		message.setRecipients(List.of(recipient));
 
-		final var attachmentEntities = attachmentMapper.toAttachmentEntities(attachments);
+		final var attachmentEntities = attachmentMapper.toAttachmentEntitiesWithContent(attachments);
 		message.setAttachments(attachmentEntities);
 
 		digitalRegisteredLetterIntegration.sendLetter(message, recipient);
 
 		messageRepository.save(message);
+		messageProgressRepository.initialize(message);
 		return message.getId();
 	}
 
@@ -193,8 +231,11 @@ public class MessageService {
 		messageAttachments.addAll(attachmentEntities);
 		message.setAttachments(messageAttachments);
 
-		messageRepository.save(message);
+		// Flushed, so that the message exists for its progress counters
+		messageRepository.saveAndFlush(message);
+		messageProgressRepository.initialize(message);
 
+		attachmentMapper.encodeContent(messageAttachments);
 		final var startSigningRequest = esigningMapper.toStartSigningRequest(message, request, documentEntity, attachmentEntities);
 		final var response = esigningIntegration.createSigning(municipalityId, startSigningRequest);
 
@@ -230,6 +271,7 @@ public class MessageService {
 
 	public String processCsvLetterRequest(final String municipalityId, final LetterCsvRequest request, final MultipartFile csvFile, final List<MultipartFile> attachments) {
 		final var parsed = parseLetterCsv(csvFile);
+		deliveryAdmissionControl.admit(parsed.privateIds().size() + parsed.enterpriseIds().size());
 
 		final var settingsMap = messagingSettingsIntegration.getMessagingSettingsForUser(municipalityId);
 		final var message = createMessage(municipalityId, settingsMap, LETTER, request.getSubject(), request.getBody(), request.getContentType());
@@ -242,13 +284,16 @@ public class MessageService {
 		message.setAttachments(attachmentEntities);
 
 		messageRepository.save(message);
+		messageProgressRepository.initialize(message);
 
-		processRecipients(message, settingsMap);
+		processRecipients(message, settingsMap, true);
 		return message.getId();
 	}
 
 	public String processCsvSmsRequest(final String municipalityId, final SmsCsvRequest request, final MultipartFile csvFile) {
 		final var validationResult = validateSmsCsv(csvFile);
+		deliveryAdmissionControl.admit(validationResult.validEntries().size());
+
 		final var settingsMap = messagingSettingsIntegration.getMessagingSettingsForUser(municipalityId);
 		final var message = createMessage(municipalityId, settingsMap, SMS, null, request.getMessage(), null);
 
@@ -261,16 +306,20 @@ public class MessageService {
 		message.setRecipients(recipientEntities);
 
 		messageRepository.save(message);
+		messageProgressRepository.initialize(message);
 
-		processRecipients(message, settingsMap);
+		processRecipients(message, settingsMap, true);
 		return message.getId();
 	}
 
 	public String processLetterRequest(final String municipalityId, final LetterRequest letterRequest, final List<MultipartFile> attachments) {
+		final var letterRecipients = ofNullable(letterRequest.getRecipients()).orElse(emptyList());
+		final var letterAddresses = ofNullable(letterRequest.getAddresses()).orElse(emptyList());
+		deliveryAdmissionControl.admit(letterRecipients.size() + letterAddresses.size());
+
 		final var settingsMap = messagingSettingsIntegration.getMessagingSettingsForUser(municipalityId);
 		final var message = createMessage(municipalityId, settingsMap, LETTER, letterRequest.getSubject(), letterRequest.getBody(), letterRequest.getContentType());
 
-		final var letterRecipients = ofNullable(letterRequest.getRecipients()).orElse(emptyList());
 		final var partyIds = letterRecipients.stream()
 			.map(Recipient::getPartyId)
 			.filter(Objects::nonNull)
@@ -281,7 +330,7 @@ public class MessageService {
 			.map(recipient -> entityMapper.toRecipientEntity(recipient, partyTypes.getOrDefault(recipient.getPartyId(), PartyType.PRIVATE)))
 			.filter(Objects::nonNull);
 
-		final var addressRecipients = ofNullable(letterRequest.getAddresses()).orElse(emptyList()).stream()
+		final var addressRecipients = letterAddresses.stream()
 			.map(entityMapper::toRecipientEntity)
 			.filter(Objects::nonNull);
 
@@ -292,8 +341,9 @@ public class MessageService {
 		message.setAttachments(attachmentEntities);
 
 		messageRepository.save(message);
+		messageProgressRepository.initialize(message);
 
-		processRecipients(message, settingsMap);
+		processRecipients(message, settingsMap, false);
 		return message.getId();
 	}
 
@@ -303,6 +353,8 @@ public class MessageService {
 	 * message.
 	 */
 	public String processSmsRequest(final String municipalityId, final SmsRequest smsRequest) {
+		deliveryAdmissionControl.admit(smsRequest.getRecipients().size());
+
 		final var settingsMap = messagingSettingsIntegration.getMessagingSettingsForUser(municipalityId);
 		final var message = createMessage(municipalityId, settingsMap, SMS, null, smsRequest.getMessage(), null);
 
@@ -313,56 +365,174 @@ public class MessageService {
 		message.setRecipients(recipients);
 
 		messageRepository.save(message);
+		messageProgressRepository.initialize(message);
 
-		processRecipients(message, settingsMap);
+		processRecipients(message, settingsMap, false);
 		return message.getId();
 	}
 
-	void processRecipients(final MessageEntity messageEntity, final Map<String, String> settingsMap) {
+	/**
+	 * Starts delivery of the recipients of a persisted message. With the delivery outbox enabled the pending recipients
+	 * are queued in the database and picked up by {@link DeliveryOutboxWorker}, otherwise they are handed directly to
+	 * the {@link DeliveryScheduler}, in the bulk lane if the message came from a bulk endpoint or has many recipients and
+	 * in the interactive lane otherwise (see {@code delivery.scheduling.lanes}).
+	 *
+	 * @param messageEntity the message
+	 * @param settingsMap   the messaging settings of the sender
+	 * @param bulkRequest   whether the message was sent through a bulk (CSV) endpoint
+	 */
+	void processRecipients(final MessageEntity messageEntity, final Map<String, String> settingsMap, final boolean bulkRequest) {
 		LOG.info("Starting to process recipients for message with id {}", messageEntity.getId());
-		ofNullable(messageEntity.getRecipients()).orElse(emptyList()).stream()
+		if (deliveryOutboxProperties.enabled()) {
+			final var queued = deliveryOutboxRepository.enqueue(messageEntity.getId());
+			LOG.info("Queued {} recipients for delivery for message with id {}", queued, messageEntity.getId());
+			return;
+		}
+		final var recipients = ofNullable(messageEntity.getRecipients()).orElse(emptyList()).stream()
 			.filter(recipientEntity -> !"UNDELIVERABLE".equalsIgnoreCase(recipientEntity.getStatus()))
-			.forEach(recipientEntity -> deliveryExecutor.execute(() -> deliver(messageEntity, recipientEntity, settingsMap)));
+			.toList();
+		attachmentMapper.encodeContent(messageEntity.getAttachments());
+		final var lane = deliverySchedulingProperties.lanes().laneOf(bulkRequest, recipients.size());
+		createDeliveries(messageEntity, recipients, settingsMap)
+			.forEach(delivery -> deliveryScheduler.submit(messageEntity, lane, delivery));
+	}
+
+	/**
+	 * Splits the recipients of a message into units of delivery work. The recipients of a channel with batching enabled
+	 * (see {@code delivery.batch}) are grouped into batches of the configured size, each delivered by a single messaging
+	 * call; every other recipient is delivered on its own.
+	 */
+	List<Delivery> createDeliveries(final MessageEntity messageEntity, final List<RecipientEntity> recipients, final Map<String, String> settingsMap) {
+		final var deliveries = new ArrayList<Delivery>();
+		final var batchedRecipients = new EnumMap<MessageType, List<RecipientEntity>>(MessageType.class);
+
+		recipients.forEach(recipientEntity -> {
+			if (deliveryBatchProperties.forChannel(recipientEntity.getMessageType()).enabled()) {
+				batchedRecipients.computeIfAbsent(recipientEntity.getMessageType(), _ -> new ArrayList<>()).add(recipientEntity);
+			} else {
+				deliveries.add(new Delivery(List.of(recipientEntity), () -> deliver(messageEntity, recipientEntity, settingsMap)));
+			}
+		});
+
+		batchedRecipients.forEach((messageType, channelRecipients) -> {
+			final var batchSize = deliveryBatchProperties.forChannel(messageType).size();
+			for (int i = 0; i < channelRecipients.size(); i += batchSize) {
+				final var batch = List.copyOf(channelRecipients.subList(i, Math.min(i + batchSize, channelRecipients.size())));
+				deliveries.add(new Delivery(batch, () -> deliverBatch(messageType, messageEntity, batch)));
+			}
+		});
+		return deliveries;
 	}
 
 	/**
-	 * Delivers a message to a single recipient. Runs on a {@link #deliveryExecutor} thread - the messaging call blocks
-	 * that thread, so the pool size is the concurrency limit. On success the recipient status is updated from the
-	 * messaging result; on failure the recipient is marked as FAILED.
+	 * Delivers a message to a single recipient. Runs on a delivery executor thread - the messaging call blocks
+	 * that thread, and is only made once the {@link DeliveryConcurrencyLimiter} grants a permit for the channel and the
+	 * operation. On success the recipient status is updated from the messaging result; on failure the recipient is
+	 * either scheduled for another attempt by the {@link DeliveryRetryPolicy} or marked as FAILED. Either way the outcome
+	 * is persisted through the {@link RecipientStatusWriter} and counted in {@link DeliveryMetrics}. A snail-mail
+	 * recipient sent as snail mail is added to the message's snail-mail batch, which is triggered once the last such
+	 * recipient has been handled.
 	 */
 	void deliver(final MessageEntity messageEntity, final RecipientEntity recipientEntity, final Map<String, String> settingsMap) {
 		try {
 			final var messageResult = switch (recipientEntity.getMessageType()) {
-				case SMS -> messagingIntegration.sendSms(messageEntity, recipientEntity);
-				case DIGITAL_MAIL -> messagingIntegration.sendDigitalMail(messageEntity, recipientEntity).getMessages().getFirst();
+				case SMS -> call(messageEntity, SMS, SEND_SMS, () -> messagingIntegration.sendSms(messageEntity, recipientEntity));
+				case DIGITAL_MAIL -> call(messageEntity, DIGITAL_MAIL, SEND_DIGITAL_MAIL, () -> messagingIntegration.sendDigitalMail(messageEntity, recipientEntity)).getMessages().getFirst();
 				case SNAIL_MAIL -> deliverSnailMailOrCallback(messageEntity, recipientEntity, settingsMap);
 				default -> {
 					LOG.error("Unsupported message type: {}, for recipient with id: {}", recipientEntity.getMessageType(), recipientEntity.getId());
 					recipientEntity.setStatus(FAILED);
 					recipientEntity.setStatusDetail("Unsupported message type: " + recipientEntity.getMessageType());
-					recipientRepository.save(recipientEntity);
+					recipientStatusWriter.write(recipientEntity);
 					yield null;
 				}
 			};
 			updateRecipient(messageResult, recipientEntity);
 		} catch (final Exception e) {
 			LOG.error("Failed to deliver to recipient with id {}", recipientEntity.getId(), e);
-			recipientEntity.setStatus(FAILED);
-			recipientEntity.setStatusDetail(e.getMessage());
-			recipientRepository.save(recipientEntity);
+			if (!deliveryRetryPolicy.scheduleRetry(recipientEntity, e)) {
+				recipientEntity.setStatus(FAILED);
+				recipientEntity.setStatusDetail(e.getMessage());
+			}
+			recipientStatusWriter.write(recipientEntity);
+		}
+		deliveryMetrics.recordOutcome(messageEntity, recipientEntity);
+
+		if (recipientEntity.getMessageType() == SNAIL_MAIL && !isCallbackEmail(settingsMap)) {
+			snailMailBatchService.triggerWhenComplete(messageEntity, recipientEntity);
+		}
+	}
+
+	/**
+	 * Delivers a message to a batch of SMS or digital-mail recipients with a single messaging call. Messaging returns the
+	 * message results in the order of the recipients, so each recipient is updated from the result at its own position.
+	 * If the number of results doesn't match the number of recipients they can't be correlated, and every recipient in
+	 * the batch is marked as FAILED. If the call itself fails, each recipient is retried or failed as a single delivery
+	 * would be.
+	 */
+	void deliverBatch(final MessageType messageType, final MessageEntity messageEntity, final List<RecipientEntity> recipientEntities) {
+		try {
+			final var batchResult = switch (messageType) {
+				case SMS -> call(messageEntity, SMS, SEND_SMS_BATCH, () -> messagingIntegration.sendSmsBatch(messageEntity, recipientEntities));
+				case DIGITAL_MAIL -> call(messageEntity, DIGITAL_MAIL, SEND_DIGITAL_MAIL_BATCH, () -> messagingIntegration.sendDigitalMail(messageEntity, recipientEntities));
+				default -> throw new IllegalArgumentException("Batch delivery is not supported for message type: " + messageType);
+			};
+			final var messageResults = ofNullable(batchResult)
+				.map(MessageBatchResult::getMessages)
+				.orElse(emptyList());
+
+			if (messageResults.size() != recipientEntities.size()) {
+				LOG.error("{} batch for message with id {} returned {} results for {} recipients", messageType, messageEntity.getId(), messageResults.size(), recipientEntities.size());
+				markAsFailed(recipientEntities, "%s batch returned %s results for %s recipients".formatted(messageType, messageResults.size(), recipientEntities.size()));
+				return;
+			}
+			for (int i = 0; i < recipientEntities.size(); i++) {
+				updateRecipient(messageResults.get(i), recipientEntities.get(i));
+			}
+		} catch (final Exception e) {
+			LOG.error("Failed to deliver {} batch of {} recipients for message with id {}", messageType, recipientEntities.size(), messageEntity.getId(), e);
+			recipientEntities.forEach(recipientEntity -> {
+				if (!deliveryRetryPolicy.scheduleRetry(recipientEntity, e)) {
+					recipientEntity.setStatus(FAILED);
+					recipientEntity.setStatusDetail(e.getMessage());
+				}
+			});
+			recipientStatusWriter.writeAll(recipientEntities);
+		} finally {
+			recipientEntities.forEach(recipientEntity -> deliveryMetrics.recordOutcome(messageEntity, recipientEntity));
 		}
 	}
 
+	private void markAsFailed(final List<RecipientEntity> recipientEntities, final String statusDetail) {
+		recipientEntities.forEach(recipientEntity -> {
+			recipientEntity.setStatus(FAILED);
+			recipientEntity.setStatusDetail(statusDetail);
+		});
+		recipientStatusWriter.writeAll(recipientEntities);
+	}
+
 	MessageResult deliverSnailMailOrCallback(final MessageEntity messageEntity, final RecipientEntity recipientEntity, final Map<String, String> settingsMap) {
 		LOG.info("Sending snail mail to recipient with id {}", recipientEntity.getId());
 
 		// If callback email is configured, send as email instead of snail mail.
-		if (SNAILMAIL_METHOD_VALUE.equals(settingsMap.get(SNAILMAIL_METHOD))) {
+		if (isCallbackEmail(settingsMap)) {
 			LOG.info("Snail mail method is set to {}, sending callback email instead.", SNAILMAIL_METHOD_VALUE);
-			return messagingIntegration.sendCallbackEmail(messageEntity, recipientEntity, settingsMap);
+			return call(messageEntity, SNAIL_MAIL, SEND_CALLBACK_EMAIL, () -> messagingIntegration.sendCallbackEmail(messageEntity, recipientEntity, settingsMap));
 		}
 
-		return messagingIntegration.sendSnailMail(messageEntity, recipientEntity);
+		return call(messageEntity, SNAIL_MAIL, SEND_SNAIL_MAIL, () -> messagingIntegration.sendSnailMail(messageEntity, recipientEntity));
+	}
+
+	/**
+	 * Performs a messaging call once the {@link DeliveryConcurrencyLimiter} grants a permit, recording its latency and
+	 * outcome in {@link DeliveryMetrics}.
+	 */
+	private <T> T call(final MessageEntity messageEntity, final MessageType channel, final DeliveryOperation operation, final Supplier<T> call) {
+		return deliveryConcurrencyLimiter.execute(channel, operation, () -> deliveryMetrics.recordCall(messageEntity, channel, operation, call));
+	}
+
+	private static boolean isCallbackEmail(final Map<String, String> settingsMap) {
+		return SNAILMAIL_METHOD_VALUE.equals(settingsMap.get(SNAILMAIL_METHOD));
 	}
 
 	void updateRecipient(final MessageResult messageResult, final RecipientEntity recipientEntity) {
@@ -381,7 +551,7 @@ public class MessageService {
 		LOG.info("Updating recipient with id {}, Status: {}, ExternalId: {}", recipientEntity.getId(), status, messageId);
 		recipientEntity.setStatus(status.toString());
 		recipientEntity.setExternalId(String.valueOf(messageId));
-		recipientRepository.save(recipientEntity);
+		recipientStatusWriter.write(recipientEntity);
 	}
 
 	UserEntity getOrCreateUser(final String userName) {
@@ -403,13 +573,7 @@ public class MessageService {
 	 */
 	MessageEntity createMessage(final String municipalityId, final Map<String, String> settingsMap, final MessageType messageType, final String subject, final String body, final String contentType) {
 		final var user = getOrCreateUser(Identifier.get().getValue());
-		final var department = getOrCreateDepartment(settingsMap)
-			.withFolderName(settingsMap.get(FOLDER_NAME))
-			.withOrganizationNumber(settingsMap.get(ORGANIZATION_NUMBER))
-			.withSupportText(settingsMap.get(SUPPORT_TEXT))
-			.withContactInformationUrl(settingsMap.get(CONTACT_INFORMATION_URL))
-			.withContactInformationEmail(settingsMap.get(CONTACT_INFORMATION_EMAIL))
-			.withContactInformationPhoneNumber(settingsMap.get(CONTACT_INFORMATION_PHONE_NUMBER));
+		final var department = applyDepartmentSettings(getOrCreateDepartment(settingsMap), settingsMap);
 
 		return MessageEntity.create()
 			.withMunicipalityId(municipalityId)
@@ -421,4 +585,11 @@ public class MessageService {
 			.withBody(body)
 			.withContentType(contentType);
 	}
+
+	/**
+	 * A unit of delivery work: the recipients it delivers to and the task, run on the delivery executor, that delivers
+	 * them.
+	 */
+	record Delivery(List<RecipientEntity> recipients, Runnable task) {
+	}
 }
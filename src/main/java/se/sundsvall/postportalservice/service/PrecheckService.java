@@ -8,16 +8,28 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.dept44.problem.ThrowableProblem;
+import se.sundsvall.dept44.support.Identifier;
 import se.sundsvall.postportalservice.api.model.KivraEligibilityRequest;
 import se.sundsvall.postportalservice.api.model.PrecheckCsvResponse;
 import se.sundsvall.postportalservice.api.model.PrecheckResponse;
 import se.sundsvall.postportalservice.api.model.PrecheckResponse.PrecheckRecipient;
+import se.sundsvall.postportalservice.configuration.PrecheckConfiguration.PrecheckProperties;
 import se.sundsvall.postportalservice.integration.citizen.CitizenIntegration;
 import se.sundsvall.postportalservice.integration.db.RecipientEntity;
 import se.sundsvall.postportalservice.integration.db.converter.PartyType;
@@ -36,8 +48,13 @@ import se.sundsvall.postportalservice.service.util.PartyIdMappingHelper.PartyIdM
 import static java.util.Collections.emptyList;
 import static java.util.Optional.of;
 import static java.util.Optional.ofNullable;
+import static java.util.concurrent.Future.State.FAILED;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.GATEWAY_TIMEOUT;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
 import static se.sundsvall.postportalservice.Constants.INELIGIBLE_MINOR;
+import static se.sundsvall.postportalservice.configuration.PrecheckConfiguration.PRECHECK_EXECUTOR;
 import static se.sundsvall.postportalservice.service.util.MessagingSettingsUtil.ORGANIZATION_NUMBER;
 
 @Service
@@ -50,6 +67,8 @@ public class PrecheckService {
 	private final PartyIntegration partyIntegration;
 	private final MessagingSettingsIntegration messagingSettingsIntegration;
 	private final LegalEntityIntegration legalEntityIntegration;
+	private final AsyncTaskExecutor precheckExecutor;
+	private final PrecheckProperties precheckProperties;
 
 	public PrecheckService(
 		final DigitalRegisteredLetterIntegration digitalRegisteredLetterIntegration,
@@ -58,7 +77,9 @@ public class PrecheckService {
 		final EntityMapper entityMapper,
 		final PartyIntegration partyIntegration,
 		final MessagingSettingsIntegration messagingSettingsIntegration,
-		final LegalEntityIntegration legalEntityIntegration) {
+		final LegalEntityIntegration legalEntityIntegration,
+		@Qualifier(PRECHECK_EXECUTOR) final AsyncTaskExecutor precheckExecutor,
+		final PrecheckProperties precheckProperties) {
 		this.digitalRegisteredLetterIntegration = digitalRegisteredLetterIntegration;
 		this.citizenIntegration = citizenIntegration;
 		this.mailboxStatusService = mailboxStatusService;
@@ -66,6 +87,8 @@ public class PrecheckService {
 		this.partyIntegration = partyIntegration;
 		this.messagingSettingsIntegration = messagingSettingsIntegration;
 		this.legalEntityIntegration = legalEntityIntegration;
+		this.precheckExecutor = precheckExecutor;
+		this.precheckProperties = precheckProperties;
 	}
 
 	public PrecheckCsvResponse precheckSmsCsv(final MultipartFile csvFile) {
@@ -120,15 +143,9 @@ public class PrecheckService {
 			.filter(partyId -> partyTypes.get(partyId) != PartyType.ENTERPRISE)
 			.toList();
 
-		final var enterpriseRecipients = enterprisePartyIds.isEmpty()
-			? Stream.<PrecheckRecipient>empty()
-			: createEnterprisePrecheckResponse(municipalityId, enterprisePartyIds).precheckRecipients().stream();
-
-		final var privateRecipients = privatePartyIds.isEmpty()
-			? Stream.<PrecheckRecipient>empty()
-			: createPrivatePrecheckResponse(municipalityId, privatePartyIds).precheckRecipients().stream();
-
-		return PrecheckResponse.of(Stream.concat(privateRecipients, enterpriseRecipients).toList());
+		return PrecheckResponse.of(precheckBranches(deadline(),
+			privatePartyIds, ids -> createPrivatePrecheckResponse(municipalityId, ids).precheckRecipients(),
+			enterprisePartyIds, ids -> createEnterprisePrecheckResponse(municipalityId, ids).precheckRecipients()));
 	}
 
 	private PrecheckResponse createPrivatePrecheckResponse(final String municipalityId, final List<String> partyIds) {
@@ -188,10 +205,140 @@ public class PrecheckService {
 		return partyIdMapping;
 	}
 
+	/**
+	 * Resolves the recipients of a CSV send. Unlike {@link #precheckPartyIds}, this precheck has no deadline: CSV files
+	 * may hold any number of entries, and sends were never bounded in time.
+	 */
 	public List<RecipientEntity> precheckLegalIds(final String municipalityId, final List<String> privateIds, final List<String> enterpriseIds) {
-		final var privateRecipients = precheckPrivateLegalIds(municipalityId, privateIds);
-		final var enterpriseRecipients = precheckEnterpriseLegalIds(municipalityId, enterpriseIds);
-		return Stream.concat(privateRecipients.stream(), enterpriseRecipients.stream()).toList();
+		return precheckBranches(OptionalLong.empty(),
+			privateIds, ids -> precheckInChunks(ids, chunk -> precheckPrivateLegalIds(municipalityId, chunk)),
+			enterpriseIds, ids -> precheckEnterpriseLegalIds(municipalityId, ids));
+	}
+
+	private OptionalLong deadline() {
+		return OptionalLong.of(System.nanoTime() + precheckProperties.timeout().toNanos());
+	}
+
+	/**
+	 * Runs the private and the enterprise branch of a precheck and returns the results of the private branch followed by
+	 * those of the enterprise branch. A branch without ids is not run. When both branches have ids they run concurrently,
+	 * unless disabled by {@code precheck.concurrent}. Either way the precheck is bounded by the deadline, if any - a branch
+	 * not complete by then is interrupted and the precheck fails.
+	 */
+	private <T> List<T> precheckBranches(final OptionalLong deadline, final List<String> privateIds, final Function<List<String>, List<T>> privateBranch,
+		final List<String> enterpriseIds, final Function<List<String>, List<T>> enterpriseBranch) {
+		final var hasPrivateIds = privateIds != null && !privateIds.isEmpty();
+		final var hasEnterpriseIds = enterpriseIds != null && !enterpriseIds.isEmpty();
+
+		if (!hasPrivateIds || !hasEnterpriseIds || !precheckProperties.concurrent()) {
+			final Supplier<List<T>> sequential = () -> {
+				final var privateResults = hasPrivateIds ? privateBranch.apply(privateIds) : List.<T>of();
+				final var enterpriseResults = hasEnterpriseIds ? enterpriseBranch.apply(enterpriseIds) : List.<T>of();
+				return Stream.concat(privateResults.stream(), enterpriseResults.stream()).toList();
+			};
+			if (deadline.isEmpty()) {
+				return sequential.get();
+			}
+
+			final var future = submit(sequential::get);
+			try {
+				return await(future, deadline);
+			} finally {
+				future.cancel(true);
+			}
+		}
+
+		final var privateFuture = submit(() -> privateBranch.apply(privateIds));
+		final var enterpriseFuture = submit(() -> enterpriseBranch.apply(enterpriseIds));
+		try {
+			final var privateResults = await(privateFuture, deadline);
+			final var enterpriseResults = await(enterpriseFuture, deadline);
+			return Stream.concat(privateResults.stream(), enterpriseResults.stream()).toList();
+		} finally {
+			// Stops the other branch when one fails, has no effect on completed branches
+			privateFuture.cancel(true);
+			enterpriseFuture.cancel(true);
+		}
+	}
+
+	/**
+	 * Prechecks ids chunk by chunk, each chunk passing through all stages of the precheck on its own, so that the stages
+	 * of different chunks overlap instead of every stage waiting for the previous one to finish for all ids. At most
+	 * {@code precheck.max-in-flight-chunks} chunks are in flight at a time, and the results are returned in chunk order.
+	 * Ids that fit in one chunk are prechecked directly. Once a chunk has failed no more chunks are started, and chunks in
+	 * flight are interrupted - as they are when the calling branch is interrupted.
+	 */
+	private <T> List<T> precheckInChunks(final List<String> ids, final Function<List<String>, List<T>> precheck) {
+		final var chunkSize = precheckProperties.chunkSize();
+		if (ids == null || ids.size() <= chunkSize) {
+			return precheck.apply(ids);
+		}
+
+		final var inFlight = new Semaphore(precheckProperties.maxInFlightChunks());
+		final var futures = new ArrayList<Future<List<T>>>();
+		try {
+			for (var from = 0; from < ids.size() && futures.stream().noneMatch(future -> future.state() == FAILED); from += chunkSize) {
+				final var chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+				acquire(inFlight);
+				futures.add(submit(() -> {
+					try {
+						return precheck.apply(chunk);
+					} finally {
+						inFlight.release();
+					}
+				}));
+			}
+
+			final var results = new ArrayList<T>();
+			futures.forEach(future -> results.addAll(await(future, OptionalLong.empty())));
+			return results;
+		} finally {
+			futures.forEach(future -> future.cancel(true));
+		}
+	}
+
+	/**
+	 * Submits a branch, running it as the user of the calling request (the MDC is propagated by the executor).
+	 */
+	private <T> Future<T> submit(final Callable<T> branch) {
+		final var identifier = Identifier.get();
+		return precheckExecutor.submit(() -> {
+			ofNullable(identifier).ifPresent(Identifier::set);
+			try {
+				return branch.call();
+			} finally {
+				Identifier.remove();
+			}
+		});
+	}
+
+	private static void acquire(final Semaphore semaphore) {
+		try {
+			semaphore.acquire();
+		} catch (final InterruptedException _) {
+			Thread.currentThread().interrupt();
+			throw Problem.valueOf(INTERNAL_SERVER_ERROR, "Interrupted while waiting for precheck");
+		}
+	}
+
+	private <T> T await(final Future<T> future, final OptionalLong deadline) {
+		try {
+			return deadline.isPresent() ? future.get(deadline.getAsLong() - System.nanoTime(), NANOSECONDS) : future.get();
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof final RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw Problem.valueOf(INTERNAL_SERVER_ERROR, "Precheck failed: " + e.getCause().getMessage());
+		} catch (final TimeoutException _) {
+			throw timedOut();
+		} catch (final InterruptedException _) {
+			Thread.currentThread().interrupt();
+			throw Problem.valueOf(INTERNAL_SERVER_ERROR, "Interrupted while waiting for precheck");
+		}
+	}
+
+	private ThrowableProblem timedOut() {
+		return Problem.valueOf(GATEWAY_TIMEOUT, "Precheck did not complete within %s".formatted(precheckProperties.timeout()));
 	}
 
 	private List<RecipientEntity> precheckPrivateLegalIds(final String municipalityId, final List<String> legalIds) {
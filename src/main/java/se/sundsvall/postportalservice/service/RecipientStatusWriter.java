@@ -0,0 +1,123 @@
+package se.sundsvall.postportalservice.service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import se.sundsvall.postportalservice.configuration.DeliveryExecutorConfiguration.DeliveryStatusWriterProperties;
+import se.sundsvall.postportalservice.integration.db.RecipientEntity;
+import se.sundsvall.postportalservice.integration.db.dao.RecipientStatusRepository;
+import se.sundsvall.postportalservice.integration.db.dao.RecipientStatusRepository.RecipientStatus;
+
+/**
+ * Persists the outcome of deliveries, together with the progress counters of their messages (see
+ * {@link RecipientStatusRepository}). By default each outcome is written as soon as its delivery has finished. With
+ * {@code delivery.status-writer.enabled} the status of the recipient is instead snapshotted and kept in memory -
+ * a later status of the same recipient replaces an earlier one - and written together with the statuses of other
+ * recipients as a single JDBC batch, once {@code batch-size} recipients are waiting or on the next
+ * {@code flush-interval}. Flushes never overlap, so statuses are written in the order they were recorded. A status
+ * that fails to be written is kept for the next flush, and everything still waiting is written on shutdown.
+ */
+@Component
+public class RecipientStatusWriter {
+
+	private static final Logger LOG = LoggerFactory.getLogger(RecipientStatusWriter.class);
+
+	private final RecipientStatusRepository recipientStatusRepository;
+	private final DeliveryStatusWriterProperties properties;
+
+	private final Map<String, RecipientStatus> pending = new ConcurrentHashMap<>();
+	private final ReentrantLock flushLock = new ReentrantLock();
+	private volatile boolean closed;
+
+	public RecipientStatusWriter(final RecipientStatusRepository recipientStatusRepository, final DeliveryStatusWriterProperties properties) {
+		this.recipientStatusRepository = recipientStatusRepository;
+		this.properties = properties;
+	}
+
+	/**
+	 * Records the delivery outcome of a recipient.
+	 *
+	 * @param recipientEntity the recipient
+	 */
+	public void write(final RecipientEntity recipientEntity) {
+		if (!properties.enabled()) {
+			recipientStatusRepository.updateStatuses(List.of(RecipientStatus.of(recipientEntity)));
+			return;
+		}
+		pending.put(recipientEntity.getId(), RecipientStatus.of(recipientEntity));
+		flushIfDue();
+	}
+
+	/**
+	 * Records the delivery outcome of several recipients.
+	 *
+	 * @param recipientEntities the recipients
+	 */
+	public void writeAll(final List<RecipientEntity> recipientEntities) {
+		if (!properties.enabled()) {
+			recipientStatusRepository.updateStatuses(recipientEntities.stream().map(RecipientStatus::of).toList());
+			return;
+		}
+		recipientEntities.forEach(recipientEntity -> pending.put(recipientEntity.getId(), RecipientStatus.of(recipientEntity)));
+		flushIfDue();
+	}
+
+	/**
+	 * Writes all recorded outcomes.
+	 */
+	@Scheduled(fixedDelayString = "${delivery.status-writer.flush-interval:PT1S}")
+	public void flush() {
+		flushLock.lock();
+		try {
+			final var statuses = new ArrayList<RecipientStatus>(pending.size());
+			pending.keySet().forEach(recipientId -> {
+				final var status = pending.remove(recipientId);
+				if (status != null) {
+					statuses.add(status);
+				}
+			});
+			write(statuses);
+		} finally {
+			flushLock.unlock();
+		}
+	}
+
+	/**
+	 * Writes what is still waiting. Deliveries still finishing after this are written one by one, as they come in.
+	 */
+	@PreDestroy
+	public void close() {
+		closed = true;
+		flush();
+	}
+
+	int getPending() {
+		return pending.size();
+	}
+
+	private void flushIfDue() {
+		if (closed || pending.size() >= properties.batchSize()) {
+			flush();
+		}
+	}
+
+	private void write(final List<RecipientStatus> statuses) {
+		if (statuses.isEmpty()) {
+			return;
+		}
+		try {
+			recipientStatusRepository.updateStatuses(statuses);
+		} catch (final Exception e) {
+			LOG.error("Failed to write the status of {} recipients, retrying on the next flush", statuses.size(), e);
+			// A status recorded since this flush started is newer and takes precedence
+			statuses.forEach(status -> pending.putIfAbsent(status.id(), status));
+		}
+	}
+}
@@ -6,16 +6,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import se.sundsvall.dept44.problem.Problem;
 import se.sundsvall.postportalservice.api.model.EventSignatory;
 import se.sundsvall.postportalservice.api.model.SignedDocument;
 import se.sundsvall.postportalservice.api.model.SigningEvent;
 import se.sundsvall.postportalservice.integration.db.AttachmentEntity;
 import se.sundsvall.postportalservice.integration.db.MessageEntity;
 import se.sundsvall.postportalservice.integration.db.SigningEntity;
+import se.sundsvall.postportalservice.integration.db.dao.AttachmentContentRepository;
+import se.sundsvall.postportalservice.integration.db.dao.MessageProgressRepository;
 import se.sundsvall.postportalservice.integration.db.dao.RecipientRepository;
 import se.sundsvall.postportalservice.integration.db.dao.SigningRepository;
-import se.sundsvall.postportalservice.service.util.BlobUtil;
+import se.sundsvall.postportalservice.service.util.SpooledContent;
 
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.MediaType.APPLICATION_PDF_VALUE;
 import static se.sundsvall.dept44.util.LogUtils.sanitizeForLogging;
 import static se.sundsvall.postportalservice.Constants.DECLINED;
@@ -36,20 +40,32 @@ public class SigningEventService {
 	private static final Logger LOG = LoggerFactory.getLogger(SigningEventService.class);
 
 	private final RecipientRepository recipientRepository;
+	private final MessageProgressRepository messageProgressRepository;
 	private final SigningRepository signingRepository;
-	private final BlobUtil blobUtil;
+	private final AttachmentContentRepository attachmentContentRepository;
 
 	public SigningEventService(
 		final RecipientRepository recipientRepository,
+		final MessageProgressRepository messageProgressRepository,
 		final SigningRepository signingRepository,
-		final BlobUtil blobUtil) {
+		final AttachmentContentRepository attachmentContentRepository) {
 		this.recipientRepository = recipientRepository;
+		this.messageProgressRepository = messageProgressRepository;
 		this.signingRepository = signingRepository;
-		this.blobUtil = blobUtil;
+		this.attachmentContentRepository = attachmentContentRepository;
 	}
 
+	/**
+	 * Handles a signing event. The content of its signed document is read separately from the event, as it is decoded
+	 * and spooled while the event is read.
+	 *
+	 * @param municipalityId        the municipality id
+	 * @param messageId             the id of the message the signing case belongs to
+	 * @param event                 the signing event
+	 * @param signedDocumentContent the decoded content of the signed document of the event, {@code null} if it has none
+	 */
 	@Transactional
-	public void handleSigningEvent(final String municipalityId, final String messageId, final SigningEvent event) {
+	public void handleSigningEvent(final String municipalityId, final String messageId, final SigningEvent event, final SpooledContent signedDocumentContent) {
 		final var signing = signingRepository.findByMessageId(messageId).orElse(null);
 		if (signing == null) {
 			// Ack unknown cases so the provider stops retrying - the create flow persists the signing synchronously, so a
@@ -62,7 +78,7 @@ public class SigningEventService {
 
 		applyStatus(signing, event.getStatus());
 		Optional.ofNullable(event.getSignatory()).ifPresent(signatory -> updateRecipient(message, signatory));
-		Optional.ofNullable(event.getSignedDocument()).ifPresent(document -> storeSignedDocument(signing, document));
+		Optional.ofNullable(event.getSignedDocument()).ifPresent(document -> storeSignedDocument(signing, document, signedDocumentContent));
 
 		signingRepository.save(signing);
 	}
@@ -84,9 +100,11 @@ public class SigningEventService {
 			.filter(recipient -> Objects.equals(signatory.getPartyId(), recipient.getPartyId()))
 			.findFirst()
 			.ifPresent(recipient -> {
+				final var previousStatus = recipient.getStatus();
 				recipient.setStatus(toRecipientStatus(signatory.getAction()));
 				recipient.setStatusDetail(signatory.getReason());
 				recipientRepository.save(recipient);
+				messageProgressRepository.transition(message.getId(), previousStatus, recipient.getStatus());
 			});
 	}
 
@@ -96,14 +114,32 @@ public class SigningEventService {
 
 	/**
 	 * Stores the signed document (the merged signed PDF Comfact returns) on the signing. The original uploaded document(s)
-	 * remain as message attachments.
+	 * remain as message attachments. A redelivered completion event, whose signed document the signing already points at,
+	 * is ignored. Otherwise the new signed document replaces any previous one, whose attachment is removed and whose
+	 * content reference is released. The content is streamed from where it was spooled, and its hash was calculated while
+	 * spooling.
 	 */
-	void storeSignedDocument(final SigningEntity signing, final SignedDocument document) {
+	void storeSignedDocument(final SigningEntity signing, final SignedDocument document, final SpooledContent content) {
+		if (content == null) {
+			throw Problem.valueOf(BAD_REQUEST, "No content received for signed document");
+		}
+		final var contentHash = content.getHash();
+		final var previousAttachment = signing.getAttachment();
+		if (previousAttachment != null && contentHash.equals(previousAttachment.getContentHash())) {
+			LOG.info("Signing case {} already holds the signed document; ignoring", sanitizeForLogging(signing.getId()));
+			return;
+		}
+		attachmentContentRepository.store(contentHash, content, content.getLength());
+
 		final var signedAttachment = AttachmentEntity.create()
 			.withFileName(document.getFileName())
 			.withContentType(Optional.ofNullable(document.getMimeType()).orElse(APPLICATION_PDF_VALUE))
-			.withContent(blobUtil.convertBase64ToBlob(document.getContent()));
+			.withContentHash(contentHash);
 
+		// The previous attachment is orphaned, and so removed, when the signing is saved
 		signing.setAttachment(signedAttachment);
+		Optional.ofNullable(previousAttachment)
+			.map(AttachmentEntity::getContentHash)
+			.ifPresent(attachmentContentRepository::release);
 	}
 }
@@ -0,0 +1,73 @@
+package se.sundsvall.postportalservice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import se.sundsvall.postportalservice.integration.db.MessageEntity;
+import se.sundsvall.postportalservice.integration.db.RecipientEntity;
+import se.sundsvall.postportalservice.integration.db.dao.SnailMailBatchRepository;
+import se.sundsvall.postportalservice.integration.messaging.MessagingIntegration;
+
+import static se.sundsvall.postportalservice.Constants.FAILED;
+import static se.sundsvall.postportalservice.Constants.PENDING;
+import static se.sundsvall.postportalservice.Constants.TRIGGERED;
+
+/**
+ * Hands the snail mail of a message over to print-and-post as one unit. Each snail-mail recipient is added to a
+ * messaging batch identified by the message id; once the last of them has been handled the batch is triggered, exactly
+ * once, and the outcome is recorded on the message.
+ */
+@Service
+public class SnailMailBatchService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(SnailMailBatchService.class);
+
+	private final SnailMailBatchRepository snailMailBatchRepository;
+	private final MessagingIntegration messagingIntegration;
+
+	public SnailMailBatchService(final SnailMailBatchRepository snailMailBatchRepository, final MessagingIntegration messagingIntegration) {
+		this.snailMailBatchRepository = snailMailBatchRepository;
+		this.messagingIntegration = messagingIntegration;
+	}
+
+	/**
+	 * Called after each delivery attempt of a snail-mail recipient of a message. Triggers the batch if this was the last
+	 * recipient waiting to be handled and at least one recipient was accepted; otherwise does nothing. A recipient
+	 * scheduled for another attempt is not handled yet. Never throws - a failed trigger is logged and recorded as
+	 * {@code FAILED} on the message.
+	 */
+	public void triggerWhenComplete(final MessageEntity messageEntity, final RecipientEntity recipientEntity) {
+		if (PENDING.equals(recipientEntity.getStatus()) && recipientEntity.getExternalId() == null) {
+			return;
+		}
+
+		final var messageId = messageEntity.getId();
+		final var accepted = recipientEntity.getExternalId() != null && !FAILED.equals(recipientEntity.getStatus());
+		try {
+			if (!snailMailBatchRepository.claimTrigger(messageId, recipientEntity.getId(), accepted)) {
+				return;
+			}
+		} catch (final Exception e) {
+			LOG.error("Could not claim the snail mail batch trigger for message with id {}", messageId, e);
+			return;
+		}
+
+		try {
+			messagingIntegration.triggerSnailMailBatch(messageEntity);
+		} catch (final Exception e) {
+			LOG.error("Failed to trigger snail mail batch for message with id {}", messageId, e);
+			recordOutcome(messageId, FAILED);
+			return;
+		}
+		LOG.info("Triggered snail mail batch for message with id {}", messageId);
+		recordOutcome(messageId, TRIGGERED);
+	}
+
+	private void recordOutcome(final String messageId, final String status) {
+		try {
+			snailMailBatchRepository.recordOutcome(messageId, status);
+		} catch (final Exception e) {
+			LOG.error("Failed to record snail mail batch outcome {} for message with id {}", status, messageId, e);
+		}
+	}
+}
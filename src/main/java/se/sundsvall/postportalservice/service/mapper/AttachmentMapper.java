@@ -6,18 +6,24 @@ import java.util.stream.Collectors;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 import se.sundsvall.postportalservice.integration.db.AttachmentEntity;
+import se.sundsvall.postportalservice.integration.db.dao.AttachmentContentRepository;
+import se.sundsvall.postportalservice.service.AttachmentPayloadCache;
 import se.sundsvall.postportalservice.service.util.BlobUtil;
 
 import static java.util.Collections.emptyList;
-import static se.sundsvall.postportalservice.service.util.BlobUtil.convertBlobToBase64String;
+import static se.sundsvall.postportalservice.service.util.BlobUtil.sha256Hex;
 
 @Component
 public final class AttachmentMapper {
 
 	private final BlobUtil blobUtil;
+	private final AttachmentContentRepository attachmentContentRepository;
+	private final AttachmentPayloadCache attachmentPayloadCache;
 
-	public AttachmentMapper(final BlobUtil blobUtil) {
+	public AttachmentMapper(final BlobUtil blobUtil, final AttachmentContentRepository attachmentContentRepository, final AttachmentPayloadCache attachmentPayloadCache) {
 		this.blobUtil = blobUtil;
+		this.attachmentContentRepository = attachmentContentRepository;
+		this.attachmentPayloadCache = attachmentPayloadCache;
 	}
 
 	public List<AttachmentEntity> toAttachmentEntities(final List<MultipartFile> attachments) {
@@ -26,18 +32,44 @@ public final class AttachmentMapper {
 			.collect(Collectors.toList());// Mutable list
 	}
 
+	/**
+	 * Maps uploads to attachments that also hold the uploaded content as a {@link java.sql.Blob}, for integrations that
+	 * send the content as a file rather than Base64 encoded (see {@code DigitalRegisteredLetterMapper}).
+	 */
+	public List<AttachmentEntity> toAttachmentEntitiesWithContent(final List<MultipartFile> attachments) {
+		return Optional.ofNullable(attachments).orElse(emptyList()).stream()
+			.map(multipartFile -> Optional.ofNullable(toAttachmentEntity(multipartFile))
+				.map(attachmentEntity -> attachmentEntity.withContent(blobUtil.convertToBlob(multipartFile)))
+				.orElse(null))
+			.collect(Collectors.toList());// Mutable list
+	}
+
+	/**
+	 * Maps an upload to an attachment, storing its content unless the same content is already stored. The attachment
+	 * refers to the stored content by its hash. The upload is read at most twice: once to hash it, and once more to store
+	 * it if the content is new. It is not encoded here; see {@link #encodeContent(List)}.
+	 */
 	public AttachmentEntity toAttachmentEntity(final MultipartFile multipartFile) {
 		if (multipartFile == null) {
 			return null;
 		}
-		var blob = blobUtil.convertToBlob(multipartFile);
-		var contentString = convertBlobToBase64String(blob);
+		final var hash = sha256Hex(multipartFile);
+		attachmentContentRepository.store(hash, multipartFile, multipartFile.getSize());
 
 		return new AttachmentEntity()
 			.withFileName(multipartFile.getOriginalFilename())
 			.withContentType(multipartFile.getContentType())
-			.withContent(blob)
-			.withContentString(contentString);
+			.withContentHash(hash);
 	}
 
+	/**
+	 * Reads the stored content of attachments into memory, Base64 encoded, for integrations that send it in the request
+	 * body. The encoded content is shared through the {@link AttachmentPayloadCache}, and attachments already holding it
+	 * are left as they are.
+	 */
+	public void encodeContent(final List<AttachmentEntity> attachmentEntities) {
+		Optional.ofNullable(attachmentEntities).orElse(emptyList()).stream()
+			.filter(attachmentEntity -> attachmentEntity.getContentString() == null && attachmentEntity.getContentHash() != null)
+			.forEach(attachmentEntity -> attachmentEntity.setContentString(attachmentPayloadCache.getBase64(attachmentEntity.getContentHash())));
+	}
 }
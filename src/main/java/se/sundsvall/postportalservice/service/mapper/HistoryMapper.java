@@ -7,11 +7,13 @@ import java.util.Objects;
 import org.springframework.stereotype.Component;
 import se.sundsvall.postportalservice.api.model.Message;
 import se.sundsvall.postportalservice.api.model.MessageDetails;
+import se.sundsvall.postportalservice.api.model.MessageProgress;
 import se.sundsvall.postportalservice.api.model.SigningStatus;
 import se.sundsvall.postportalservice.integration.db.AttachmentEntity;
 import se.sundsvall.postportalservice.integration.db.MessageEntity;
 import se.sundsvall.postportalservice.integration.db.RecipientEntity;
 import se.sundsvall.postportalservice.integration.db.converter.MessageType;
+import se.sundsvall.postportalservice.integration.db.dao.MessageProgressRepository.Progress;
 
 import static java.util.Collections.emptyList;
 import static java.util.Optional.ofNullable;
@@ -94,4 +96,17 @@ public class HistoryMapper {
 			.orElse(null);
 	}
 
+	public MessageProgress toMessageProgress(final String messageId, final Progress progress) {
+		return ofNullable(progress)
+			.map(_ -> MessageProgress.create()
+				.withMessageId(messageId)
+				.withTotal(progress.total())
+				.withPending(progress.pending())
+				.withSent(progress.sent())
+				.withDelivered(progress.delivered())
+				.withFailed(progress.failed())
+				.withUndeliverable(progress.undeliverable()))
+			.orElse(null);
+	}
+
 }
@@ -1,15 +1,27 @@
 package se.sundsvall.postportalservice.service.util;
 
 import jakarta.persistence.EntityManager;
-import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.Blob;
 import java.util.Base64;
+import java.util.HexFormat;
 import java.util.Optional;
 import org.hibernate.Session;
+import org.springframework.core.io.InputStreamSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.postportalservice.integration.attachmentstore.AttachmentStore.StoredContent;
 
+import static java.lang.Math.toIntExact;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
 import static org.zalando.fauxpas.FauxPas.throwingFunction;
 
@@ -28,48 +40,93 @@ public class BlobUtil {
 			.orElse(null);
 	}
 
-	/**
-	 * Converts a Base64 encoded string to a {@link Blob}, e.g. when storing a signed document received inline in a
-	 * callback. Returns {@code null} for {@code null} input.
-	 *
-	 * @param  base64Content the Base64 encoded content
-	 * @return               the Blob, or {@code null} if the input was {@code null}
-	 */
-	public Blob convertBase64ToBlob(final String base64Content) {
-		return Optional.ofNullable(base64Content)
-			.map(content -> {
-				final var bytes = Base64.getDecoder().decode(content);
-				return getSession().getLobHelper().createBlob(new ByteArrayInputStream(bytes), bytes.length);
-			})
-			.orElse(null);
-	}
-
 	Session getSession() {
 		return entityManager.unwrap(Session.class);
 	}
 
+	/**
+	 * Creates a {@link Blob} over the content of an upload. The content is read from the upload - which is spooled to disk
+	 * when large - every time the Blob is read, so it is never held in memory by the Blob itself. The Blob can therefore
+	 * only be read while the request that uploaded it lasts.
+	 */
 	Blob createBlob(final MultipartFile multipartFile) {
 		try {
-			var fileBytes = multipartFile.getBytes();
-			var inputStream = new ByteArrayInputStream(fileBytes);
-			return getSession().getLobHelper().createBlob(inputStream, fileBytes.length);
+			final var inputStream = new UploadInputStream(multipartFile);
+			return getSession().getLobHelper().createBlob(inputStream, multipartFile.getSize());
 		} catch (Exception ignored) {
 			throw Problem.valueOf(INTERNAL_SERVER_ERROR, "Could not convert file with name [ %s ] to database object".formatted(multipartFile.getOriginalFilename()));
 		}
 	}
 
 	/**
-	 * Converts a Blob to a Base64 encoded string.
+	 * Converts content read from the attachment store to a Base64 encoded string, and closes it.
 	 *
-	 * @param  blob the Blob to convert
-	 * @return      the Base64 encoded string representation of the Blob
+	 * @param  content the content to convert
+	 * @return         the Base64 encoded string representation of the content
 	 */
-	public static String convertBlobToBase64String(final Blob blob) {
-		try {
-			var bytes = blob.getBytes(1, (int) blob.length());
-			return Base64.getEncoder().encodeToString(bytes);
-		} catch (Exception exception) {
-			throw Problem.valueOf(INTERNAL_SERVER_ERROR, "Could not convert Blob to Base64 string: " + exception.getMessage());
+	public static String convertStoredContentToBase64String(final StoredContent content) {
+		try (content) {
+			return encodeToBase64String(content.inputStream(), content.length());
+		} catch (IOException exception) {
+			throw Problem.valueOf(INTERNAL_SERVER_ERROR, "Could not convert stored content to Base64 string: " + exception.getMessage());
+		}
+	}
+
+	/**
+	 * Streams the content through the encoder into a buffer of the exact encoded size, so that no copy of the raw content
+	 * is made and the buffer never grows. The buffer is copied once more into the string, as every string holds its own
+	 * copy of its characters.
+	 */
+	static String encodeToBase64String(final InputStream input, final long length) throws IOException {
+		final var output = new ByteArrayOutputStream(toIntExact(4 * ((length + 2) / 3)));
+		try (var encoder = Base64.getEncoder().wrap(output)) {
+			input.transferTo(encoder);
+		}
+		return output.toString(ISO_8859_1);
+	}
+
+	/**
+	 * Calculates the SHA-256 hash of content, streaming it through the digest.
+	 *
+	 * @param  content the content to hash
+	 * @return         the hash, hex encoded
+	 */
+	public static String sha256Hex(final InputStreamSource content) {
+		try (var input = content.getInputStream(); var digest = new DigestOutputStream(OutputStream.nullOutputStream(), MessageDigest.getInstance("SHA-256"))) {
+			input.transferTo(digest);
+			return HexFormat.of().formatHex(digest.getMessageDigest().digest());
+		} catch (IOException | NoSuchAlgorithmException exception) {
+			throw Problem.valueOf(INTERNAL_SERVER_ERROR, "Could not calculate hash of content: " + exception.getMessage());
+		}
+	}
+
+	/**
+	 * Reads an upload and starts over from its beginning on {@link #reset()}, by opening it again. Hibernate resets the
+	 * stream of a Blob every time it is read after the first.
+	 */
+	static final class UploadInputStream extends FilterInputStream {
+
+		private final InputStreamSource source;
+
+		UploadInputStream(final InputStreamSource source) throws IOException {
+			super(source.getInputStream());
+			this.source = source;
+		}
+
+		@Override
+		public boolean markSupported() {
+			return true;
+		}
+
+		@Override
+		public void mark(final int readLimit) {
+			// A reset always returns to the beginning of the upload
+		}
+
+		@Override
+		public void reset() throws IOException {
+			in.close();
+			in = source.getInputStream();
 		}
 	}
 }
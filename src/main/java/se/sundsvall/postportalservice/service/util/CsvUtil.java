@@ -8,6 +8,7 @@ import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import org.springframework.core.io.InputStreamSource;
 import org.springframework.web.multipart.MultipartFile;
 import se.sundsvall.dept44.problem.Problem;
 import se.sundsvall.postportalservice.util.LegalIdUtil;
@@ -84,7 +85,7 @@ public final class CsvUtil {
 	 * @param  csvFile the CSV file to validate
 	 * @return         a {@link LetterCsvParseResult} with counts of each unique number, bucketed by type
 	 */
-	public static LetterCsvParseResult parseLetterCsv(final MultipartFile csvFile) {
+	public static LetterCsvParseResult parseLetterCsv(final InputStreamSource csvFile) {
 		final Map<String, Integer> privateIds = new LinkedHashMap<>();
 		final Map<String, Integer> enterpriseIds = new LinkedHashMap<>();
 		boolean headerRead = false;
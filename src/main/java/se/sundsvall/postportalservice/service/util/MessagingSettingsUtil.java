@@ -5,6 +5,7 @@ import java.util.Map;
 import java.util.Optional;
 import se.sundsvall.dept44.problem.Problem;
 import se.sundsvall.dept44.problem.ThrowableProblem;
+import se.sundsvall.postportalservice.integration.db.DepartmentEntity;
 
 import static io.micrometer.common.util.StringUtils.isBlank;
 import static org.springframework.http.HttpStatus.BAD_GATEWAY;
@@ -51,6 +52,24 @@ public class MessagingSettingsUtil {
 		assertRequiredValuesForEmailCallback(settingsMap, user, municipalityId);
 	}
 
+	/**
+	 * Applies the department related messaging settings (folder name, organization number, support text and contact
+	 * information) to the department.
+	 *
+	 * @param  department  the department to apply the settings to
+	 * @param  settingsMap Settings map retrieved from MessagingSettings API
+	 * @return             the department
+	 */
+	public static DepartmentEntity applyDepartmentSettings(final DepartmentEntity department, final Map<String, String> settingsMap) {
+		return department
+			.withFolderName(settingsMap.get(FOLDER_NAME))
+			.withOrganizationNumber(settingsMap.get(ORGANIZATION_NUMBER))
+			.withSupportText(settingsMap.get(SUPPORT_TEXT))
+			.withContactInformationUrl(settingsMap.get(CONTACT_INFORMATION_URL))
+			.withContactInformationEmail(settingsMap.get(CONTACT_INFORMATION_EMAIL))
+			.withContactInformationPhoneNumber(settingsMap.get(CONTACT_INFORMATION_PHONE_NUMBER));
+	}
+
 	/**
 	 * Asserts that all required values are present in the settings map.
 	 *
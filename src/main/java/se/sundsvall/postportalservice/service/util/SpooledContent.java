@@ -0,0 +1,98 @@
+package se.sundsvall.postportalservice.service.util;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import org.springframework.core.io.InputStreamSource;
+
+/**
+ * Content spooled to a temporary file, so that it can be hashed and then stored - read any number of times - without
+ * ever being held in memory as a whole. The SHA-256 hash and the length are calculated while the content is spooled.
+ * The file is deleted when the content is closed.
+ */
+public final class SpooledContent implements InputStreamSource, AutoCloseable {
+
+	private final Path file;
+	private final String hash;
+	private final long length;
+
+	private SpooledContent(final Path file, final String hash, final long length) {
+		this.file = file;
+		this.hash = hash;
+		this.length = length;
+	}
+
+	/**
+	 * Spools the content written by a writer.
+	 *
+	 * @param  writer      writes the content to the stream it is given
+	 * @return             the spooled content
+	 * @throws IOException if the content could not be spooled
+	 */
+	public static SpooledContent spool(final ContentWriter writer) throws IOException {
+		final var digest = sha256Digest();
+		final var file = Files.createTempFile("spooled-content-", ".tmp");
+		try {
+			try (var output = new DigestOutputStream(new BufferedOutputStream(Files.newOutputStream(file)), digest)) {
+				writer.write(output);
+			}
+			return new SpooledContent(file, HexFormat.of().formatHex(digest.digest()), Files.size(file));
+		} catch (final IOException | RuntimeException exception) {
+			Files.deleteIfExists(file);
+			throw exception;
+		}
+	}
+
+	private static MessageDigest sha256Digest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (final NoSuchAlgorithmException exception) {
+			throw new IllegalStateException(exception);
+		}
+	}
+
+	/**
+	 * @return the SHA-256 hash of the content, hex encoded
+	 */
+	public String getHash() {
+		return hash;
+	}
+
+	/**
+	 * @return the length of the content, in bytes
+	 */
+	public long getLength() {
+		return length;
+	}
+
+	@Override
+	public InputStream getInputStream() throws IOException {
+		return Files.newInputStream(file);
+	}
+
+	@Override
+	public void close() {
+		try {
+			Files.deleteIfExists(file);
+		} catch (final IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+	}
+
+	/**
+	 * Writes content to be spooled.
+	 */
+	@FunctionalInterface
+	public interface ContentWriter {
+
+		void write(OutputStream output) throws IOException;
+	}
+}
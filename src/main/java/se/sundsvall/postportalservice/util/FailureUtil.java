@@ -0,0 +1,22 @@
+package se.sundsvall.postportalservice.util;
+
+import feign.RetryableException;
+import se.sundsvall.dept44.exception.ServerProblem;
+
+public final class FailureUtil {
+
+	private FailureUtil() {}
+
+	/**
+	 * Check whether a failed call to an integration is likely to succeed if made again a little later: the call timed
+	 * out, or was answered with a server error. The integrations decode every error response as a 502 problem - a
+	 * {@link ServerProblem} for a server error and a {@code ClientProblem} for a client error - so the failure is
+	 * classified by its type rather than its status. Any other failure, e.g. a rejected request, is permanent.
+	 *
+	 * @param  failure the cause of the failure
+	 * @return         true if the failure is transient, false otherwise
+	 */
+	public static boolean isTransient(final Throwable failure) {
+		return failure instanceof ServerProblem || failure instanceof RetryableException;
+	}
+}
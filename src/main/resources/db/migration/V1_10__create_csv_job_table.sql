@@ -0,0 +1,18 @@
+CREATE TABLE csv_job
+(
+    id            VARCHAR(36)  NOT NULL,
+    message_id    VARCHAR(36)  NOT NULL,
+    phase         VARCHAR(20)  NOT NULL,
+    processed     INT          NOT NULL DEFAULT 0,
+    total         INT          NOT NULL DEFAULT 0,
+    csv_file      LONGBLOB     NULL,
+    detail        VARCHAR(255) NULL,
+    lease_expires DATETIME     NULL,
+    created       DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_csv_job PRIMARY KEY (id)
+);
+
+CREATE INDEX IDX_CSV_JOB_PHASE ON csv_job (phase, lease_expires);
+
+ALTER TABLE csv_job
+    ADD CONSTRAINT FK_CSV_JOB_ON_MESSAGE FOREIGN KEY (message_id) REFERENCES message (id) ON DELETE CASCADE;
@@ -0,0 +1,29 @@
+CREATE TABLE attachment_content
+(
+    hash            VARCHAR(64) NOT NULL,
+    content         LONGBLOB    NULL,
+    reference_count INT         NOT NULL DEFAULT 0,
+    created         DATETIME    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_attachment_content PRIMARY KEY (hash)
+);
+
+ALTER TABLE attachment
+    ADD content_hash VARCHAR(64) NULL;
+
+UPDATE attachment
+SET content_hash = SHA2(content, 256)
+WHERE content IS NOT NULL;
+
+INSERT IGNORE INTO attachment_content (hash, content, reference_count, created)
+SELECT content_hash, content, 0, COALESCE(created, NOW())
+FROM attachment
+WHERE content_hash IS NOT NULL;
+
+UPDATE attachment_content c
+SET c.reference_count = (SELECT COUNT(*) FROM attachment a WHERE a.content_hash = c.hash);
+
+ALTER TABLE attachment
+    ADD CONSTRAINT FK_ATTACHMENT_CONTENT FOREIGN KEY (content_hash) REFERENCES attachment_content (hash);
+
+ALTER TABLE attachment
+    DROP COLUMN content;
@@ -0,0 +1,6 @@
+ALTER TABLE attachment_content
+    ADD content_length BIGINT NULL;
+
+UPDATE attachment_content
+SET content_length = LENGTH(content)
+WHERE content IS NOT NULL;
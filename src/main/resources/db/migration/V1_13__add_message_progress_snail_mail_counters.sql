@@ -0,0 +1,19 @@
+ALTER TABLE message_progress
+    ADD COLUMN snail_mail_pending INT NOT NULL DEFAULT 0;
+
+ALTER TABLE message_progress
+    ADD COLUMN snail_mail_accepted INT NOT NULL DEFAULT 0;
+
+UPDATE message_progress p
+SET p.snail_mail_pending  = (SELECT COUNT(*)
+                             FROM recipient r
+                             WHERE r.message_id = p.message_id
+                               AND r.type = 'SNAIL_MAIL'
+                               AND r.status = 'PENDING'
+                               AND r.external_id IS NULL),
+    p.snail_mail_accepted = (SELECT COUNT(*)
+                             FROM recipient r
+                             WHERE r.message_id = p.message_id
+                               AND r.type = 'SNAIL_MAIL'
+                               AND r.external_id IS NOT NULL
+                               AND r.status <> 'FAILED');
@@ -0,0 +1,2 @@
+ALTER TABLE csv_job
+    ADD COLUMN claim VARCHAR(36) NULL;
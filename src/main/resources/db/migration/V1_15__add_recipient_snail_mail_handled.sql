@@ -0,0 +1,7 @@
+ALTER TABLE recipient
+    ADD COLUMN snail_mail_handled BOOLEAN NOT NULL DEFAULT FALSE;
+
+UPDATE recipient
+SET snail_mail_handled = TRUE
+WHERE type = 'SNAIL_MAIL'
+  AND (status <> 'PENDING' OR external_id IS NOT NULL);
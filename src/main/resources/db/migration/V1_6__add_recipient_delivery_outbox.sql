@@ -0,0 +1,7 @@
+ALTER TABLE recipient
+    ADD COLUMN delivery_state VARCHAR(20) NULL;
+
+ALTER TABLE recipient
+    ADD COLUMN lease_expires DATETIME NULL;
+
+CREATE INDEX IDX_RECIPIENT_DELIVERY_STATE ON recipient (delivery_state, lease_expires);
@@ -0,0 +1,5 @@
+ALTER TABLE message
+    ADD COLUMN snail_mail_batch_status VARCHAR(20) NULL;
+
+ALTER TABLE message
+    ADD COLUMN snail_mail_batch_triggered DATETIME NULL;
@@ -0,0 +1,5 @@
+ALTER TABLE recipient
+    ADD COLUMN attempts INT NULL;
+
+ALTER TABLE recipient
+    ADD COLUMN next_attempt DATETIME NULL;
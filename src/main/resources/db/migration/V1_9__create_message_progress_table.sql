@@ -0,0 +1,25 @@
+CREATE TABLE message_progress
+(
+    message_id    VARCHAR(36) NOT NULL,
+    pending       INT         NOT NULL DEFAULT 0,
+    sent          INT         NOT NULL DEFAULT 0,
+    delivered     INT         NOT NULL DEFAULT 0,
+    failed        INT         NOT NULL DEFAULT 0,
+    undeliverable INT         NOT NULL DEFAULT 0,
+    CONSTRAINT pk_message_progress PRIMARY KEY (message_id)
+);
+
+ALTER TABLE message_progress
+    ADD CONSTRAINT FK_MESSAGE_PROGRESS_ON_MESSAGE FOREIGN KEY (message_id) REFERENCES message (id) ON DELETE CASCADE;
+
+INSERT INTO message_progress (message_id, pending, sent, delivered, failed, undeliverable)
+SELECT m.id,
+       COALESCE(SUM(r.status IN ('PENDING', 'AWAITING_FEEDBACK')), 0),
+       COALESCE(SUM(r.status = 'SENT'), 0),
+       COALESCE(SUM(r.status IN ('DELIVERED', 'SIGNED')), 0),
+       COALESCE(SUM(r.id IS NOT NULL AND (r.status IS NULL OR r.status NOT IN ('PENDING', 'AWAITING_FEEDBACK', 'SENT', 'DELIVERED', 'SIGNED',
+                                                                                'UNDELIVERABLE', 'INELIGIBLE_MINOR', 'NO_CONTACT_SETTINGS_FOUND', 'NO_CONTACT_WANTED'))), 0),
+       COALESCE(SUM(r.status IN ('UNDELIVERABLE', 'INELIGIBLE_MINOR', 'NO_CONTACT_SETTINGS_FOUND', 'NO_CONTACT_WANTED')), 0)
+FROM message m
+         LEFT JOIN recipient r ON r.message_id = m.id
+GROUP BY m.id;
@@ -6,7 +6,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.webtestclient.autoconfigure.AutoConfigureWebTestClient;
 import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -14,10 +16,16 @@ import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBo
 import se.sundsvall.postportalservice.Application;
 import se.sundsvall.postportalservice.service.AttachmentService;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.http.HttpHeaders.CONTENT_RANGE;
+import static org.springframework.http.HttpHeaders.RANGE;
+import static org.springframework.http.HttpStatus.PARTIAL_CONTENT;
 import static se.sundsvall.postportalservice.TestDataFactory.MUNICIPALITY_ID;
 
 @SpringBootTest(classes = Application.class, webEnvironment = RANDOM_PORT)
@@ -45,10 +53,12 @@ class AttachmentResourceTest {
 		final var mediaType = MediaType.APPLICATION_PDF;
 		final var content = "hello".getBytes();
 		final StreamingResponseBody body = os -> os.write(content);
+		final var response = ResponseEntity.ok()
+			.headers(headers -> headers.setContentDisposition(contentDisposition))
+			.contentType(mediaType)
+			.body(body);
 
-		final var attachmentData = new AttachmentService.AttachmentData(contentDisposition, mediaType, body);
-
-		when(attachmentServiceMock.getAttachmentData(MUNICIPALITY_ID, attachmentId)).thenReturn(attachmentData);
+		when(attachmentServiceMock.downloadAttachment(eq(MUNICIPALITY_ID), eq(attachmentId), any(HttpHeaders.class))).thenReturn(response);
 
 		webTestClient.get()
 			.uri(uriBuilder -> uriBuilder.replacePath("/{municipalityId}/attachments/{attachmentId}")
@@ -59,6 +69,30 @@ class AttachmentResourceTest {
 			.expectHeader().contentType(mediaType)
 			.expectBody(byte[].class).isEqualTo(content);
 
-		verify(attachmentServiceMock).getAttachmentData(MUNICIPALITY_ID, attachmentId);
+		verify(attachmentServiceMock).downloadAttachment(eq(MUNICIPALITY_ID), eq(attachmentId), any(HttpHeaders.class));
+	}
+
+	@Test
+	void getAttachmentsByMessageId_range() {
+		final var attachmentId = "3583f950-66fd-4b6d-85c8-95531654c9b4";
+		final var content = "ell".getBytes();
+		final var response = ResponseEntity.status(PARTIAL_CONTENT)
+			.header(CONTENT_RANGE, "bytes 1-3/5")
+			.contentType(MediaType.APPLICATION_PDF)
+			.body((StreamingResponseBody) os -> os.write(content));
+
+		when(attachmentServiceMock.downloadAttachment(eq(MUNICIPALITY_ID), eq(attachmentId), any(HttpHeaders.class))).thenReturn(response);
+
+		webTestClient.get()
+			.uri(uriBuilder -> uriBuilder.replacePath("/{municipalityId}/attachments/{attachmentId}")
+				.build(MUNICIPALITY_ID, attachmentId))
+			.header(RANGE, "bytes=1-3")
+			.exchange()
+			.expectStatus().isEqualTo(PARTIAL_CONTENT)
+			.expectHeader().valueEquals(CONTENT_RANGE, "bytes 1-3/5")
+			.expectBody(byte[].class).isEqualTo(content);
+
+		// The request headers are passed on to the service
+		verify(attachmentServiceMock).downloadAttachment(eq(MUNICIPALITY_ID), eq(attachmentId), argThat(headers -> "bytes=1-3".equals(headers.getFirst(RANGE))));
 	}
 }
@@ -13,6 +13,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import se.sundsvall.postportalservice.Application;
+import se.sundsvall.postportalservice.api.model.SignedDocument;
 import se.sundsvall.postportalservice.api.model.SigningEvent;
 import se.sundsvall.postportalservice.service.SigningEventService;
 
@@ -43,6 +44,8 @@ class ESigningEventResourceFailureTest {
 			Arguments.of("2281", MESSAGE_ID, SigningEvent.create().withEventType("CASE_COMPLETED").withStatus("SIGNED")), // missing providerCaseId
 			Arguments.of("2281", MESSAGE_ID, validEvent().withEventType("SOMETHING_ELSE")), // unknown event type
 			Arguments.of("2281", MESSAGE_ID, validEvent().withStatus("BANANA")), // unknown status
+			Arguments.of("2281", MESSAGE_ID, validEvent().withSignedDocument(SignedDocument.create().withFileName("signed.pdf"))), // signed document without content
+			Arguments.of("2281", MESSAGE_ID, validEvent().withSignedDocument(SignedDocument.create().withContent("not base64!"))), // invalid content
 			Arguments.of("2281", "not-a-uuid", validEvent()), // invalid message id
 			Arguments.of("invalid", MESSAGE_ID, validEvent())); // invalid municipality id
 	}
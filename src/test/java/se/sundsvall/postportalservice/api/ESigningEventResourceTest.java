@@ -15,8 +15,11 @@ import se.sundsvall.postportalservice.api.model.EventSignatory;
 import se.sundsvall.postportalservice.api.model.SignedDocument;
 import se.sundsvall.postportalservice.api.model.SigningEvent;
 import se.sundsvall.postportalservice.service.SigningEventService;
+import se.sundsvall.postportalservice.service.util.SpooledContent;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -36,6 +39,8 @@ class ESigningEventResourceTest {
 	private WebTestClient webTestClient;
 
 	private static final String MESSAGE_ID = "550e8400-e29b-41d4-a716-446655440000";
+	// SHA-256 of "signed"
+	private static final String SIGNED_CONTENT_HASH = "4a3cdfae6f291c8f544daea5b72905cf9e74c1ed427d831ad0d7ca00c73c794d";
 
 	@Test
 	void receiveSigningEvent() {
@@ -54,7 +59,26 @@ class ESigningEventResourceTest {
 			.exchange()
 			.expectStatus().isOk();
 
-		verify(signingEventServiceMock).handleSigningEvent(eq(MUNICIPALITY_ID), eq(MESSAGE_ID), any(SigningEvent.class));
+		verify(signingEventServiceMock).handleSigningEvent(eq(MUNICIPALITY_ID), eq(MESSAGE_ID),
+			argThat(receivedEvent -> "signed.pdf".equals(receivedEvent.getSignedDocument().getFileName())),
+			argThat((SpooledContent content) -> SIGNED_CONTENT_HASH.equals(content.getHash()) && content.getLength() == 6));
+		verifyNoMoreInteractions(signingEventServiceMock);
+	}
+
+	@Test
+	void receiveSigningEvent_withoutSignedDocument() {
+		final var event = SigningEvent.create()
+			.withProviderCaseId("1234567890")
+			.withEventType("SIGNATORY_APPROVED")
+			.withStatus("PENDING");
+
+		webTestClient.post()
+			.uri(uriBuilder -> uriBuilder.path("/{municipalityId}/e-signing/events/{messageId}").build(Map.of("municipalityId", MUNICIPALITY_ID, "messageId", MESSAGE_ID)))
+			.bodyValue(event)
+			.exchange()
+			.expectStatus().isOk();
+
+		verify(signingEventServiceMock).handleSigningEvent(eq(MUNICIPALITY_ID), eq(MESSAGE_ID), any(SigningEvent.class), isNull());
 		verifyNoMoreInteractions(signingEventServiceMock);
 	}
 }
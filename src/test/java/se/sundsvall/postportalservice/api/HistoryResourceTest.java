@@ -9,6 +9,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.webtestclient.autoconfigure.AutoConfigureWebTestClient;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
@@ -17,6 +18,7 @@ import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBo
 import se.sundsvall.dept44.problem.Problem;
 import se.sundsvall.postportalservice.Application;
 import se.sundsvall.postportalservice.api.model.MessageDetails;
+import se.sundsvall.postportalservice.api.model.MessageProgress;
 import se.sundsvall.postportalservice.api.model.Messages;
 import se.sundsvall.postportalservice.api.model.SigningInformation;
 import se.sundsvall.postportalservice.api.model.SigningStatus;
@@ -25,11 +27,13 @@ import se.sundsvall.postportalservice.service.HistoryService;
 import static java.time.ZoneOffset.UTC;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 import static org.springframework.http.ResponseEntity.ok;
 import static se.sundsvall.postportalservice.TestDataFactory.MUNICIPALITY_ID;
@@ -138,6 +142,32 @@ class HistoryResourceTest {
 		verify(historyServiceMock).getUserMessages(eq(MUNICIPALITY_ID), eq(userId), any(Pageable.class));
 	}
 
+	@Test
+	void getMessageProgress() {
+		final var messageId = UUID.randomUUID().toString();
+		final var progress = MessageProgress.create()
+			.withMessageId(messageId)
+			.withTotal(100)
+			.withPending(40)
+			.withSent(30)
+			.withDelivered(10)
+			.withFailed(15)
+			.withUndeliverable(5);
+
+		when(historyServiceMock.getMessageProgress(MUNICIPALITY_ID, messageId)).thenReturn(progress);
+
+		final var response = webTestClient.get()
+			.uri("/{municipalityId}/history/messages/{messageId}/progress", MUNICIPALITY_ID, messageId)
+			.exchange()
+			.expectStatus().isOk()
+			.expectBody(MessageProgress.class)
+			.returnResult()
+			.getResponseBody();
+
+		assertThat(response).isEqualTo(progress);
+		verify(historyServiceMock).getMessageProgress(MUNICIPALITY_ID, messageId);
+	}
+
 	@Test
 	void getSigningInformation() {
 		final var messageId = UUID.randomUUID().toString();
@@ -219,10 +249,11 @@ class HistoryResourceTest {
 			.header("Content-Type", "application/pdf")
 			.body((StreamingResponseBody) outputStream -> outputStream.write("signed data".getBytes()));
 
-		when(historyServiceMock.getSignedDocument(MUNICIPALITY_ID, messageId)).thenReturn(mockResponseEntity);
+		when(historyServiceMock.getSignedDocument(eq(MUNICIPALITY_ID), eq(messageId), any(HttpHeaders.class))).thenReturn(mockResponseEntity);
 
 		final var bytes = webTestClient.get()
 			.uri("/{municipalityId}/history/messages/{messageId}/signed-document", MUNICIPALITY_ID, messageId)
+			.header(IF_NONE_MATCH, "\"hash\"")
 			.exchange()
 			.expectStatus().isOk()
 			.expectBody(byte[].class)
@@ -230,21 +261,21 @@ class HistoryResourceTest {
 			.getResponseBody();
 
 		assertThat(bytes).isNotNull().isEqualTo("signed data".getBytes());
-		verify(historyServiceMock).getSignedDocument(MUNICIPALITY_ID, messageId);
+		verify(historyServiceMock).getSignedDocument(eq(MUNICIPALITY_ID), eq(messageId), argThat(headers -> headers.getIfNoneMatch().contains("\"hash\"")));
 	}
 
 	@Test
 	void downloadSignedDocument_notFound() {
 		final var messageId = UUID.randomUUID().toString();
 
-		when(historyServiceMock.getSignedDocument(MUNICIPALITY_ID, messageId)).thenThrow(Problem.valueOf(NOT_FOUND));
+		when(historyServiceMock.getSignedDocument(eq(MUNICIPALITY_ID), eq(messageId), any(HttpHeaders.class))).thenThrow(Problem.valueOf(NOT_FOUND));
 
 		webTestClient.get()
 			.uri("/{municipalityId}/history/messages/{messageId}/signed-document", MUNICIPALITY_ID, messageId)
 			.exchange()
 			.expectStatus().isNotFound();
 
-		verify(historyServiceMock).getSignedDocument(MUNICIPALITY_ID, messageId);
+		verify(historyServiceMock).getSignedDocument(eq(MUNICIPALITY_ID), eq(messageId), any(HttpHeaders.class));
 	}
 
 }
@@ -564,4 +564,26 @@ class MessageResourceFailureTest {
 			});
 	}
 
+	@Test
+	void getCsvJobStatus_BadRequest() {
+		final var response = webTestClient.get()
+			.uri("/{municipalityId}/messages/jobs/{jobId}", INVALID_MUNICIPALITY_ID, "invalid")
+			.exchange()
+			.expectStatus().isBadRequest()
+			.expectBody(ConstraintViolationProblem.class)
+			.returnResult()
+			.getResponseBody();
+
+		assertThat(response.getTitle()).isEqualTo("Constraint Violation");
+		assertThat(response.getViolations()).hasSize(2).satisfiesExactlyInAnyOrder(
+			violation -> {
+				assertThat(violation.field()).isEqualTo("getCsvJobStatus.municipalityId");
+				assertThat(violation.message()).isEqualTo("not a valid municipality ID");
+			},
+			violation -> {
+				assertThat(violation.field()).isEqualTo("getCsvJobStatus.jobId");
+				assertThat(violation.message()).isEqualTo("not a valid UUID");
+			});
+	}
+
 }
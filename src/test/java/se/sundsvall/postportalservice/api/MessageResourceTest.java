@@ -1,5 +1,6 @@
 package se.sundsvall.postportalservice.api;
 
+import java.time.Duration;
 import java.util.List;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
@@ -15,12 +16,17 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.web.multipart.MultipartFile;
+import se.sundsvall.dept44.problem.Problem;
 import se.sundsvall.postportalservice.Application;
+import se.sundsvall.postportalservice.api.model.CsvJobStatus;
 import se.sundsvall.postportalservice.api.model.DigitalRegisteredLetterRequest;
 import se.sundsvall.postportalservice.api.model.ESigningRequest;
 import se.sundsvall.postportalservice.api.model.ESigningSignatory;
+import se.sundsvall.postportalservice.api.model.LetterCsvRequest;
 import se.sundsvall.postportalservice.api.model.LetterRequest;
 import se.sundsvall.postportalservice.api.model.SmsCsvRequest;
+import se.sundsvall.postportalservice.service.CsvJobService;
+import se.sundsvall.postportalservice.service.DeliveryBacklogFullException;
 import se.sundsvall.postportalservice.service.MessageService;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -30,14 +36,18 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
 import static org.springframework.http.MediaType.ALL_VALUE;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.http.MediaType.APPLICATION_PDF;
+import static org.springframework.http.MediaType.APPLICATION_PROBLEM_JSON;
 import static org.springframework.http.MediaType.MULTIPART_FORM_DATA;
 import static org.springframework.http.MediaType.parseMediaType;
 import static org.springframework.web.reactive.function.BodyInserters.fromMultipartData;
 import static se.sundsvall.postportalservice.TestDataFactory.MUNICIPALITY_ID;
 import static se.sundsvall.postportalservice.TestDataFactory.createValidDigitalRegisteredLetterRequest;
+import static se.sundsvall.postportalservice.TestDataFactory.createValidLetterCsvRequest;
 import static se.sundsvall.postportalservice.TestDataFactory.createValidLetterRequest;
 import static se.sundsvall.postportalservice.TestDataFactory.createValidSmsCsvRequest;
 import static se.sundsvall.postportalservice.TestDataFactory.createValidSmsRequest;
@@ -51,6 +61,9 @@ class MessageResourceTest {
 	@MockitoBean
 	private MessageService messageServiceMock;
 
+	@MockitoBean
+	private CsvJobService csvJobServiceMock;
+
 	@Captor
 	private ArgumentCaptor<LetterRequest> letterRequestCaptor;
 
@@ -71,7 +84,7 @@ class MessageResourceTest {
 
 	@AfterEach
 	void verifyNoUnexpectedMockInteractions() {
-		verifyNoMoreInteractions(messageServiceMock);
+		verifyNoMoreInteractions(messageServiceMock, csvJobServiceMock);
 	}
 
 	@Test
@@ -192,6 +205,30 @@ class MessageResourceTest {
 		verify(messageServiceMock).processSmsRequest(MUNICIPALITY_ID, request);
 	}
 
+	@Test
+	void sendSms_ServiceUnavailable() {
+		final var request = createValidSmsRequest();
+		when(messageServiceMock.processSmsRequest(MUNICIPALITY_ID, request))
+			.thenThrow(new DeliveryBacklogFullException("Delivery backlog is full", Duration.ofSeconds(42)));
+
+		final var response = webTestClient.post()
+			.uri(uriBuilder -> uriBuilder.replacePath("/{municipalityId}/messages/sms")
+				.build(MUNICIPALITY_ID))
+			.header("X-Sent-By", "type=adAccount; joe01doe")
+			.bodyValue(request)
+			.exchange()
+			.expectStatus().isEqualTo(SERVICE_UNAVAILABLE)
+			.expectHeader().valueEquals(RETRY_AFTER, "42")
+			.expectHeader().contentType(APPLICATION_PROBLEM_JSON)
+			.expectBody(Problem.class)
+			.returnResult()
+			.getResponseBody();
+
+		assertThat(response.getTitle()).isEqualTo("Service Unavailable");
+		assertThat(response.getDetail()).isEqualTo("Delivery backlog is full");
+		verify(messageServiceMock).processSmsRequest(MUNICIPALITY_ID, request);
+	}
+
 	@Test
 	void sendSmsCsv_Created() {
 		final var request = createValidSmsCsvRequest();
@@ -214,6 +251,75 @@ class MessageResourceTest {
 		verify(messageServiceMock).processCsvSmsRequest(eq(MUNICIPALITY_ID), any(SmsCsvRequest.class), any(MultipartFile.class));
 	}
 
+	@Test
+	void sendLetterCsv_Created() {
+		final var request = createValidLetterCsvRequest();
+		final var multipartBodyBuilder = new MultipartBodyBuilder();
+		multipartBodyBuilder.part("request", request);
+		multipartBodyBuilder.part("csv-file", "Identitetsnummer\n201901012391\n").filename("legalIds.csv").contentType(parseMediaType("text/csv"));
+
+		when(messageServiceMock.processCsvLetterRequest(eq(MUNICIPALITY_ID), any(LetterCsvRequest.class), any(MultipartFile.class), any())).thenReturn("messageId");
+
+		webTestClient.post()
+			.uri(uriBuilder -> uriBuilder.replacePath("/{municipalityId}/messages/letter/csv").build(MUNICIPALITY_ID))
+			.header("X-Sent-By", "type=adAccount; joe01doe")
+			.contentType(MULTIPART_FORM_DATA)
+			.body(fromMultipartData(multipartBodyBuilder.build()))
+			.exchange()
+			.expectStatus().isCreated()
+			.expectHeader().contentType(ALL_VALUE)
+			.expectHeader().location("/2281/history/users/joe01doe/messages/messageId");
+
+		verify(messageServiceMock).processCsvLetterRequest(eq(MUNICIPALITY_ID), any(LetterCsvRequest.class), any(MultipartFile.class), any());
+	}
+
+	@Test
+	void sendLetterCsv_async_Accepted() {
+		final var request = createValidLetterCsvRequest();
+		final var multipartBodyBuilder = new MultipartBodyBuilder();
+		multipartBodyBuilder.part("request", request);
+		multipartBodyBuilder.part("csv-file", "Identitetsnummer\n201901012391\n").filename("legalIds.csv").contentType(parseMediaType("text/csv"));
+
+		when(csvJobServiceMock.submitLetterJob(eq(MUNICIPALITY_ID), any(LetterCsvRequest.class), any(MultipartFile.class), any())).thenReturn("jobId");
+
+		webTestClient.post()
+			.uri(uriBuilder -> uriBuilder.replacePath("/{municipalityId}/messages/letter/csv").queryParam("async", true).build(MUNICIPALITY_ID))
+			.header("X-Sent-By", "type=adAccount; joe01doe")
+			.contentType(MULTIPART_FORM_DATA)
+			.body(fromMultipartData(multipartBodyBuilder.build()))
+			.exchange()
+			.expectStatus().isAccepted()
+			.expectHeader().contentType(ALL_VALUE)
+			.expectHeader().location("/2281/messages/jobs/jobId");
+
+		verify(csvJobServiceMock).submitLetterJob(eq(MUNICIPALITY_ID), any(LetterCsvRequest.class), any(MultipartFile.class), any());
+	}
+
+	@Test
+	void getCsvJobStatus_OK() {
+		final var jobId = "5a1c4c5e-9e8a-4b7f-bd2a-6f3f1f0c2d11";
+		final var status = CsvJobStatus.create()
+			.withJobId(jobId)
+			.withMessageId("messageId")
+			.withPhase("RESOLVING")
+			.withProcessed(500)
+			.withTotal(1000);
+
+		when(csvJobServiceMock.getJobStatus(MUNICIPALITY_ID, jobId)).thenReturn(status);
+
+		final var response = webTestClient.get()
+			.uri("/{municipalityId}/messages/jobs/{jobId}", MUNICIPALITY_ID, jobId)
+			.exchange()
+			.expectStatus().isOk()
+			.expectHeader().contentType(APPLICATION_JSON)
+			.expectBody(CsvJobStatus.class)
+			.returnResult()
+			.getResponseBody();
+
+		assertThat(response).isEqualTo(status);
+		verify(csvJobServiceMock).getJobStatus(MUNICIPALITY_ID, jobId);
+	}
+
 	@Test
 	void cancelESigning_NoContent() {
 		final var messageId = "9ce333ec-a473-438b-8406-a71e957dc107";
@@ -0,0 +1,124 @@
+package se.sundsvall.postportalservice.api;
+
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import org.junit.jupiter.api.Test;
+import se.sundsvall.dept44.problem.Problem;
+import tools.jackson.databind.json.JsonMapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SigningEventReaderTest {
+
+	// SHA-256 of "signed"
+	private static final String SIGNED_CONTENT_HASH = "4a3cdfae6f291c8f544daea5b72905cf9e74c1ed427d831ad0d7ca00c73c794d";
+
+	private final SigningEventReader reader = new SigningEventReader(JsonMapper.builder().build(), Validation.buildDefaultValidatorFactory().getValidator());
+
+	@Test
+	void read() throws IOException {
+		final var body = """
+			{
+			  "customerReference": "550e8400-e29b-41d4-a716-446655440000",
+			  "providerCaseId": "1234567890",
+			  "provider": "comfact",
+			  "eventType": "CASE_COMPLETED",
+			  "status": "SIGNED",
+			  "signatory": {
+			    "partyId": "6d0773d6-3e7f-4552-81bc-f0007af95adf",
+			    "action": "APPROVED"
+			  },
+			  "signedDocument": {
+			    "name": "Contract",
+			    "fileName": "signed.pdf",
+			    "content": "c2lnbmVk",
+			    "mimeType": "application/pdf"
+			  },
+			  "occurredAt": "2026-12-31T23:59:59Z"
+			}
+			""";
+
+		final var result = reader.read(new ByteArrayInputStream(body.getBytes()));
+
+		try (var content = result.signedDocumentContent()) {
+			final var event = result.event();
+			assertThat(event.getCustomerReference()).isEqualTo("550e8400-e29b-41d4-a716-446655440000");
+			assertThat(event.getProviderCaseId()).isEqualTo("1234567890");
+			assertThat(event.getProvider()).isEqualTo("comfact");
+			assertThat(event.getEventType()).isEqualTo("CASE_COMPLETED");
+			assertThat(event.getStatus()).isEqualTo("SIGNED");
+			assertThat(event.getSignatory().getPartyId()).isEqualTo("6d0773d6-3e7f-4552-81bc-f0007af95adf");
+			assertThat(event.getSignatory().getAction()).isEqualTo("APPROVED");
+			assertThat(event.getOccurredAt()).isEqualTo(OffsetDateTime.parse("2026-12-31T23:59:59Z"));
+			assertThat(event.getSignedDocument().getName()).isEqualTo("Contract");
+			assertThat(event.getSignedDocument().getFileName()).isEqualTo("signed.pdf");
+			assertThat(event.getSignedDocument().getMimeType()).isEqualTo("application/pdf");
+			// The content is decoded into the spooled content only
+			assertThat(event.getSignedDocument().getContent()).isNull();
+			assertThat(content.getHash()).isEqualTo(SIGNED_CONTENT_HASH);
+			assertThat(content.getLength()).isEqualTo(6);
+			try (var input = content.getInputStream()) {
+				assertThat(input.readAllBytes()).isEqualTo("signed".getBytes());
+			}
+		}
+	}
+
+	@Test
+	void read_withoutSignedDocument() {
+		final var body = """
+			{"providerCaseId": "1234567890", "eventType": "SIGNATORY_APPROVED", "status": "PENDING", "signedDocument": null}
+			""";
+
+		final var result = reader.read(new ByteArrayInputStream(body.getBytes()));
+
+		assertThat(result.event().getProviderCaseId()).isEqualTo("1234567890");
+		assertThat(result.event().getSignedDocument()).isNull();
+		assertThat(result.signedDocumentContent()).isNull();
+	}
+
+	@Test
+	void read_signedDocumentWithoutContent() {
+		final var body = """
+			{"providerCaseId": "1234567890", "signedDocument": {"fileName": "signed.pdf", "content": ""}}
+			""";
+
+		assertThatThrownBy(() -> reader.read(new ByteArrayInputStream(body.getBytes())))
+			.isInstanceOf(Problem.class)
+			.hasMessageContaining("Bad Request: Could not read signing event: signedDocument.content must not be blank");
+	}
+
+	@Test
+	void read_invalidEvent() {
+		final var body = """
+			{"status": "BANANA", "signedDocument": {"content": "c2lnbmVk"}}
+			""";
+
+		assertThatThrownBy(() -> reader.read(new ByteArrayInputStream(body.getBytes())))
+			.isInstanceOf(ConstraintViolationException.class)
+			.satisfies(exception -> assertThat(((ConstraintViolationException) exception).getConstraintViolations())
+				.extracting(violation -> violation.getPropertyPath().toString())
+				.containsExactlyInAnyOrder("providerCaseId", "status"));
+	}
+
+	@Test
+	void read_invalidContent() {
+		final var body = """
+			{"providerCaseId": "1234567890", "signedDocument": {"content": "not base64!"}}
+			""";
+
+		assertThatThrownBy(() -> reader.read(new ByteArrayInputStream(body.getBytes())))
+			.isInstanceOf(Problem.class)
+			.hasMessageContaining("Bad Request: Could not read signing event");
+	}
+
+	@Test
+	void read_notAnObject() {
+		assertThatThrownBy(() -> reader.read(new ByteArrayInputStream("[]".getBytes())))
+			.isInstanceOf(Problem.class)
+			.hasMessageContaining("Bad Request: Could not read signing event: expected a JSON object");
+	}
+}
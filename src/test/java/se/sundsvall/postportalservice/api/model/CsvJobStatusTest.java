@@ -0,0 +1,70 @@
+package se.sundsvall.postportalservice.api.model;
+
+import org.junit.jupiter.api.Test;
+
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanConstructor;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanEquals;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanHashCode;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanToString;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidGettersAndSetters;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.allOf;
+
+class CsvJobStatusTest {
+
+	private static final String JOB_ID = "jobId";
+	private static final String MESSAGE_ID = "messageId";
+	private static final String PHASE = "FAILED";
+	private static final Integer PROCESSED = 500;
+	private static final Integer TOTAL = 1000;
+	private static final String DETAIL = "detail";
+
+	@Test
+	void testBean() {
+		org.hamcrest.MatcherAssert.assertThat(CsvJobStatus.class, allOf(
+			hasValidBeanConstructor(),
+			hasValidGettersAndSetters(),
+			hasValidBeanHashCode(),
+			hasValidBeanEquals(),
+			hasValidBeanToString()));
+	}
+
+	@Test
+	void builderPattern() {
+		final var status = CsvJobStatus.create()
+			.withJobId(JOB_ID)
+			.withMessageId(MESSAGE_ID)
+			.withPhase(PHASE)
+			.withProcessed(PROCESSED)
+			.withTotal(TOTAL)
+			.withDetail(DETAIL);
+
+		assertThat(status.getJobId()).isEqualTo(JOB_ID);
+		assertThat(status.getMessageId()).isEqualTo(MESSAGE_ID);
+		assertThat(status.getPhase()).isEqualTo(PHASE);
+		assertThat(status.getProcessed()).isEqualTo(PROCESSED);
+		assertThat(status.getTotal()).isEqualTo(TOTAL);
+		assertThat(status.getDetail()).isEqualTo(DETAIL);
+		assertThat(status).hasNoNullFieldsOrProperties();
+	}
+
+	@Test
+	void settersAndGetters() {
+		final var status = new CsvJobStatus();
+		status.setJobId(JOB_ID);
+		status.setMessageId(MESSAGE_ID);
+		status.setPhase(PHASE);
+		status.setProcessed(PROCESSED);
+		status.setTotal(TOTAL);
+		status.setDetail(DETAIL);
+
+		assertThat(status.getJobId()).isEqualTo(JOB_ID);
+		assertThat(status.getMessageId()).isEqualTo(MESSAGE_ID);
+		assertThat(status.getPhase()).isEqualTo(PHASE);
+		assertThat(status.getProcessed()).isEqualTo(PROCESSED);
+		assertThat(status.getTotal()).isEqualTo(TOTAL);
+		assertThat(status.getDetail()).isEqualTo(DETAIL);
+		assertThat(status).hasNoNullFieldsOrProperties();
+	}
+
+}
@@ -0,0 +1,75 @@
+package se.sundsvall.postportalservice.api.model;
+
+import org.junit.jupiter.api.Test;
+
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanConstructor;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanEquals;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanHashCode;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanToString;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidGettersAndSetters;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.allOf;
+
+class MessageProgressTest {
+
+	private static final String MESSAGE_ID = "messageId";
+	private static final Integer TOTAL = 100;
+	private static final Integer PENDING = 40;
+	private static final Integer SENT = 30;
+	private static final Integer DELIVERED = 10;
+	private static final Integer FAILED = 15;
+	private static final Integer UNDELIVERABLE = 5;
+
+	@Test
+	void testBean() {
+		org.hamcrest.MatcherAssert.assertThat(MessageProgress.class, allOf(
+			hasValidBeanConstructor(),
+			hasValidGettersAndSetters(),
+			hasValidBeanHashCode(),
+			hasValidBeanEquals(),
+			hasValidBeanToString()));
+	}
+
+	@Test
+	void builderPattern() {
+		final var progress = MessageProgress.create()
+			.withMessageId(MESSAGE_ID)
+			.withTotal(TOTAL)
+			.withPending(PENDING)
+			.withSent(SENT)
+			.withDelivered(DELIVERED)
+			.withFailed(FAILED)
+			.withUndeliverable(UNDELIVERABLE);
+
+		assertThat(progress.getMessageId()).isEqualTo(MESSAGE_ID);
+		assertThat(progress.getTotal()).isEqualTo(TOTAL);
+		assertThat(progress.getPending()).isEqualTo(PENDING);
+		assertThat(progress.getSent()).isEqualTo(SENT);
+		assertThat(progress.getDelivered()).isEqualTo(DELIVERED);
+		assertThat(progress.getFailed()).isEqualTo(FAILED);
+		assertThat(progress.getUndeliverable()).isEqualTo(UNDELIVERABLE);
+		assertThat(progress).hasNoNullFieldsOrProperties();
+	}
+
+	@Test
+	void settersAndGetters() {
+		final var progress = new MessageProgress();
+		progress.setMessageId(MESSAGE_ID);
+		progress.setTotal(TOTAL);
+		progress.setPending(PENDING);
+		progress.setSent(SENT);
+		progress.setDelivered(DELIVERED);
+		progress.setFailed(FAILED);
+		progress.setUndeliverable(UNDELIVERABLE);
+
+		assertThat(progress.getMessageId()).isEqualTo(MESSAGE_ID);
+		assertThat(progress.getTotal()).isEqualTo(TOTAL);
+		assertThat(progress.getPending()).isEqualTo(PENDING);
+		assertThat(progress.getSent()).isEqualTo(SENT);
+		assertThat(progress.getDelivered()).isEqualTo(DELIVERED);
+		assertThat(progress.getFailed()).isEqualTo(FAILED);
+		assertThat(progress.getUndeliverable()).isEqualTo(UNDELIVERABLE);
+		assertThat(progress).hasNoNullFieldsOrProperties();
+	}
+
+}
@@ -0,0 +1,27 @@
+package se.sundsvall.postportalservice.configuration;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import se.sundsvall.postportalservice.Application;
+import se.sundsvall.postportalservice.configuration.CsvJobConfiguration.CsvJobProperties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = Application.class)
+@ActiveProfiles("junit")
+class CsvJobConfigurationTest {
+
+	@Autowired
+	private CsvJobProperties properties;
+
+	@Test
+	void testProperties() {
+		assertThat(properties.concurrency()).isEqualTo(2);
+		assertThat(properties.chunkSize()).isEqualTo(500);
+		assertThat(properties.lease()).isEqualTo(Duration.ofMinutes(10));
+		assertThat(properties.pollInterval()).isEqualTo(Duration.ofSeconds(1));
+	}
+}
@@ -1,7 +1,20 @@
 package se.sundsvall.postportalservice.configuration;
 
+import java.time.Duration;
+import java.util.Map;
 import org.junit.jupiter.api.Test;
+import se.sundsvall.postportalservice.configuration.DeliveryExecutorConfiguration.DeliveryAdmissionProperties;
+import se.sundsvall.postportalservice.configuration.DeliveryExecutorConfiguration.DeliveryBatchProperties;
+import se.sundsvall.postportalservice.configuration.DeliveryExecutorConfiguration.DeliveryBatchProperties.Batch;
+import se.sundsvall.postportalservice.configuration.DeliveryExecutorConfiguration.DeliveryConcurrencyProperties;
+import se.sundsvall.postportalservice.configuration.DeliveryExecutorConfiguration.DeliveryConcurrencyProperties.Adaptive;
 import se.sundsvall.postportalservice.configuration.DeliveryExecutorConfiguration.DeliveryExecutorProperties;
+import se.sundsvall.postportalservice.configuration.DeliveryExecutorConfiguration.DeliverySchedulingProperties;
+import se.sundsvall.postportalservice.configuration.DeliveryExecutorConfiguration.DeliverySchedulingProperties.Lanes;
+import se.sundsvall.postportalservice.configuration.DeliveryExecutorConfiguration.DeliveryStatusWriterProperties;
+import se.sundsvall.postportalservice.integration.db.converter.MessageType;
+import se.sundsvall.postportalservice.service.DeliveryLane;
+import se.sundsvall.postportalservice.service.DeliveryOperation;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -11,7 +24,7 @@ class DeliveryExecutorConfigurationTest {
 
 	@Test
 	void letterDeliveryExecutorIsConfiguredFromProperties() {
-		final var properties = new DeliveryExecutorProperties(4, 15);
+		final var properties = new DeliveryExecutorProperties(4, 15, false);
 
 		final var executor = configuration.letterDeliveryExecutor(properties, new MdcTaskDecorator());
 
@@ -21,9 +34,24 @@ class DeliveryExecutorConfigurationTest {
 		executor.shutdown();
 	}
 
+	@Test
+	void virtualThreadLetterDeliveryExecutorIsConfiguredFromProperties() throws InterruptedException {
+		final var properties = new DeliveryExecutorProperties(4, 15, true);
+
+		final var executor = configuration.virtualThreadLetterDeliveryExecutor(properties, new MdcTaskDecorator());
+
+		final var thread = new Thread[1];
+		executor.execute(() -> thread[0] = Thread.currentThread());
+		executor.close();
+
+		assertThat(executor.getThreadNamePrefix()).isEqualTo("letter-delivery-");
+		assertThat(thread[0]).isNotNull();
+		assertThat(thread[0].isVirtual()).isTrue();
+	}
+
 	@Test
 	void letterDeliveryExecutorMetricsIsCreated() {
-		final var executor = configuration.letterDeliveryExecutor(new DeliveryExecutorProperties(4, 15), new MdcTaskDecorator());
+		final var executor = configuration.letterDeliveryExecutor(new DeliveryExecutorProperties(4, 15, false), new MdcTaskDecorator());
 
 		final var metrics = configuration.letterDeliveryExecutorMetrics(executor);
 
@@ -33,9 +61,96 @@ class DeliveryExecutorConfigurationTest {
 
 	@Test
 	void deliveryExecutorPropertiesAccessors() {
-		final var properties = new DeliveryExecutorProperties(8, 30);
+		final var properties = new DeliveryExecutorProperties(8, 30, true);
 
 		assertThat(properties.poolSize()).isEqualTo(8);
 		assertThat(properties.awaitTerminationSeconds()).isEqualTo(30);
+		assertThat(properties.virtualThreads()).isTrue();
+	}
+
+	@Test
+	void deliveryConcurrencyPropertiesAccessors() {
+		final var adaptive = new Adaptive(true, 8, 1, 64, 0.9, Duration.ofSeconds(5));
+		final var properties = new DeliveryConcurrencyProperties(Map.of(MessageType.SMS, 8), Map.of(DeliveryOperation.SEND_CALLBACK_EMAIL, 2), adaptive);
+
+		assertThat(properties.channels()).containsExactly(Map.entry(MessageType.SMS, 8));
+		assertThat(properties.operations()).containsExactly(Map.entry(DeliveryOperation.SEND_CALLBACK_EMAIL, 2));
+		assertThat(properties.adaptive().enabled()).isTrue();
+		assertThat(properties.adaptive().initialLimit()).isEqualTo(8);
+		assertThat(properties.adaptive().minLimit()).isEqualTo(1);
+		assertThat(properties.adaptive().maxLimit()).isEqualTo(64);
+		assertThat(properties.adaptive().backoffRatio()).isEqualTo(0.9);
+		assertThat(properties.adaptive().latencyThreshold()).isEqualTo(Duration.ofSeconds(5));
+	}
+
+	@Test
+	void deliverySchedulingPropertiesAccessors() {
+		final var properties = new DeliverySchedulingProperties(true, 8, 1, new Lanes(true, 10, 2));
+
+		assertThat(properties.enabled()).isTrue();
+		assertThat(properties.maxInFlight()).isEqualTo(8);
+		assertThat(properties.quantum()).isEqualTo(1);
+		assertThat(properties.lanes().enabled()).isTrue();
+		assertThat(properties.lanes().bulkThreshold()).isEqualTo(10);
+		assertThat(properties.lanes().reservedInteractive()).isEqualTo(2);
+		assertThat(properties.bulkMaxInFlight()).isEqualTo(6);
+	}
+
+	@Test
+	void deliverySchedulingPropertiesBulkMaxInFlight() {
+		assertThat(new DeliverySchedulingProperties(true, 8, 1, new Lanes(false, 10, 2)).bulkMaxInFlight()).isEqualTo(8);
+		assertThat(new DeliverySchedulingProperties(true, 2, 1, new Lanes(true, 10, 4)).bulkMaxInFlight()).isOne();
+	}
+
+	@Test
+	void lanesLaneOf() {
+		final var lanes = new Lanes(true, 10, 2);
+
+		assertThat(lanes.laneOf(false, 1)).isEqualTo(DeliveryLane.INTERACTIVE);
+		assertThat(lanes.laneOf(false, 10)).isEqualTo(DeliveryLane.INTERACTIVE);
+		assertThat(lanes.laneOf(false, 11)).isEqualTo(DeliveryLane.BULK);
+		assertThat(lanes.laneOf(true, 1)).isEqualTo(DeliveryLane.BULK);
+		assertThat(new Lanes(false, 10, 2).laneOf(true, 30000)).isEqualTo(DeliveryLane.INTERACTIVE);
+	}
+
+	@Test
+	void deliveryAdmissionPropertiesAccessors() {
+		final var properties = new DeliveryAdmissionProperties(true, 50000, Duration.ofSeconds(1), Duration.ofMinutes(5));
+
+		assertThat(properties.enabled()).isTrue();
+		assertThat(properties.maxQueuedRecipients()).isEqualTo(50000);
+		assertThat(properties.minRetryAfter()).isEqualTo(Duration.ofSeconds(1));
+		assertThat(properties.maxRetryAfter()).isEqualTo(Duration.ofMinutes(5));
+	}
+
+	@Test
+	void deliveryStatusWriterPropertiesAccessors() {
+		final var properties = new DeliveryStatusWriterProperties(true, 100, Duration.ofSeconds(1));
+
+		assertThat(properties.enabled()).isTrue();
+		assertThat(properties.batchSize()).isEqualTo(100);
+		assertThat(properties.flushInterval()).isEqualTo(Duration.ofSeconds(1));
+	}
+
+	@Test
+	void deliveryBatchPropertiesAccessors() {
+		final var properties = new DeliveryBatchProperties(new Batch(true, 500), new Batch(false, 50));
+
+		assertThat(properties.sms().enabled()).isTrue();
+		assertThat(properties.sms().size()).isEqualTo(500);
+		assertThat(properties.digitalMail().enabled()).isFalse();
+		assertThat(properties.digitalMail().size()).isEqualTo(50);
+	}
+
+	@Test
+	void deliveryBatchPropertiesForChannel() {
+		final var sms = new Batch(true, 500);
+		final var digitalMail = new Batch(true, 50);
+		final var properties = new DeliveryBatchProperties(sms, digitalMail);
+
+		assertThat(properties.forChannel(MessageType.SMS)).isSameAs(sms);
+		assertThat(properties.forChannel(MessageType.DIGITAL_MAIL)).isSameAs(digitalMail);
+		assertThat(properties.forChannel(MessageType.SNAIL_MAIL).enabled()).isFalse();
+		assertThat(properties.forChannel(null).enabled()).isFalse();
 	}
 }
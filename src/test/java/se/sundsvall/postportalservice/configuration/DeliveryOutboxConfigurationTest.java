@@ -0,0 +1,54 @@
+package se.sundsvall.postportalservice.configuration;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.unit.DataSize;
+import se.sundsvall.postportalservice.Application;
+import se.sundsvall.postportalservice.configuration.DeliveryOutboxConfiguration.DeliveryAttachmentCacheProperties;
+import se.sundsvall.postportalservice.configuration.DeliveryOutboxConfiguration.DeliveryOutboxProperties;
+import se.sundsvall.postportalservice.configuration.DeliveryOutboxConfiguration.DeliveryRetryProperties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = Application.class)
+@ActiveProfiles("junit")
+class DeliveryOutboxConfigurationTest {
+
+	@Autowired
+	private DeliveryOutboxProperties properties;
+
+	@Autowired
+	private DeliveryRetryProperties retryProperties;
+
+	@Autowired
+	private DeliveryAttachmentCacheProperties attachmentCacheProperties;
+
+	@Test
+	void testProperties() {
+		assertThat(properties.enabled()).isFalse();
+		assertThat(properties.batchSize()).isEqualTo(50);
+		assertThat(properties.maxInFlight()).isEqualTo(200);
+		assertThat(properties.lease()).isEqualTo(Duration.ofMinutes(15));
+		assertThat(properties.pollInterval()).isEqualTo(Duration.ofSeconds(1));
+		assertThat(properties.contextCacheSize()).isEqualTo(50);
+		assertThat(properties.contextCacheTtl()).isEqualTo(Duration.ofMinutes(10));
+	}
+
+	@Test
+	void testRetryProperties() {
+		assertThat(retryProperties.enabled()).isFalse();
+		assertThat(retryProperties.maxAttempts()).isEqualTo(5);
+		assertThat(retryProperties.initialBackoff()).isEqualTo(Duration.ofSeconds(30));
+		assertThat(retryProperties.maxBackoff()).isEqualTo(Duration.ofMinutes(30));
+		assertThat(retryProperties.multiplier()).isEqualTo(2.0);
+		assertThat(retryProperties.jitter()).isEqualTo(0.2);
+	}
+
+	@Test
+	void testAttachmentCacheProperties() {
+		assertThat(attachmentCacheProperties.maxSize()).isEqualTo(DataSize.ofMegabytes(64));
+	}
+}
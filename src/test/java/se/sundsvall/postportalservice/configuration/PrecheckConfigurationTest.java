@@ -0,0 +1,39 @@
+package se.sundsvall.postportalservice.configuration;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+import se.sundsvall.postportalservice.Application;
+import se.sundsvall.postportalservice.configuration.PrecheckConfiguration.PrecheckProperties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.sundsvall.postportalservice.configuration.PrecheckConfiguration.PRECHECK_EXECUTOR;
+
+@SpringBootTest(classes = Application.class)
+@ActiveProfiles("junit")
+class PrecheckConfigurationTest {
+
+	@Autowired
+	private PrecheckProperties properties;
+
+	@Autowired
+	@Qualifier(PRECHECK_EXECUTOR)
+	private SimpleAsyncTaskExecutor precheckExecutor;
+
+	@Test
+	void testProperties() {
+		assertThat(properties.concurrent()).isTrue();
+		assertThat(properties.timeout()).isEqualTo(Duration.ofMinutes(2));
+		assertThat(properties.chunkSize()).isEqualTo(1000);
+		assertThat(properties.maxInFlightChunks()).isEqualTo(4);
+	}
+
+	@Test
+	void precheckExecutor() {
+		assertThat(precheckExecutor.getThreadNamePrefix()).isEqualTo("precheck-");
+	}
+}
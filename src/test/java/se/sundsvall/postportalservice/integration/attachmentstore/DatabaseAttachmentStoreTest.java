@@ -0,0 +1,100 @@
+package se.sundsvall.postportalservice.integration.attachmentstore;
+
+import java.io.IOException;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import se.sundsvall.dept44.problem.Problem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase.Replace.NONE;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+
+/**
+ * DatabaseAttachmentStore tests.
+ *
+ * @see "/src/integration-test/resources/db/scripts/testdata.sql for data setup"
+ */
+@Sql(scripts = {
+	"/db/scripts/testdata.sql"
+})
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = NONE)
+@ActiveProfiles("junit")
+@Import(DatabaseAttachmentStore.class)
+class DatabaseAttachmentStoreTest {
+
+	// SHA-256 of "content"
+	private static final String KEY = "ed7002b439e9ac845f22357d822bac1444730fbdb6016d3ec9432297b9ec9f73";
+	private static final byte[] CONTENT = "content".getBytes();
+	// Content of the attachment with id 'attachment4'
+	private static final String STORED_KEY = "2b200a668f372eb923099cbdb250d0aa340de0163088de1e23482b1a4c50ae9b";
+
+	@Autowired
+	private DatabaseAttachmentStore databaseAttachmentStore;
+
+	@Autowired
+	private NamedParameterJdbcTemplate jdbcTemplate;
+
+	@Test
+	void put() throws IOException {
+		databaseAttachmentStore.put(KEY, new ByteArrayResource(CONTENT), CONTENT.length);
+
+		try (var content = databaseAttachmentStore.get(KEY)) {
+			assertThat(content.length()).isEqualTo(CONTENT.length);
+			assertThat(content.inputStream().readAllBytes()).isEqualTo(CONTENT);
+		}
+		// Stored without any reference, which is added by AttachmentContentRepository
+		assertThat(jdbcTemplate.queryForObject("SELECT reference_count FROM attachment_content WHERE hash = :hash", Map.of("hash", KEY), Integer.class)).isZero();
+	}
+
+	@Test
+	void put_alreadyStored() throws IOException {
+		databaseAttachmentStore.put(STORED_KEY, new ByteArrayResource("dGVzdA==".getBytes()), 8);
+
+		try (var content = databaseAttachmentStore.get(STORED_KEY)) {
+			assertThat(content.inputStream().readAllBytes()).isEqualTo("dGVzdA==".getBytes());
+		}
+		assertThat(jdbcTemplate.queryForObject("SELECT reference_count FROM attachment_content WHERE hash = :hash", Map.of("hash", STORED_KEY), Integer.class)).isOne();
+	}
+
+	@Test
+	void get() throws IOException {
+		try (var content = databaseAttachmentStore.get(STORED_KEY)) {
+			assertThat(content.length()).isEqualTo(8);
+			assertThat(content.inputStream().readAllBytes()).isEqualTo("dGVzdA==".getBytes());
+		}
+	}
+
+	@Test
+	void getRange() throws IOException {
+		try (var content = databaseAttachmentStore.get(STORED_KEY, 2, 4)) {
+			assertThat(content.length()).isEqualTo(4);
+			assertThat(content.inputStream().readAllBytes()).isEqualTo("VzdA".getBytes());
+		}
+	}
+
+	@Test
+	void getRange_notStored() {
+		assertThatThrownBy(() -> databaseAttachmentStore.get(KEY, 0, 1))
+			.isInstanceOf(Problem.class)
+			.hasFieldOrPropertyWithValue("status", INTERNAL_SERVER_ERROR)
+			.hasMessageContaining("No content stored with key '%s'".formatted(KEY));
+	}
+
+	@Test
+	void get_notStored() {
+		assertThatThrownBy(() -> databaseAttachmentStore.get(KEY))
+			.isInstanceOf(Problem.class)
+			.hasFieldOrPropertyWithValue("status", INTERNAL_SERVER_ERROR)
+			.hasMessageContaining("Internal Server Error: No content stored with key '%s'".formatted(KEY));
+	}
+}
@@ -0,0 +1,122 @@
+package se.sundsvall.postportalservice.integration.attachmentstore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamSource;
+import se.sundsvall.dept44.problem.Problem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+
+class FileSystemAttachmentStoreTest {
+
+	// SHA-256 of "content"
+	private static final String KEY = "ed7002b439e9ac845f22357d822bac1444730fbdb6016d3ec9432297b9ec9f73";
+	private static final byte[] CONTENT = "content".getBytes();
+
+	@TempDir
+	private Path root;
+
+	private FileSystemAttachmentStore store;
+
+	@BeforeEach
+	void setUp() {
+		store = new FileSystemAttachmentStore(root);
+	}
+
+	@Test
+	void put() throws IOException {
+		store.put(KEY, new ByteArrayResource(CONTENT), CONTENT.length);
+
+		final var path = root.resolve("ed").resolve("70").resolve(KEY);
+		assertThat(path).hasBinaryContent(CONTENT);
+		// No temporary files are left behind
+		try (var files = Files.list(path.getParent())) {
+			assertThat(files).containsExactly(path);
+		}
+	}
+
+	@Test
+	void put_alreadyStored() throws IOException {
+		final var contentMock = Mockito.mock(InputStreamSource.class);
+		store.put(KEY, new ByteArrayResource(CONTENT), CONTENT.length);
+
+		store.put(KEY, contentMock, CONTENT.length);
+
+		assertThat(store.toPath(KEY)).hasBinaryContent(CONTENT);
+		verifyNoInteractions(contentMock);
+	}
+
+	@Test
+	void put_failsToRead() throws IOException {
+		final var contentMock = Mockito.mock(InputStreamSource.class);
+		Mockito.when(contentMock.getInputStream()).thenThrow(new IOException("Stream closed"));
+
+		assertThatThrownBy(() -> store.put(KEY, contentMock, CONTENT.length))
+			.isInstanceOf(Problem.class)
+			.hasFieldOrPropertyWithValue("status", INTERNAL_SERVER_ERROR)
+			.hasMessageContaining("Internal Server Error: Could not store content with key '%s': Stream closed".formatted(KEY));
+		// Neither the content nor a temporary file is left behind
+		try (var files = Files.list(store.toPath(KEY).getParent())) {
+			assertThat(files).isEmpty();
+		}
+	}
+
+	@Test
+	void get() throws IOException {
+		store.put(KEY, new ByteArrayResource(CONTENT), CONTENT.length);
+
+		try (var content = store.get(KEY)) {
+			assertThat(content.length()).isEqualTo(CONTENT.length);
+			assertThat(content.inputStream().readAllBytes()).isEqualTo(CONTENT);
+		}
+	}
+
+	@Test
+	void getRange() throws IOException {
+		store.put(KEY, new ByteArrayResource(CONTENT), CONTENT.length);
+
+		try (var content = store.get(KEY, 2, 3)) {
+			assertThat(content.length()).isEqualTo(3);
+			// The stream starts at the range, and may continue past it
+			assertThat(content.inputStream().readNBytes((int) content.length())).isEqualTo("nte".getBytes());
+		}
+	}
+
+	@Test
+	void getRange_notStored() {
+		assertThatThrownBy(() -> store.get(KEY, 0, 1))
+			.isInstanceOf(Problem.class)
+			.hasFieldOrPropertyWithValue("status", INTERNAL_SERVER_ERROR)
+			.hasMessageContaining("No content stored with key '%s'".formatted(KEY));
+	}
+
+	@Test
+	void get_notStored() {
+		assertThatThrownBy(() -> store.get(KEY))
+			.isInstanceOf(Problem.class)
+			.hasFieldOrPropertyWithValue("status", INTERNAL_SERVER_ERROR)
+			.hasMessageContaining("Internal Server Error: No content stored with key '%s'".formatted(KEY));
+	}
+
+	@Test
+	void toPath() {
+		assertThat(store.toPath(KEY)).isEqualTo(root.resolve("ed/70/" + KEY));
+	}
+
+	@Test
+	void toPath_invalidKey() {
+		assertThatThrownBy(() -> store.toPath("../../etc/passwd"))
+			.isInstanceOf(Problem.class)
+			.hasFieldOrPropertyWithValue("status", INTERNAL_SERVER_ERROR)
+			.hasMessageContaining("Internal Server Error: Invalid content key '../../etc/passwd'");
+	}
+}
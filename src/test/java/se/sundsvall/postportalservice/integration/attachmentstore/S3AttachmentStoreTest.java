@@ -0,0 +1,177 @@
+package se.sundsvall.postportalservice.integration.attachmentstore;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.postportalservice.integration.attachmentstore.configuration.AttachmentStoreProperties;
+
+import static java.time.ZoneOffset.UTC;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.http.HttpStatus.BAD_GATEWAY;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+
+/**
+ * S3AttachmentStore tests, against a local stand-in for the object store.
+ */
+class S3AttachmentStoreTest {
+
+	// SHA-256 of "content"
+	private static final String KEY = "ed7002b439e9ac845f22357d822bac1444730fbdb6016d3ec9432297b9ec9f73";
+	private static final byte[] CONTENT = "content".getBytes();
+	private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-01-02T03:04:05Z"), UTC);
+
+	private final List<RecordedRequest> requests = new CopyOnWriteArrayList<>();
+	private final AtomicReference<Response> response = new AtomicReference<>();
+	private HttpServer server;
+	private S3AttachmentStore store;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/", this::handle);
+		server.start();
+
+		final var properties = new AttachmentStoreProperties.S3("http://localhost:%d/".formatted(server.getAddress().getPort()), "eu-north-1", "attachments",
+			"accessKey", "secretKey", 10, 60);
+		store = new S3AttachmentStore(properties, CLOCK);
+	}
+
+	@AfterEach
+	void tearDown() {
+		server.stop(0);
+	}
+
+	@Test
+	void put() {
+		response.set(new Response(200, new byte[0]));
+
+		store.put(KEY, new ByteArrayResource(CONTENT), CONTENT.length);
+
+		assertThat(requests).singleElement().satisfies(request -> {
+			assertThat(request.method()).isEqualTo("PUT");
+			assertThat(request.path()).isEqualTo("/attachments/" + KEY);
+			assertThat(request.body()).isEqualTo(CONTENT);
+			assertThat(request.exchange().getRequestHeaders().getFirst("x-amz-content-sha256")).isEqualTo(KEY);
+			assertThat(request.exchange().getRequestHeaders().getFirst("x-amz-date")).isEqualTo("20260102T030405Z");
+			assertThat(request.exchange().getRequestHeaders().getFirst("Authorization"))
+				.startsWith("AWS4-HMAC-SHA256 Credential=accessKey/20260102/eu-north-1/s3/aws4_request, SignedHeaders=host;x-amz-content-sha256;x-amz-date, Signature=")
+				.matches(".*Signature=[0-9a-f]{64}");
+		});
+	}
+
+	@Test
+	void put_rejected() {
+		response.set(new Response(400, new byte[0]));
+
+		assertThatThrownBy(() -> store.put(KEY, new ByteArrayResource(CONTENT), CONTENT.length))
+			.isInstanceOf(Problem.class)
+			.hasFieldOrPropertyWithValue("status", BAD_GATEWAY)
+			.hasMessageContaining("Could not store content with key '%s', object store responded with status 400".formatted(KEY));
+	}
+
+	@Test
+	void get() throws IOException {
+		response.set(new Response(200, CONTENT));
+
+		try (var content = store.get(KEY)) {
+			assertThat(content.length()).isEqualTo(CONTENT.length);
+			assertThat(content.inputStream().readAllBytes()).isEqualTo(CONTENT);
+		}
+
+		assertThat(requests).singleElement().satisfies(request -> {
+			assertThat(request.method()).isEqualTo("GET");
+			assertThat(request.path()).isEqualTo("/attachments/" + KEY);
+			assertThat(request.exchange().getRequestHeaders().getFirst("x-amz-content-sha256")).isEqualTo("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855");
+		});
+	}
+
+	@Test
+	void getRange() throws IOException {
+		response.set(new Response(206, "nte".getBytes()));
+
+		try (var content = store.get(KEY, 2, 3)) {
+			assertThat(content.length()).isEqualTo(3);
+			assertThat(content.inputStream().readAllBytes()).isEqualTo("nte".getBytes());
+		}
+
+		assertThat(requests).singleElement().satisfies(request -> {
+			assertThat(request.method()).isEqualTo("GET");
+			assertThat(request.exchange().getRequestHeaders().getFirst("Range")).isEqualTo("bytes=2-4");
+		});
+	}
+
+	@Test
+	void get_notStored() {
+		response.set(new Response(404, new byte[0]));
+
+		assertThatThrownBy(() -> store.get(KEY))
+			.isInstanceOf(Problem.class)
+			.hasFieldOrPropertyWithValue("status", INTERNAL_SERVER_ERROR)
+			.hasMessageContaining("No content stored with key '%s'".formatted(KEY));
+	}
+
+	@Test
+	void get_fails() {
+		response.set(new Response(503, new byte[0]));
+
+		assertThatThrownBy(() -> store.get(KEY))
+			.isInstanceOf(Problem.class)
+			.hasFieldOrPropertyWithValue("status", BAD_GATEWAY)
+			.hasMessageContaining("Could not read content with key '%s', object store responded with status 503".formatted(KEY));
+	}
+
+	@Test
+	void get_unreachable() {
+		server.stop(0);
+
+		assertThatThrownBy(() -> store.get(KEY))
+			.isInstanceOf(Problem.class)
+			.hasFieldOrPropertyWithValue("status", BAD_GATEWAY)
+			.hasMessageContaining("Could not reach object store for content with key '%s'".formatted(KEY));
+	}
+
+	@Test
+	void signedRequest() {
+		// The signature only depends on the request, the credentials and the clock
+		final var first = store.signedRequest("GET", KEY, KEY).GET().build();
+		final var second = store.signedRequest("GET", KEY, KEY).GET().build();
+
+		assertThat(first.headers().firstValue("Authorization")).isEqualTo(second.headers().firstValue("Authorization"));
+		assertThat(first.uri().getPath()).isEqualTo("/attachments/" + KEY);
+	}
+
+	@Test
+	void signedRequest_invalidKey() {
+		assertThatThrownBy(() -> store.signedRequest("GET", "../other-bucket/key", KEY))
+			.isInstanceOf(Problem.class)
+			.hasFieldOrPropertyWithValue("status", INTERNAL_SERVER_ERROR)
+			.hasMessageContaining("Invalid content key '../other-bucket/key'");
+	}
+
+	private void handle(final HttpExchange exchange) throws IOException {
+		try (exchange) {
+			requests.add(new RecordedRequest(exchange.getRequestMethod(), exchange.getRequestURI().getPath(), exchange.getRequestBody().readAllBytes(), exchange));
+			final var current = response.get();
+			exchange.sendResponseHeaders(current.status(), current.body().length == 0 ? -1 : current.body().length);
+			exchange.getResponseBody().write(current.body());
+		}
+	}
+
+	private record RecordedRequest(String method, String path, byte[] body, HttpExchange exchange) {
+	}
+
+	private record Response(int status, byte[] body) {
+	}
+}
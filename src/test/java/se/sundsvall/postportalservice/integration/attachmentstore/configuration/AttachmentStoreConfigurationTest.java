@@ -0,0 +1,70 @@
+package se.sundsvall.postportalservice.integration.attachmentstore.configuration;
+
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import se.sundsvall.postportalservice.integration.attachmentstore.DatabaseAttachmentStore;
+import se.sundsvall.postportalservice.integration.attachmentstore.FileSystemAttachmentStore;
+import se.sundsvall.postportalservice.integration.attachmentstore.S3AttachmentStore;
+import se.sundsvall.postportalservice.integration.attachmentstore.configuration.AttachmentStoreProperties.FileSystem;
+import se.sundsvall.postportalservice.integration.attachmentstore.configuration.AttachmentStoreProperties.S3;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static se.sundsvall.postportalservice.integration.attachmentstore.configuration.AttachmentStoreProperties.Type.DATABASE;
+import static se.sundsvall.postportalservice.integration.attachmentstore.configuration.AttachmentStoreProperties.Type.FILE_SYSTEM;
+
+@ExtendWith(MockitoExtension.class)
+class AttachmentStoreConfigurationTest {
+
+	private static final FileSystem FILE_SYSTEM_PROPERTIES = new FileSystem(Path.of("/var/attachments"));
+	private static final S3 S3_PROPERTIES = new S3("http://localhost:9000", "us-east-1", "attachments", "accessKey", "secretKey", 10, 60);
+
+	@Mock
+	private NamedParameterJdbcTemplate jdbcTemplateMock;
+
+	private final AttachmentStoreConfiguration configuration = new AttachmentStoreConfiguration();
+
+	@Test
+	void attachmentStore_database() {
+		final var properties = new AttachmentStoreProperties(DATABASE, FILE_SYSTEM_PROPERTIES, S3_PROPERTIES);
+
+		assertThat(configuration.attachmentStore(properties, jdbcTemplateMock)).isInstanceOf(DatabaseAttachmentStore.class);
+	}
+
+	@Test
+	void attachmentStore_fileSystem() {
+		final var properties = new AttachmentStoreProperties(FILE_SYSTEM, FILE_SYSTEM_PROPERTIES, S3_PROPERTIES);
+
+		assertThat(configuration.attachmentStore(properties, jdbcTemplateMock)).isInstanceOf(FileSystemAttachmentStore.class);
+	}
+
+	@Test
+	void attachmentStore_fileSystemWithoutRoot() {
+		final var properties = new AttachmentStoreProperties(FILE_SYSTEM, new FileSystem(null), S3_PROPERTIES);
+
+		assertThatThrownBy(() -> configuration.attachmentStore(properties, jdbcTemplateMock))
+			.isInstanceOf(NullPointerException.class)
+			.hasMessage("integration.attachment-store.file-system.root must be set");
+	}
+
+	@Test
+	void attachmentStore_s3() {
+		final var properties = new AttachmentStoreProperties(AttachmentStoreProperties.Type.S3, FILE_SYSTEM_PROPERTIES, S3_PROPERTIES);
+
+		assertThat(configuration.attachmentStore(properties, jdbcTemplateMock)).isInstanceOf(S3AttachmentStore.class);
+	}
+
+	@Test
+	void attachmentStore_s3WithoutBucket() {
+		final var s3 = new S3("http://localhost:9000", "us-east-1", null, "accessKey", "secretKey", 10, 60);
+		final var properties = new AttachmentStoreProperties(AttachmentStoreProperties.Type.S3, FILE_SYSTEM_PROPERTIES, s3);
+
+		assertThatThrownBy(() -> configuration.attachmentStore(properties, jdbcTemplateMock))
+			.isInstanceOf(NullPointerException.class)
+			.hasMessage("integration.attachment-store.s3.bucket must be set");
+	}
+}
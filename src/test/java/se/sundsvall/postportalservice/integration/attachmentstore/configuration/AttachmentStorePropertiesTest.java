@@ -0,0 +1,27 @@
+package se.sundsvall.postportalservice.integration.attachmentstore.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import se.sundsvall.postportalservice.Application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.sundsvall.postportalservice.integration.attachmentstore.configuration.AttachmentStoreProperties.Type.DATABASE;
+
+@SpringBootTest(classes = Application.class)
+@ActiveProfiles("junit")
+class AttachmentStorePropertiesTest {
+
+	@Autowired
+	private AttachmentStoreProperties properties;
+
+	@Test
+	void testProperties() {
+		assertThat(properties.type()).isEqualTo(DATABASE);
+		assertThat(properties.fileSystem().root()).isNull();
+		assertThat(properties.s3().region()).isEqualTo("us-east-1");
+		assertThat(properties.s3().connectTimeout()).isEqualTo(10);
+		assertThat(properties.s3().readTimeout()).isEqualTo(60);
+	}
+}
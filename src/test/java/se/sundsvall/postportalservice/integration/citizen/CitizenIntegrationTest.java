@@ -2,19 +2,27 @@ package se.sundsvall.postportalservice.integration.citizen;
 
 import generated.se.sundsvall.citizen.CitizenAddress;
 import generated.se.sundsvall.citizen.CitizenExtended;
+import java.time.Duration;
 import java.util.List;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import se.sundsvall.dept44.exception.ClientProblem;
+import se.sundsvall.dept44.exception.ServerProblem;
+import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.postportalservice.integration.citizen.configuration.CitizenProperties;
 
 import static java.util.Collections.emptyList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpStatus.BAD_GATEWAY;
 
 @ExtendWith(MockitoExtension.class)
 class CitizenIntegrationTest {
@@ -27,12 +35,17 @@ class CitizenIntegrationTest {
 	@Mock
 	private CitizenClient citizenClientMock;
 
-	@InjectMocks
 	private CitizenIntegration citizenIntegration;
 
+	@BeforeEach
+	void setUp() {
+		citizenIntegration = new CitizenIntegration(citizenClientMock, new CitizenProperties(5, 30, 1000, 4, 2, Duration.ZERO));
+	}
+
 	@AfterEach
 	void verifyInteractions() {
 		verifyNoMoreInteractions(citizenClientMock);
+		citizenIntegration.shutdown();
 	}
 
 	@Test
@@ -57,6 +70,89 @@ class CitizenIntegrationTest {
 		assertThat(result).isNotNull().isEmpty();
 	}
 
+	@Test
+	void getCitizens_inChunks() {
+		final var partyIds = List.of("28fba79e-73aa-4ecb-939f-301f326d2d4c", "f560865a-51f0-4e96-bca1-55d57a0d3f68", "6d0773d6-3e7f-4552-81bc-f0007af95adf");
+		final var citizen1 = createCitizen(emptyList());
+		final var citizen2 = createCitizen(emptyList());
+		final var citizen3 = createCitizen(emptyList());
+		citizenIntegration = new CitizenIntegration(citizenClientMock, new CitizenProperties(5, 30, 1, 2, 2, Duration.ZERO));
+
+		when(citizenClientMock.getCitizens(MUNICIPALITY_ID, List.of(partyIds.get(0)))).thenReturn(List.of(citizen1));
+		when(citizenClientMock.getCitizens(MUNICIPALITY_ID, List.of(partyIds.get(1)))).thenReturn(List.of(citizen2));
+		when(citizenClientMock.getCitizens(MUNICIPALITY_ID, List.of(partyIds.get(2)))).thenReturn(List.of(citizen3));
+
+		final var result = citizenIntegration.getCitizens(MUNICIPALITY_ID, partyIds);
+
+		assertThat(result).containsExactly(citizen1, citizen2, citizen3);
+		partyIds.forEach(partyId -> verify(citizenClientMock).getCitizens(MUNICIPALITY_ID, List.of(partyId)));
+	}
+
+	@Test
+	void getCitizens_failedChunkIsRetried() {
+		final var citizen1 = createCitizen(emptyList());
+		final var citizen2 = createCitizen(emptyList());
+		citizenIntegration = new CitizenIntegration(citizenClientMock, new CitizenProperties(5, 30, 1, 2, 2, Duration.ZERO));
+
+		when(citizenClientMock.getCitizens(MUNICIPALITY_ID, List.of(PARTY_IDS.get(0)))).thenReturn(List.of(citizen1));
+		when(citizenClientMock.getCitizens(MUNICIPALITY_ID, List.of(PARTY_IDS.get(1))))
+			.thenThrow(new ServerProblem(BAD_GATEWAY, "citizen error"))
+			.thenReturn(List.of(citizen2));
+
+		final var result = citizenIntegration.getCitizens(MUNICIPALITY_ID, PARTY_IDS);
+
+		// Only the failed chunk is fetched again
+		assertThat(result).containsExactly(citizen1, citizen2);
+		verify(citizenClientMock).getCitizens(MUNICIPALITY_ID, List.of(PARTY_IDS.get(0)));
+		verify(citizenClientMock, times(2)).getCitizens(MUNICIPALITY_ID, List.of(PARTY_IDS.get(1)));
+	}
+
+	@Test
+	void getCitizens_chunkFailsAllAttempts() {
+		citizenIntegration = new CitizenIntegration(citizenClientMock, new CitizenProperties(5, 30, 1, 2, 2, Duration.ZERO));
+
+		when(citizenClientMock.getCitizens(MUNICIPALITY_ID, List.of(PARTY_IDS.get(0)))).thenReturn(emptyList());
+		when(citizenClientMock.getCitizens(MUNICIPALITY_ID, List.of(PARTY_IDS.get(1)))).thenThrow(new ServerProblem(BAD_GATEWAY, "citizen error"));
+
+		assertThatThrownBy(() -> citizenIntegration.getCitizens(MUNICIPALITY_ID, PARTY_IDS))
+			.isInstanceOf(Problem.class)
+			.hasMessageContaining("citizen error");
+
+		verify(citizenClientMock).getCitizens(MUNICIPALITY_ID, List.of(PARTY_IDS.get(0)));
+		verify(citizenClientMock, times(2)).getCitizens(MUNICIPALITY_ID, List.of(PARTY_IDS.get(1)));
+	}
+
+	@Test
+	void getCitizens_permanentFailureIsNotRetried() {
+		// A 400 from citizen, as decoded by the ProblemErrorDecoder
+		citizenIntegration = new CitizenIntegration(citizenClientMock, new CitizenProperties(5, 30, 1000, 4, 3, Duration.ZERO));
+
+		when(citizenClientMock.getCitizens(MUNICIPALITY_ID, PARTY_IDS)).thenThrow(new ClientProblem(BAD_GATEWAY, "invalid partyId"));
+
+		assertThatThrownBy(() -> citizenIntegration.getCitizens(MUNICIPALITY_ID, PARTY_IDS))
+			.isInstanceOf(Problem.class)
+			.hasMessageContaining("invalid partyId");
+
+		verify(citizenClientMock).getCitizens(MUNICIPALITY_ID, PARTY_IDS);
+	}
+
+	@Test
+	void getCitizens_retryIsDelayed() {
+		final var citizen = createCitizen(emptyList());
+		citizenIntegration = new CitizenIntegration(citizenClientMock, new CitizenProperties(5, 30, 1000, 4, 2, Duration.ofMillis(200)));
+
+		when(citizenClientMock.getCitizens(MUNICIPALITY_ID, PARTY_IDS))
+			.thenThrow(new ServerProblem(BAD_GATEWAY, "citizen unavailable"))
+			.thenReturn(List.of(citizen));
+
+		final var start = System.nanoTime();
+		final var result = citizenIntegration.getCitizens(MUNICIPALITY_ID, PARTY_IDS);
+
+		assertThat(result).containsExactly(citizen);
+		assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(200));
+		verify(citizenClientMock, times(2)).getCitizens(MUNICIPALITY_ID, PARTY_IDS);
+	}
+
 	private CitizenExtended createCitizen(List<CitizenAddress> addresses) {
 		var citizen = new CitizenExtended();
 		citizen.setAddresses(addresses);
@@ -19,5 +19,8 @@ class CitizenPropertiesTest {
 	void testProperties() {
 		assertThat(properties.connectTimeout()).isEqualTo(10);
 		assertThat(properties.readTimeout()).isEqualTo(20);
+		assertThat(properties.maxPartyIdsPerCall()).isEqualTo(40);
+		assertThat(properties.maxConcurrentCalls()).isEqualTo(3);
+		assertThat(properties.maxAttemptsPerCall()).isEqualTo(1);
 	}
 }
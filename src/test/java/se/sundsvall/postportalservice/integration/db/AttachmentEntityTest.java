@@ -23,6 +23,7 @@ class AttachmentEntityTest {
 	private static final String ID = "123e4567-e89b-12d3-a456-426614174000";
 	private static final String FILE_NAME = "attachment.txt";
 	private static final String CONTENT_TYPE = "text/plain";
+	private static final String CONTENT_HASH = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
 	private static final String CONTENT_STRING = "contentString";
 	private static final OffsetDateTime CREATED = OffsetDateTime.of(2024, 6, 15, 12, 0, 0, 0, UTC);
 	private static final AtomicInteger SEQUENCE = new AtomicInteger();
@@ -50,6 +51,7 @@ class AttachmentEntityTest {
 		attachmentEntity.setId(ID);
 		attachmentEntity.setFileName(FILE_NAME);
 		attachmentEntity.setContentType(CONTENT_TYPE);
+		attachmentEntity.setContentHash(CONTENT_HASH);
 		attachmentEntity.setContent(blobMock);
 		attachmentEntity.setCreated(CREATED);
 		attachmentEntity.setContentString(CONTENT_STRING);
@@ -57,6 +59,7 @@ class AttachmentEntityTest {
 		assertThat(attachmentEntity.getId()).isEqualTo(ID);
 		assertThat(attachmentEntity.getFileName()).isEqualTo(FILE_NAME);
 		assertThat(attachmentEntity.getContentType()).isEqualTo(CONTENT_TYPE);
+		assertThat(attachmentEntity.getContentHash()).isEqualTo(CONTENT_HASH);
 		assertThat(attachmentEntity.getContent()).isEqualTo(blobMock);
 		assertThat(attachmentEntity.getCreated()).isEqualTo(CREATED);
 		assertThat(attachmentEntity.getContentString()).isEqualTo(CONTENT_STRING);
@@ -28,6 +28,8 @@ class MessageEntityTest {
 	private static final String CONTENT_TYPE = "contentType";
 	private static final String SUBJECT = "subject";
 	private static final OffsetDateTime CREATED = OffsetDateTime.of(2024, 6, 15, 12, 0, 0, 0, UTC);
+	private static final String SNAIL_MAIL_BATCH_STATUS = "TRIGGERED";
+	private static final OffsetDateTime SNAIL_MAIL_BATCH_TRIGGERED = OffsetDateTime.of(2024, 6, 15, 13, 0, 0, 0, UTC);
 	private static final AtomicInteger SEQUENCE = new AtomicInteger();
 
 	@BeforeAll
@@ -60,6 +62,8 @@ class MessageEntityTest {
 			.withContentType(CONTENT_TYPE)
 			.withSubject(SUBJECT)
 			.withCreated(CREATED)
+			.withSnailMailBatchStatus(SNAIL_MAIL_BATCH_STATUS)
+			.withSnailMailBatchTriggered(SNAIL_MAIL_BATCH_TRIGGERED)
 			.withDisplayName(DISPLAY_NAME)
 			.withUser(userEntity)
 			.withDepartment(departmentEntity)
@@ -73,6 +77,8 @@ class MessageEntityTest {
 		assertThat(messageEntity.getContentType()).isEqualTo(CONTENT_TYPE);
 		assertThat(messageEntity.getSubject()).isEqualTo(SUBJECT);
 		assertThat(messageEntity.getCreated()).isEqualTo(CREATED);
+		assertThat(messageEntity.getSnailMailBatchStatus()).isEqualTo(SNAIL_MAIL_BATCH_STATUS);
+		assertThat(messageEntity.getSnailMailBatchTriggered()).isEqualTo(SNAIL_MAIL_BATCH_TRIGGERED);
 		assertThat(messageEntity.getDisplayName()).isEqualTo(DISPLAY_NAME);
 		assertThat(messageEntity.getUser()).isEqualTo(userEntity);
 		assertThat(messageEntity.getDepartment()).isEqualTo(departmentEntity);
@@ -96,6 +102,8 @@ class MessageEntityTest {
 		messageEntity.setContentType(CONTENT_TYPE);
 		messageEntity.setSubject(SUBJECT);
 		messageEntity.setCreated(CREATED);
+		messageEntity.setSnailMailBatchStatus(SNAIL_MAIL_BATCH_STATUS);
+		messageEntity.setSnailMailBatchTriggered(SNAIL_MAIL_BATCH_TRIGGERED);
 		messageEntity.setDisplayName(DISPLAY_NAME);
 		messageEntity.setUser(userEntity);
 		messageEntity.setDepartment(departmentEntity);
@@ -109,6 +117,8 @@ class MessageEntityTest {
 		assertThat(messageEntity.getContentType()).isEqualTo(CONTENT_TYPE);
 		assertThat(messageEntity.getSubject()).isEqualTo(SUBJECT);
 		assertThat(messageEntity.getCreated()).isEqualTo(CREATED);
+		assertThat(messageEntity.getSnailMailBatchStatus()).isEqualTo(SNAIL_MAIL_BATCH_STATUS);
+		assertThat(messageEntity.getSnailMailBatchTriggered()).isEqualTo(SNAIL_MAIL_BATCH_TRIGGERED);
 		assertThat(messageEntity.getDisplayName()).isEqualTo(DISPLAY_NAME);
 		assertThat(messageEntity.getUser()).isEqualTo(userEntity);
 		assertThat(messageEntity.getDepartment()).isEqualTo(departmentEntity);
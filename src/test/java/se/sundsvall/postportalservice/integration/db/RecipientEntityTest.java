@@ -38,7 +38,11 @@ class RecipientEntityTest {
 	private static final String MESSAGE_STATUS = "SENT";
 	private static final MessageType MESSAGE_TYPE = MessageType.SNAIL_MAIL;
 	private static final PartyType PARTY_TYPE = PartyType.PRIVATE;
+	private static final String DELIVERY_STATE = "QUEUED";
 	private static final OffsetDateTime CREATED = OffsetDateTime.of(2024, 6, 15, 12, 0, 0, 0, UTC);
+	private static final OffsetDateTime LEASE_EXPIRES = OffsetDateTime.of(2024, 6, 15, 12, 5, 0, 0, UTC);
+	private static final Integer ATTEMPTS = 2;
+	private static final OffsetDateTime NEXT_ATTEMPT = OffsetDateTime.of(2024, 6, 15, 12, 10, 0, 0, UTC);
 	private static final AtomicInteger SEQUENCE = new AtomicInteger();
 
 	@BeforeAll
@@ -77,7 +81,11 @@ class RecipientEntityTest {
 			.withStatusDetail(STATUS_DETAIL)
 			.withMessageType(MESSAGE_TYPE)
 			.withStatus(MESSAGE_STATUS)
-			.withExternalId(EXTERNAL_ID);
+			.withExternalId(EXTERNAL_ID)
+			.withDeliveryState(DELIVERY_STATE)
+			.withLeaseExpires(LEASE_EXPIRES)
+			.withAttempts(ATTEMPTS)
+			.withNextAttempt(NEXT_ATTEMPT);
 
 		assertThat(recipientEntity.getId()).isEqualTo(ID);
 		assertThat(recipientEntity.getPartyId()).isEqualTo(PARTY_ID);
@@ -98,6 +106,10 @@ class RecipientEntityTest {
 		assertThat(recipientEntity.getMessageType()).isEqualTo(MESSAGE_TYPE);
 		assertThat(recipientEntity.getStatus()).isEqualTo(MESSAGE_STATUS);
 		assertThat(recipientEntity.getExternalId()).isEqualTo(EXTERNAL_ID);
+		assertThat(recipientEntity.getDeliveryState()).isEqualTo(DELIVERY_STATE);
+		assertThat(recipientEntity.getLeaseExpires()).isEqualTo(LEASE_EXPIRES);
+		assertThat(recipientEntity.getAttempts()).isEqualTo(ATTEMPTS);
+		assertThat(recipientEntity.getNextAttempt()).isEqualTo(NEXT_ATTEMPT);
 		assertThat(recipientEntity).hasNoNullFieldsOrProperties();
 	}
 
@@ -124,6 +136,10 @@ class RecipientEntityTest {
 		recipientEntity.setMessageType(MESSAGE_TYPE);
 		recipientEntity.setStatus(MESSAGE_STATUS);
 		recipientEntity.setExternalId(EXTERNAL_ID);
+		recipientEntity.setDeliveryState(DELIVERY_STATE);
+		recipientEntity.setLeaseExpires(LEASE_EXPIRES);
+		recipientEntity.setAttempts(ATTEMPTS);
+		recipientEntity.setNextAttempt(NEXT_ATTEMPT);
 
 		assertThat(recipientEntity.getId()).isEqualTo(ID);
 		assertThat(recipientEntity.getPartyId()).isEqualTo(PARTY_ID);
@@ -144,6 +160,10 @@ class RecipientEntityTest {
 		assertThat(recipientEntity.getMessageType()).isEqualTo(MESSAGE_TYPE);
 		assertThat(recipientEntity.getStatus()).isEqualTo(MESSAGE_STATUS);
 		assertThat(recipientEntity.getExternalId()).isEqualTo(EXTERNAL_ID);
+		assertThat(recipientEntity.getDeliveryState()).isEqualTo(DELIVERY_STATE);
+		assertThat(recipientEntity.getLeaseExpires()).isEqualTo(LEASE_EXPIRES);
+		assertThat(recipientEntity.getAttempts()).isEqualTo(ATTEMPTS);
+		assertThat(recipientEntity.getNextAttempt()).isEqualTo(NEXT_ATTEMPT);
 		assertThat(recipientEntity).hasNoNullFieldsOrProperties();
 	}
 
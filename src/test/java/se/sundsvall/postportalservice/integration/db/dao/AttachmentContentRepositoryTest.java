@@ -0,0 +1,126 @@
+package se.sundsvall.postportalservice.integration.db.dao;
+
+import java.io.IOException;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import se.sundsvall.postportalservice.integration.attachmentstore.AttachmentStore;
+import se.sundsvall.postportalservice.integration.attachmentstore.DatabaseAttachmentStore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase.Replace.NONE;
+
+/**
+ * AttachmentContentRepository tests.
+ *
+ * @see "/src/integration-test/resources/db/scripts/testdata.sql for data setup"
+ */
+@Sql(scripts = {
+	"/db/scripts/testdata.sql"
+})
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = NONE)
+@ActiveProfiles("junit")
+@Import({
+	AttachmentContentRepository.class, DatabaseAttachmentStore.class
+})
+class AttachmentContentRepositoryTest {
+
+	// SHA-256 of "content"
+	private static final String HASH = "ed7002b439e9ac845f22357d822bac1444730fbdb6016d3ec9432297b9ec9f73";
+	private static final byte[] CONTENT = "content".getBytes();
+	// Content of the attachment with id 'attachment4'
+	private static final String STORED_HASH = "2b200a668f372eb923099cbdb250d0aa340de0163088de1e23482b1a4c50ae9b";
+
+	@Autowired
+	private AttachmentContentRepository attachmentContentRepository;
+
+	@Autowired
+	private AttachmentStore attachmentStore;
+
+	@Autowired
+	private NamedParameterJdbcTemplate jdbcTemplate;
+
+	@Test
+	void store() throws IOException {
+		attachmentContentRepository.store(HASH, new ByteArrayResource(CONTENT), CONTENT.length);
+
+		assertThat(attachmentContentRepository.getReferenceCount(HASH)).isOne();
+		assertThat(attachmentContentRepository.getLength(HASH)).hasValue((long) CONTENT.length);
+		try (var content = attachmentStore.get(HASH)) {
+			assertThat(content.inputStream().readAllBytes()).isEqualTo(CONTENT);
+		}
+	}
+
+	@Test
+	void store_alreadyStored() {
+		final var contentMock = Mockito.mock(InputStreamSource.class);
+
+		attachmentContentRepository.store(STORED_HASH, contentMock, 8);
+
+		// Only the reference is added, the content is never read
+		assertThat(attachmentContentRepository.getReferenceCount(STORED_HASH)).isEqualTo(2);
+		assertThat(getContent(STORED_HASH)).isEqualTo("dGVzdA==".getBytes());
+		verifyNoInteractions(contentMock);
+	}
+
+	@Test
+	void store_sameContentTwice() {
+		attachmentContentRepository.store(HASH, new ByteArrayResource(CONTENT), CONTENT.length);
+		attachmentContentRepository.store(HASH, new ByteArrayResource(CONTENT), CONTENT.length);
+
+		assertThat(attachmentContentRepository.getReferenceCount(HASH)).isEqualTo(2);
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM attachment_content WHERE hash = :hash", Map.of("hash", HASH), Integer.class)).isOne();
+	}
+
+	@Test
+	void store_alreadyStoredWithoutLength() {
+		jdbcTemplate.update("UPDATE attachment_content SET content_length = NULL WHERE hash = :hash", Map.of("hash", STORED_HASH));
+
+		attachmentContentRepository.store(STORED_HASH, new ByteArrayResource("dGVzdA==".getBytes()), 8);
+
+		// The length is recorded by the next reference
+		assertThat(attachmentContentRepository.getLength(STORED_HASH)).hasValue(8L);
+	}
+
+	@Test
+	void release() {
+		attachmentContentRepository.release(STORED_HASH);
+
+		assertThat(attachmentContentRepository.getReferenceCount(STORED_HASH)).isZero();
+
+		// Never released below zero
+		attachmentContentRepository.release(STORED_HASH);
+
+		assertThat(attachmentContentRepository.getReferenceCount(STORED_HASH)).isZero();
+	}
+
+	@Test
+	void getLength() {
+		assertThat(attachmentContentRepository.getLength(STORED_HASH)).hasValue(8L);
+	}
+
+	@Test
+	void getLength_notStored() {
+		assertThat(attachmentContentRepository.getLength(HASH)).isEmpty();
+	}
+
+	@Test
+	void getReferenceCount_notStored() {
+		assertThat(attachmentContentRepository.getReferenceCount(HASH)).isZero();
+	}
+
+	private byte[] getContent(final String hash) {
+		return jdbcTemplate.queryForObject("SELECT content FROM attachment_content WHERE hash = :hash", Map.of("hash", hash), byte[].class);
+	}
+}
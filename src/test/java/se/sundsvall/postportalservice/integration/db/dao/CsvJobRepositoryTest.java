@@ -0,0 +1,216 @@
+package se.sundsvall.postportalservice.integration.db.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import se.sundsvall.postportalservice.integration.db.dao.CsvJobRepository.CsvJob;
+import se.sundsvall.postportalservice.integration.db.dao.CsvJobRepository.Phase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase.Replace.NONE;
+
+/**
+ * CsvJobRepository tests.
+ *
+ * @see "/src/integration-test/resources/db/scripts/testdata.sql for data setup"
+ */
+@Sql(scripts = {
+	"/db/scripts/testdata.sql"
+})
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = NONE)
+@ActiveProfiles("junit")
+@Import(CsvJobRepository.class)
+class CsvJobRepositoryTest {
+
+	private static final String MUNICIPALITY_ID = "2281";
+	private static final String MESSAGE_ID = "a8fec1ef-950f-4735-9c49-1a641043cdbb";
+	private static final String COMPLETED_JOB_ID = "5a1c4c5e-9e8a-4b7f-bd2a-6f3f1f0c2d11";
+	private static final byte[] CSV_FILE = "Personnummer\n201901012391\n".getBytes();
+	private static final Duration LEASE = Duration.ofMinutes(5);
+
+	@Autowired
+	private CsvJobRepository csvJobRepository;
+
+	@Autowired
+	private NamedParameterJdbcTemplate jdbcTemplate;
+
+	@Test
+	void create() {
+		final var id = csvJobRepository.create(MESSAGE_ID, CSV_FILE, 1);
+
+		assertThat(csvJobRepository.find(MUNICIPALITY_ID, id)).hasValue(new CsvJob(id, MESSAGE_ID, Phase.QUEUED, 0, 1, null));
+		assertThat(csvJobRepository.getCsvFile(id)).isEqualTo(CSV_FILE);
+	}
+
+	@Test
+	void claim() {
+		final var id = csvJobRepository.create(MESSAGE_ID, CSV_FILE, 1);
+
+		final var result = csvJobRepository.claim(LEASE);
+
+		assertThat(result).hasValueSatisfying(job -> {
+			assertThat(job.id()).isEqualTo(id);
+			assertThat(job.messageId()).isEqualTo(MESSAGE_ID);
+			assertThat(job.claim()).isNotBlank();
+		});
+		assertThat(csvJobRepository.find(MUNICIPALITY_ID, id)).hasValueSatisfying(job -> assertThat(job.phase()).isEqualTo(Phase.RESOLVING));
+
+		// Claimed and leased, so not claimable again
+		assertThat(csvJobRepository.claim(LEASE)).isEmpty();
+	}
+
+	@Test
+	void claim_expiredLease() {
+		final var id = csvJobRepository.create(MESSAGE_ID, CSV_FILE, 1);
+		final var staleJob = csvJobRepository.claim(LEASE).orElseThrow();
+		csvJobRepository.updateProgress(staleJob, Phase.ENQUEUING, 1, LEASE);
+		expireLease(id);
+
+		final var result = csvJobRepository.claim(LEASE);
+
+		assertThat(result).hasValueSatisfying(job -> {
+			assertThat(job.id()).isEqualTo(id);
+			assertThat(job.claim()).isNotEqualTo(staleJob.claim());
+		});
+		assertThat(csvJobRepository.find(MUNICIPALITY_ID, id)).hasValue(new CsvJob(id, MESSAGE_ID, Phase.RESOLVING, 0, 1, null));
+	}
+
+	@Test
+	void staleClaim() {
+		final var id = csvJobRepository.create(MESSAGE_ID, CSV_FILE, 1000);
+		final var staleJob = csvJobRepository.claim(LEASE).orElseThrow();
+		expireLease(id);
+		final var job = csvJobRepository.claim(LEASE).orElseThrow();
+		csvJobRepository.updateProgress(job, Phase.RESOLVING, 100, LEASE);
+
+		// The worker that lost its lease can no longer touch the job
+		assertThat(csvJobRepository.updateProgress(staleJob, Phase.RESOLVING, 900, LEASE)).isFalse();
+		assertThat(csvJobRepository.complete(staleJob)).isFalse();
+		assertThat(csvJobRepository.fail(staleJob, "detail")).isFalse();
+
+		assertThat(csvJobRepository.find(MUNICIPALITY_ID, id)).hasValue(new CsvJob(id, MESSAGE_ID, Phase.RESOLVING, 100, 1000, null));
+		assertThat(csvJobRepository.getCsvFile(id)).isEqualTo(CSV_FILE);
+	}
+
+	@Test
+	void claim_nothingToClaim() {
+		assertThat(csvJobRepository.claim(LEASE)).isEmpty();
+	}
+
+	@Test
+	void updateProgress() {
+		final var id = csvJobRepository.create(MESSAGE_ID, CSV_FILE, 1000);
+		final var job = csvJobRepository.claim(LEASE).orElseThrow();
+
+		assertThat(csvJobRepository.updateProgress(job, Phase.RESOLVING, 500, LEASE)).isTrue();
+
+		assertThat(csvJobRepository.find(MUNICIPALITY_ID, id)).hasValue(new CsvJob(id, MESSAGE_ID, Phase.RESOLVING, 500, 1000, null));
+	}
+
+	@Test
+	void complete() {
+		final var id = csvJobRepository.create(MESSAGE_ID, CSV_FILE, 1000);
+		final var job = csvJobRepository.claim(LEASE).orElseThrow();
+		csvJobRepository.updateProgress(job, Phase.ENQUEUING, 1000, LEASE);
+
+		assertThat(csvJobRepository.complete(job)).isTrue();
+
+		assertThat(csvJobRepository.find(MUNICIPALITY_ID, id)).hasValue(new CsvJob(id, MESSAGE_ID, Phase.COMPLETED, 1000, 1000, null));
+		assertThat(csvJobRepository.getCsvFile(id)).isNull();
+
+		// Finished, so completing again has no effect
+		assertThat(csvJobRepository.complete(job)).isFalse();
+	}
+
+	@Test
+	void fail() {
+		final var id = csvJobRepository.create(MESSAGE_ID, CSV_FILE, 1000);
+		final var job = csvJobRepository.claim(LEASE).orElseThrow();
+		csvJobRepository.updateProgress(job, Phase.RESOLVING, 500, LEASE);
+
+		assertThat(csvJobRepository.fail(job, "x".repeat(300))).isTrue();
+
+		assertThat(csvJobRepository.find(MUNICIPALITY_ID, id)).hasValueSatisfying(job -> {
+			assertThat(job.phase()).isEqualTo(Phase.FAILED);
+			assertThat(job.processed()).isEqualTo(500);
+			assertThat(job.detail()).hasSize(255).endsWith("...");
+		});
+		assertThat(csvJobRepository.getCsvFile(id)).isNull();
+	}
+
+	@Test
+	void release() {
+		final var id = csvJobRepository.create(MESSAGE_ID, CSV_FILE, 1000);
+		final var job = csvJobRepository.claim(LEASE).orElseThrow();
+		csvJobRepository.updateProgress(job, Phase.RESOLVING, 500, LEASE);
+
+		assertThat(csvJobRepository.release(job, Duration.ofMinutes(1))).isTrue();
+
+		// Released, but not claimable again until the delay has passed
+		assertThat(csvJobRepository.updateProgress(job, Phase.RESOLVING, 600, LEASE)).isFalse();
+		assertThat(csvJobRepository.claim(LEASE)).isEmpty();
+
+		expireLease(id);
+		assertThat(csvJobRepository.claim(LEASE)).hasValueSatisfying(claimed -> assertThat(claimed.claim()).isNotEqualTo(job.claim()));
+		assertThat(csvJobRepository.find(MUNICIPALITY_ID, id)).hasValue(new CsvJob(id, MESSAGE_ID, Phase.RESOLVING, 0, 1000, null));
+	}
+
+	@Test
+	void find() {
+		assertThat(csvJobRepository.find(MUNICIPALITY_ID, COMPLETED_JOB_ID))
+			.hasValue(new CsvJob(COMPLETED_JOB_ID, "ab4cdf50-b854-48f8-a061-1e89f9792c9a", Phase.COMPLETED, 3, 3, null));
+	}
+
+	@Test
+	void find_otherMunicipality() {
+		assertThat(csvJobRepository.find("1234", COMPLETED_JOB_ID)).isEmpty();
+	}
+
+	@Test
+	void find_unknownJob() {
+		assertThat(csvJobRepository.find(MUNICIPALITY_ID, "unknown")).isEmpty();
+	}
+
+	@Test
+	void getCsvFile_unknownJob() {
+		assertThat(csvJobRepository.getCsvFile("unknown")).isNull();
+	}
+
+	@Test
+	void csvJobMapper_mapRow() throws SQLException {
+		final var resultSetMock = Mockito.mock(ResultSet.class);
+		when(resultSetMock.getString("id")).thenReturn("id");
+		when(resultSetMock.getString("message_id")).thenReturn("messageId");
+		when(resultSetMock.getString("phase")).thenReturn("FAILED");
+		when(resultSetMock.getInt("processed")).thenReturn(1);
+		when(resultSetMock.getInt("total")).thenReturn(2);
+		when(resultSetMock.getString("detail")).thenReturn("detail");
+
+		final var result = new CsvJobRepository.CsvJobMapper().mapRow(resultSetMock, 1);
+
+		assertThat(result).isEqualTo(new CsvJob("id", "messageId", Phase.FAILED, 1, 2, "detail"));
+		verify(resultSetMock).getString("id");
+		verify(resultSetMock).getString("message_id");
+		verify(resultSetMock).getString("phase");
+		verify(resultSetMock).getInt("processed");
+		verify(resultSetMock).getInt("total");
+		verify(resultSetMock).getString("detail");
+	}
+
+	private void expireLease(final String id) {
+		jdbcTemplate.update("UPDATE csv_job SET lease_expires = NOW() - INTERVAL 1 MINUTE WHERE id = :id", Map.of("id", id));
+	}
+}
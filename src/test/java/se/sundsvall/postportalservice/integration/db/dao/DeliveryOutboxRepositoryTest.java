@@ -0,0 +1,163 @@
+package se.sundsvall.postportalservice.integration.db.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import se.sundsvall.postportalservice.integration.db.dao.DeliveryOutboxRepository.OutboxEntry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase.Replace.NONE;
+import static se.sundsvall.postportalservice.Constants.CLAIMED;
+import static se.sundsvall.postportalservice.Constants.QUEUED;
+
+/**
+ * DeliveryOutboxRepository tests.
+ *
+ * @see "/src/integration-test/resources/db/scripts/testdata.sql for data setup"
+ */
+@Sql(scripts = {
+	"/db/scripts/testdata.sql"
+})
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = NONE)
+@ActiveProfiles("junit")
+@Import(DeliveryOutboxRepository.class)
+class DeliveryOutboxRepositoryTest {
+
+	private static final String MESSAGE_ID = "ab4cdf50-b854-48f8-a061-1e89f9792c9a";
+	private static final String RECIPIENT_ID_1 = "4d9d18a3-1c71-4cbf-872a-666911efc436";
+	private static final String RECIPIENT_ID_2 = "338ddf24-6e72-41aa-8bc4-c315419e27c3";
+	private static final String FAILED_RECIPIENT_ID = "4681b799-3bd2-4bf8-aaa0-b442511cbacf";
+
+	@Autowired
+	private DeliveryOutboxRepository deliveryOutboxRepository;
+
+	@Autowired
+	private NamedParameterJdbcTemplate jdbcTemplate;
+
+	@Test
+	void enqueue() {
+		markAsPending(RECIPIENT_ID_1, RECIPIENT_ID_2);
+
+		final var result = deliveryOutboxRepository.enqueue(MESSAGE_ID);
+
+		assertThat(result).isEqualTo(2);
+		assertThat(getDeliveryState(RECIPIENT_ID_1)).isEqualTo(QUEUED);
+		assertThat(getDeliveryState(RECIPIENT_ID_2)).isEqualTo(QUEUED);
+		assertThat(getDeliveryState(FAILED_RECIPIENT_ID)).isNull();
+	}
+
+	@Test
+	void enqueue_noPendingRecipients() {
+		final var result = deliveryOutboxRepository.enqueue(MESSAGE_ID);
+
+		assertThat(result).isZero();
+	}
+
+	@Test
+	void claim() {
+		markAsPending(RECIPIENT_ID_1, RECIPIENT_ID_2);
+		deliveryOutboxRepository.enqueue(MESSAGE_ID);
+
+		final var result = deliveryOutboxRepository.claim(10, Duration.ofMinutes(5));
+
+		assertThat(result)
+			.extracting(OutboxEntry::recipientId, OutboxEntry::messageId)
+			.containsExactlyInAnyOrder(
+				tuple(RECIPIENT_ID_1, MESSAGE_ID),
+				tuple(RECIPIENT_ID_2, MESSAGE_ID));
+		assertThat(getDeliveryState(RECIPIENT_ID_1)).isEqualTo(CLAIMED);
+		assertThat(getDeliveryState(RECIPIENT_ID_2)).isEqualTo(CLAIMED);
+
+		// Recipients with a valid lease are not claimed again
+		assertThat(deliveryOutboxRepository.claim(10, Duration.ofMinutes(5))).isEmpty();
+	}
+
+	@Test
+	void claim_limit() {
+		markAsPending(RECIPIENT_ID_1, RECIPIENT_ID_2);
+		deliveryOutboxRepository.enqueue(MESSAGE_ID);
+
+		final var result = deliveryOutboxRepository.claim(1, Duration.ofMinutes(5));
+
+		assertThat(result).hasSize(1);
+		assertThat(deliveryOutboxRepository.claim(1, Duration.ofMinutes(5))).hasSize(1);
+		assertThat(deliveryOutboxRepository.claim(1, Duration.ofMinutes(5))).isEmpty();
+	}
+
+	@Test
+	void claim_expiredLease() {
+		jdbcTemplate.update("UPDATE recipient SET delivery_state = :claimed, lease_expires = NOW() - INTERVAL 1 MINUTE WHERE id = :id",
+			Map.of("claimed", CLAIMED, "id", RECIPIENT_ID_1));
+
+		final var result = deliveryOutboxRepository.claim(10, Duration.ofMinutes(5));
+
+		assertThat(result)
+			.extracting(OutboxEntry::recipientId)
+			.containsExactly(RECIPIENT_ID_1);
+	}
+
+	@Test
+	void claim_retryNotYetDue() {
+		jdbcTemplate.update("UPDATE recipient SET delivery_state = :queued, next_attempt = NOW() + INTERVAL 1 MINUTE WHERE id = :id",
+			Map.of("queued", QUEUED, "id", RECIPIENT_ID_1));
+
+		final var result = deliveryOutboxRepository.claim(10, Duration.ofMinutes(5));
+
+		assertThat(result).isEmpty();
+	}
+
+	@Test
+	void claim_retryDue() {
+		jdbcTemplate.update("UPDATE recipient SET delivery_state = :queued, next_attempt = NOW() - INTERVAL 1 MINUTE WHERE id = :id",
+			Map.of("queued", QUEUED, "id", RECIPIENT_ID_1));
+
+		final var result = deliveryOutboxRepository.claim(10, Duration.ofMinutes(5));
+
+		assertThat(result)
+			.extracting(OutboxEntry::recipientId)
+			.containsExactly(RECIPIENT_ID_1);
+	}
+
+	@Test
+	void claim_emptyOutbox() {
+		final var result = deliveryOutboxRepository.claim(10, Duration.ofMinutes(5));
+
+		assertThat(result).isEmpty();
+	}
+
+	@Test
+	void outboxEntryMapper_mapRow() throws SQLException {
+		final var resultSetMock = Mockito.mock(ResultSet.class);
+		when(resultSetMock.getString("id")).thenReturn(RECIPIENT_ID_1);
+		when(resultSetMock.getString("message_id")).thenReturn(MESSAGE_ID);
+
+		final var result = new DeliveryOutboxRepository.OutboxEntryMapper().mapRow(resultSetMock, 1);
+
+		assertThat(result).isEqualTo(new OutboxEntry(RECIPIENT_ID_1, MESSAGE_ID));
+		verify(resultSetMock).getString("id");
+		verify(resultSetMock).getString("message_id");
+	}
+
+	private void markAsPending(final String... recipientIds) {
+		jdbcTemplate.update("UPDATE recipient SET status = 'PENDING' WHERE id IN (:ids)", Map.of("ids", List.of(recipientIds)));
+	}
+
+	private String getDeliveryState(final String recipientId) {
+		return jdbcTemplate.queryForObject("SELECT delivery_state FROM recipient WHERE id = :id", Map.of("id", recipientId), String.class);
+	}
+}
@@ -0,0 +1,171 @@
+package se.sundsvall.postportalservice.integration.db.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.NullSource;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import se.sundsvall.postportalservice.integration.db.MessageEntity;
+import se.sundsvall.postportalservice.integration.db.RecipientEntity;
+import se.sundsvall.postportalservice.integration.db.dao.MessageProgressRepository.Progress;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase.Replace.NONE;
+import static se.sundsvall.postportalservice.integration.db.converter.MessageType.SNAIL_MAIL;
+
+/**
+ * MessageProgressRepository tests.
+ *
+ * @see "/src/integration-test/resources/db/scripts/testdata.sql for data setup"
+ */
+@Sql(scripts = {
+	"/db/scripts/testdata.sql"
+})
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = NONE)
+@ActiveProfiles("junit")
+@Import(MessageProgressRepository.class)
+class MessageProgressRepositoryTest {
+
+	private static final String MUNICIPALITY_ID = "2281";
+	private static final String MESSAGE_ID = "ab4cdf50-b854-48f8-a061-1e89f9792c9a";
+	private static final String MESSAGE_WITHOUT_PROGRESS_ID = "a8fec1ef-950f-4735-9c49-1a641043cdbb";
+
+	@Autowired
+	private MessageProgressRepository messageProgressRepository;
+
+	@Autowired
+	private NamedParameterJdbcTemplate jdbcTemplate;
+
+	@Test
+	void initialize() {
+		final var message = MessageEntity.create()
+			.withId(MESSAGE_WITHOUT_PROGRESS_ID)
+			.withRecipients(List.of(
+				RecipientEntity.create().withStatus("PENDING").withMessageType(SNAIL_MAIL),
+				RecipientEntity.create().withStatus("PENDING"),
+				RecipientEntity.create().withStatus("INELIGIBLE_MINOR").withMessageType(SNAIL_MAIL)));
+
+		messageProgressRepository.initialize(message);
+
+		assertThat(messageProgressRepository.find(MUNICIPALITY_ID, MESSAGE_WITHOUT_PROGRESS_ID)).hasValue(new Progress(2, 0, 0, 0, 1));
+		// Only snail-mail recipients waiting to be delivered count towards the snail-mail batch
+		assertThat(jdbcTemplate.queryForObject("SELECT snail_mail_pending FROM message_progress WHERE message_id = :id", Map.of("id", MESSAGE_WITHOUT_PROGRESS_ID), Integer.class)).isOne();
+	}
+
+	@Test
+	void initialize_noRecipients() {
+		messageProgressRepository.initialize(MessageEntity.create().withId(MESSAGE_WITHOUT_PROGRESS_ID));
+
+		assertThat(messageProgressRepository.find(MUNICIPALITY_ID, MESSAGE_WITHOUT_PROGRESS_ID)).hasValue(Progress.EMPTY);
+	}
+
+	@Test
+	void add() {
+		messageProgressRepository.add(Map.of(
+			MESSAGE_ID, new Progress(0, -2, 2, 0, 0),
+			MESSAGE_WITHOUT_PROGRESS_ID, new Progress(1, 0, 0, 0, 0)));
+
+		assertThat(messageProgressRepository.find(MUNICIPALITY_ID, MESSAGE_ID)).hasValue(new Progress(0, 0, 2, 1, 0));
+		assertThat(messageProgressRepository.find(MUNICIPALITY_ID, MESSAGE_WITHOUT_PROGRESS_ID)).isEmpty();
+	}
+
+	@Test
+	void add_nothingToAdd() {
+		messageProgressRepository.add(Map.of(MESSAGE_ID, Progress.EMPTY));
+
+		assertThat(messageProgressRepository.find(MUNICIPALITY_ID, MESSAGE_ID)).hasValue(new Progress(0, 2, 0, 1, 0));
+	}
+
+	@Test
+	void transition() {
+		messageProgressRepository.transition(MESSAGE_ID, "FAILED", "SENT");
+
+		assertThat(messageProgressRepository.find(MUNICIPALITY_ID, MESSAGE_ID)).hasValue(new Progress(0, 3, 0, 0, 0));
+	}
+
+	@Test
+	void find() {
+		final var result = messageProgressRepository.find(MUNICIPALITY_ID, MESSAGE_ID);
+
+		assertThat(result).hasValueSatisfying(progress -> {
+			assertThat(progress).isEqualTo(new Progress(0, 2, 0, 1, 0));
+			assertThat(progress.total()).isEqualTo(3);
+		});
+	}
+
+	@Test
+	void find_otherMunicipality() {
+		assertThat(messageProgressRepository.find("1234", MESSAGE_ID)).isEmpty();
+	}
+
+	@Test
+	void find_unknownMessage() {
+		assertThat(messageProgressRepository.find(MUNICIPALITY_ID, "unknown")).isEmpty();
+	}
+
+	@ParameterizedTest
+	@CsvSource({
+		"PENDING, 1, 0, 0, 0, 0",
+		"AWAITING_FEEDBACK, 1, 0, 0, 0, 0",
+		"SENT, 0, 1, 0, 0, 0",
+		"DELIVERED, 0, 0, 1, 0, 0",
+		"SIGNED, 0, 0, 1, 0, 0",
+		"FAILED, 0, 0, 0, 1, 0",
+		"DECLINED, 0, 0, 0, 1, 0",
+		"UNDELIVERABLE, 0, 0, 0, 0, 1",
+		"INELIGIBLE_MINOR, 0, 0, 0, 0, 1",
+		"NO_CONTACT_SETTINGS_FOUND, 0, 0, 0, 0, 1",
+		"NO_CONTACT_WANTED, 0, 0, 0, 0, 1"
+	})
+	void progressOf(final String status, final int pending, final int sent, final int delivered, final int failed, final int undeliverable) {
+		assertThat(Progress.of(status)).isEqualTo(new Progress(pending, sent, delivered, failed, undeliverable));
+	}
+
+	@ParameterizedTest
+	@NullSource
+	void progressOf_noStatus(final String status) {
+		assertThat(Progress.of(status)).isEqualTo(new Progress(0, 0, 0, 1, 0));
+	}
+
+	@Test
+	void progressPlusAndMinus() {
+		final var progress = new Progress(1, 2, 3, 4, 5);
+
+		assertThat(progress.plus(new Progress(1, 1, 1, 1, 1))).isEqualTo(new Progress(2, 3, 4, 5, 6));
+		assertThat(progress.minus(new Progress(1, 1, 1, 1, 1))).isEqualTo(new Progress(0, 1, 2, 3, 4));
+		assertThat(progress.total()).isEqualTo(15);
+	}
+
+	@Test
+	void progressMapper_mapRow() throws SQLException {
+		final var resultSetMock = Mockito.mock(ResultSet.class);
+		when(resultSetMock.getInt("pending")).thenReturn(1);
+		when(resultSetMock.getInt("sent")).thenReturn(2);
+		when(resultSetMock.getInt("delivered")).thenReturn(3);
+		when(resultSetMock.getInt("failed")).thenReturn(4);
+		when(resultSetMock.getInt("undeliverable")).thenReturn(5);
+
+		final var result = new MessageProgressRepository.ProgressMapper().mapRow(resultSetMock, 1);
+
+		assertThat(result).isEqualTo(new Progress(1, 2, 3, 4, 5));
+		verify(resultSetMock).getInt("pending");
+		verify(resultSetMock).getInt("sent");
+		verify(resultSetMock).getInt("delivered");
+		verify(resultSetMock).getInt("failed");
+		verify(resultSetMock).getInt("undeliverable");
+	}
+}
@@ -9,11 +9,13 @@ import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabas
 import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.jdbc.Sql;
+import se.sundsvall.postportalservice.integration.db.AttachmentEntity;
 import se.sundsvall.postportalservice.integration.db.MessageEntity;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase.Replace.NONE;
 import static se.sundsvall.postportalservice.integration.db.converter.MessageType.DIGITAL_REGISTERED_LETTER;
+import static se.sundsvall.postportalservice.integration.db.converter.MessageType.LETTER;
 import static se.sundsvall.postportalservice.integration.db.converter.MessageType.SNAIL_MAIL;
 
 /**
@@ -88,4 +90,26 @@ class MessageRepositoryTest {
 		assertThat(messageRepository.findByIdAndMessageType("11d7486b-5da0-4e73-92ec-7d77a3660f55", DIGITAL_REGISTERED_LETTER)).isEmpty(); // Message id does not match
 		assertThat(messageRepository.findByIdAndMessageType("1decdead-52b8-42d9-aa62-5ef08c4a701e", SNAIL_MAIL)).isEmpty(); // Message type does not match
 	}
+
+	@Test
+	void findDeliveryMessageById() {
+		assertThat(messageRepository.findDeliveryMessageById("b2cd4957-228f-46f0-a263-d4eae2eb5f52"))
+			.hasValueSatisfying(message -> {
+				assertThat(message.getId()).isEqualTo("b2cd4957-228f-46f0-a263-d4eae2eb5f52");
+				assertThat(message.getMunicipalityId()).isEqualTo("2281");
+				assertThat(message.getSubject()).isEqualTo("This is the subject");
+				assertThat(message.getMessageType()).isEqualTo(LETTER);
+				assertThat(message.getUser().getUsername()).isEqualTo("user1");
+				assertThat(message.getDepartment().getId()).isEqualTo("e9c2ebba-4b71-4cc1-bc56-46434f8693cc");
+			});
+		assertThat(messageRepository.findDeliveryMessageById("35cf926b-a9d8-47a7-8b82-7351c94d84bc")).isEmpty();
+	}
+
+	@Test
+	void findAttachmentsByMessageId() {
+		assertThat(messageRepository.findAttachmentsByMessageId("b2cd4957-228f-46f0-a263-d4eae2eb5f52"))
+			.extracting(AttachmentEntity::getFileName)
+			.containsExactlyInAnyOrder("document.pdf", "image.png");
+		assertThat(messageRepository.findAttachmentsByMessageId("ab4cdf50-b854-48f8-a061-1e89f9792c9a")).isEmpty();
+	}
 }
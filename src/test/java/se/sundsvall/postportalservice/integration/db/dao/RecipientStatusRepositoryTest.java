@@ -0,0 +1,109 @@
+package se.sundsvall.postportalservice.integration.db.dao;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import se.sundsvall.postportalservice.integration.db.dao.MessageProgressRepository.Progress;
+import se.sundsvall.postportalservice.integration.db.dao.RecipientStatusRepository.RecipientStatus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase.Replace.NONE;
+import static se.sundsvall.postportalservice.Constants.FAILED;
+import static se.sundsvall.postportalservice.Constants.PENDING;
+import static se.sundsvall.postportalservice.Constants.QUEUED;
+
+/**
+ * RecipientStatusRepository tests.
+ *
+ * @see "/src/integration-test/resources/db/scripts/testdata.sql for data setup"
+ */
+@Sql(scripts = {
+	"/db/scripts/testdata.sql"
+})
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = NONE)
+@ActiveProfiles("junit")
+@Import({
+	RecipientStatusRepository.class, MessageProgressRepository.class
+})
+class RecipientStatusRepositoryTest {
+
+	private static final String MUNICIPALITY_ID = "2281";
+	private static final String MESSAGE_ID = "ab4cdf50-b854-48f8-a061-1e89f9792c9a";
+	private static final String RECIPIENT_ID_1 = "4d9d18a3-1c71-4cbf-872a-666911efc436";
+	private static final String RECIPIENT_ID_2 = "338ddf24-6e72-41aa-8bc4-c315419e27c3";
+
+	@Autowired
+	private RecipientStatusRepository recipientStatusRepository;
+
+	@Autowired
+	private MessageProgressRepository messageProgressRepository;
+
+	@Autowired
+	private NamedParameterJdbcTemplate jdbcTemplate;
+
+	@Test
+	void updateStatuses() {
+		final var nextAttempt = OffsetDateTime.now(ZoneId.systemDefault()).plusMinutes(5).truncatedTo(ChronoUnit.SECONDS);
+
+		recipientStatusRepository.updateStatuses(List.of(
+			new RecipientStatus(RECIPIENT_ID_1, "DELIVERED", null, "externalId", null, null, null, null),
+			new RecipientStatus(RECIPIENT_ID_2, PENDING, "Attempt 1 of 5 failed", null, QUEUED, null, 1, nextAttempt)));
+
+		assertThat(getRecipient(RECIPIENT_ID_1))
+			.containsEntry("status", "DELIVERED")
+			.containsEntry("status_detail", null)
+			.containsEntry("external_id", "externalId")
+			.containsEntry("delivery_state", null)
+			.containsEntry("attempts", null)
+			.containsEntry("next_attempt", null);
+		assertThat(getRecipient(RECIPIENT_ID_2))
+			.containsEntry("status", PENDING)
+			.containsEntry("status_detail", "Attempt 1 of 5 failed")
+			.containsEntry("external_id", null)
+			.containsEntry("delivery_state", QUEUED)
+			.containsEntry("attempts", 1);
+		assertThat(jdbcTemplate.queryForObject("SELECT next_attempt FROM recipient WHERE id = :id", Map.of("id", RECIPIENT_ID_2), LocalDateTime.class))
+			.isEqualTo(nextAttempt.toLocalDateTime());
+		assertThat(messageProgressRepository.find(MUNICIPALITY_ID, MESSAGE_ID)).hasValue(new Progress(1, 0, 1, 1, 0));
+	}
+
+	@Test
+	void updateStatuses_unchangedStatus() {
+		recipientStatusRepository.updateStatuses(List.of(new RecipientStatus(RECIPIENT_ID_1, "SENT", null, "externalId", null, null, null, null)));
+
+		assertThat(getRecipient(RECIPIENT_ID_1)).containsEntry("external_id", "externalId");
+		assertThat(messageProgressRepository.find(MUNICIPALITY_ID, MESSAGE_ID)).hasValue(new Progress(0, 2, 0, 1, 0));
+	}
+
+	@Test
+	void updateStatuses_unknownRecipient() {
+		recipientStatusRepository.updateStatuses(List.of(new RecipientStatus("unknown", FAILED, "detail", null, null, null, null, null)));
+
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM recipient WHERE id = 'unknown'", Map.of(), Integer.class)).isZero();
+	}
+
+	@Test
+	void updateStatuses_nothingToUpdate() {
+		recipientStatusRepository.updateStatuses(List.of());
+
+		assertThat(getRecipient(RECIPIENT_ID_1)).containsEntry("status", "SENT");
+		assertThat(messageProgressRepository.find(MUNICIPALITY_ID, MESSAGE_ID)).hasValue(new Progress(0, 2, 0, 1, 0));
+	}
+
+	private Map<String, Object> getRecipient(final String recipientId) {
+		return jdbcTemplate.queryForMap("SELECT status, status_detail, external_id, delivery_state, attempts, next_attempt FROM recipient WHERE id = :id",
+			Map.of("id", recipientId));
+	}
+}
@@ -0,0 +1,130 @@
+package se.sundsvall.postportalservice.integration.db.dao;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase.Replace.NONE;
+import static se.sundsvall.postportalservice.Constants.FAILED;
+import static se.sundsvall.postportalservice.Constants.TRIGGERED;
+import static se.sundsvall.postportalservice.Constants.TRIGGERING;
+
+/**
+ * SnailMailBatchRepository tests.
+ *
+ * @see "/src/integration-test/resources/db/scripts/testdata.sql for data setup"
+ */
+@Sql(scripts = {
+	"/db/scripts/testdata.sql"
+})
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = NONE)
+@ActiveProfiles("junit")
+@Import(SnailMailBatchRepository.class)
+class SnailMailBatchRepositoryTest {
+
+	private static final String MESSAGE_ID = "ab4cdf50-b854-48f8-a061-1e89f9792c9a";
+	private static final String RECIPIENT_ID_1 = "4d9d18a3-1c71-4cbf-872a-666911efc436";
+	private static final String RECIPIENT_ID_2 = "338ddf24-6e72-41aa-8bc4-c315419e27c3";
+
+	@Autowired
+	private SnailMailBatchRepository snailMailBatchRepository;
+
+	@Autowired
+	private NamedParameterJdbcTemplate jdbcTemplate;
+
+	@Test
+	void claimTrigger() {
+		setSnailMailPending(1);
+
+		final var result = snailMailBatchRepository.claimTrigger(MESSAGE_ID, RECIPIENT_ID_1, true);
+
+		assertThat(result).isTrue();
+		assertThat(getSnailMailBatchStatus()).isEqualTo(TRIGGERING);
+
+		// The trigger can only be claimed once
+		assertThat(snailMailBatchRepository.claimTrigger(MESSAGE_ID, RECIPIENT_ID_2, true)).isFalse();
+	}
+
+	@Test
+	void claimTrigger_recipientsStillPending() {
+		setSnailMailPending(2);
+
+		final var result = snailMailBatchRepository.claimTrigger(MESSAGE_ID, RECIPIENT_ID_1, true);
+
+		assertThat(result).isFalse();
+		assertThat(getSnailMailBatchStatus()).isNull();
+		assertThat(getSnailMailPending()).isOne();
+
+		// The last recipient claims the trigger
+		assertThat(snailMailBatchRepository.claimTrigger(MESSAGE_ID, RECIPIENT_ID_2, false)).isTrue();
+	}
+
+	@Test
+	void claimTrigger_recipientAlreadyHandled() {
+		setSnailMailPending(2);
+		snailMailBatchRepository.claimTrigger(MESSAGE_ID, RECIPIENT_ID_1, true);
+
+		// A redelivery of the same recipient is not counted again
+		final var result = snailMailBatchRepository.claimTrigger(MESSAGE_ID, RECIPIENT_ID_1, true);
+
+		assertThat(result).isFalse();
+		assertThat(getSnailMailBatchStatus()).isNull();
+		assertThat(getSnailMailPending()).isOne();
+	}
+
+	@Test
+	void claimTrigger_noRecipientAccepted() {
+		setSnailMailPending(1);
+
+		final var result = snailMailBatchRepository.claimTrigger(MESSAGE_ID, RECIPIENT_ID_1, false);
+
+		assertThat(result).isFalse();
+		assertThat(getSnailMailBatchStatus()).isNull();
+	}
+
+	@Test
+	void claimTrigger_unknownMessage() {
+		final var result = snailMailBatchRepository.claimTrigger("unknown", RECIPIENT_ID_1, true);
+
+		assertThat(result).isFalse();
+	}
+
+	@Test
+	void recordOutcome() {
+		setSnailMailPending(1);
+		snailMailBatchRepository.claimTrigger(MESSAGE_ID, RECIPIENT_ID_1, true);
+
+		snailMailBatchRepository.recordOutcome(MESSAGE_ID, TRIGGERED);
+
+		assertThat(getSnailMailBatchStatus()).isEqualTo(TRIGGERED);
+		assertThat(jdbcTemplate.queryForObject("SELECT snail_mail_batch_triggered IS NOT NULL FROM message WHERE id = :id", Map.of("id", MESSAGE_ID), Boolean.class)).isTrue();
+	}
+
+	@Test
+	void recordOutcome_failed() {
+		snailMailBatchRepository.recordOutcome(MESSAGE_ID, FAILED);
+
+		assertThat(getSnailMailBatchStatus()).isEqualTo(FAILED);
+		assertThat(snailMailBatchRepository.claimTrigger(MESSAGE_ID, RECIPIENT_ID_1, true)).isFalse();
+	}
+
+	private void setSnailMailPending(final int pending) {
+		jdbcTemplate.update("UPDATE message_progress SET snail_mail_pending = :pending WHERE message_id = :id", Map.of("pending", pending, "id", MESSAGE_ID));
+	}
+
+	private int getSnailMailPending() {
+		return jdbcTemplate.queryForObject("SELECT snail_mail_pending FROM message_progress WHERE message_id = :id", Map.of("id", MESSAGE_ID), Integer.class);
+	}
+
+		private String getSnailMailBatchStatus() {
+		return jdbcTemplate.queryForObject("SELECT snail_mail_batch_status FROM message WHERE id = :id", Map.of("id", MESSAGE_ID), String.class);
+	}
+}
@@ -7,10 +7,11 @@ import generated.se.sundsvall.messaging.EmailRequest;
 import generated.se.sundsvall.messaging.MessageBatchResult;
 import generated.se.sundsvall.messaging.MessageResult;
 import generated.se.sundsvall.messaging.MessageStatus;
+import generated.se.sundsvall.messaging.SmsBatchRequest;
+import generated.se.sundsvall.messaging.SmsBatchRequestParty;
 import generated.se.sundsvall.messaging.SmsRequest;
 import generated.se.sundsvall.messaging.SnailmailRequest;
 import java.sql.Blob;
-import java.sql.SQLException;
 import java.util.Base64;
 import java.util.List;
 import java.util.Map;
@@ -33,7 +34,9 @@ import se.sundsvall.postportalservice.integration.db.converter.MessageType;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -53,6 +56,9 @@ class MessagingIntegrationTest {
 	@Captor
 	private ArgumentCaptor<SmsRequest> smsRequestCaptor;
 
+	@Captor
+	private ArgumentCaptor<SmsBatchRequest> smsBatchRequestCaptor;
+
 	@Captor
 	private ArgumentCaptor<DigitalMailRequest> digitalMailRequestArgumentCaptor;
 
@@ -114,6 +120,39 @@ class MessagingIntegrationTest {
 		verify(messagingClientMock).sendDigitalMail(HEADER_VALUE, ORIGIN, MUNICIPALITY_ID, SUNDSVALL_MUNICIPALITY_ORG_NO, digitalMailRequest);
 	}
 
+	@Test
+	void sendDigitalMail_multipleRecipients() {
+		var departmentEntity = DepartmentEntity.create()
+			.withName("Jönssonligan")
+			.withOrganizationNumber(SUNDSVALL_MUNICIPALITY_ORG_NO);
+		var messageEntity = MessageEntity.create()
+			.withDepartment(departmentEntity)
+			.withUser(UserEntity.create().withUsername("John Wick"))
+			.withContentType("text/plain")
+			.withMunicipalityId(MUNICIPALITY_ID);
+		var recipientEntity1 = RecipientEntity.create()
+			.withPartyId("00000000-0000-0000-0000-000000000001")
+			.withMessageType(MessageType.DIGITAL_MAIL);
+		var recipientEntity2 = RecipientEntity.create()
+			.withPartyId("00000000-0000-0000-0000-000000000002")
+			.withMessageType(MessageType.DIGITAL_MAIL);
+
+		var messageBatchResult = new MessageBatchResult();
+
+		when(messagingClientMock.sendDigitalMail(eq(HEADER_VALUE), eq(ORIGIN), eq(MUNICIPALITY_ID), eq(SUNDSVALL_MUNICIPALITY_ORG_NO), digitalMailRequestArgumentCaptor.capture()))
+			.thenReturn(messageBatchResult);
+
+		var result = messagingIntegration.sendDigitalMail(messageEntity, List.of(recipientEntity1, recipientEntity2));
+
+		var digitalMailRequest = digitalMailRequestArgumentCaptor.getValue();
+		assertThat(digitalMailRequest.getParty().getPartyIds()).containsExactly(
+			UUID.fromString("00000000-0000-0000-0000-000000000001"),
+			UUID.fromString("00000000-0000-0000-0000-000000000002"));
+
+		assertThat(result).isEqualTo(messageBatchResult);
+		verify(messagingClientMock).sendDigitalMail(HEADER_VALUE, ORIGIN, MUNICIPALITY_ID, SUNDSVALL_MUNICIPALITY_ORG_NO, digitalMailRequest);
+	}
+
 	@Test
 	void sendSms() {
 		var recipientEntity = RecipientEntity.create()
@@ -144,6 +183,50 @@ class MessagingIntegrationTest {
 		verify(messagingClientMock).sendSms(HEADER_VALUE, ORIGIN, MUNICIPALITY_ID, smsRequest);
 	}
 
+	@Test
+	void sendSmsBatch() {
+		var recipientEntity1 = RecipientEntity.create()
+			.withPhoneNumber(MOBILE_NUMBER);
+		var recipientEntity2 = RecipientEntity.create()
+			.withPhoneNumber("+46701234567");
+		var messageEntity = MessageEntity.create()
+			.withMunicipalityId(MUNICIPALITY_ID)
+			.withDepartment(DepartmentEntity.create().withName("Jönssonligan").withOrganizationId("123"))
+			.withUser(UserEntity.create().withUsername("John Wick"))
+			.withBody("This is a text message")
+			.withDisplayName("Sundsvalls Kommun");
+
+		var batchResult = new MessageBatchResult().batchId(UUID.randomUUID())
+			.messages(List.of(new MessageResult().messageId(UUID.randomUUID()), new MessageResult().messageId(UUID.randomUUID())));
+		when(messagingClientMock.sendSmsBatch(eq(HEADER_VALUE), eq(ORIGIN), eq(MUNICIPALITY_ID), smsBatchRequestCaptor.capture()))
+			.thenReturn(batchResult);
+
+		var result = messagingIntegration.sendSmsBatch(messageEntity, List.of(recipientEntity1, recipientEntity2));
+
+		var smsBatchRequest = smsBatchRequestCaptor.getValue();
+		assertThat(smsBatchRequest.getMessage()).isEqualTo(messageEntity.getBody());
+		assertThat(smsBatchRequest.getDepartment()).isEqualTo(messageEntity.getDepartment().getName());
+		assertThat(smsBatchRequest.getSender()).isEqualTo(messageEntity.getDisplayName());
+		assertThat(smsBatchRequest.getParties())
+			.extracting(SmsBatchRequestParty::getMobileNumber)
+			.containsExactly(MOBILE_NUMBER, "+46701234567");
+
+		assertThat(result).isEqualTo(batchResult);
+		verify(messagingClientMock).sendSmsBatch(HEADER_VALUE, ORIGIN, MUNICIPALITY_ID, smsBatchRequest);
+	}
+
+	@Test
+	void triggerSnailMailBatch() {
+		var messageEntity = MessageEntity.create()
+			.withId("00000000-0000-0000-0000-000000000001")
+			.withMunicipalityId(MUNICIPALITY_ID)
+			.withUser(UserEntity.create().withUsername("John Wick"));
+
+		messagingIntegration.triggerSnailMailBatch(messageEntity);
+
+		verify(messagingClientMock).triggerSnailMailBatchProcessing(HEADER_VALUE, ORIGIN, MUNICIPALITY_ID, "00000000-0000-0000-0000-000000000001");
+	}
+
 	@Test
 	void sendSnailMail() {
 		var recipientEntity = RecipientEntity.create()
@@ -187,15 +270,38 @@ class MessagingIntegrationTest {
 	}
 
 	@Test
-	void sendCallbackEmail() throws SQLException {
+	void sendSnailMail_templateReusedForSameMessage() {
+		var recipientEntity1 = RecipientEntity.create().withPartyId("00000000-0000-0000-0000-000000000001");
+		var recipientEntity2 = RecipientEntity.create().withPartyId("00000000-0000-0000-0000-000000000002");
+		var batchId = "00000000-0000-0000-0000-000000000003";
+		var messageEntity = MessageEntity.create()
+			.withId(batchId)
+			.withMunicipalityId(MUNICIPALITY_ID)
+			.withDepartment(DepartmentEntity.create().withName("Jönssonligan").withOrganizationId("123"))
+			.withUser(UserEntity.create().withUsername("John Wick"))
+			.withAttachments(List.of(AttachmentEntity.create().withContentString("content").withFileName("file.pdf").withContentType("application/pdf")));
+
+		when(messagingClientMock.sendSnailMail(eq(HEADER_VALUE), eq(ORIGIN), eq(MUNICIPALITY_ID), snailmailRequestCaptor.capture(), eq(batchId)))
+			.thenReturn(new MessageResult());
+
+		messagingIntegration.sendSnailMail(messageEntity, recipientEntity1);
+		messagingIntegration.sendSnailMail(messageEntity, recipientEntity2);
+
+		var requests = snailmailRequestCaptor.getAllValues();
+		assertThat(requests).extracting(request -> request.getParty().getPartyId())
+			.containsExactly("00000000-0000-0000-0000-000000000001", "00000000-0000-0000-0000-000000000002");
+		assertThat(requests.getFirst().getAttachments()).hasSize(1).isSameAs(requests.getLast().getAttachments());
+
+		verify(messagingClientMock, times(2)).sendSnailMail(eq(HEADER_VALUE), eq(ORIGIN), eq(MUNICIPALITY_ID), any(), eq(batchId));
+	}
+
+	@Test
+	void sendCallbackEmail() {
 		final var partyId = "00000000-0000-0000-0000-000000000001";
 		final var recipientId = "recipient-id-1";
-		final var blob = Mockito.mock(Blob.class);
-		when(blob.length()).thenReturn(5L);
-		when(blob.getBytes(1, 5)).thenReturn("hello".getBytes());
 
 		final var attachmentEntity = AttachmentEntity.create()
-			.withContent(blob)
+			.withContentString(Base64.getEncoder().encodeToString("hello".getBytes()))
 			.withFileName("file.pdf")
 			.withContentType("application/pdf");
 		final var messageEntity = MessageEntity.create()
@@ -245,14 +351,10 @@ class MessagingIntegrationTest {
 	}
 
 	@Test
-	void sendCallbackEmail_blobToBase64Fails() throws SQLException {
+	void sendCallbackEmail_noAttachmentContent() {
 		final var partyId = "00000000-0000-0000-0000-000000000001";
-		final var blob = Mockito.mock(Blob.class);
-		when(blob.length()).thenReturn(5L);
-		when(blob.getBytes(1, 5)).thenThrow(new SQLException("DB error"));
 
 		final var attachmentEntity = AttachmentEntity.create()
-			.withContent(blob)
 			.withFileName("file.pdf")
 			.withContentType("application/pdf");
 		final var messageEntity = MessageEntity.create()
@@ -271,7 +373,7 @@ class MessagingIntegrationTest {
 
 		assertThatThrownBy(() -> messagingIntegration.sendCallbackEmail(messageEntity, recipientEntity, settingsMap))
 			.isInstanceOf(se.sundsvall.dept44.problem.Problem.class)
-			.hasMessageContaining("Couldn't read blob from entity");
+			.hasMessageContaining("No attachment, nothing to attach in email.");
 	}
 
 }
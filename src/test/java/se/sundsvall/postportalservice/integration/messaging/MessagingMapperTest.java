@@ -3,7 +3,9 @@ package se.sundsvall.postportalservice.integration.messaging;
 import generated.se.sundsvall.messaging.DigitalMailAttachment;
 import generated.se.sundsvall.messaging.DigitalMailRequest;
 import generated.se.sundsvall.messaging.SmsBatchRequest;
+import generated.se.sundsvall.messaging.SmsBatchRequestParty;
 import generated.se.sundsvall.messaging.SmsRequest;
+import generated.se.sundsvall.messaging.SnailmailRequest;
 import java.util.List;
 import java.util.UUID;
 import org.junit.jupiter.api.Test;
@@ -15,6 +17,7 @@ import se.sundsvall.postportalservice.integration.db.MessageEntity;
 import se.sundsvall.postportalservice.integration.db.RecipientEntity;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
 import static se.sundsvall.postportalservice.TestDataFactory.MOBILE_NUMBER;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,8 +40,49 @@ class MessagingMapperTest {
 
 	@Test
 	void toSmsBatchRequest() {
-		var result = MessagingMapper.toSmsBatchRequest();
+		var departmentEntity = DepartmentEntity.create()
+			.withName("DepartmentName");
+		var messageEntity = MessageEntity.create()
+			.withBody("Text")
+			.withDisplayName("Sundsvall")
+			.withDepartment(departmentEntity);
+		var recipientEntity1 = RecipientEntity.create()
+			.withPhoneNumber(MOBILE_NUMBER)
+			.withPartyId("PartyId");
+		var recipientEntity2 = RecipientEntity.create()
+			.withPhoneNumber("+46701234567");
+
+		var result = MessagingMapper.toSmsBatchRequest(messageEntity, List.of(recipientEntity1, recipientEntity2));
+
 		assertThat(result).isInstanceOf(SmsBatchRequest.class);
+		assertThat(result.getSender()).isEqualTo("Sundsvall");
+		assertThat(result.getMessage()).isEqualTo("Text");
+		assertThat(result.getDepartment()).isEqualTo("DepartmentName");
+		assertThat(result.getParties())
+			.extracting(SmsBatchRequestParty::getPartyId, SmsBatchRequestParty::getMobileNumber)
+			.containsExactly(
+				tuple("PartyId", MOBILE_NUMBER),
+				tuple(null, "+46701234567"));
+	}
+
+	@Test
+	void toSmsBatchRequest_nullValues() {
+		assertThat(MessagingMapper.toSmsBatchRequest(null, List.of())).isNull();
+		assertThat(MessagingMapper.toSmsBatchRequest(MessageEntity.create(), null)).isNull();
+	}
+
+	@Test
+	void toDigitalMailRequest_multipleParties() {
+		var messageEntity = MessageEntity.create()
+			.withBody("Text")
+			.withContentType("text/plain")
+			.withDepartment(DepartmentEntity.create().withName("DepartmentName"));
+
+		var result = MessagingMapper.toDigitalMailRequest(messageEntity, List.of("00000000-0000-0000-0000-000000000001", "00000000-0000-0000-0000-000000000002"));
+
+		assertThat(result.getParty().getPartyIds()).containsExactly(
+			UUID.fromString("00000000-0000-0000-0000-000000000001"),
+			UUID.fromString("00000000-0000-0000-0000-000000000002"));
 	}
 
 	@Test
@@ -92,6 +136,70 @@ class MessagingMapperTest {
 		});
 	}
 
+	@Test
+	void toDigitalMailRequest_fromTemplate() {
+		var messageEntity = MessageEntity.create()
+			.withBody("Text")
+			.withContentType("text/plain")
+			.withSubject("Subject")
+			.withDepartment(DepartmentEntity.create().withName("DepartmentName"))
+			.withAttachments(List.of(AttachmentEntity.create()
+				.withContentString("contentString")
+				.withContentType("application/pdf")
+				.withFileName("fileName")));
+
+		var template = MessagingMapper.toDigitalMailTemplate(messageEntity);
+		var result1 = MessagingMapper.toDigitalMailRequest(template, List.of("00000000-0000-0000-0000-000000000001"));
+		var result2 = MessagingMapper.toDigitalMailRequest(template, List.of("00000000-0000-0000-0000-000000000002"));
+
+		assertThat(template.getParty()).isNull();
+		assertThat(template.getAttachments()).hasSize(1);
+		assertThat(result1.getParty().getPartyIds()).containsExactly(UUID.fromString("00000000-0000-0000-0000-000000000001"));
+		assertThat(result2.getParty().getPartyIds()).containsExactly(UUID.fromString("00000000-0000-0000-0000-000000000002"));
+		assertThat(result1.getAttachments()).isSameAs(template.getAttachments()).isSameAs(result2.getAttachments());
+		assertThat(result1.getSender()).isSameAs(template.getSender());
+		assertThat(result1).usingRecursiveComparison().ignoringFields("party").isEqualTo(template);
+	}
+
+	@Test
+	void toDigitalMailTemplate_nullValues() {
+		assertThat(MessagingMapper.toDigitalMailTemplate(null)).isNull();
+		assertThat(MessagingMapper.toDigitalMailRequest((DigitalMailRequest) null, List.of())).isNull();
+	}
+
+	@Test
+	void toSnailmailRequest_fromTemplate() {
+		var messageEntity = MessageEntity.create()
+			.withDepartment(DepartmentEntity.create().withName("DepartmentName").withFolderName("FolderName"))
+			.withAttachments(List.of(AttachmentEntity.create()
+				.withContentString("contentString")
+				.withContentType("application/pdf")
+				.withFileName("fileName")));
+		var recipientEntity = RecipientEntity.create()
+			.withPartyId("00000000-0000-0000-0000-000000000001")
+			.withFirstName("Jane")
+			.withLastName("Doe");
+
+		var template = MessagingMapper.toSnailmailTemplate(messageEntity);
+		var result = MessagingMapper.toSnailmailRequest(template, recipientEntity);
+
+		assertThat(template.getParty()).isNull();
+		assertThat(template.getAddress()).isNull();
+		assertThat(result.getParty().getPartyId()).isEqualTo("00000000-0000-0000-0000-000000000001");
+		assertThat(result.getAddress().getFirstName()).isEqualTo("Jane");
+		assertThat(result.getAddress().getLastName()).isEqualTo("Doe");
+		assertThat(result.getAttachments()).hasSize(1).isSameAs(template.getAttachments());
+		assertThat(result.getDepartment()).isEqualTo("DepartmentName");
+		assertThat(result.getFolderName()).isEqualTo("FolderName");
+	}
+
+	@Test
+	void toSnailmailTemplate_nullValues() {
+		assertThat(MessagingMapper.toSnailmailTemplate(null)).isNull();
+		assertThat(MessagingMapper.toSnailmailRequest((SnailmailRequest) null, RecipientEntity.create())).isNull();
+		assertThat(MessagingMapper.toSnailmailRequest(new SnailmailRequest(), null)).isNull();
+	}
+
 	@Test
 	void toDigitalMailAttachments() {
 		var attachmentEntity = AttachmentEntity.create()
@@ -0,0 +1,111 @@
+package se.sundsvall.postportalservice.service;
+
+import feign.RetryableException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import se.sundsvall.dept44.exception.ClientProblem;
+import se.sundsvall.dept44.exception.ServerProblem;
+import se.sundsvall.postportalservice.configuration.DeliveryExecutorConfiguration.DeliveryConcurrencyProperties.Adaptive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.HttpStatus.BAD_GATEWAY;
+
+class AdaptiveConcurrencyLimitTest {
+
+	private static final Duration FAST = Duration.ofMillis(10);
+	private static final Duration SLOW = Duration.ofSeconds(10);
+
+	private final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(new Adaptive(true, 4, 2, 5, 0.5, Duration.ofSeconds(5)));
+
+	@Test
+	void initialLimitIsClampedToBounds() {
+		assertThat(new AdaptiveConcurrencyLimit(new Adaptive(true, 100, 1, 10, 0.9, SLOW)).getLimit()).isEqualTo(10);
+		assertThat(new AdaptiveConcurrencyLimit(new Adaptive(true, 0, 1, 10, 0.9, SLOW)).getLimit()).isEqualTo(1);
+	}
+
+	@Test
+	void successIncreasesLimitAdditively() throws InterruptedException {
+		// About a full window of fast calls grows the limit by one
+		for (int i = 0; i < 5; i++) {
+			limit.acquire();
+			limit.release(FAST, null);
+		}
+		assertThat(limit.getLimit()).isEqualTo(5);
+
+		// ... but never past the max limit
+		for (int i = 0; i < 20; i++) {
+			limit.acquire();
+			limit.release(FAST, null);
+		}
+		assertThat(limit.getLimit()).isEqualTo(5);
+		assertThat(limit.getInFlight()).isZero();
+	}
+
+	@Test
+	void slowCallDecreasesLimitMultiplicatively() throws InterruptedException {
+		limit.acquire();
+		limit.release(SLOW, null);
+
+		assertThat(limit.getLimit()).isEqualTo(2);
+
+		// ... but never below the min limit
+		limit.acquire();
+		limit.release(SLOW, null);
+
+		assertThat(limit.getLimit()).isEqualTo(2);
+	}
+
+	@Test
+	void overloadDecreasesLimit() throws InterruptedException {
+		limit.acquire();
+		limit.release(FAST, new ServerProblem(BAD_GATEWAY, "Service unavailable"));
+
+		assertThat(limit.getLimit()).isEqualTo(2);
+	}
+
+	@Test
+	void otherFailureLeavesLimitUnchanged() throws InterruptedException {
+		limit.acquire();
+		limit.release(FAST, new ClientProblem(BAD_GATEWAY, "Invalid phone number"));
+
+		assertThat(limit.getLimit()).isEqualTo(4);
+	}
+
+	@Test
+	void isOverload() {
+		// As decoded by the ProblemErrorDecoder from a 5xx and a 4xx response
+		assertThat(AdaptiveConcurrencyLimit.isOverload(new ServerProblem(BAD_GATEWAY, "Service unavailable"))).isTrue();
+		assertThat(AdaptiveConcurrencyLimit.isOverload(Mockito.mock(RetryableException.class))).isTrue();
+		assertThat(AdaptiveConcurrencyLimit.isOverload(new ClientProblem(BAD_GATEWAY, "Bad request"))).isFalse();
+		assertThat(AdaptiveConcurrencyLimit.isOverload(new IllegalStateException())).isFalse();
+		assertThat(AdaptiveConcurrencyLimit.isOverload(null)).isFalse();
+	}
+
+	@Test
+	void acquireWaitsWhileLimitIsReached() throws InterruptedException {
+		for (int i = 0; i < 4; i++) {
+			limit.acquire();
+		}
+		final var acquired = new CountDownLatch(1);
+
+		try (final var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			executor.execute(() -> {
+				try {
+					limit.acquire();
+					acquired.countDown();
+				} catch (final InterruptedException _) {
+					Thread.currentThread().interrupt();
+				}
+			});
+			assertThat(acquired.await(200, TimeUnit.MILLISECONDS)).isFalse();
+
+			limit.release(FAST, null);
+			assertThat(acquired.await(5, TimeUnit.SECONDS)).isTrue();
+		}
+		assertThat(limit.getInFlight()).isEqualTo(4);
+	}
+}
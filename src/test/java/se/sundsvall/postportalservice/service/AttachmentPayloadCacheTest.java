@@ -0,0 +1,69 @@
+package se.sundsvall.postportalservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.postportalservice.configuration.DeliveryOutboxConfiguration.DeliveryAttachmentCacheProperties;
+import se.sundsvall.postportalservice.integration.attachmentstore.AttachmentStore;
+import se.sundsvall.postportalservice.integration.attachmentstore.AttachmentStore.StoredContent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+
+@ExtendWith(MockitoExtension.class)
+class AttachmentPayloadCacheTest {
+
+	// SHA-256 of "content"
+	private static final String CONTENT_HASH = "ed7002b439e9ac845f22357d822bac1444730fbdb6016d3ec9432297b9ec9f73";
+	private static final byte[] CONTENT = "content".getBytes();
+
+	@Mock
+	private AttachmentStore attachmentStoreMock;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@AfterEach
+	void tearDown() {
+		verifyNoMoreInteractions(attachmentStoreMock);
+	}
+
+	@Test
+	void getBase64() {
+		final var cache = createCache(DataSize.ofMegabytes(1));
+		when(attachmentStoreMock.get(CONTENT_HASH)).thenAnswer(_ -> new StoredContent(new ByteArrayInputStream(CONTENT), CONTENT.length));
+
+		assertThat(cache.getBase64(CONTENT_HASH)).isEqualTo("Y29udGVudA==");
+		assertThat(cache.getBase64(CONTENT_HASH)).isEqualTo("Y29udGVudA==");
+
+		// Read and encoded once, the second call is served from the cache
+		verify(attachmentStoreMock).get(CONTENT_HASH);
+		assertThat(meterRegistry.get("cache.gets").tag("cache", AttachmentPayloadCache.CACHE_NAME).tag("result", "hit").functionCounter().count()).isOne();
+		assertThat(meterRegistry.get("cache.gets").tag("cache", AttachmentPayloadCache.CACHE_NAME).tag("result", "miss").functionCounter().count()).isOne();
+	}
+
+	@Test
+	void getBase64_notStored() {
+		final var cache = createCache(DataSize.ofMegabytes(1));
+		when(attachmentStoreMock.get(CONTENT_HASH)).thenThrow(Problem.valueOf(INTERNAL_SERVER_ERROR, "No content stored with key '%s'".formatted(CONTENT_HASH)));
+
+		assertThatThrownBy(() -> cache.getBase64(CONTENT_HASH))
+			.isInstanceOf(Problem.class)
+			.hasMessageContaining("Internal Server Error: No content stored with key '%s'".formatted(CONTENT_HASH));
+
+		verify(attachmentStoreMock).get(CONTENT_HASH);
+	}
+
+	private AttachmentPayloadCache createCache(final DataSize maxSize) {
+		return new AttachmentPayloadCache(attachmentStoreMock, new DeliveryAttachmentCacheProperties(maxSize), meterRegistry);
+	}
+}
@@ -3,9 +3,9 @@ package se.sundsvall.postportalservice.service;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
-import java.sql.Blob;
-import java.sql.SQLException;
+import java.time.OffsetDateTime;
 import java.util.Optional;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
@@ -14,250 +14,376 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.postportalservice.integration.attachmentstore.AttachmentStore;
+import se.sundsvall.postportalservice.integration.attachmentstore.AttachmentStore.StoredContent;
 import se.sundsvall.postportalservice.integration.db.AttachmentEntity;
+import se.sundsvall.postportalservice.integration.db.dao.AttachmentContentRepository;
 import se.sundsvall.postportalservice.integration.db.dao.AttachmentRepository;
 
+import static java.time.ZoneOffset.UTC;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpHeaders.ACCEPT_RANGES;
+import static org.springframework.http.HttpHeaders.CONTENT_RANGE;
+import static org.springframework.http.HttpHeaders.IF_RANGE;
+import static org.springframework.http.HttpHeaders.RANGE;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
+import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.HttpStatus.PARTIAL_CONTENT;
+import static org.springframework.http.HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE;
 import static se.sundsvall.postportalservice.TestDataFactory.MUNICIPALITY_ID;
 
 @ExtendWith(MockitoExtension.class)
 class AttachmentServiceTest {
 
+	private static final String ATTACHMENT_ID = "attachmentId";
+	private static final String CONTENT_HASH = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+	private static final String ETAG = "\"" + CONTENT_HASH + "\"";
+	private static final OffsetDateTime CREATED = OffsetDateTime.of(2025, 8, 5, 10, 0, 0, 500_000_000, UTC);
+	private static final byte[] PAYLOAD = "hello".getBytes(StandardCharsets.UTF_8);
+
 	@Mock
 	private AttachmentRepository attachmentRepositoryMock;
 
+	@Mock
+	private AttachmentContentRepository attachmentContentRepositoryMock;
+
+	@Mock
+	private AttachmentStore attachmentStoreMock;
+
 	@InjectMocks
 	private AttachmentService attachmentService;
 
 	@AfterEach
 	void ensureNoUnexpectedMockInteractions() {
-		verifyNoMoreInteractions(attachmentRepositoryMock);
+		verifyNoMoreInteractions(attachmentRepositoryMock, attachmentContentRepositoryMock, attachmentStoreMock);
 	}
 
 	@Test
 	void getAttachmentById() {
-		var attachmentId = "attachmentId";
 		var attachmentEntityMock = Mockito.mock(AttachmentEntity.class);
 
-		when(attachmentRepositoryMock.findById(attachmentId)).thenReturn(Optional.of(attachmentEntityMock));
+		when(attachmentRepositoryMock.findById(ATTACHMENT_ID)).thenReturn(Optional.of(attachmentEntityMock));
 
-		var result = attachmentService.getAttachmentById(attachmentId);
+		var result = attachmentService.getAttachmentById(ATTACHMENT_ID);
 
 		assertThat(result).isNotNull().isEqualTo(attachmentEntityMock);
-		verify(attachmentRepositoryMock).findById(attachmentId);
+		verify(attachmentRepositoryMock).findById(ATTACHMENT_ID);
 		verifyNoMoreInteractions(attachmentEntityMock);
 	}
 
 	@Test
 	void getAttachmentsById_notFound() {
-		var attachmentId = "attachmentId";
+		when(attachmentRepositoryMock.findById(ATTACHMENT_ID)).thenReturn(Optional.empty());
 
-		when(attachmentRepositoryMock.findById(attachmentId)).thenReturn(Optional.empty());
-
-		assertThatThrownBy(() -> attachmentService.getAttachmentById(attachmentId))
+		assertThatThrownBy(() -> attachmentService.getAttachmentById(ATTACHMENT_ID))
 			.isInstanceOf(Problem.class)
-			.hasMessageContaining("Attachment with id '%s' was not found".formatted(attachmentId));
+			.hasMessageContaining("Attachment with id '%s' was not found".formatted(ATTACHMENT_ID));
 
-		verify(attachmentRepositoryMock).findById(attachmentId);
+		verify(attachmentRepositoryMock).findById(ATTACHMENT_ID);
 	}
 
 	@Test
-	void getAttachmentData() throws IOException, SQLException {
-		var attachmentId = "attachmentId";
-		var attachmentEntityMock = Mockito.mock(AttachmentEntity.class);
-		var fileName = "fileName";
-		var contentType = "application/pdf";
+	void downloadAttachment() throws IOException {
+		when(attachmentRepositoryMock.findById(ATTACHMENT_ID)).thenReturn(Optional.of(createAttachment("application/pdf")));
+		when(attachmentContentRepositoryMock.getLength(CONTENT_HASH)).thenReturn(Optional.of((long) PAYLOAD.length));
+		when(attachmentStoreMock.get(CONTENT_HASH)).thenReturn(new StoredContent(new ByteArrayInputStream(PAYLOAD), PAYLOAD.length));
+
+		var result = attachmentService.downloadAttachment(MUNICIPALITY_ID, ATTACHMENT_ID, new HttpHeaders());
+
+		assertThat(result.getStatusCode()).isEqualTo(OK);
+		assertThat(result.getHeaders().getContentDisposition().getFilename()).isEqualTo("fileName");
+		assertThat(result.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_PDF);
+		assertThat(result.getHeaders().getContentLength()).isEqualTo(PAYLOAD.length);
+		assertThat(result.getHeaders().getETag()).isEqualTo(ETAG);
+		// Truncated to whole seconds, as Last-Modified can't carry more
+		assertThat(result.getHeaders().getLastModified()).isEqualTo(CREATED.toInstant().toEpochMilli() - 500);
+		assertThat(result.getHeaders().getFirst(ACCEPT_RANGES)).isEqualTo("bytes");
+		assertThat(writeBody(result)).isEqualTo(PAYLOAD);
+
+		verify(attachmentRepositoryMock).findById(ATTACHMENT_ID);
+		verify(attachmentContentRepositoryMock).getLength(CONTENT_HASH);
+		verify(attachmentStoreMock).get(CONTENT_HASH);
+	}
+
+	@Test
+	void downloadAttachment_ifNoneMatch() {
+		final var requestHeaders = new HttpHeaders();
+		requestHeaders.setIfNoneMatch(ETAG);
 
-		var blob = Mockito.mock(Blob.class);
-		var payload = "hello".getBytes(StandardCharsets.UTF_8);
-		when(blob.getBinaryStream()).thenReturn(new ByteArrayInputStream(payload));
+		when(attachmentRepositoryMock.findById(ATTACHMENT_ID)).thenReturn(Optional.of(createAttachment("application/pdf")));
 
-		when(attachmentEntityMock.getFileName()).thenReturn(fileName);
-		when(attachmentEntityMock.getContentType()).thenReturn(contentType);
-		when(attachmentEntityMock.getContent()).thenReturn(blob);
-		when(attachmentRepositoryMock.findById(attachmentId)).thenReturn(Optional.of(attachmentEntityMock));
+		var result = attachmentService.downloadAttachment(MUNICIPALITY_ID, ATTACHMENT_ID, requestHeaders);
 
-		var result = attachmentService.getAttachmentData(MUNICIPALITY_ID, attachmentId);
+		// Answered without looking at the content at all
+		assertThat(result.getStatusCode()).isEqualTo(NOT_MODIFIED);
+		assertThat(result.getHeaders().getETag()).isEqualTo(ETAG);
+		assertThat(result.getBody()).isNull();
 
-		// Trigger the streaming
-		var out = new ByteArrayOutputStream();
-		result.contentStream().writeTo(out);
+		verify(attachmentRepositoryMock).findById(ATTACHMENT_ID);
+	}
 
-		assertThat(result).isNotNull();
-		assertThat(result.contentDisposition().getFilename()).isEqualTo(fileName);
-		assertThat(result.contentType()).isEqualTo(MediaType.parseMediaType(contentType));
+	@Test
+	void downloadAttachment_ifNoneMatchOtherContent() throws IOException {
+		final var requestHeaders = new HttpHeaders();
+		requestHeaders.setIfNoneMatch("\"other\"");
+		// If-None-Match takes precedence, so If-Modified-Since is never considered
+		requestHeaders.setIfModifiedSince(CREATED.toInstant());
 
-		// Assert that the content is the expected one
-		assertThat(out.toByteArray()).isEqualTo(payload);
+		when(attachmentRepositoryMock.findById(ATTACHMENT_ID)).thenReturn(Optional.of(createAttachment("application/pdf")));
+		when(attachmentContentRepositoryMock.getLength(CONTENT_HASH)).thenReturn(Optional.of((long) PAYLOAD.length));
+		when(attachmentStoreMock.get(CONTENT_HASH)).thenReturn(new StoredContent(new ByteArrayInputStream(PAYLOAD), PAYLOAD.length));
 
-		verify(blob).getBinaryStream();
-		verify(attachmentEntityMock).getContent();
-		verify(attachmentEntityMock).getFileName();
-		verify(attachmentEntityMock).getContentType();
-		verify(attachmentRepositoryMock).findById(attachmentId);
+		var result = attachmentService.downloadAttachment(MUNICIPALITY_ID, ATTACHMENT_ID, requestHeaders);
 
-		verifyNoMoreInteractions(attachmentEntityMock, blob);
+		assertThat(result.getStatusCode()).isEqualTo(OK);
+		assertThat(writeBody(result)).isEqualTo(PAYLOAD);
+
+		verify(attachmentRepositoryMock).findById(ATTACHMENT_ID);
+		verify(attachmentContentRepositoryMock).getLength(CONTENT_HASH);
+		verify(attachmentStoreMock).get(CONTENT_HASH);
 	}
 
 	@Test
-	void getAttachmentData_noContent() {
-		var attachmentId = "attachmentId";
-		var attachmentEntityMock = Mockito.mock(AttachmentEntity.class);
-		var fileName = "fileName";
-		var contentType = "application/pdf";
-
-		when(attachmentEntityMock.getId()).thenReturn(attachmentId);
-		when(attachmentEntityMock.getFileName()).thenReturn(fileName);
-		when(attachmentEntityMock.getContentType()).thenReturn(contentType);
-		when(attachmentEntityMock.getContent()).thenReturn(null);
-		when(attachmentRepositoryMock.findById(attachmentId)).thenReturn(Optional.of(attachmentEntityMock));
-
-		assertThatThrownBy(() -> {
-			var result = attachmentService.getAttachmentData(MUNICIPALITY_ID, attachmentId);
-			// Trigger the streaming
-			var out = new ByteArrayOutputStream();
-			result.contentStream().writeTo(out);
-		})
-			.isInstanceOf(Problem.class)
-			.hasMessageContaining("Internal Server Error: No content for attachment with id '%s'".formatted(attachmentId));
+	void downloadAttachment_ifModifiedSince() {
+		final var requestHeaders = new HttpHeaders();
+		requestHeaders.setIfModifiedSince(CREATED.toInstant());
 
-		verify(attachmentEntityMock).getContent();
-		verify(attachmentRepositoryMock).findById(attachmentId);
+		when(attachmentRepositoryMock.findById(ATTACHMENT_ID)).thenReturn(Optional.of(createAttachment("application/pdf")));
 
-		verifyNoMoreInteractions(attachmentEntityMock);
+		var result = attachmentService.downloadAttachment(MUNICIPALITY_ID, ATTACHMENT_ID, requestHeaders);
+
+		assertThat(result.getStatusCode()).isEqualTo(NOT_MODIFIED);
+		assertThat(result.getBody()).isNull();
+
+		verify(attachmentRepositoryMock).findById(ATTACHMENT_ID);
 	}
 
 	@Test
-	void getAttachmentData_sqlException() throws SQLException {
-		var attachmentId = "attachmentId";
-		var attachmentEntityMock = Mockito.mock(AttachmentEntity.class);
-		var fileName = "fileName";
-		var contentType = "application/pdf";
-
-		var blob = Mockito.mock(Blob.class);
-		when(blob.getBinaryStream()).thenThrow(SQLException.class);
-
-		when(attachmentEntityMock.getId()).thenReturn(attachmentId);
-		when(attachmentEntityMock.getFileName()).thenReturn(fileName);
-		when(attachmentEntityMock.getContentType()).thenReturn(contentType);
-		when(attachmentEntityMock.getContent()).thenReturn(blob);
-		when(attachmentRepositoryMock.findById(attachmentId)).thenReturn(Optional.of(attachmentEntityMock));
-
-		assertThatThrownBy(() -> {
-			var result = attachmentService.getAttachmentData(MUNICIPALITY_ID, attachmentId);
-			// Trigger the streaming
-			var out = new ByteArrayOutputStream();
-			result.contentStream().writeTo(out);
-		})
-			.isInstanceOf(Problem.class)
-			.hasMessageContaining("Internal Server Error: Failed to open content stream for attachment with id '%s'".formatted(attachmentId));
+	void downloadAttachment_range() throws IOException {
+		final var requestHeaders = new HttpHeaders();
+		requestHeaders.set(RANGE, "bytes=1-3");
+
+		when(attachmentRepositoryMock.findById(ATTACHMENT_ID)).thenReturn(Optional.of(createAttachment("application/pdf")));
+		when(attachmentContentRepositoryMock.getLength(CONTENT_HASH)).thenReturn(Optional.of((long) PAYLOAD.length));
+		// A store may return a stream continuing past the range
+		when(attachmentStoreMock.get(CONTENT_HASH, 1, 3)).thenReturn(new StoredContent(new ByteArrayInputStream("ello".getBytes()), 3));
 
-		verify(blob).getBinaryStream();
-		verify(attachmentEntityMock).getContent();
-		verify(attachmentRepositoryMock).findById(attachmentId);
+		var result = attachmentService.downloadAttachment(MUNICIPALITY_ID, ATTACHMENT_ID, requestHeaders);
 
-		verifyNoMoreInteractions(attachmentEntityMock, blob);
+		assertThat(result.getStatusCode()).isEqualTo(PARTIAL_CONTENT);
+		assertThat(result.getHeaders().getFirst(CONTENT_RANGE)).isEqualTo("bytes 1-3/5");
+		assertThat(result.getHeaders().getContentLength()).isEqualTo(3);
+		assertThat(writeBody(result)).isEqualTo("ell".getBytes());
+
+		verify(attachmentRepositoryMock).findById(ATTACHMENT_ID);
+		verify(attachmentContentRepositoryMock).getLength(CONTENT_HASH);
+		verify(attachmentStoreMock).get(CONTENT_HASH, 1, 3);
 	}
 
 	@Test
-	void getAttachmentData_ioException() throws SQLException {
-		var attachmentId = "attachmentId";
-		var attachmentEntityMock = Mockito.mock(AttachmentEntity.class);
-		var fileName = "fileName";
-		var contentType = "application/pdf";
-
-		var blob = Mockito.mock(Blob.class);
-		var payload = "hello".getBytes(StandardCharsets.UTF_8);
-		when(blob.getBinaryStream()).thenReturn(new ByteArrayInputStream(payload));
-
-		when(attachmentEntityMock.getId()).thenReturn(attachmentId);
-		when(attachmentEntityMock.getFileName()).thenReturn(fileName);
-		when(attachmentEntityMock.getContentType()).thenReturn(contentType);
-		when(attachmentEntityMock.getContent()).thenReturn(blob);
-		when(attachmentRepositoryMock.findById(attachmentId)).thenReturn(Optional.of(attachmentEntityMock));
-
-		assertThatThrownBy(() -> {
-			var result = attachmentService.getAttachmentData(MUNICIPALITY_ID, attachmentId);
-			// Trigger the streaming with an output stream that throws IOException when writing
-			result.contentStream().writeTo(new ByteArrayOutputStream() {
-				@Override
-				public void write(byte[] b, int off, int len) {
-					try {
-						throw new IOException("Simulated IO error");
-					} catch (IOException e) {
-						throw Problem.valueOf(INTERNAL_SERVER_ERROR, "Failed to stream content for attachment with id '%s'".formatted(attachmentEntityMock.getId()));
-					}
-				}
-			});
-		})
-			.isInstanceOf(Problem.class)
-			.hasMessageContaining("Internal Server Error: Failed to stream content for attachment with id '%s'".formatted(attachmentEntityMock.getId()));
+	void downloadAttachment_suffixRange() throws IOException {
+		final var requestHeaders = new HttpHeaders();
+		requestHeaders.set(RANGE, "bytes=-2");
+		requestHeaders.set(IF_RANGE, ETAG);
+
+		when(attachmentRepositoryMock.findById(ATTACHMENT_ID)).thenReturn(Optional.of(createAttachment("application/pdf")));
+		when(attachmentContentRepositoryMock.getLength(CONTENT_HASH)).thenReturn(Optional.of((long) PAYLOAD.length));
+		when(attachmentStoreMock.get(CONTENT_HASH, 3, 2)).thenReturn(new StoredContent(new ByteArrayInputStream("lo".getBytes()), 2));
 
-		verify(blob).getBinaryStream();
-		verify(attachmentEntityMock).getContent();
-		verify(attachmentRepositoryMock).findById(attachmentId);
+		var result = attachmentService.downloadAttachment(MUNICIPALITY_ID, ATTACHMENT_ID, requestHeaders);
 
-		verifyNoMoreInteractions(attachmentEntityMock, blob);
+		assertThat(result.getStatusCode()).isEqualTo(PARTIAL_CONTENT);
+		assertThat(result.getHeaders().getFirst(CONTENT_RANGE)).isEqualTo("bytes 3-4/5");
+		assertThat(writeBody(result)).isEqualTo("lo".getBytes());
+
+		verify(attachmentRepositoryMock).findById(ATTACHMENT_ID);
+		verify(attachmentContentRepositoryMock).getLength(CONTENT_HASH);
+		verify(attachmentStoreMock).get(CONTENT_HASH, 3, 2);
 	}
 
 	@Test
-	void getAttachmentData_InvalidMediaType() throws IOException, SQLException {
-		var attachmentId = "attachmentId";
-		var attachmentEntityMock = Mockito.mock(AttachmentEntity.class);
-		var fileName = "fileName";
-		var contentType = "invalid/content type";
+	void downloadAttachment_rangeNotSatisfiable() {
+		final var requestHeaders = new HttpHeaders();
+		requestHeaders.set(RANGE, "bytes=5-");
 
-		var blob = Mockito.mock(Blob.class);
-		var payload = "hello".getBytes(StandardCharsets.UTF_8);
+		when(attachmentRepositoryMock.findById(ATTACHMENT_ID)).thenReturn(Optional.of(createAttachment("application/pdf")));
+		when(attachmentContentRepositoryMock.getLength(CONTENT_HASH)).thenReturn(Optional.of((long) PAYLOAD.length));
 
-		when(blob.getBinaryStream()).thenReturn(new ByteArrayInputStream(payload));
-		when(attachmentEntityMock.getFileName()).thenReturn(fileName);
-		when(attachmentEntityMock.getContentType()).thenReturn(contentType);
-		when(attachmentEntityMock.getContent()).thenReturn(blob);
-		when(attachmentRepositoryMock.findById(attachmentId)).thenReturn(Optional.of(attachmentEntityMock));
+		var result = attachmentService.downloadAttachment(MUNICIPALITY_ID, ATTACHMENT_ID, requestHeaders);
 
-		var result = attachmentService.getAttachmentData(MUNICIPALITY_ID, attachmentId);
+		assertThat(result.getStatusCode()).isEqualTo(REQUESTED_RANGE_NOT_SATISFIABLE);
+		assertThat(result.getHeaders().getFirst(CONTENT_RANGE)).isEqualTo("bytes */5");
+		assertThat(result.getBody()).isNull();
 
-		// Trigger the streaming
-		var out = new ByteArrayOutputStream();
-		result.contentStream().writeTo(out);
+		verify(attachmentRepositoryMock).findById(ATTACHMENT_ID);
+		verify(attachmentContentRepositoryMock).getLength(CONTENT_HASH);
+	}
 
-		assertThat(result).isNotNull();
-		assertThat(result.contentDisposition().getFilename()).isEqualTo(fileName);
+	@Test
+	void downloadAttachment_ifRangeOtherContent() throws IOException {
+		final var requestHeaders = new HttpHeaders();
+		requestHeaders.set(RANGE, "bytes=1-3");
+		requestHeaders.set(IF_RANGE, "\"other\"");
 
-		// Assert that an invalid content type defaults to APPLICATION_OCTET_STREAM
-		assertThat(result.contentType()).isEqualTo(MediaType.APPLICATION_OCTET_STREAM);
+		when(attachmentRepositoryMock.findById(ATTACHMENT_ID)).thenReturn(Optional.of(createAttachment("application/pdf")));
+		when(attachmentContentRepositoryMock.getLength(CONTENT_HASH)).thenReturn(Optional.of((long) PAYLOAD.length));
+		when(attachmentStoreMock.get(CONTENT_HASH)).thenReturn(new StoredContent(new ByteArrayInputStream(PAYLOAD), PAYLOAD.length));
 
-		// Assert that the content is the expected one
-		assertThat(out.toByteArray()).isEqualTo(payload);
+		var result = attachmentService.downloadAttachment(MUNICIPALITY_ID, ATTACHMENT_ID, requestHeaders);
 
-		verify(blob).getBinaryStream();
-		verify(attachmentEntityMock).getContent();
-		verify(attachmentEntityMock).getFileName();
-		verify(attachmentEntityMock).getContentType();
-		verify(attachmentRepositoryMock).findById(attachmentId);
+		// The range refers to other content, so the whole content is sent
+		assertThat(result.getStatusCode()).isEqualTo(OK);
+		assertThat(writeBody(result)).isEqualTo(PAYLOAD);
 
-		verifyNoMoreInteractions(attachmentEntityMock, blob);
+		verify(attachmentRepositoryMock).findById(ATTACHMENT_ID);
+		verify(attachmentContentRepositoryMock).getLength(CONTENT_HASH);
+		verify(attachmentStoreMock).get(CONTENT_HASH);
 	}
 
 	@Test
-	void getAttachmentData_notFound() {
-		var attachmentId = "attachmentId";
+	void downloadAttachment_multipleRanges() throws IOException {
+		final var requestHeaders = new HttpHeaders();
+		requestHeaders.set(RANGE, "bytes=0-1,3-4");
+
+		when(attachmentRepositoryMock.findById(ATTACHMENT_ID)).thenReturn(Optional.of(createAttachment("application/pdf")));
+		when(attachmentContentRepositoryMock.getLength(CONTENT_HASH)).thenReturn(Optional.of((long) PAYLOAD.length));
+		when(attachmentStoreMock.get(CONTENT_HASH)).thenReturn(new StoredContent(new ByteArrayInputStream(PAYLOAD), PAYLOAD.length));
+
+		var result = attachmentService.downloadAttachment(MUNICIPALITY_ID, ATTACHMENT_ID, requestHeaders);
 
-		when(attachmentRepositoryMock.findById(attachmentId)).thenReturn(Optional.empty());
+		assertThat(result.getStatusCode()).isEqualTo(OK);
+		assertThat(result.getHeaders().getContentLength()).isEqualTo(PAYLOAD.length);
+		assertThat(writeBody(result)).isEqualTo(PAYLOAD);
+
+		verify(attachmentRepositoryMock).findById(ATTACHMENT_ID);
+		verify(attachmentContentRepositoryMock).getLength(CONTENT_HASH);
+		verify(attachmentStoreMock).get(CONTENT_HASH);
+	}
+
+	@Test
+	void downloadAttachment_unknownLength() throws IOException {
+		final var requestHeaders = new HttpHeaders();
+		requestHeaders.set(RANGE, "bytes=1-3");
 
-		assertThatThrownBy(() -> attachmentService.getAttachmentData(MUNICIPALITY_ID, attachmentId))
+		when(attachmentRepositoryMock.findById(ATTACHMENT_ID)).thenReturn(Optional.of(createAttachment("application/pdf")));
+		when(attachmentContentRepositoryMock.getLength(CONTENT_HASH)).thenReturn(Optional.empty());
+		when(attachmentStoreMock.get(CONTENT_HASH)).thenReturn(new StoredContent(new ByteArrayInputStream(PAYLOAD), PAYLOAD.length));
+
+		var result = attachmentService.downloadAttachment(MUNICIPALITY_ID, ATTACHMENT_ID, requestHeaders);
+
+		// Sent whole, without any length or ranges
+		assertThat(result.getStatusCode()).isEqualTo(OK);
+		assertThat(result.getHeaders().getContentLength()).isEqualTo(-1);
+		assertThat(result.getHeaders().getFirst(ACCEPT_RANGES)).isNull();
+		assertThat(writeBody(result)).isEqualTo(PAYLOAD);
+
+		verify(attachmentRepositoryMock).findById(ATTACHMENT_ID);
+		verify(attachmentContentRepositoryMock).getLength(CONTENT_HASH);
+		verify(attachmentStoreMock).get(CONTENT_HASH);
+	}
+
+	@Test
+	void downloadAttachment_noContent() {
+		when(attachmentRepositoryMock.findById(ATTACHMENT_ID)).thenReturn(Optional.of(createAttachment("application/pdf").withContentHash(null)));
+
+		assertThatThrownBy(() -> attachmentService.downloadAttachment(MUNICIPALITY_ID, ATTACHMENT_ID, new HttpHeaders()))
+			.isInstanceOf(Problem.class)
+			.hasMessageContaining("Internal Server Error: No content for attachment with id '%s'".formatted(ATTACHMENT_ID));
+
+		verify(attachmentRepositoryMock).findById(ATTACHMENT_ID);
+	}
+
+	@Test
+	void downloadAttachment_storeFails() {
+		when(attachmentRepositoryMock.findById(ATTACHMENT_ID)).thenReturn(Optional.of(createAttachment("application/pdf")));
+		when(attachmentContentRepositoryMock.getLength(CONTENT_HASH)).thenReturn(Optional.of((long) PAYLOAD.length));
+		when(attachmentStoreMock.get(CONTENT_HASH)).thenThrow(Problem.valueOf(INTERNAL_SERVER_ERROR, "No content stored with key '%s'".formatted(CONTENT_HASH)));
+
+		var result = attachmentService.downloadAttachment(MUNICIPALITY_ID, ATTACHMENT_ID, new HttpHeaders());
+
+		assertThatThrownBy(() -> writeBody(result))
 			.isInstanceOf(Problem.class)
-			.hasMessageContaining("Attachment with id '%s' was not found".formatted(attachmentId));
+			.hasMessageContaining("Internal Server Error: No content stored with key '%s'".formatted(CONTENT_HASH));
 
-		verify(attachmentRepositoryMock).findById(attachmentId);
+		verify(attachmentRepositoryMock).findById(ATTACHMENT_ID);
+		verify(attachmentContentRepositoryMock).getLength(CONTENT_HASH);
+		verify(attachmentStoreMock).get(CONTENT_HASH);
 	}
 
+	@Test
+	void downloadAttachment_ioException() {
+		when(attachmentRepositoryMock.findById(ATTACHMENT_ID)).thenReturn(Optional.of(createAttachment("application/pdf")));
+		when(attachmentContentRepositoryMock.getLength(CONTENT_HASH)).thenReturn(Optional.of((long) PAYLOAD.length));
+		when(attachmentStoreMock.get(CONTENT_HASH)).thenReturn(new StoredContent(new ByteArrayInputStream(PAYLOAD), PAYLOAD.length));
+
+		var result = attachmentService.downloadAttachment(MUNICIPALITY_ID, ATTACHMENT_ID, new HttpHeaders());
+
+		// Trigger the streaming with an output stream that throws IOException when writing
+		assertThatThrownBy(() -> result.getBody().writeTo(new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				throw new IOException("Simulated IO error");
+			}
+		}))
+			.isInstanceOf(Problem.class)
+			.hasMessageContaining("Internal Server Error: Failed to stream content for attachment with id '%s'".formatted(ATTACHMENT_ID));
+
+		verify(attachmentRepositoryMock).findById(ATTACHMENT_ID);
+		verify(attachmentContentRepositoryMock).getLength(CONTENT_HASH);
+		verify(attachmentStoreMock).get(CONTENT_HASH);
+	}
+
+	@Test
+	void downloadAttachment_invalidMediaType() throws IOException {
+		when(attachmentRepositoryMock.findById(ATTACHMENT_ID)).thenReturn(Optional.of(createAttachment("invalid/content type")));
+		when(attachmentContentRepositoryMock.getLength(CONTENT_HASH)).thenReturn(Optional.of((long) PAYLOAD.length));
+		when(attachmentStoreMock.get(CONTENT_HASH)).thenReturn(new StoredContent(new ByteArrayInputStream(PAYLOAD), PAYLOAD.length));
+
+		var result = attachmentService.downloadAttachment(MUNICIPALITY_ID, ATTACHMENT_ID, new HttpHeaders());
+
+		// Assert that an invalid content type defaults to APPLICATION_OCTET_STREAM
+		assertThat(result.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_OCTET_STREAM);
+		assertThat(writeBody(result)).isEqualTo(PAYLOAD);
+
+		verify(attachmentRepositoryMock).findById(ATTACHMENT_ID);
+		verify(attachmentContentRepositoryMock).getLength(CONTENT_HASH);
+		verify(attachmentStoreMock).get(CONTENT_HASH);
+	}
+
+	@Test
+	void downloadAttachment_notFound() {
+		when(attachmentRepositoryMock.findById(ATTACHMENT_ID)).thenReturn(Optional.empty());
+
+		assertThatThrownBy(() -> attachmentService.downloadAttachment(MUNICIPALITY_ID, ATTACHMENT_ID, new HttpHeaders()))
+			.isInstanceOf(Problem.class)
+			.hasMessageContaining("Attachment with id '%s' was not found".formatted(ATTACHMENT_ID));
+
+		verify(attachmentRepositoryMock).findById(ATTACHMENT_ID);
+	}
+
+	private static AttachmentEntity createAttachment(final String contentType) {
+		final var attachment = AttachmentEntity.create()
+			.withId(ATTACHMENT_ID)
+			.withFileName("fileName")
+			.withContentType(contentType)
+			.withContentHash(CONTENT_HASH);
+		attachment.setCreated(CREATED);
+		return attachment;
+	}
+
+	private static byte[] writeBody(final ResponseEntity<StreamingResponseBody> response) throws IOException {
+		final var out = new ByteArrayOutputStream();
+		response.getBody().writeTo(out);
+		return out.toByteArray();
+	}
 }
@@ -0,0 +1,252 @@
+package se.sundsvall.postportalservice.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.multipart.MultipartFile;
+import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.postportalservice.api.model.CsvJobStatus;
+import se.sundsvall.postportalservice.api.model.LetterCsvRequest;
+import se.sundsvall.postportalservice.configuration.CsvJobConfiguration.CsvJobProperties;
+import se.sundsvall.postportalservice.integration.db.AttachmentEntity;
+import se.sundsvall.postportalservice.integration.db.MessageEntity;
+import se.sundsvall.postportalservice.integration.db.RecipientEntity;
+import se.sundsvall.postportalservice.integration.db.dao.CsvJobRepository;
+import se.sundsvall.postportalservice.integration.db.dao.CsvJobRepository.ClaimedCsvJob;
+import se.sundsvall.postportalservice.integration.db.dao.CsvJobRepository.CsvJob;
+import se.sundsvall.postportalservice.integration.db.dao.CsvJobRepository.Phase;
+import se.sundsvall.postportalservice.integration.db.dao.MessageProgressRepository;
+import se.sundsvall.postportalservice.integration.db.dao.MessageRepository;
+import se.sundsvall.postportalservice.integration.messagingsettings.MessagingSettingsIntegration;
+import se.sundsvall.postportalservice.service.mapper.AttachmentMapper;
+
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static se.sundsvall.postportalservice.integration.db.converter.MessageType.LETTER;
+
+@ExtendWith(MockitoExtension.class)
+class CsvJobServiceTest {
+
+	private static final String MUNICIPALITY_ID = "2281";
+	private static final String JOB_ID = "jobId";
+	private static final String MESSAGE_ID = "messageId";
+	private static final Duration LEASE = Duration.ofMinutes(10);
+	private static final String CSV = "Identitetsnummer\n201901012391\n201901022382\n5523456789\n";
+	private static final ClaimedCsvJob JOB = new ClaimedCsvJob(JOB_ID, MESSAGE_ID, "claim");
+
+	@Mock
+	private MessageService messageServiceMock;
+
+	@Mock
+	private MessagingSettingsIntegration messagingSettingsIntegrationMock;
+
+	@Mock
+	private PrecheckService precheckServiceMock;
+
+	@Mock
+	private AttachmentMapper attachmentMapperMock;
+
+	@Mock
+	private MessageRepository messageRepositoryMock;
+
+	@Mock
+	private MessageProgressRepository messageProgressRepositoryMock;
+
+	@Mock
+	private CsvJobRepository csvJobRepositoryMock;
+
+	@AfterEach
+	void tearDown() {
+		verifyNoMoreInteractions(messageServiceMock, messagingSettingsIntegrationMock, precheckServiceMock, attachmentMapperMock,
+			messageRepositoryMock, messageProgressRepositoryMock, csvJobRepositoryMock);
+	}
+
+	@Test
+	void submitLetterJob() throws IOException {
+		final var service = createService(500);
+		final var request = LetterCsvRequest.create().withSubject("subject").withBody("body").withContentType("text/plain");
+		final var csvFileMock = mock(MultipartFile.class);
+		final var attachments = List.of(mock(MultipartFile.class));
+		final var attachmentEntities = List.of(AttachmentEntity.create());
+		final var settingsMap = Map.of("key", "value");
+		final var message = MessageEntity.create().withId(MESSAGE_ID);
+
+		when(csvFileMock.getInputStream()).thenReturn(new ByteArrayInputStream(CSV.getBytes(StandardCharsets.UTF_8)));
+		when(csvFileMock.getBytes()).thenReturn(CSV.getBytes(StandardCharsets.UTF_8));
+		when(messagingSettingsIntegrationMock.getMessagingSettingsForUser(MUNICIPALITY_ID)).thenReturn(settingsMap);
+		when(messageServiceMock.createMessage(MUNICIPALITY_ID, settingsMap, LETTER, "subject", "body", "text/plain")).thenReturn(message);
+		when(attachmentMapperMock.toAttachmentEntities(attachments)).thenReturn(attachmentEntities);
+		when(csvJobRepositoryMock.create(MESSAGE_ID, CSV.getBytes(StandardCharsets.UTF_8), 3)).thenReturn(JOB_ID);
+
+		final var result = service.submitLetterJob(MUNICIPALITY_ID, request, csvFileMock, attachments);
+
+		assertThat(result).isEqualTo(JOB_ID);
+		assertThat(message.getAttachments()).isEqualTo(attachmentEntities);
+		assertThat(message.getRecipients()).isEmpty();
+		verify(messagingSettingsIntegrationMock).getMessagingSettingsForUser(MUNICIPALITY_ID);
+		verify(messageServiceMock).createMessage(MUNICIPALITY_ID, settingsMap, LETTER, "subject", "body", "text/plain");
+		verify(attachmentMapperMock).toAttachmentEntities(attachments);
+		verify(messageRepositoryMock).saveAndFlush(message);
+		verify(csvJobRepositoryMock).create(MESSAGE_ID, CSV.getBytes(StandardCharsets.UTF_8), 3);
+	}
+
+	@Test
+	void getJobStatus() {
+		final var service = createService(500);
+
+		when(csvJobRepositoryMock.find(MUNICIPALITY_ID, JOB_ID)).thenReturn(Optional.of(new CsvJob(JOB_ID, MESSAGE_ID, Phase.RESOLVING, 500, 1000, null)));
+
+		final var result = service.getJobStatus(MUNICIPALITY_ID, JOB_ID);
+
+		assertThat(result).isEqualTo(CsvJobStatus.create()
+			.withJobId(JOB_ID)
+			.withMessageId(MESSAGE_ID)
+			.withPhase("RESOLVING")
+			.withProcessed(500)
+			.withTotal(1000));
+		verify(csvJobRepositoryMock).find(MUNICIPALITY_ID, JOB_ID);
+	}
+
+	@Test
+	void getJobStatus_notFound() {
+		final var service = createService(500);
+
+		when(csvJobRepositoryMock.find(MUNICIPALITY_ID, JOB_ID)).thenReturn(Optional.empty());
+
+		assertThatThrownBy(() -> service.getJobStatus(MUNICIPALITY_ID, JOB_ID))
+			.isInstanceOf(Problem.class)
+			.hasFieldOrPropertyWithValue("status", NOT_FOUND)
+			.hasMessageContaining("CSV job with id 'jobId' and municipalityId '2281' not found");
+		verify(csvJobRepositoryMock).find(MUNICIPALITY_ID, JOB_ID);
+	}
+
+	@Test
+	void resolveRecipients() {
+		final var service = createService(1);
+		final var recipient1 = RecipientEntity.create().withId("1");
+		final var recipient2 = RecipientEntity.create().withId("2");
+		final var recipient3 = RecipientEntity.create().withId("3");
+
+		when(csvJobRepositoryMock.getCsvFile(JOB_ID)).thenReturn(CSV.getBytes(StandardCharsets.UTF_8));
+		when(precheckServiceMock.precheckLegalIds(MUNICIPALITY_ID, List.of("201901012391"), emptyList())).thenReturn(List.of(recipient1));
+		when(precheckServiceMock.precheckLegalIds(MUNICIPALITY_ID, List.of("201901022382"), emptyList())).thenReturn(List.of(recipient2));
+		when(precheckServiceMock.precheckLegalIds(MUNICIPALITY_ID, emptyList(), List.of("5523456789"))).thenReturn(List.of(recipient3));
+		when(csvJobRepositoryMock.updateProgress(eq(JOB), any(), anyInt(), eq(LEASE))).thenReturn(true);
+
+		final var result = service.resolveRecipients(JOB, MUNICIPALITY_ID);
+
+		assertThat(result).containsExactlyInAnyOrder(recipient1, recipient2, recipient3);
+		final var inOrder = inOrder(csvJobRepositoryMock);
+		inOrder.verify(csvJobRepositoryMock).getCsvFile(JOB_ID);
+		inOrder.verify(csvJobRepositoryMock).updateProgress(JOB, Phase.RESOLVING, 1, LEASE);
+		inOrder.verify(csvJobRepositoryMock).updateProgress(JOB, Phase.RESOLVING, 2, LEASE);
+		inOrder.verify(csvJobRepositoryMock).updateProgress(JOB, Phase.RESOLVING, 3, LEASE);
+		inOrder.verify(csvJobRepositoryMock).updateProgress(JOB, Phase.ENQUEUING, 3, LEASE);
+		verify(precheckServiceMock).precheckLegalIds(MUNICIPALITY_ID, List.of("201901012391"), emptyList());
+		verify(precheckServiceMock).precheckLegalIds(MUNICIPALITY_ID, List.of("201901022382"), emptyList());
+		verify(precheckServiceMock).precheckLegalIds(MUNICIPALITY_ID, emptyList(), List.of("5523456789"));
+	}
+
+	@Test
+	void resolveRecipients_claimLost() {
+		final var service = createService(1);
+
+		when(csvJobRepositoryMock.getCsvFile(JOB_ID)).thenReturn(CSV.getBytes(StandardCharsets.UTF_8));
+		when(precheckServiceMock.precheckLegalIds(MUNICIPALITY_ID, List.of("201901012391"), emptyList())).thenReturn(emptyList());
+		when(csvJobRepositoryMock.updateProgress(JOB, Phase.RESOLVING, 1, LEASE)).thenReturn(false);
+
+		assertThatThrownBy(() -> service.resolveRecipients(JOB, MUNICIPALITY_ID))
+			.isInstanceOf(Problem.class)
+			.hasFieldOrPropertyWithValue("status", CONFLICT)
+			.hasMessageContaining("CSV job with id 'jobId' is no longer claimed by this worker");
+		verify(csvJobRepositoryMock).getCsvFile(JOB_ID);
+		verify(csvJobRepositoryMock).updateProgress(JOB, Phase.RESOLVING, 1, LEASE);
+		verify(precheckServiceMock).precheckLegalIds(MUNICIPALITY_ID, List.of("201901012391"), emptyList());
+	}
+
+	@Test
+	void resolveRecipients_noCsvFile() {
+		final var service = createService(500);
+
+		when(csvJobRepositoryMock.getCsvFile(JOB_ID)).thenReturn(null);
+
+		assertThatThrownBy(() -> service.resolveRecipients(JOB, MUNICIPALITY_ID))
+			.isInstanceOf(Problem.class)
+			.hasFieldOrPropertyWithValue("status", INTERNAL_SERVER_ERROR)
+			.hasMessageContaining("CSV job with id 'jobId' holds no CSV file");
+		verify(csvJobRepositoryMock).getCsvFile(JOB_ID);
+	}
+
+	@Test
+	void complete() {
+		final var service = createService(500);
+		final var existingRecipient = RecipientEntity.create().withId("existing");
+		final var message = MessageEntity.create().withId(MESSAGE_ID);
+		message.getRecipients().add(existingRecipient);
+		final var recipients = List.of(RecipientEntity.create().withId("1"), RecipientEntity.create().withId("2"));
+
+		when(csvJobRepositoryMock.complete(JOB)).thenReturn(true);
+		when(messageRepositoryMock.findById(MESSAGE_ID)).thenReturn(Optional.of(message));
+
+		service.complete(JOB, recipients);
+
+		assertThat(message.getRecipients()).containsExactly(existingRecipient, recipients.getFirst(), recipients.getLast());
+		verify(csvJobRepositoryMock).complete(JOB);
+		verify(messageRepositoryMock).findById(MESSAGE_ID);
+		verify(messageProgressRepositoryMock).initialize(message);
+	}
+
+	@Test
+	void complete_claimLost() {
+		final var service = createService(500);
+
+		when(csvJobRepositoryMock.complete(JOB)).thenReturn(false);
+
+		assertThatThrownBy(() -> service.complete(JOB, List.of(RecipientEntity.create().withId("1"))))
+			.isInstanceOf(Problem.class)
+			.hasFieldOrPropertyWithValue("status", CONFLICT)
+			.hasMessageContaining("CSV job with id 'jobId' is no longer claimed by this worker");
+		verify(csvJobRepositoryMock).complete(JOB);
+	}
+
+	@Test
+	void complete_messageNotFound() {
+		final var service = createService(500);
+
+		when(csvJobRepositoryMock.complete(JOB)).thenReturn(true);
+		when(messageRepositoryMock.findById(MESSAGE_ID)).thenReturn(Optional.empty());
+
+		assertThatThrownBy(() -> service.complete(JOB, emptyList()))
+			.isInstanceOf(Problem.class)
+			.hasFieldOrPropertyWithValue("status", NOT_FOUND)
+			.hasMessageContaining("No message found with id 'messageId'");
+		verify(csvJobRepositoryMock).complete(JOB);
+		verify(messageRepositoryMock).findById(MESSAGE_ID);
+	}
+
+	private CsvJobService createService(final int chunkSize) {
+		return new CsvJobService(messageServiceMock, messagingSettingsIntegrationMock, precheckServiceMock, attachmentMapperMock,
+			messageRepositoryMock, messageProgressRepositoryMock, csvJobRepositoryMock, new CsvJobProperties(2, chunkSize, LEASE, Duration.ofSeconds(1)));
+	}
+}
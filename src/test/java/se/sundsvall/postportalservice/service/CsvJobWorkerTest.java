@@ -0,0 +1,266 @@
+package se.sundsvall.postportalservice.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.dept44.support.Identifier;
+import se.sundsvall.postportalservice.configuration.CsvJobConfiguration.CsvJobProperties;
+import se.sundsvall.postportalservice.integration.db.DepartmentEntity;
+import se.sundsvall.postportalservice.integration.db.MessageEntity;
+import se.sundsvall.postportalservice.integration.db.RecipientEntity;
+import se.sundsvall.postportalservice.integration.db.UserEntity;
+import se.sundsvall.postportalservice.integration.db.dao.CsvJobRepository;
+import se.sundsvall.postportalservice.integration.db.dao.CsvJobRepository.ClaimedCsvJob;
+import se.sundsvall.postportalservice.integration.messagingsettings.MessagingSettingsIntegration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpStatus.BAD_GATEWAY;
+import static se.sundsvall.postportalservice.Constants.FAILED;
+import static se.sundsvall.postportalservice.Constants.PENDING;
+import static se.sundsvall.postportalservice.Constants.UNDELIVERABLE;
+import static se.sundsvall.postportalservice.service.util.MessagingSettingsUtil.FOLDER_NAME;
+
+@ExtendWith(MockitoExtension.class)
+class CsvJobWorkerTest {
+
+	private static final String JOB_ID = "jobId";
+	private static final String MESSAGE_ID = "messageId";
+	private static final String MUNICIPALITY_ID = "2281";
+	private static final Duration LEASE = Duration.ofMinutes(10);
+	private static final Map<String, String> SETTINGS_MAP = Map.of(FOLDER_NAME, "folderName");
+	private static final ClaimedCsvJob JOB = new ClaimedCsvJob(JOB_ID, MESSAGE_ID, "claim");
+
+	@Mock
+	private CsvJobRepository csvJobRepositoryMock;
+
+	@Mock
+	private CsvJobService csvJobServiceMock;
+
+	@Mock
+	private DeliveryContextLoader deliveryContextLoaderMock;
+
+	@Mock
+	private MessagingSettingsIntegration messagingSettingsIntegrationMock;
+
+	@Mock
+	private MessageService messageServiceMock;
+
+	@Mock
+	private DeliveryAdmissionControl deliveryAdmissionControlMock;
+
+	@Mock
+	private RecipientStatusWriter recipientStatusWriterMock;
+
+	@Mock
+	private TaskExecutor csvJobExecutorMock;
+
+	@AfterEach
+	void tearDown() {
+		verifyNoMoreInteractions(csvJobRepositoryMock, csvJobServiceMock, deliveryContextLoaderMock, messagingSettingsIntegrationMock, messageServiceMock, deliveryAdmissionControlMock,
+			recipientStatusWriterMock, csvJobExecutorMock);
+	}
+
+	@Test
+	void poll() {
+		final var worker = createWorker(2);
+		final var otherJob = new ClaimedCsvJob("otherJobId", "otherMessageId", "otherClaim");
+
+		when(csvJobRepositoryMock.claim(LEASE)).thenReturn(Optional.of(JOB), Optional.of(otherJob));
+
+		worker.poll();
+
+		// Both jobs are running, so no more are claimed
+		assertThat(worker.getRunning()).isEqualTo(2);
+		verify(csvJobRepositoryMock, times(2)).claim(LEASE);
+		verify(csvJobExecutorMock, times(2)).execute(any());
+	}
+
+	@Test
+	void poll_nothingToClaim() {
+		final var worker = createWorker(2);
+
+		when(csvJobRepositoryMock.claim(LEASE)).thenReturn(Optional.empty());
+
+		worker.poll();
+
+		assertThat(worker.getRunning()).isZero();
+		verify(csvJobRepositoryMock).claim(LEASE);
+	}
+
+	@Test
+	void poll_runsClaimedJob() {
+		final var worker = createWorker(1);
+		final var message = createMessage();
+
+		when(csvJobRepositoryMock.claim(LEASE)).thenReturn(Optional.of(JOB), Optional.empty());
+		when(deliveryContextLoaderMock.loadMessage(MESSAGE_ID)).thenReturn(message);
+		when(messagingSettingsIntegrationMock.getMessagingSettingsForUser(MUNICIPALITY_ID)).thenReturn(SETTINGS_MAP);
+		when(csvJobServiceMock.resolveRecipients(JOB, MUNICIPALITY_ID)).thenReturn(List.of());
+		doAnswer(invocation -> {
+			invocation.<Runnable>getArgument(0).run();
+			return null;
+		}).when(csvJobExecutorMock).execute(any());
+
+		worker.poll();
+
+		assertThat(worker.getRunning()).isZero();
+		verify(csvJobRepositoryMock, times(2)).claim(LEASE);
+		verify(csvJobExecutorMock).execute(any());
+		verify(deliveryContextLoaderMock).loadMessage(MESSAGE_ID);
+		verify(messagingSettingsIntegrationMock).getMessagingSettingsForUser(MUNICIPALITY_ID);
+		verify(csvJobServiceMock).resolveRecipients(JOB, MUNICIPALITY_ID);
+		verify(deliveryAdmissionControlMock).admit(0);
+		verify(csvJobServiceMock).complete(JOB, List.of());
+		verify(messageServiceMock).processRecipients(message, SETTINGS_MAP, true);
+	}
+
+	@Test
+	void poll_rejectedByExecutor() {
+		final var worker = createWorker(2);
+
+		when(csvJobRepositoryMock.claim(LEASE)).thenReturn(Optional.of(JOB));
+		doThrow(new TaskRejectedException("Executor is full")).when(csvJobExecutorMock).execute(any());
+
+		worker.poll();
+
+		// Not counted as running, and handed back to be claimed again
+		assertThat(worker.getRunning()).isZero();
+		verify(csvJobRepositoryMock).claim(LEASE);
+		verify(csvJobExecutorMock).execute(any());
+		verify(csvJobRepositoryMock).release(JOB, Duration.ZERO);
+	}
+
+	@Test
+	void poll_noFreeCapacity() {
+		final var worker = createWorker(0);
+
+		worker.poll();
+
+		verifyNoInteractions(csvJobRepositoryMock, csvJobExecutorMock);
+	}
+
+	@Test
+	void run() {
+		final var worker = createWorker(1);
+		final var message = createMessage();
+		final var recipients = List.of(RecipientEntity.create().withId("recipientId"));
+
+		when(deliveryContextLoaderMock.loadMessage(MESSAGE_ID)).thenReturn(message);
+		when(messagingSettingsIntegrationMock.getMessagingSettingsForUser(MUNICIPALITY_ID)).thenAnswer(_ -> {
+			assertThat(Identifier.get().getValue()).isEqualTo("username");
+			return SETTINGS_MAP;
+		});
+		when(csvJobServiceMock.resolveRecipients(JOB, MUNICIPALITY_ID)).thenReturn(recipients);
+
+		worker.run(JOB);
+
+		assertThat(message.getDepartment().getFolderName()).isEqualTo("folderName");
+		assertThat(message.getRecipients()).isEqualTo(recipients);
+		assertThat(Identifier.get()).isNull();
+		verify(deliveryContextLoaderMock).loadMessage(MESSAGE_ID);
+		verify(messagingSettingsIntegrationMock).getMessagingSettingsForUser(MUNICIPALITY_ID);
+		verify(csvJobServiceMock).resolveRecipients(JOB, MUNICIPALITY_ID);
+		verify(deliveryAdmissionControlMock).admit(1);
+		verify(csvJobServiceMock).complete(JOB, recipients);
+		verify(messageServiceMock).processRecipients(eq(message), eq(SETTINGS_MAP), eq(true));
+	}
+
+	@Test
+	void run_deliveryCannotStart() {
+		final var worker = createWorker(1);
+		final var message = createMessage();
+		final var pending = RecipientEntity.create().withId("recipientId1").withStatus(PENDING);
+		final var undeliverable = RecipientEntity.create().withId("recipientId2").withStatus(UNDELIVERABLE);
+		final var recipients = List.of(pending, undeliverable);
+
+		when(deliveryContextLoaderMock.loadMessage(MESSAGE_ID)).thenReturn(message);
+		when(messagingSettingsIntegrationMock.getMessagingSettingsForUser(MUNICIPALITY_ID)).thenReturn(SETTINGS_MAP);
+		when(csvJobServiceMock.resolveRecipients(JOB, MUNICIPALITY_ID)).thenReturn(recipients);
+		doThrow(new IllegalStateException("Outbox unavailable")).when(messageServiceMock).processRecipients(message, SETTINGS_MAP, true);
+
+		worker.run(JOB);
+
+		// The job is completed and never started over, so its pending recipients are failed
+		assertThat(pending.getStatus()).isEqualTo(FAILED);
+		assertThat(pending.getStatusDetail()).isEqualTo("Outbox unavailable");
+		assertThat(undeliverable.getStatus()).isEqualTo(UNDELIVERABLE);
+		verify(deliveryContextLoaderMock).loadMessage(MESSAGE_ID);
+		verify(messagingSettingsIntegrationMock).getMessagingSettingsForUser(MUNICIPALITY_ID);
+		verify(csvJobServiceMock).resolveRecipients(JOB, MUNICIPALITY_ID);
+		verify(deliveryAdmissionControlMock).admit(2);
+		verify(csvJobServiceMock).complete(JOB, recipients);
+		verify(messageServiceMock).processRecipients(message, SETTINGS_MAP, true);
+		verify(recipientStatusWriterMock).writeAll(List.of(pending));
+	}
+
+	@Test
+	void run_deliveryBacklogFull() {
+		final var worker = createWorker(1);
+		final var recipients = List.of(RecipientEntity.create().withId("recipientId"));
+
+		when(deliveryContextLoaderMock.loadMessage(MESSAGE_ID)).thenReturn(createMessage());
+		when(messagingSettingsIntegrationMock.getMessagingSettingsForUser(MUNICIPALITY_ID)).thenReturn(SETTINGS_MAP);
+		when(csvJobServiceMock.resolveRecipients(JOB, MUNICIPALITY_ID)).thenReturn(recipients);
+		doThrow(new DeliveryBacklogFullException("Delivery backlog is full", Duration.ofSeconds(30))).when(deliveryAdmissionControlMock).admit(1);
+
+		worker.run(JOB);
+
+		// Handed back to be started over, rather than failed
+		assertThat(Identifier.get()).isNull();
+		verify(deliveryContextLoaderMock).loadMessage(MESSAGE_ID);
+		verify(messagingSettingsIntegrationMock).getMessagingSettingsForUser(MUNICIPALITY_ID);
+		verify(csvJobServiceMock).resolveRecipients(JOB, MUNICIPALITY_ID);
+		verify(deliveryAdmissionControlMock).admit(1);
+		verify(csvJobRepositoryMock).release(JOB, Duration.ofSeconds(30));
+		verifyNoInteractions(messageServiceMock);
+	}
+
+	@Test
+	void run_fails() {
+		final var worker = createWorker(1);
+
+		when(deliveryContextLoaderMock.loadMessage(MESSAGE_ID)).thenReturn(createMessage());
+		when(messagingSettingsIntegrationMock.getMessagingSettingsForUser(MUNICIPALITY_ID)).thenReturn(SETTINGS_MAP);
+		when(csvJobServiceMock.resolveRecipients(JOB, MUNICIPALITY_ID)).thenThrow(Problem.valueOf(BAD_GATEWAY, "Party unavailable"));
+
+		worker.run(JOB);
+
+		verify(deliveryContextLoaderMock).loadMessage(MESSAGE_ID);
+		verify(messagingSettingsIntegrationMock).getMessagingSettingsForUser(MUNICIPALITY_ID);
+		verify(csvJobServiceMock).resolveRecipients(JOB, MUNICIPALITY_ID);
+		verify(csvJobRepositoryMock).fail(eq(JOB), any());
+		verifyNoInteractions(messageServiceMock);
+	}
+
+	private CsvJobWorker createWorker(final int concurrency) {
+		final var properties = new CsvJobProperties(concurrency, 500, LEASE, Duration.ofSeconds(1));
+		return new CsvJobWorker(csvJobRepositoryMock, csvJobServiceMock, deliveryContextLoaderMock, messagingSettingsIntegrationMock, messageServiceMock,
+			deliveryAdmissionControlMock, recipientStatusWriterMock, csvJobExecutorMock, properties);
+	}
+
+	private static MessageEntity createMessage() {
+		return MessageEntity.create()
+			.withId(MESSAGE_ID)
+			.withMunicipalityId(MUNICIPALITY_ID)
+			.withUser(UserEntity.create().withUsername("username"))
+			.withDepartment(DepartmentEntity.create().withName("departmentName"));
+	}
+}
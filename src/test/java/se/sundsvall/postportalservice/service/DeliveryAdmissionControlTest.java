@@ -0,0 +1,92 @@
+package se.sundsvall.postportalservice.service;
+
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import se.sundsvall.postportalservice.configuration.DeliveryExecutorConfiguration.DeliveryAdmissionProperties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DeliveryAdmissionControlTest {
+
+	private static final Duration MIN_RETRY_AFTER = Duration.ofSeconds(1);
+	private static final Duration MAX_RETRY_AFTER = Duration.ofMinutes(5);
+
+	@Mock
+	private DeliveryScheduler deliverySchedulerMock;
+
+	@AfterEach
+	void tearDown() {
+		verifyNoMoreInteractions(deliverySchedulerMock);
+	}
+
+	@Test
+	void admit_disabled() {
+		final var admissionControl = createAdmissionControl(false);
+
+		assertThatNoException().isThrownBy(() -> admissionControl.admit(1_000_000));
+
+		verifyNoInteractions(deliverySchedulerMock);
+	}
+
+	@Test
+	void admit_withinLimit() {
+		final var admissionControl = createAdmissionControl(true);
+		when(deliverySchedulerMock.getPendingRecipients()).thenReturn(60);
+
+		assertThatNoException().isThrownBy(() -> admissionControl.admit(40));
+
+		verify(deliverySchedulerMock).getPendingRecipients();
+	}
+
+	@Test
+	void admit_emptyBacklogAcceptsAnySize() {
+		final var admissionControl = createAdmissionControl(true);
+		when(deliverySchedulerMock.getPendingRecipients()).thenReturn(0);
+
+		assertThatNoException().isThrownBy(() -> admissionControl.admit(1_000));
+
+		verify(deliverySchedulerMock).getPendingRecipients();
+	}
+
+	@Test
+	void admit_backlogFull() {
+		final var admissionControl = createAdmissionControl(true);
+		when(deliverySchedulerMock.getPendingRecipients()).thenReturn(90);
+		when(deliverySchedulerMock.getCompletedRecipients()).thenReturn(500L);
+
+		// No delivery rate has been measured yet, so the longest delay is used
+		assertThatThrownBy(() -> admissionControl.admit(20))
+			.isInstanceOf(DeliveryBacklogFullException.class)
+			.hasMessage("Delivery backlog is full with 90 recipients awaiting delivery, retry in 300 seconds")
+			.hasFieldOrPropertyWithValue("retryAfter", MAX_RETRY_AFTER);
+
+		verify(deliverySchedulerMock).getPendingRecipients();
+		verify(deliverySchedulerMock).getCompletedRecipients();
+	}
+
+	@Test
+	void retryAfter() {
+		// 25 recipients at 10 per second
+		assertThat(DeliveryAdmissionControl.retryAfter(25, 10, MIN_RETRY_AFTER, MAX_RETRY_AFTER)).isEqualTo(Duration.ofSeconds(3));
+		// Clamped to the bounds
+		assertThat(DeliveryAdmissionControl.retryAfter(1, 100, MIN_RETRY_AFTER, MAX_RETRY_AFTER)).isEqualTo(MIN_RETRY_AFTER);
+		assertThat(DeliveryAdmissionControl.retryAfter(100_000, 1, MIN_RETRY_AFTER, MAX_RETRY_AFTER)).isEqualTo(MAX_RETRY_AFTER);
+		// Unknown rate
+		assertThat(DeliveryAdmissionControl.retryAfter(10, 0, MIN_RETRY_AFTER, MAX_RETRY_AFTER)).isEqualTo(MAX_RETRY_AFTER);
+	}
+
+	private DeliveryAdmissionControl createAdmissionControl(final boolean enabled) {
+		return new DeliveryAdmissionControl(deliverySchedulerMock, new DeliveryAdmissionProperties(enabled, 100, MIN_RETRY_AFTER, MAX_RETRY_AFTER));
+	}
+}
@@ -0,0 +1,154 @@
+package se.sundsvall.postportalservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import se.sundsvall.dept44.exception.ServerProblem;
+import se.sundsvall.postportalservice.configuration.DeliveryExecutorConfiguration.DeliveryConcurrencyProperties;
+import se.sundsvall.postportalservice.configuration.DeliveryExecutorConfiguration.DeliveryConcurrencyProperties.Adaptive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.http.HttpStatus.BAD_GATEWAY;
+import static se.sundsvall.postportalservice.integration.db.converter.MessageType.SMS;
+import static se.sundsvall.postportalservice.integration.db.converter.MessageType.SNAIL_MAIL;
+import static se.sundsvall.postportalservice.service.DeliveryOperation.SEND_CALLBACK_EMAIL;
+import static se.sundsvall.postportalservice.service.DeliveryOperation.SEND_SMS;
+import static se.sundsvall.postportalservice.service.DeliveryOperation.SEND_SNAIL_MAIL;
+
+class DeliveryConcurrencyLimiterTest {
+
+	private static final Adaptive ADAPTIVE_DISABLED = new Adaptive(false, 8, 1, 64, 0.9, Duration.ofSeconds(5));
+
+	private final DeliveryConcurrencyLimiter limiter = new DeliveryConcurrencyLimiter(new DeliveryConcurrencyProperties(
+		Map.of(SNAIL_MAIL, 2),
+		Map.of(SEND_CALLBACK_EMAIL, 1),
+		ADAPTIVE_DISABLED), new SimpleMeterRegistry());
+
+	@Test
+	void execute() {
+		final var result = limiter.execute(SNAIL_MAIL, SEND_CALLBACK_EMAIL, () -> {
+			assertThat(limiter.availablePermits(SNAIL_MAIL)).isEqualTo(1);
+			assertThat(limiter.availablePermits(SEND_CALLBACK_EMAIL)).isZero();
+			return "result";
+		});
+
+		assertThat(result).isEqualTo("result");
+		assertThat(limiter.availablePermits(SNAIL_MAIL)).isEqualTo(2);
+		assertThat(limiter.availablePermits(SEND_CALLBACK_EMAIL)).isEqualTo(1);
+	}
+
+	@Test
+	void execute_unlimited() {
+		final var result = limiter.execute(SMS, SEND_SMS, () -> "result");
+
+		assertThat(result).isEqualTo("result");
+		assertThat(limiter.availablePermits(SMS)).isEqualTo(-1);
+		assertThat(limiter.availablePermits(SEND_SMS)).isEqualTo(-1);
+		assertThat(limiter.adaptiveLimit()).isEqualTo(-1);
+	}
+
+	@Test
+	void execute_adaptiveLimit() {
+		final var meterRegistry = new SimpleMeterRegistry();
+		final var adaptive = new DeliveryConcurrencyLimiter(new DeliveryConcurrencyProperties(Map.of(), Map.of(),
+			new Adaptive(true, 4, 1, 64, 0.5, Duration.ofSeconds(5))), meterRegistry);
+
+		final var result = adaptive.execute(SMS, SEND_SMS, () -> {
+			assertThat(meterRegistry.get("delivery.concurrency.in.flight").gauge().value()).isEqualTo(1);
+			return "result";
+		});
+
+		assertThat(result).isEqualTo("result");
+		assertThat(meterRegistry.get("delivery.concurrency.in.flight").gauge().value()).isZero();
+
+		// Messaging signals overload, the limit is halved
+		assertThatThrownBy(() -> adaptive.execute(SMS, SEND_SMS, () -> {
+			throw new ServerProblem(BAD_GATEWAY, "Simulated overload");
+		})).isInstanceOf(ServerProblem.class);
+
+		assertThat(adaptive.adaptiveLimit()).isEqualTo(2);
+		assertThat(meterRegistry.get("delivery.concurrency.limit").gauge().value()).isEqualTo(2);
+		assertThat(meterRegistry.get("delivery.concurrency.in.flight").gauge().value()).isZero();
+	}
+
+	@Test
+	void constructor_adaptiveLimitDisabledRegistersNoGauges() {
+		final var meterRegistry = new SimpleMeterRegistry();
+
+		new DeliveryConcurrencyLimiter(new DeliveryConcurrencyProperties(Map.of(), Map.of(), ADAPTIVE_DISABLED), meterRegistry);
+
+		assertThat(meterRegistry.getMeters()).isEmpty();
+	}
+
+	@Test
+	void execute_releasesPermitsWhenCallFails() {
+		assertThatThrownBy(() -> limiter.execute(SNAIL_MAIL, SEND_CALLBACK_EMAIL, () -> {
+			throw new IllegalArgumentException("Simulated exception");
+		})).isInstanceOf(IllegalArgumentException.class);
+
+		assertThat(limiter.availablePermits(SNAIL_MAIL)).isEqualTo(2);
+		assertThat(limiter.availablePermits(SEND_CALLBACK_EMAIL)).isEqualTo(1);
+	}
+
+	@Test
+	void execute_waitsForPermit() throws InterruptedException {
+		final var started = new CountDownLatch(2);
+		final var release = new CountDownLatch(1);
+		final var finished = new CountDownLatch(3);
+
+		try (final var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < 2; i++) {
+				executor.execute(() -> limiter.execute(SNAIL_MAIL, SEND_SNAIL_MAIL, () -> {
+					started.countDown();
+					await(release);
+					finished.countDown();
+					return null;
+				}));
+			}
+			assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+			// Both snail-mail permits are taken, so a third call has to wait
+			executor.execute(() -> limiter.execute(SNAIL_MAIL, SEND_SNAIL_MAIL, () -> {
+				finished.countDown();
+				return null;
+			}));
+			assertThat(finished.await(200, TimeUnit.MILLISECONDS)).isFalse();
+			assertThat(finished.getCount()).isEqualTo(3);
+
+			// Other channels are not affected
+			assertThat(limiter.execute(SMS, SEND_SMS, () -> "sms")).isEqualTo("sms");
+
+			release.countDown();
+			assertThat(finished.await(5, TimeUnit.SECONDS)).isTrue();
+		}
+		assertThat(limiter.availablePermits(SNAIL_MAIL)).isEqualTo(2);
+	}
+
+	@Test
+	void execute_interruptedWhileWaiting() {
+		final var exhausted = new DeliveryConcurrencyLimiter(new DeliveryConcurrencyProperties(Map.of(SNAIL_MAIL, 0), Map.of(), ADAPTIVE_DISABLED), new SimpleMeterRegistry());
+
+		Thread.currentThread().interrupt();
+		try {
+			assertThatThrownBy(() -> exhausted.execute(SNAIL_MAIL, SEND_SNAIL_MAIL, () -> "result"))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessage("Interrupted while waiting for a delivery permit for SNAIL_MAIL");
+			assertThat(Thread.currentThread().isInterrupted()).isTrue();
+		} finally {
+			Thread.interrupted();
+		}
+	}
+
+	private static void await(final CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
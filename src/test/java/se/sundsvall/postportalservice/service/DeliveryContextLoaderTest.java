@@ -0,0 +1,113 @@
+package se.sundsvall.postportalservice.service;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.postportalservice.integration.db.AttachmentEntity;
+import se.sundsvall.postportalservice.integration.db.DepartmentEntity;
+import se.sundsvall.postportalservice.integration.db.UserEntity;
+import se.sundsvall.postportalservice.integration.db.converter.MessageType;
+import se.sundsvall.postportalservice.integration.db.dao.MessageRepository;
+import se.sundsvall.postportalservice.integration.db.dao.MessageRepository.DeliveryMessage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+@ExtendWith(MockitoExtension.class)
+class DeliveryContextLoaderTest {
+
+	private static final String MESSAGE_ID = "messageId";
+
+	private static final String CONTENT_HASH = "ed7002b439e9ac845f22357d822bac1444730fbdb6016d3ec9432297b9ec9f73";
+
+	@Mock
+	private MessageRepository messageRepositoryMock;
+
+	@Mock
+	private AttachmentPayloadCache attachmentPayloadCacheMock;
+
+	@Mock
+	private DeliveryMessage deliveryMessageMock;
+
+	@InjectMocks
+	private DeliveryContextLoader deliveryContextLoader;
+
+	@AfterEach
+	void tearDown() {
+		verifyNoMoreInteractions(messageRepositoryMock, attachmentPayloadCacheMock);
+	}
+
+	@Test
+	void loadMessage() {
+		final var user = UserEntity.create().withUsername("username");
+		final var department = DepartmentEntity.create().withName("departmentName");
+		final var attachment = AttachmentEntity.create()
+			.withFileName("file.pdf")
+			.withContentType("application/pdf")
+			.withContentHash(CONTENT_HASH);
+		final var attachmentWithoutContent = AttachmentEntity.create()
+			.withFileName("empty.pdf");
+		final var created = OffsetDateTime.now();
+
+		when(deliveryMessageMock.getId()).thenReturn(MESSAGE_ID);
+		when(deliveryMessageMock.getMunicipalityId()).thenReturn("2281");
+		when(deliveryMessageMock.getDisplayName()).thenReturn("displayName");
+		when(deliveryMessageMock.getMessageType()).thenReturn(MessageType.LETTER);
+		when(deliveryMessageMock.getSubject()).thenReturn("subject");
+		when(deliveryMessageMock.getBody()).thenReturn("body");
+		when(deliveryMessageMock.getContentType()).thenReturn("text/plain");
+		when(deliveryMessageMock.getCreated()).thenReturn(created);
+		when(deliveryMessageMock.getUser()).thenReturn(user);
+		when(deliveryMessageMock.getDepartment()).thenReturn(department);
+		when(messageRepositoryMock.findDeliveryMessageById(MESSAGE_ID)).thenReturn(Optional.of(deliveryMessageMock));
+		when(messageRepositoryMock.findAttachmentsByMessageId(MESSAGE_ID)).thenReturn(List.of(attachment, attachmentWithoutContent));
+		when(attachmentPayloadCacheMock.getBase64(CONTENT_HASH)).thenReturn("Y29udGVudA==");
+
+		final var result = deliveryContextLoader.loadMessage(MESSAGE_ID);
+
+		assertThat(result.getId()).isEqualTo(MESSAGE_ID);
+		assertThat(result.getMunicipalityId()).isEqualTo("2281");
+		assertThat(result.getDisplayName()).isEqualTo("displayName");
+		assertThat(result.getMessageType()).isEqualTo(MessageType.LETTER);
+		assertThat(result.getSubject()).isEqualTo("subject");
+		assertThat(result.getBody()).isEqualTo("body");
+		assertThat(result.getContentType()).isEqualTo("text/plain");
+		assertThat(result.getCreated()).isEqualTo(created);
+		assertThat(result.getUser()).isSameAs(user);
+		assertThat(result.getDepartment()).isSameAs(department);
+		assertThat(result.getRecipients()).isEmpty();
+		assertThat(result.getAttachments()).satisfiesExactly(resultAttachment -> {
+			assertThat(resultAttachment.getFileName()).isEqualTo("file.pdf");
+			assertThat(resultAttachment.getContentString()).isEqualTo("Y29udGVudA==");
+		}, resultAttachment -> {
+			assertThat(resultAttachment.getFileName()).isEqualTo("empty.pdf");
+			assertThat(resultAttachment.getContentString()).isNull();
+		});
+		verify(messageRepositoryMock).findDeliveryMessageById(MESSAGE_ID);
+		verify(messageRepositoryMock).findAttachmentsByMessageId(MESSAGE_ID);
+		verify(attachmentPayloadCacheMock).getBase64(CONTENT_HASH);
+	}
+
+	@Test
+	void loadMessage_notFound() {
+		when(messageRepositoryMock.findDeliveryMessageById(MESSAGE_ID)).thenReturn(Optional.empty());
+
+		assertThatThrownBy(() -> deliveryContextLoader.loadMessage(MESSAGE_ID))
+			.isInstanceOf(Problem.class)
+			.hasFieldOrPropertyWithValue("status", NOT_FOUND)
+			.hasMessageContaining("No message found with id 'messageId'");
+
+		verify(messageRepositoryMock).findDeliveryMessageById(MESSAGE_ID);
+	}
+}
@@ -0,0 +1,86 @@
+package se.sundsvall.postportalservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import se.sundsvall.postportalservice.integration.db.MessageEntity;
+import se.sundsvall.postportalservice.integration.db.RecipientEntity;
+import se.sundsvall.postportalservice.service.MessageService.Delivery;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static se.sundsvall.postportalservice.Constants.FAILED;
+import static se.sundsvall.postportalservice.integration.db.converter.MessageType.SMS;
+import static se.sundsvall.postportalservice.integration.db.converter.MessageType.SNAIL_MAIL;
+import static se.sundsvall.postportalservice.service.DeliveryOperation.SEND_SMS;
+import static se.sundsvall.postportalservice.service.DeliveryOperation.SEND_SNAIL_MAIL;
+
+class DeliveryMetricsTest {
+
+	private static final MessageEntity MESSAGE = MessageEntity.create().withMunicipalityId("2281");
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final DeliveryMetrics deliveryMetrics = new DeliveryMetrics(meterRegistry);
+
+	@Test
+	void instrument() {
+		final var recipients = List.of(RecipientEntity.create().withMessageType(SMS), RecipientEntity.create().withMessageType(SMS));
+		final var inFlightWhileRunning = new int[1];
+		final var task = deliveryMetrics.instrument(MESSAGE, new Delivery(recipients, () -> inFlightWhileRunning[0] = deliveryMetrics.getInFlight()));
+
+		task.run();
+
+		assertThat(inFlightWhileRunning[0]).isEqualTo(2);
+		assertThat(deliveryMetrics.getInFlight()).isZero();
+		assertThat(meterRegistry.get("delivery.in.flight").gauge().value()).isZero();
+		assertThat(meterRegistry.get("delivery.queue.wait").tag("channel", "SMS").tag("municipality", "2281").timer().count()).isOne();
+	}
+
+	@Test
+	void instrument_taskFails() {
+		final var task = deliveryMetrics.instrument(MESSAGE, new Delivery(List.of(RecipientEntity.create()), () -> {
+			throw new IllegalStateException("Simulated exception");
+		}));
+
+		assertThatThrownBy(task::run).isInstanceOf(IllegalStateException.class);
+
+		assertThat(deliveryMetrics.getInFlight()).isZero();
+		assertThat(meterRegistry.get("delivery.queue.wait").tag("channel", DeliveryMetrics.UNKNOWN).timer().count()).isOne();
+	}
+
+	@Test
+	void recordCall() {
+		final var result = deliveryMetrics.recordCall(MESSAGE, SMS, SEND_SMS, () -> "result");
+
+		assertThat(result).isEqualTo("result");
+		assertThat(meterRegistry.get("delivery.call")
+			.tag("channel", "SMS")
+			.tag("operation", "SEND_SMS")
+			.tag("municipality", "2281")
+			.tag("outcome", "success")
+			.timer().count()).isOne();
+	}
+
+	@Test
+	void recordCall_failure() {
+		assertThatThrownBy(() -> deliveryMetrics.recordCall(MESSAGE, SNAIL_MAIL, SEND_SNAIL_MAIL, () -> {
+			throw new IllegalStateException("Simulated exception");
+		})).isInstanceOf(IllegalStateException.class);
+
+		assertThat(meterRegistry.get("delivery.call")
+			.tag("channel", "SNAIL_MAIL")
+			.tag("operation", "SEND_SNAIL_MAIL")
+			.tag("outcome", "failure")
+			.timer().count()).isOne();
+	}
+
+	@Test
+	void recordOutcome() {
+		deliveryMetrics.recordOutcome(MESSAGE, RecipientEntity.create().withMessageType(SMS).withStatus(FAILED));
+		deliveryMetrics.recordOutcome(MESSAGE, RecipientEntity.create().withMessageType(SMS).withStatus(FAILED));
+		deliveryMetrics.recordOutcome(MessageEntity.create(), RecipientEntity.create());
+
+		assertThat(meterRegistry.get("delivery.recipients").tag("channel", "SMS").tag("municipality", "2281").tag("status", FAILED).counter().count()).isEqualTo(2);
+		assertThat(meterRegistry.get("delivery.recipients").tag("municipality", DeliveryMetrics.UNKNOWN).tag("status", DeliveryMetrics.UNKNOWN).counter().count()).isOne();
+	}
+}
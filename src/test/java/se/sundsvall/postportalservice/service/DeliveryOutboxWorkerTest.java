@@ -0,0 +1,205 @@
+package se.sundsvall.postportalservice.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.dept44.support.Identifier;
+import se.sundsvall.postportalservice.configuration.DeliveryExecutorConfiguration.DeliverySchedulingProperties;
+import se.sundsvall.postportalservice.configuration.DeliveryExecutorConfiguration.DeliverySchedulingProperties.Lanes;
+import se.sundsvall.postportalservice.configuration.DeliveryOutboxConfiguration.DeliveryOutboxProperties;
+import se.sundsvall.postportalservice.integration.db.DepartmentEntity;
+import se.sundsvall.postportalservice.integration.db.MessageEntity;
+import se.sundsvall.postportalservice.integration.db.RecipientEntity;
+import se.sundsvall.postportalservice.integration.db.UserEntity;
+import se.sundsvall.postportalservice.integration.db.dao.DeliveryOutboxRepository;
+import se.sundsvall.postportalservice.integration.db.dao.DeliveryOutboxRepository.OutboxEntry;
+import se.sundsvall.postportalservice.integration.db.dao.MessageProgressRepository;
+import se.sundsvall.postportalservice.integration.db.dao.MessageProgressRepository.Progress;
+import se.sundsvall.postportalservice.integration.db.dao.RecipientRepository;
+import se.sundsvall.postportalservice.integration.messagingsettings.MessagingSettingsIntegration;
+import se.sundsvall.postportalservice.service.MessageService.Delivery;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpStatus.BAD_GATEWAY;
+import static se.sundsvall.postportalservice.Constants.CLAIMED;
+import static se.sundsvall.postportalservice.service.util.MessagingSettingsUtil.FOLDER_NAME;
+
+@ExtendWith(MockitoExtension.class)
+class DeliveryOutboxWorkerTest {
+
+	private static final String MESSAGE_ID = "messageId";
+	private static final String MUNICIPALITY_ID = "2281";
+	private static final Duration LEASE = Duration.ofMinutes(15);
+	private static final Map<String, String> SETTINGS_MAP = Map.of(FOLDER_NAME, "folderName");
+
+	@Mock
+	private DeliveryScheduler deliverySchedulerMock;
+
+	@Mock
+	private DeliveryOutboxRepository deliveryOutboxRepositoryMock;
+
+	@Mock
+	private RecipientRepository recipientRepositoryMock;
+
+	@Mock
+	private MessageProgressRepository messageProgressRepositoryMock;
+
+	@Mock
+	private DeliveryContextLoader deliveryContextLoaderMock;
+
+	@Mock
+	private MessagingSettingsIntegration messagingSettingsIntegrationMock;
+
+	@Mock
+	private MessageService messageServiceMock;
+
+	@AfterEach
+	void tearDown() {
+		verifyNoMoreInteractions(deliveryOutboxRepositoryMock, recipientRepositoryMock, messageProgressRepositoryMock, deliveryContextLoaderMock,
+			messagingSettingsIntegrationMock, messageServiceMock);
+	}
+
+	@Test
+	void poll() {
+		final var worker = createWorker(200);
+		final var message = createMessage();
+		final var recipient1 = RecipientEntity.create().withId("recipientId1").withDeliveryState(CLAIMED);
+		final var recipient2 = RecipientEntity.create().withId("recipientId2").withDeliveryState(CLAIMED);
+		final var delivered = new AtomicInteger();
+
+		when(deliveryOutboxRepositoryMock.claim(50, LEASE)).thenReturn(List.of(
+			new OutboxEntry("recipientId1", MESSAGE_ID),
+			new OutboxEntry("recipientId2", MESSAGE_ID)));
+		when(deliveryContextLoaderMock.loadMessage(MESSAGE_ID)).thenReturn(message);
+		when(messagingSettingsIntegrationMock.getMessagingSettingsForUser(MUNICIPALITY_ID)).thenAnswer(_ -> {
+			assertThat(Identifier.get().getValue()).isEqualTo("username");
+			return SETTINGS_MAP;
+		});
+		when(messageProgressRepositoryMock.find(MUNICIPALITY_ID, MESSAGE_ID)).thenReturn(Optional.of(new Progress(2, 0, 0, 0, 0)));
+		when(recipientRepositoryMock.findAllById(List.of("recipientId1", "recipientId2"))).thenReturn(List.of(recipient1, recipient2));
+		when(messageServiceMock.createDeliveries(message, List.of(recipient1, recipient2), SETTINGS_MAP)).thenReturn(List.of(
+			new Delivery(List.of(recipient1, recipient2), () -> {
+				// Both recipients of the delivery count towards the in-flight limit while it runs
+				assertThat(worker.getInFlight()).isEqualTo(2);
+				delivered.incrementAndGet();
+			})));
+		runDeliveryExecutorInline();
+
+		worker.poll();
+
+		assertThat(delivered).hasValue(1);
+		assertThat(message.getDepartment().getFolderName()).isEqualTo("folderName");
+		assertThat(recipient1.getDeliveryState()).isNull();
+		assertThat(recipient2.getDeliveryState()).isNull();
+		assertThat(worker.getInFlight()).isZero();
+		verify(deliveryOutboxRepositoryMock).claim(50, LEASE);
+		verify(deliveryContextLoaderMock).loadMessage(MESSAGE_ID);
+		verify(messagingSettingsIntegrationMock).getMessagingSettingsForUser(MUNICIPALITY_ID);
+		verify(messageProgressRepositoryMock).find(MUNICIPALITY_ID, MESSAGE_ID);
+		verify(recipientRepositoryMock).findAllById(List.of("recipientId1", "recipientId2"));
+		verify(deliverySchedulerMock).submit(eq(message), eq(DeliveryLane.INTERACTIVE), any());
+		verify(messageServiceMock).createDeliveries(message, List.of(recipient1, recipient2), SETTINGS_MAP);
+	}
+
+	@Test
+	void poll_claimIsLimitedByFreeCapacity() {
+		final var worker = createWorker(10);
+
+		when(deliveryOutboxRepositoryMock.claim(10, LEASE)).thenReturn(List.of());
+
+		worker.poll();
+
+		verify(deliveryOutboxRepositoryMock).claim(10, LEASE);
+	}
+
+	@Test
+	void poll_noFreeCapacity() {
+		final var worker = createWorker(0);
+
+		worker.poll();
+
+		verifyNoInteractions(deliveryOutboxRepositoryMock, deliverySchedulerMock);
+	}
+
+	@Test
+	void dispatch_cachesDeliveryContext() {
+		final var worker = createWorker(200);
+		final var message = createMessage();
+		final var recipient1 = RecipientEntity.create().withId("recipientId1");
+		final var recipient2 = RecipientEntity.create().withId("recipientId2");
+
+		when(deliveryContextLoaderMock.loadMessage(MESSAGE_ID)).thenReturn(message);
+		when(messagingSettingsIntegrationMock.getMessagingSettingsForUser(MUNICIPALITY_ID)).thenReturn(SETTINGS_MAP);
+		when(messageProgressRepositoryMock.find(MUNICIPALITY_ID, MESSAGE_ID)).thenReturn(Optional.of(new Progress(30000, 0, 0, 0, 0)));
+		when(recipientRepositoryMock.findAllById(List.of("recipientId1"))).thenReturn(List.of(recipient1));
+		when(recipientRepositoryMock.findAllById(List.of("recipientId2"))).thenReturn(List.of(recipient2));
+		when(messageServiceMock.createDeliveries(message, List.of(recipient1), SETTINGS_MAP)).thenReturn(List.of(new Delivery(List.of(recipient1), () -> {})));
+		when(messageServiceMock.createDeliveries(message, List.of(recipient2), SETTINGS_MAP)).thenReturn(List.of(new Delivery(List.of(recipient2), () -> {})));
+		runDeliveryExecutorInline();
+
+		worker.dispatch(MESSAGE_ID, List.of("recipientId1"));
+		worker.dispatch(MESSAGE_ID, List.of("recipientId2"));
+
+		verify(deliveryContextLoaderMock).loadMessage(MESSAGE_ID);
+		verify(messagingSettingsIntegrationMock).getMessagingSettingsForUser(MUNICIPALITY_ID);
+		verify(messageProgressRepositoryMock).find(MUNICIPALITY_ID, MESSAGE_ID);
+		verify(recipientRepositoryMock).findAllById(List.of("recipientId1"));
+		verify(recipientRepositoryMock).findAllById(List.of("recipientId2"));
+		// A message with many recipients is delivered in the bulk lane
+		verify(deliverySchedulerMock, times(2)).submit(eq(message), eq(DeliveryLane.BULK), any());
+		verify(messageServiceMock).createDeliveries(message, List.of(recipient1), SETTINGS_MAP);
+		verify(messageServiceMock).createDeliveries(message, List.of(recipient2), SETTINGS_MAP);
+	}
+
+	@Test
+	void dispatch_deliveryContextCannotBeLoaded() {
+		final var worker = createWorker(200);
+
+		when(deliveryContextLoaderMock.loadMessage(MESSAGE_ID)).thenReturn(createMessage());
+		when(messagingSettingsIntegrationMock.getMessagingSettingsForUser(MUNICIPALITY_ID)).thenThrow(Problem.valueOf(BAD_GATEWAY, "Messaging settings unavailable"));
+
+		worker.dispatch(MESSAGE_ID, List.of("recipientId1"));
+
+		verify(deliveryContextLoaderMock).loadMessage(MESSAGE_ID);
+		verify(messagingSettingsIntegrationMock).getMessagingSettingsForUser(MUNICIPALITY_ID);
+		verifyNoInteractions(deliverySchedulerMock);
+	}
+
+	private DeliveryOutboxWorker createWorker(final int maxInFlight) {
+		final var properties = new DeliveryOutboxProperties(true, 50, maxInFlight, LEASE, Duration.ofSeconds(1), 10, Duration.ofMinutes(10));
+		final var schedulingProperties = new DeliverySchedulingProperties(true, 8, 1, new Lanes(true, 10, 2));
+		return new DeliveryOutboxWorker(deliverySchedulerMock, deliveryOutboxRepositoryMock, recipientRepositoryMock, messageProgressRepositoryMock,
+			deliveryContextLoaderMock, messagingSettingsIntegrationMock, messageServiceMock, properties, schedulingProperties);
+	}
+
+	private static MessageEntity createMessage() {
+		return MessageEntity.create()
+			.withId(MESSAGE_ID)
+			.withMunicipalityId(MUNICIPALITY_ID)
+			.withUser(UserEntity.create().withUsername("username"))
+			.withDepartment(DepartmentEntity.create().withName("departmentName"));
+	}
+
+	private void runDeliveryExecutorInline() {
+		doAnswer(invocation -> {
+			invocation.getArgument(2, Delivery.class).task().run();
+			return null;
+		}).when(deliverySchedulerMock).submit(any(), any(), any());
+	}
+}
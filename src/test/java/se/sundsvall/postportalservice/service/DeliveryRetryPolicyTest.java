@@ -0,0 +1,116 @@
+package se.sundsvall.postportalservice.service;
+
+import feign.RetryableException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import se.sundsvall.dept44.exception.ClientProblem;
+import se.sundsvall.dept44.exception.ServerProblem;
+import se.sundsvall.dept44.problem.ThrowableProblem;
+import se.sundsvall.postportalservice.configuration.DeliveryOutboxConfiguration.DeliveryOutboxProperties;
+import se.sundsvall.postportalservice.configuration.DeliveryOutboxConfiguration.DeliveryRetryProperties;
+import se.sundsvall.postportalservice.integration.db.RecipientEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.HttpStatus.BAD_GATEWAY;
+import static se.sundsvall.postportalservice.Constants.PENDING;
+import static se.sundsvall.postportalservice.Constants.QUEUED;
+
+class DeliveryRetryPolicyTest {
+
+	// As decoded by the ProblemErrorDecoder from a 503 and a 400 response
+	private static final ThrowableProblem TRANSIENT_FAILURE = new ServerProblem(BAD_GATEWAY, "Messaging unavailable");
+	private static final ThrowableProblem PERMANENT_FAILURE = new ClientProblem(BAD_GATEWAY, "Invalid phone number");
+
+	private final DeliveryRetryPolicy policy = createPolicy(true, true, 0.0);
+
+	@Test
+	void scheduleRetry() {
+		final var recipient = RecipientEntity.create().withStatus(PENDING).withLeaseExpires(OffsetDateTime.now());
+		final var before = OffsetDateTime.now();
+
+		final var result = policy.scheduleRetry(recipient, TRANSIENT_FAILURE);
+
+		assertThat(result).isTrue();
+		assertThat(recipient.getAttempts()).isEqualTo(1);
+		assertThat(recipient.getStatus()).isEqualTo(PENDING);
+		assertThat(recipient.getStatusDetail()).startsWith("Attempt 1 of 3 failed, retrying at ").endsWith(": Messaging unavailable");
+		assertThat(recipient.getDeliveryState()).isEqualTo(QUEUED);
+		assertThat(recipient.getLeaseExpires()).isNull();
+		assertThat(recipient.getNextAttempt()).isBetween(before.plusSeconds(10), OffsetDateTime.now().plusSeconds(10));
+	}
+
+	@Test
+	void scheduleRetry_attemptsSpent() {
+		final var recipient = RecipientEntity.create().withStatus(PENDING).withAttempts(2);
+
+		final var result = policy.scheduleRetry(recipient, TRANSIENT_FAILURE);
+
+		assertThat(result).isFalse();
+		assertThat(recipient.getAttempts()).isEqualTo(3);
+		assertThat(recipient.getDeliveryState()).isNull();
+		assertThat(recipient.getNextAttempt()).isNull();
+	}
+
+	@Test
+	void scheduleRetry_permanentFailure() {
+		final var recipient = RecipientEntity.create().withStatus(PENDING);
+
+		final var result = policy.scheduleRetry(recipient, PERMANENT_FAILURE);
+
+		assertThat(result).isFalse();
+		assertThat(recipient.getAttempts()).isEqualTo(1);
+		assertThat(recipient.getDeliveryState()).isNull();
+	}
+
+	@Test
+	void scheduleRetry_retryDisabled() {
+		final var recipient = RecipientEntity.create().withStatus(PENDING);
+
+		assertThat(createPolicy(false, true, 0.0).scheduleRetry(recipient, TRANSIENT_FAILURE)).isFalse();
+		assertThat(recipient.getAttempts()).isNull();
+	}
+
+	@Test
+	void scheduleRetry_outboxDisabled() {
+		final var recipient = RecipientEntity.create().withStatus(PENDING);
+
+		assertThat(createPolicy(true, false, 0.0).scheduleRetry(recipient, TRANSIENT_FAILURE)).isFalse();
+		assertThat(recipient.getAttempts()).isNull();
+	}
+
+	@Test
+	void backoff() {
+		assertThat(policy.backoff(1)).isEqualTo(Duration.ofSeconds(10));
+		assertThat(policy.backoff(2)).isEqualTo(Duration.ofSeconds(20));
+		assertThat(policy.backoff(3)).isEqualTo(Duration.ofSeconds(40));
+		// Capped at the max backoff
+		assertThat(policy.backoff(10)).isEqualTo(Duration.ofMinutes(1));
+	}
+
+	@Test
+	void backoff_jitter() {
+		final var jittered = createPolicy(true, true, 0.5);
+
+		for (int i = 0; i < 100; i++) {
+			assertThat(jittered.backoff(2)).isBetween(Duration.ofSeconds(10), Duration.ofSeconds(30));
+		}
+	}
+
+	@Test
+	void isTransient() {
+		assertThat(DeliveryRetryPolicy.isTransient(TRANSIENT_FAILURE)).isTrue();
+		assertThat(DeliveryRetryPolicy.isTransient(Mockito.mock(RetryableException.class))).isTrue();
+		assertThat(DeliveryRetryPolicy.isTransient(Mockito.mock(CallNotPermittedException.class))).isTrue();
+		assertThat(DeliveryRetryPolicy.isTransient(PERMANENT_FAILURE)).isFalse();
+		assertThat(DeliveryRetryPolicy.isTransient(new IllegalArgumentException())).isFalse();
+	}
+
+	private static DeliveryRetryPolicy createPolicy(final boolean retryEnabled, final boolean outboxEnabled, final double jitter) {
+		final var retryProperties = new DeliveryRetryProperties(retryEnabled, 3, Duration.ofSeconds(10), Duration.ofMinutes(1), 2.0, jitter);
+		final var outboxProperties = new DeliveryOutboxProperties(outboxEnabled, 50, 200, Duration.ofMinutes(15), Duration.ofSeconds(1), 50, Duration.ofMinutes(10));
+		return new DeliveryRetryPolicy(retryProperties, outboxProperties);
+	}
+}
@@ -0,0 +1,201 @@
+package se.sundsvall.postportalservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import se.sundsvall.postportalservice.configuration.DeliveryExecutorConfiguration.DeliverySchedulingProperties;
+import se.sundsvall.postportalservice.configuration.DeliveryExecutorConfiguration.DeliverySchedulingProperties.Lanes;
+import se.sundsvall.postportalservice.integration.db.DepartmentEntity;
+import se.sundsvall.postportalservice.integration.db.MessageEntity;
+import se.sundsvall.postportalservice.integration.db.RecipientEntity;
+import se.sundsvall.postportalservice.service.MessageService.Delivery;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static se.sundsvall.postportalservice.service.DeliveryLane.BULK;
+import static se.sundsvall.postportalservice.service.DeliveryLane.INTERACTIVE;
+
+class DeliverySchedulerTest {
+
+	private static final MessageEntity BULK_MESSAGE = createMessage("2281", "bulkDepartment");
+	private static final MessageEntity URGENT_MESSAGE = createMessage("2281", "urgentDepartment");
+	private static final Lanes LANES_DISABLED = new Lanes(false, 10, 2);
+
+	private final Deque<Runnable> executed = new ArrayDeque<>();
+	private final List<String> delivered = new ArrayList<>();
+	private final DeliveryMetrics deliveryMetrics = new DeliveryMetrics(new SimpleMeterRegistry());
+
+	@Test
+	void submit_schedulingDisabled() {
+		final var scheduler = new DeliveryScheduler(executed::add, new DeliverySchedulingProperties(false, 1, 1, LANES_DISABLED), deliveryMetrics);
+
+		scheduler.submit(BULK_MESSAGE, INTERACTIVE, delivery("bulk1", 1));
+		scheduler.submit(BULK_MESSAGE, INTERACTIVE, delivery("bulk2", 1));
+
+		// Everything goes straight to the executor
+		assertThat(executed).hasSize(2);
+		assertThat(scheduler.getQueued()).isZero();
+		assertThat(scheduler.getPendingRecipients()).isEqualTo(2);
+		runAll();
+		assertThat(delivered).containsExactly("bulk1", "bulk2");
+		assertThat(scheduler.getPendingRecipients()).isZero();
+		assertThat(scheduler.getCompletedRecipients()).isEqualTo(2);
+	}
+
+	@Test
+	void submit_limitsInFlight() {
+		final var scheduler = new DeliveryScheduler(executed::add, new DeliverySchedulingProperties(true, 2, 1, LANES_DISABLED), deliveryMetrics);
+
+		for (int i = 1; i <= 5; i++) {
+			scheduler.submit(BULK_MESSAGE, INTERACTIVE, delivery("bulk" + i, 1));
+		}
+
+		assertThat(executed).hasSize(2);
+		assertThat(scheduler.getInFlight()).isEqualTo(2);
+		assertThat(scheduler.getQueued()).isEqualTo(3);
+		assertThat(scheduler.getPendingRecipients()).isEqualTo(5);
+
+		runAll();
+
+		assertThat(delivered).containsExactly("bulk1", "bulk2", "bulk3", "bulk4", "bulk5");
+		assertThat(scheduler.getInFlight()).isZero();
+		assertThat(scheduler.getQueued()).isZero();
+		assertThat(scheduler.getPendingRecipients()).isZero();
+		assertThat(scheduler.getCompletedRecipients()).isEqualTo(5);
+	}
+
+	@Test
+	void submit_servesSendersInRoundRobin() {
+		final var scheduler = new DeliveryScheduler(executed::add, new DeliverySchedulingProperties(true, 1, 1, LANES_DISABLED), deliveryMetrics);
+
+		for (int i = 1; i <= 4; i++) {
+			scheduler.submit(BULK_MESSAGE, INTERACTIVE, delivery("bulk" + i, 1));
+		}
+		scheduler.submit(URGENT_MESSAGE, INTERACTIVE, delivery("urgent", 1));
+
+		runAll();
+
+		// The urgent delivery only waits for the bulk delivery already in flight and one turn of the bulk sender
+		assertThat(delivered).containsExactly("bulk1", "bulk2", "urgent", "bulk3", "bulk4");
+	}
+
+	@Test
+	void submit_chargesBatchesByRecipientCount() {
+		final var scheduler = new DeliveryScheduler(executed::add, new DeliverySchedulingProperties(true, 1, 1, LANES_DISABLED), deliveryMetrics);
+
+		scheduler.submit(BULK_MESSAGE, INTERACTIVE, delivery("inFlight", 1));
+		scheduler.submit(BULK_MESSAGE, INTERACTIVE, delivery("bulkBatch", 3));
+		scheduler.submit(URGENT_MESSAGE, INTERACTIVE, delivery("urgent1", 1));
+		scheduler.submit(URGENT_MESSAGE, INTERACTIVE, delivery("urgent2", 1));
+		scheduler.submit(URGENT_MESSAGE, INTERACTIVE, delivery("urgent3", 1));
+
+		runAll();
+
+		// A batch of three recipients has to save up three quanta, during which the other sender is served
+		assertThat(delivered).containsExactly("inFlight", "urgent1", "urgent2", "bulkBatch", "urgent3");
+	}
+
+	@Test
+	void submit_interactiveLaneHasReservedCapacity() {
+		final var scheduler = new DeliveryScheduler(executed::add, new DeliverySchedulingProperties(true, 2, 1, new Lanes(true, 10, 1)), deliveryMetrics);
+
+		for (int i = 1; i <= 3; i++) {
+			scheduler.submit(BULK_MESSAGE, BULK, delivery("bulk" + i, 1));
+		}
+
+		// The bulk lane may only use the slot that is not reserved for interactive deliveries
+		assertThat(executed).hasSize(1);
+		assertThat(scheduler.getBulkInFlight()).isOne();
+
+		scheduler.submit(URGENT_MESSAGE, INTERACTIVE, delivery("urgent", 1));
+
+		assertThat(executed).hasSize(2);
+		assertThat(scheduler.getInFlight()).isEqualTo(2);
+		assertThat(scheduler.getQueued()).isEqualTo(2);
+
+		runAll();
+
+		assertThat(delivered).containsExactly("bulk1", "urgent", "bulk2", "bulk3");
+		assertThat(scheduler.getInFlight()).isZero();
+		assertThat(scheduler.getBulkInFlight()).isZero();
+	}
+
+	@Test
+	void submit_interactiveLaneServedFirst() {
+		final var scheduler = new DeliveryScheduler(executed::add, new DeliverySchedulingProperties(true, 1, 1, new Lanes(true, 10, 0)), deliveryMetrics);
+
+		for (int i = 1; i <= 3; i++) {
+			scheduler.submit(BULK_MESSAGE, BULK, delivery("bulk" + i, 1));
+		}
+		scheduler.submit(URGENT_MESSAGE, INTERACTIVE, delivery("urgent", 1));
+
+		runAll();
+
+		// The interactive delivery only waits for the bulk delivery already in flight
+		assertThat(delivered).containsExactly("bulk1", "urgent", "bulk2", "bulk3");
+	}
+
+	@Test
+	void submit_sameSenderInBothLanes() {
+		final var scheduler = new DeliveryScheduler(executed::add, new DeliverySchedulingProperties(true, 1, 1, new Lanes(true, 10, 0)), deliveryMetrics);
+
+		scheduler.submit(BULK_MESSAGE, BULK, delivery("bulk1", 1));
+		scheduler.submit(BULK_MESSAGE, BULK, delivery("bulk2", 1));
+		scheduler.submit(BULK_MESSAGE, INTERACTIVE, delivery("interactive", 1));
+
+		runAll();
+
+		assertThat(delivered).containsExactly("bulk1", "interactive", "bulk2");
+	}
+
+	@Test
+	void flowKey() {
+		assertThat(DeliveryScheduler.flowKey(createMessage("2281", "department"))).isEqualTo("2281/department");
+		assertThat(DeliveryScheduler.flowKey(createMessage("2262", "department"))).isEqualTo("2262/department");
+		assertThat(DeliveryScheduler.flowKey(MessageEntity.create().withMunicipalityId("2281"))).isEqualTo("2281/null");
+	}
+
+	@Test
+	void submit_executorRejects() {
+		final var scheduler = new DeliveryScheduler(_ -> {
+			throw new IllegalStateException("Executor shut down");
+		}, new DeliverySchedulingProperties(true, 1, 1, LANES_DISABLED), deliveryMetrics);
+
+		assertThatThrownBy(() -> scheduler.submit(BULK_MESSAGE, INTERACTIVE, delivery("bulk", 1)))
+			.isInstanceOf(IllegalStateException.class)
+			.hasMessage("Executor shut down");
+		assertThat(scheduler.getInFlight()).isZero();
+		assertThat(scheduler.getPendingRecipients()).isZero();
+	}
+
+	@Test
+	void submit_schedulingDisabledExecutorRejects() {
+		final var scheduler = new DeliveryScheduler(_ -> {
+			throw new IllegalStateException("Executor shut down");
+		}, new DeliverySchedulingProperties(false, 1, 1, LANES_DISABLED), deliveryMetrics);
+
+		assertThatThrownBy(() -> scheduler.submit(BULK_MESSAGE, INTERACTIVE, delivery("bulk", 3)))
+			.isInstanceOf(IllegalStateException.class);
+		assertThat(scheduler.getPendingRecipients()).isZero();
+	}
+
+	private Delivery delivery(final String name, final int recipients) {
+		return new Delivery(Collections.nCopies(recipients, RecipientEntity.create()), () -> delivered.add(name));
+	}
+
+	private void runAll() {
+		while (!executed.isEmpty()) {
+			executed.pollFirst().run();
+		}
+	}
+
+	private static MessageEntity createMessage(final String municipalityId, final String organizationId) {
+		return MessageEntity.create()
+			.withMunicipalityId(municipalityId)
+			.withDepartment(DepartmentEntity.create().withOrganizationId(organizationId));
+	}
+}
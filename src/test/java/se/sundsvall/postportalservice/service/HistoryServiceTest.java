@@ -20,7 +20,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
-import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import se.sundsvall.dept44.problem.Problem;
 import se.sundsvall.postportalservice.api.model.SigningInformation;
@@ -30,6 +30,8 @@ import se.sundsvall.postportalservice.integration.db.MessageEntity;
 import se.sundsvall.postportalservice.integration.db.RecipientEntity;
 import se.sundsvall.postportalservice.integration.db.SigningEntity;
 import se.sundsvall.postportalservice.integration.db.converter.MessageType;
+import se.sundsvall.postportalservice.integration.db.dao.MessageProgressRepository;
+import se.sundsvall.postportalservice.integration.db.dao.MessageProgressRepository.Progress;
 import se.sundsvall.postportalservice.integration.db.dao.MessageRepository;
 import se.sundsvall.postportalservice.integration.db.dao.SigningRepository;
 import se.sundsvall.postportalservice.integration.digitalregisteredletter.DigitalRegisteredLetterIntegration;
@@ -48,8 +50,6 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
-import static org.springframework.http.HttpHeaders.CONTENT_DISPOSITION;
-import static org.springframework.http.HttpStatus.OK;
 import static org.springframework.http.MediaType.APPLICATION_PDF;
 import static org.springframework.http.ResponseEntity.ok;
 import static se.sundsvall.postportalservice.TestDataFactory.MUNICIPALITY_ID;
@@ -66,6 +66,9 @@ class HistoryServiceTest {
 	@Mock
 	private MessageRepository messageRepositoryMock;
 
+	@Mock
+	private MessageProgressRepository messageProgressRepositoryMock;
+
 	@Mock(answer = Answers.CALLS_REAL_METHODS)
 	private HistoryMapper historyMapperMock;
 
@@ -86,7 +89,7 @@ class HistoryServiceTest {
 
 	@AfterEach
 	void ensureNoUnexpectedMockInteractions() {
-		verifyNoMoreInteractions(messageRepositoryMock, pageMock, historyMapperMock, digitalRegisteredLetterIntegrationMock, partyIntegrationMock, signingRepositoryMock, attachmentServiceMock);
+		verifyNoMoreInteractions(messageRepositoryMock, messageProgressRepositoryMock, pageMock, historyMapperMock, digitalRegisteredLetterIntegrationMock, partyIntegrationMock, signingRepositoryMock, attachmentServiceMock);
 	}
 
 	@ParameterizedTest
@@ -626,21 +629,19 @@ class HistoryServiceTest {
 		final var messageId = "messageId";
 		final var attachmentId = "attachmentId";
 		final var signing = SigningEntity.create().withAttachment(new AttachmentEntity().withId(attachmentId));
-		final StreamingResponseBody stream = outputStream -> outputStream.write("signed".getBytes());
-		final var contentDisposition = ContentDisposition.attachment().filename("signed.pdf").build();
-		final var attachmentData = new AttachmentService.AttachmentData(contentDisposition, APPLICATION_PDF, stream);
+		final var requestHeaders = new HttpHeaders();
+		final var response = ok()
+			.contentType(APPLICATION_PDF)
+			.body((StreamingResponseBody) outputStream -> outputStream.write("signed".getBytes()));
 
 		when(signingRepositoryMock.findByMessageId(messageId)).thenReturn(Optional.of(signing));
-		when(attachmentServiceMock.getAttachmentData(MUNICIPALITY_ID, attachmentId)).thenReturn(attachmentData);
+		when(attachmentServiceMock.downloadAttachment(MUNICIPALITY_ID, attachmentId, requestHeaders)).thenReturn(response);
 
-		final var result = historyService.getSignedDocument(MUNICIPALITY_ID, messageId);
+		final var result = historyService.getSignedDocument(MUNICIPALITY_ID, messageId, requestHeaders);
 
-		assertThat(result.getStatusCode()).isEqualTo(OK);
-		assertThat(result.getHeaders().getFirst(CONTENT_DISPOSITION)).isEqualTo(contentDisposition.toString());
-		assertThat(result.getHeaders().getContentType()).isEqualTo(APPLICATION_PDF);
-		assertThat(result.getBody()).isSameAs(stream);
+		assertThat(result).isSameAs(response);
 		verify(signingRepositoryMock).findByMessageId(messageId);
-		verify(attachmentServiceMock).getAttachmentData(MUNICIPALITY_ID, attachmentId);
+		verify(attachmentServiceMock).downloadAttachment(MUNICIPALITY_ID, attachmentId, requestHeaders);
 	}
 
 	@Test
@@ -648,7 +649,7 @@ class HistoryServiceTest {
 		final var messageId = "messageId";
 		when(signingRepositoryMock.findByMessageId(messageId)).thenReturn(Optional.empty());
 
-		assertThatThrownBy(() -> historyService.getSignedDocument(MUNICIPALITY_ID, messageId))
+		assertThatThrownBy(() -> historyService.getSignedDocument(MUNICIPALITY_ID, messageId, new HttpHeaders()))
 			.isInstanceOf(Problem.class)
 			.hasMessageContaining("Not Found: No signed document available for message with id '%s'".formatted(messageId));
 
@@ -661,7 +662,7 @@ class HistoryServiceTest {
 		final var messageId = "messageId";
 		when(signingRepositoryMock.findByMessageId(messageId)).thenReturn(Optional.of(SigningEntity.create()));
 
-		assertThatThrownBy(() -> historyService.getSignedDocument(MUNICIPALITY_ID, messageId))
+		assertThatThrownBy(() -> historyService.getSignedDocument(MUNICIPALITY_ID, messageId, new HttpHeaders()))
 			.isInstanceOf(Problem.class)
 			.hasMessageContaining("Not Found: No signed document available for message with id '%s'".formatted(messageId));
 
@@ -669,4 +670,32 @@ class HistoryServiceTest {
 		verifyNoInteractions(attachmentServiceMock);
 	}
 
+	@Test
+	void getMessageProgress() {
+		final var messageId = "messageId";
+		final var progress = new Progress(40, 30, 10, 15, 5);
+		when(messageProgressRepositoryMock.find(MUNICIPALITY_ID, messageId)).thenReturn(Optional.of(progress));
+
+		final var result = historyService.getMessageProgress(MUNICIPALITY_ID, messageId);
+
+		assertThat(result.getMessageId()).isEqualTo(messageId);
+		assertThat(result.getTotal()).isEqualTo(100);
+		assertThat(result.getPending()).isEqualTo(40);
+		assertThat(result.getUndeliverable()).isEqualTo(5);
+		verify(messageProgressRepositoryMock).find(MUNICIPALITY_ID, messageId);
+		verify(historyMapperMock).toMessageProgress(messageId, progress);
+	}
+
+	@Test
+	void getMessageProgress_notFound() {
+		final var messageId = "messageId";
+		when(messageProgressRepositoryMock.find(MUNICIPALITY_ID, messageId)).thenReturn(Optional.empty());
+
+		assertThatThrownBy(() -> historyService.getMessageProgress(MUNICIPALITY_ID, messageId))
+			.isInstanceOf(Problem.class)
+			.hasMessageContaining("Not Found: Message with id '%s' and municipalityId '%s' not found".formatted(messageId, MUNICIPALITY_ID));
+
+		verify(messageProgressRepositoryMock).find(MUNICIPALITY_ID, messageId);
+	}
+
 }
@@ -7,12 +7,15 @@ import generated.se.sundsvall.messaging.DeliveryResult;
 import generated.se.sundsvall.messaging.MessageBatchResult;
 import generated.se.sundsvall.messaging.MessageResult;
 import generated.se.sundsvall.messaging.MessageStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -24,8 +27,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.multipart.MultipartFile;
 import se.sundsvall.dept44.problem.Problem;
 import se.sundsvall.dept44.support.Identifier;
@@ -35,6 +38,14 @@ import se.sundsvall.postportalservice.api.model.ESigningRequest;
 import se.sundsvall.postportalservice.api.model.ESigningSignatory;
 import se.sundsvall.postportalservice.api.model.Recipient;
 import se.sundsvall.postportalservice.api.model.SmsRecipient;
+import se.sundsvall.postportalservice.configuration.DeliveryExecutorConfiguration.DeliveryBatchProperties;
+import se.sundsvall.postportalservice.configuration.DeliveryExecutorConfiguration.DeliveryBatchProperties.Batch;
+import se.sundsvall.postportalservice.configuration.DeliveryExecutorConfiguration.DeliveryConcurrencyProperties;
+import se.sundsvall.postportalservice.configuration.DeliveryExecutorConfiguration.DeliveryConcurrencyProperties.Adaptive;
+import se.sundsvall.postportalservice.configuration.DeliveryExecutorConfiguration.DeliverySchedulingProperties;
+import se.sundsvall.postportalservice.configuration.DeliveryExecutorConfiguration.DeliverySchedulingProperties.Lanes;
+import se.sundsvall.postportalservice.configuration.DeliveryOutboxConfiguration.DeliveryOutboxProperties;
+import se.sundsvall.postportalservice.configuration.DeliveryOutboxConfiguration.DeliveryRetryProperties;
 import se.sundsvall.postportalservice.integration.citizen.CitizenIntegration;
 import se.sundsvall.postportalservice.integration.db.AttachmentEntity;
 import se.sundsvall.postportalservice.integration.db.DepartmentEntity;
@@ -44,9 +55,10 @@ import se.sundsvall.postportalservice.integration.db.SigningEntity;
 import se.sundsvall.postportalservice.integration.db.UserEntity;
 import se.sundsvall.postportalservice.integration.db.converter.MessageType;
 import se.sundsvall.postportalservice.integration.db.converter.PartyType;
+import se.sundsvall.postportalservice.integration.db.dao.DeliveryOutboxRepository;
 import se.sundsvall.postportalservice.integration.db.dao.DepartmentRepository;
+import se.sundsvall.postportalservice.integration.db.dao.MessageProgressRepository;
 import se.sundsvall.postportalservice.integration.db.dao.MessageRepository;
-import se.sundsvall.postportalservice.integration.db.dao.RecipientRepository;
 import se.sundsvall.postportalservice.integration.db.dao.SigningRepository;
 import se.sundsvall.postportalservice.integration.db.dao.UserRepository;
 import se.sundsvall.postportalservice.integration.digitalregisteredletter.DigitalRegisteredLetterIntegration;
@@ -65,8 +77,11 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -76,6 +91,7 @@ import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 import static se.sundsvall.postportalservice.Constants.CANCELLED;
 import static se.sundsvall.postportalservice.Constants.FAILED;
+import static se.sundsvall.postportalservice.Constants.PENDING;
 import static se.sundsvall.postportalservice.Constants.SENT;
 import static se.sundsvall.postportalservice.TestDataFactory.MUNICIPALITY_ID;
 import static se.sundsvall.postportalservice.service.util.MessagingSettingsUtil.CONTACT_INFORMATION_EMAIL;
@@ -122,7 +138,10 @@ class MessageServiceTest {
 	private MessageRepository messageRepositoryMock;
 
 	@Mock
-	private RecipientRepository recipientRepositoryMock;
+	private MessageProgressRepository messageProgressRepositoryMock;
+
+	@Mock
+	private RecipientStatusWriter recipientStatusWriterMock;
 
 	@Mock
 	private MessagingSettingsIntegration messagingSettingsIntegrationMock;
@@ -137,7 +156,10 @@ class MessageServiceTest {
 	private PartyIntegration partyIntegrationMock;
 
 	@Mock
-	private ThreadPoolTaskExecutor deliveryExecutorMock;
+	private DeliveryScheduler deliverySchedulerMock;
+
+	@Mock
+	private DeliveryAdmissionControl deliveryAdmissionControlMock;
 
 	@Mock
 	private EsigningIntegration esigningIntegrationMock;
@@ -148,6 +170,32 @@ class MessageServiceTest {
 	@Mock
 	private SigningRepository signingRepositoryMock;
 
+	@Mock
+	private DeliveryOutboxRepository deliveryOutboxRepositoryMock;
+
+	@Mock
+	private DeliveryOutboxProperties deliveryOutboxPropertiesMock;
+
+	@Spy
+	private DeliveryConcurrencyLimiter deliveryConcurrencyLimiter = new DeliveryConcurrencyLimiter(
+		new DeliveryConcurrencyProperties(Map.of(), Map.of(), new Adaptive(false, 8, 1, 64, 0.9, Duration.ofSeconds(5))), new SimpleMeterRegistry());
+
+	@Mock
+	private SnailMailBatchService snailMailBatchServiceMock;
+
+	@Spy
+	private DeliveryRetryPolicy deliveryRetryPolicy = new DeliveryRetryPolicy(
+		new DeliveryRetryProperties(false, 5, Duration.ofSeconds(30), Duration.ofMinutes(30), 2.0, 0.2), mock(DeliveryOutboxProperties.class));
+
+	@Spy
+	private DeliveryMetrics deliveryMetrics = new DeliveryMetrics(new SimpleMeterRegistry());
+
+	@Spy
+	private DeliverySchedulingProperties deliverySchedulingProperties = new DeliverySchedulingProperties(true, 8, 1, new Lanes(true, 10, 2));
+
+	@Spy
+	private DeliveryBatchProperties deliveryBatchProperties = new DeliveryBatchProperties(new Batch(false, 500), new Batch(false, 50));
+
 	@Captor
 	private ArgumentCaptor<MessageEntity> messageEntityCaptor;
 
@@ -169,9 +217,10 @@ class MessageServiceTest {
 		verifyNoMoreInteractions(attachmentMapperMock, entityMapperMock,
 			messagingIntegrationMock, messagingSettingsIntegrationMock,
 			departmentRepositoryMock, userRepositoryMock,
-			messageRepositoryMock, recipientRepositoryMock, digitalRegisteredLetterIntegrationMock,
+			messageRepositoryMock, messageProgressRepositoryMock, recipientStatusWriterMock, digitalRegisteredLetterIntegrationMock,
 			citizenIntegrationMock, partyIntegrationMock,
-			esigningIntegrationMock, esigningMapperMock, signingRepositoryMock);
+			esigningIntegrationMock, esigningMapperMock, signingRepositoryMock,
+			deliveryOutboxRepositoryMock, snailMailBatchServiceMock, deliveryAdmissionControlMock);
 	}
 
 	@Test
@@ -198,7 +247,7 @@ class MessageServiceTest {
 		doAnswer(invocation -> {
 			invocation.getArgument(0, MessageEntity.class).setId("msg-1");
 			return invocation.getArgument(0);
-		}).when(messageRepositoryMock).save(any(MessageEntity.class));
+		}).when(messageRepositoryMock).saveAndFlush(any(MessageEntity.class));
 		when(esigningMapperMock.toStartSigningRequest(any(MessageEntity.class), eq(request), eq(documentEntity), eq(List.of(attachmentEntity)))).thenReturn(startSigningRequest);
 		when(esigningIntegrationMock.createSigning(MUNICIPALITY_ID, startSigningRequest)).thenReturn(response);
 
@@ -210,7 +259,9 @@ class MessageServiceTest {
 		verify(departmentRepositoryMock).findByOrganizationId("departmentId");
 		verify(attachmentMapperMock).toAttachmentEntity(documentFile);
 		verify(attachmentMapperMock).toAttachmentEntities(attachments);
-		verify(messageRepositoryMock).save(messageEntityCaptor.capture());
+		verify(messageRepositoryMock).saveAndFlush(messageEntityCaptor.capture());
+		verify(messageProgressRepositoryMock).initialize(any(MessageEntity.class));
+		verify(attachmentMapperMock).encodeContent(List.of(documentEntity, attachmentEntity));
 		verify(esigningMapperMock).toStartSigningRequest(any(MessageEntity.class), eq(request), eq(documentEntity), eq(List.of(attachmentEntity)));
 		verify(esigningIntegrationMock).createSigning(MUNICIPALITY_ID, startSigningRequest);
 		final var signingCaptor = ArgumentCaptor.forClass(SigningEntity.class);
@@ -326,7 +377,7 @@ class MessageServiceTest {
 		}).when(digitalRegisteredLetterIntegrationMock).sendLetter(any(MessageEntity.class), any(RecipientEntity.class));
 		when(userRepositoryMock.findByUsernameIgnoreCase(USERNAME)).thenReturn(Optional.empty());
 		when(departmentRepositoryMock.findByOrganizationId("departmentId")).thenReturn(Optional.empty());
-		when(attachmentMapperMock.toAttachmentEntities(multipartFiles)).thenReturn(attachmentEntities);
+		when(attachmentMapperMock.toAttachmentEntitiesWithContent(multipartFiles)).thenReturn(attachmentEntities);
 
 		final var result = messageService.processDigitalRegisteredLetterRequest(MUNICIPALITY_ID, request, multipartFiles);
 
@@ -338,6 +389,7 @@ class MessageServiceTest {
 		verify(departmentRepositoryMock).findByOrganizationId("departmentId");
 		verify(digitalRegisteredLetterIntegrationMock).sendLetter(any(), any());
 		verify(messageRepositoryMock).save(messageEntityCaptor.capture());
+		verify(messageProgressRepositoryMock).initialize(any(MessageEntity.class));
 		final var messageEntity = messageEntityCaptor.getValue();
 		assertThat(messageEntity).isNotNull();
 		assertThat(messageEntity.getId()).isEqualTo("messageId");
@@ -392,7 +444,7 @@ class MessageServiceTest {
 		}).when(digitalRegisteredLetterIntegrationMock).sendLetter(any(MessageEntity.class), any(RecipientEntity.class));
 		when(userRepositoryMock.findByUsernameIgnoreCase(USERNAME)).thenReturn(Optional.of(userEntity));
 		when(departmentRepositoryMock.findByOrganizationId("departmentId")).thenReturn(Optional.of(departmentEntity));
-		when(attachmentMapperMock.toAttachmentEntities(multipartFileList)).thenReturn(attachmentEntities);
+		when(attachmentMapperMock.toAttachmentEntitiesWithContent(multipartFileList)).thenReturn(attachmentEntities);
 
 		final var result = messageService.processDigitalRegisteredLetterRequest(MUNICIPALITY_ID, request, multipartFileList);
 
@@ -404,6 +456,7 @@ class MessageServiceTest {
 		verify(departmentRepositoryMock).findByOrganizationId("departmentId");
 		verify(digitalRegisteredLetterIntegrationMock).sendLetter(any(), any());
 		verify(messageRepositoryMock).save(messageEntityCaptor.capture());
+		verify(messageProgressRepositoryMock).initialize(any(MessageEntity.class));
 		final var messageEntity = messageEntityCaptor.getValue();
 		assertThat(messageEntity).isNotNull();
 		assertThat(messageEntity.getId()).isEqualTo("messageId");
@@ -474,7 +527,7 @@ class MessageServiceTest {
 		when(partyIntegrationMock.getPartyTypes(MUNICIPALITY_ID, List.of(partyId)))
 			.thenReturn(Map.of(partyId, PartyType.PRIVATE));
 
-		doNothing().when(spy).processRecipients(any(), any());
+		doNothing().when(spy).processRecipients(any(), any(), eq(false));
 		when(messageRepositoryMock.save(any())).thenAnswer(invocation -> invocation.getArgument(0, MessageEntity.class).withId(messageId));
 
 		final var result = spy.processLetterRequest(MUNICIPALITY_ID, letterRequest, multipartFileList);
@@ -487,8 +540,10 @@ class MessageServiceTest {
 		verify(partyIntegrationMock).getPartyTypes(MUNICIPALITY_ID, List.of(partyId));
 		verify(entityMapperMock).toRecipientEntity(any(Address.class));
 		verify(entityMapperMock).toRecipientEntity(any(Recipient.class), eq(PartyType.PRIVATE));
-		verify(spy).processRecipients(any(), any());
+		verify(deliveryAdmissionControlMock).admit(2);
+		verify(spy).processRecipients(any(), any(), eq(false));
 		verify(messageRepositoryMock).save(any());
+		verify(messageProgressRepositoryMock).initialize(any(MessageEntity.class));
 	}
 
 	@Test
@@ -502,7 +557,7 @@ class MessageServiceTest {
 		when(messagingSettingsIntegrationMock.getMessagingSettingsForUser(MUNICIPALITY_ID)).thenReturn(SETTINGS_MAP);
 		when(userRepositoryMock.findByUsernameIgnoreCase(Identifier.get().getValue())).thenReturn(Optional.of(userEntity));
 		when(departmentRepositoryMock.findByOrganizationId(SETTINGS_MAP.get(DEPARTMENT_ID))).thenReturn(Optional.of(departmentEntity));
-		doNothing().when(spy).processRecipients(any(), any());
+		doNothing().when(spy).processRecipients(any(), any(), eq(false));
 		when(messageRepositoryMock.save(any())).thenAnswer(invocation -> invocation.getArgument(0, MessageEntity.class).withId(messageId));
 
 		final var result = spy.processSmsRequest(MUNICIPALITY_ID, smsRequest);
@@ -512,8 +567,39 @@ class MessageServiceTest {
 		verify(userRepositoryMock).findByUsernameIgnoreCase(Identifier.get().getValue());
 		verify(departmentRepositoryMock).findByOrganizationId(SETTINGS_MAP.get(DEPARTMENT_ID));
 		verify(entityMapperMock).toRecipientEntity(any(SmsRecipient.class));
-		verify(spy).processRecipients(any(), any());
+		verify(deliveryAdmissionControlMock).admit(1);
+		verify(spy).processRecipients(any(), any(), eq(false));
 		verify(messageRepositoryMock).save(any());
+		verify(messageProgressRepositoryMock).initialize(any(MessageEntity.class));
+	}
+
+	@Test
+	void processSmsRequest_deliveryBacklogFull() {
+		final var smsRequest = TestDataFactory.createValidSmsRequest();
+
+		doThrow(new DeliveryBacklogFullException("Delivery backlog is full", Duration.ofSeconds(30))).when(deliveryAdmissionControlMock).admit(1);
+
+		assertThatThrownBy(() -> messageService.processSmsRequest(MUNICIPALITY_ID, smsRequest))
+			.isInstanceOf(DeliveryBacklogFullException.class)
+			.hasFieldOrPropertyWithValue("retryAfter", Duration.ofSeconds(30));
+
+		// Rejected before anything is looked up or stored
+		verify(deliveryAdmissionControlMock).admit(1);
+		verifyNoInteractions(messagingSettingsIntegrationMock, userRepositoryMock, departmentRepositoryMock, entityMapperMock, messageRepositoryMock, deliverySchedulerMock);
+	}
+
+	@Test
+	void processLetterRequest_deliveryBacklogFull() {
+		final var letterRequest = TestDataFactory.createValidLetterRequest();
+
+		doThrow(new DeliveryBacklogFullException("Delivery backlog is full", Duration.ofSeconds(30))).when(deliveryAdmissionControlMock).admit(2);
+
+		assertThatThrownBy(() -> messageService.processLetterRequest(MUNICIPALITY_ID, letterRequest, List.of(Mockito.mock(MultipartFile.class))))
+			.isInstanceOf(DeliveryBacklogFullException.class);
+
+		// Rejected before the attachments are stored
+		verify(deliveryAdmissionControlMock).admit(2);
+		verifyNoInteractions(messagingSettingsIntegrationMock, partyIntegrationMock, attachmentMapperMock, messageRepositoryMock, deliverySchedulerMock);
 	}
 
 	@Test
@@ -533,7 +619,7 @@ class MessageServiceTest {
 		when(messagingSettingsIntegrationMock.getMessagingSettingsForUser(MUNICIPALITY_ID)).thenReturn(SETTINGS_MAP);
 		when(userRepositoryMock.findByUsernameIgnoreCase(Identifier.get().getValue())).thenReturn(Optional.of(userEntity));
 		when(departmentRepositoryMock.findByOrganizationId(SETTINGS_MAP.get(DEPARTMENT_ID))).thenReturn(Optional.of(departmentEntity));
-		doNothing().when(spy).processRecipients(any(), eq(SETTINGS_MAP));
+		doNothing().when(spy).processRecipients(any(), eq(SETTINGS_MAP), eq(true));
 		when(messageRepositoryMock.save(any())).thenAnswer(invocation -> invocation.getArgument(0, MessageEntity.class).withId(messageId));
 
 		try (MockedStatic<CsvUtil> csvUtilMock = Mockito.mockStatic(CsvUtil.class)) {
@@ -548,8 +634,10 @@ class MessageServiceTest {
 		verify(messagingSettingsIntegrationMock).getMessagingSettingsForUser(MUNICIPALITY_ID);
 		verify(userRepositoryMock).findByUsernameIgnoreCase(Identifier.get().getValue());
 		verify(departmentRepositoryMock).findByOrganizationId(SETTINGS_MAP.get(DEPARTMENT_ID));
-		verify(spy).processRecipients(messageEntityCaptor.capture(), eq(SETTINGS_MAP));
+		verify(deliveryAdmissionControlMock).admit(2);
+		verify(spy).processRecipients(messageEntityCaptor.capture(), eq(SETTINGS_MAP), eq(true));
 		verify(messageRepositoryMock).save(any());
+		verify(messageProgressRepositoryMock).initialize(any(MessageEntity.class));
 
 		final var capturedMessage = messageEntityCaptor.getValue();
 		assertThat(capturedMessage.getBody()).isEqualTo("This is a test message");
@@ -574,10 +662,48 @@ class MessageServiceTest {
 		runDeliveryExecutorInline();
 		doNothing().when(spy).deliver(any(), any(), any());
 
-		spy.processRecipients(messageEntity, SETTINGS_MAP);
+		spy.processRecipients(messageEntity, SETTINGS_MAP, false);
 
+		verify(attachmentMapperMock).encodeContent(messageEntity.getAttachments());
 		verify(spy).deliver(messageEntity, recipient1, SETTINGS_MAP);
 		verify(spy).deliver(messageEntity, recipient2, SETTINGS_MAP);
+		verify(deliverySchedulerMock, times(2)).submit(eq(messageEntity), eq(DeliveryLane.INTERACTIVE), any());
+	}
+
+	@Test
+	void processRecipients_bulkRequest() {
+		final var spy = Mockito.spy(messageService);
+		final var recipient = new RecipientEntity().withFirstName("john");
+		final var messageEntity = MessageEntity.create()
+			.withRecipients(List.of(recipient));
+
+		runDeliveryExecutorInline();
+		doNothing().when(spy).deliver(any(), any(), any());
+
+		spy.processRecipients(messageEntity, SETTINGS_MAP, true);
+
+		verify(attachmentMapperMock).encodeContent(messageEntity.getAttachments());
+		verify(spy).deliver(messageEntity, recipient, SETTINGS_MAP);
+		verify(deliverySchedulerMock).submit(eq(messageEntity), eq(DeliveryLane.BULK), any());
+	}
+
+	@Test
+	void processRecipients_manyRecipients() {
+		final var spy = Mockito.spy(messageService);
+		final var recipients = IntStream.rangeClosed(1, 11)
+			.mapToObj(i -> new RecipientEntity().withFirstName("recipient" + i))
+			.toList();
+		final var messageEntity = MessageEntity.create()
+			.withRecipients(recipients);
+
+		runDeliveryExecutorInline();
+		doNothing().when(spy).deliver(any(), any(), any());
+
+		spy.processRecipients(messageEntity, SETTINGS_MAP, false);
+
+		verify(attachmentMapperMock).encodeContent(messageEntity.getAttachments());
+		verify(spy, times(11)).deliver(eq(messageEntity), any(), eq(SETTINGS_MAP));
+		verify(deliverySchedulerMock, times(11)).submit(eq(messageEntity), eq(DeliveryLane.BULK), any());
 	}
 
 	@Test
@@ -592,21 +718,222 @@ class MessageServiceTest {
 		runDeliveryExecutorInline();
 		doNothing().when(spy).deliver(any(), any(), any());
 
-		spy.processRecipients(messageEntity, SETTINGS_MAP);
+		spy.processRecipients(messageEntity, SETTINGS_MAP, false);
 
+		verify(attachmentMapperMock).encodeContent(messageEntity.getAttachments());
 		verify(spy).deliver(messageEntity, deliverable, SETTINGS_MAP);
 		verify(spy, never()).deliver(messageEntity, undeliverable, SETTINGS_MAP);
 	}
 
+	@Test
+	void processRecipients_outboxEnabled() {
+		final var spy = Mockito.spy(messageService);
+		final var messageEntity = MessageEntity.create()
+			.withId("messageId")
+			.withRecipients(List.of(new RecipientEntity().withFirstName("john")));
+
+		when(deliveryOutboxPropertiesMock.enabled()).thenReturn(true);
+		when(deliveryOutboxRepositoryMock.enqueue("messageId")).thenReturn(1);
+
+		spy.processRecipients(messageEntity, SETTINGS_MAP, false);
+
+		verify(deliveryOutboxRepositoryMock).enqueue("messageId");
+		verify(spy, never()).deliver(any(), any(), any());
+		verifyNoInteractions(deliverySchedulerMock);
+	}
+
+	@Test
+	void processRecipients_smsBatchEnabled() {
+		final var spy = Mockito.spy(messageService);
+		final var sms1 = new RecipientEntity().withPhoneNumber("+46701740610").withMessageType(MessageType.SMS);
+		final var sms2 = new RecipientEntity().withPhoneNumber("+46701740620").withMessageType(MessageType.SMS);
+		final var sms3 = new RecipientEntity().withPhoneNumber("+46701740630").withMessageType(MessageType.SMS);
+		final var digitalMail = new RecipientEntity().withFirstName("john").withMessageType(MessageType.DIGITAL_MAIL);
+
+		final var messageEntity = MessageEntity.create()
+			.withRecipients(List.of(sms1, digitalMail, sms2, sms3));
+
+		doReturn(new Batch(true, 2)).when(deliveryBatchProperties).forChannel(MessageType.SMS);
+		runDeliveryExecutorInline();
+		doNothing().when(spy).deliver(any(), any(), any());
+		doNothing().when(spy).deliverBatch(any(), any(), any());
+
+		spy.processRecipients(messageEntity, SETTINGS_MAP, false);
+
+		verify(attachmentMapperMock).encodeContent(messageEntity.getAttachments());
+		verify(spy).deliver(messageEntity, digitalMail, SETTINGS_MAP);
+		verify(spy).deliverBatch(MessageType.SMS, messageEntity, List.of(sms1, sms2));
+		verify(spy).deliverBatch(MessageType.SMS, messageEntity, List.of(sms3));
+		verify(spy, never()).deliver(eq(messageEntity), eq(sms1), any());
+	}
+
+	@Test
+	void createDeliveries_digitalMailBatchEnabled() {
+		final var digitalMail1 = new RecipientEntity().withFirstName("john").withMessageType(MessageType.DIGITAL_MAIL);
+		final var digitalMail2 = new RecipientEntity().withFirstName("sarah").withMessageType(MessageType.DIGITAL_MAIL);
+		final var snailMail = new RecipientEntity().withFirstName("jane").withMessageType(MessageType.SNAIL_MAIL);
+
+		doReturn(new Batch(true, 50)).when(deliveryBatchProperties).forChannel(MessageType.DIGITAL_MAIL);
+
+		final var result = messageService.createDeliveries(MessageEntity.create(), List.of(digitalMail1, snailMail, digitalMail2), SETTINGS_MAP);
+
+		assertThat(result)
+			.extracting(MessageService.Delivery::recipients)
+			.containsExactly(List.of(snailMail), List.of(digitalMail1, digitalMail2));
+	}
+
+	@Test
+	void createDeliveries_smsBatchDisabled() {
+		final var sms1 = new RecipientEntity().withPhoneNumber("+46701740610").withMessageType(MessageType.SMS);
+		final var sms2 = new RecipientEntity().withPhoneNumber("+46701740620").withMessageType(MessageType.SMS);
+
+		final var result = messageService.createDeliveries(MessageEntity.create(), List.of(sms1, sms2), SETTINGS_MAP);
+
+		assertThat(result)
+			.extracting(MessageService.Delivery::recipients)
+			.containsExactly(List.of(sms1), List.of(sms2));
+	}
+
+	@Test
+	void deliverBatch_sms() {
+		final var recipient1 = new RecipientEntity().withPhoneNumber("+46701740610").withMessageType(MessageType.SMS);
+		final var recipient2 = new RecipientEntity().withPhoneNumber("+46701740620").withMessageType(MessageType.SMS);
+		final var recipients = List.of(recipient1, recipient2);
+		final var messageEntity = MessageEntity.create().withId("messageId");
+		final var uuid1 = UUID.randomUUID();
+		final var uuid2 = UUID.randomUUID();
+		final var batchResult = new MessageBatchResult()
+			.messages(List.of(
+				new MessageResult().messageId(uuid1).deliveries(List.of(new DeliveryResult().status(MessageStatus.SENT))),
+				new MessageResult().messageId(uuid2).deliveries(List.of(new DeliveryResult().status(MessageStatus.FAILED)))));
+
+		when(messagingIntegrationMock.sendSmsBatch(messageEntity, recipients)).thenReturn(batchResult);
+
+		messageService.deliverBatch(MessageType.SMS, messageEntity, recipients);
+
+		assertThat(recipient1.getStatus()).isEqualTo(MessageStatus.SENT.toString());
+		assertThat(recipient1.getExternalId()).isEqualTo(uuid1.toString());
+		assertThat(recipient2.getStatus()).isEqualTo(MessageStatus.FAILED.toString());
+		assertThat(recipient2.getExternalId()).isEqualTo(uuid2.toString());
+		verify(deliveryConcurrencyLimiter).execute(eq(MessageType.SMS), eq(DeliveryOperation.SEND_SMS_BATCH), any());
+		verify(deliveryMetrics).recordCall(eq(messageEntity), eq(MessageType.SMS), eq(DeliveryOperation.SEND_SMS_BATCH), any());
+		verify(deliveryMetrics).recordOutcome(messageEntity, recipient1);
+		verify(deliveryMetrics).recordOutcome(messageEntity, recipient2);
+		verify(messagingIntegrationMock).sendSmsBatch(messageEntity, recipients);
+		verify(recipientStatusWriterMock).write(recipient1);
+		verify(recipientStatusWriterMock).write(recipient2);
+	}
+
+	@Test
+	void deliverBatch_digitalMail() {
+		final var recipient1 = new RecipientEntity().withPartyId(UUID.randomUUID().toString()).withMessageType(MessageType.DIGITAL_MAIL);
+		final var recipient2 = new RecipientEntity().withPartyId(UUID.randomUUID().toString()).withMessageType(MessageType.DIGITAL_MAIL);
+		final var recipients = List.of(recipient1, recipient2);
+		final var messageEntity = MessageEntity.create().withId("messageId");
+		final var uuid1 = UUID.randomUUID();
+		final var uuid2 = UUID.randomUUID();
+		final var batchResult = new MessageBatchResult()
+			.messages(List.of(
+				new MessageResult().messageId(uuid1).deliveries(List.of(new DeliveryResult().status(MessageStatus.SENT))),
+				new MessageResult().messageId(uuid2).deliveries(List.of(new DeliveryResult().status(MessageStatus.SENT)))));
+
+		when(messagingIntegrationMock.sendDigitalMail(messageEntity, recipients)).thenReturn(batchResult);
+
+		messageService.deliverBatch(MessageType.DIGITAL_MAIL, messageEntity, recipients);
+
+		assertThat(recipient1.getStatus()).isEqualTo(MessageStatus.SENT.toString());
+		assertThat(recipient1.getExternalId()).isEqualTo(uuid1.toString());
+		assertThat(recipient2.getStatus()).isEqualTo(MessageStatus.SENT.toString());
+		assertThat(recipient2.getExternalId()).isEqualTo(uuid2.toString());
+		verify(deliveryConcurrencyLimiter).execute(eq(MessageType.DIGITAL_MAIL), eq(DeliveryOperation.SEND_DIGITAL_MAIL_BATCH), any());
+		verify(messagingIntegrationMock).sendDigitalMail(messageEntity, recipients);
+		verify(recipientStatusWriterMock).write(recipient1);
+		verify(recipientStatusWriterMock).write(recipient2);
+	}
+
+	@Test
+	void deliverBatch_unsupportedMessageType() {
+		final var recipients = List.of(new RecipientEntity().withMessageType(MessageType.SNAIL_MAIL));
+
+		messageService.deliverBatch(MessageType.SNAIL_MAIL, MessageEntity.create().withId("messageId"), recipients);
+
+		assertThat(recipients).allSatisfy(recipient -> {
+			assertThat(recipient.getStatus()).isEqualTo(FAILED);
+			assertThat(recipient.getStatusDetail()).isEqualTo("Batch delivery is not supported for message type: SNAIL_MAIL");
+		});
+		verify(recipientStatusWriterMock).writeAll(recipients);
+	}
+
+	@Test
+	void deliverBatch_resultCountMismatch() {
+		final var recipient1 = new RecipientEntity().withPhoneNumber("+46701740610").withMessageType(MessageType.SMS);
+		final var recipient2 = new RecipientEntity().withPhoneNumber("+46701740620").withMessageType(MessageType.SMS);
+		final var recipients = List.of(recipient1, recipient2);
+		final var messageEntity = MessageEntity.create().withId("messageId");
+		final var batchResult = new MessageBatchResult()
+			.messages(List.of(new MessageResult().messageId(UUID.randomUUID())));
+
+		when(messagingIntegrationMock.sendSmsBatch(messageEntity, recipients)).thenReturn(batchResult);
+
+		messageService.deliverBatch(MessageType.SMS, messageEntity, recipients);
+
+		assertThat(recipients).allSatisfy(recipient -> {
+			assertThat(recipient.getStatus()).isEqualTo(FAILED);
+			assertThat(recipient.getStatusDetail()).isEqualTo("SMS batch returned 1 results for 2 recipients");
+		});
+		verify(messagingIntegrationMock).sendSmsBatch(messageEntity, recipients);
+		verify(recipientStatusWriterMock).writeAll(recipients);
+	}
+
+	@Test
+	void deliverBatch_failure() {
+		final var recipient1 = new RecipientEntity().withPhoneNumber("+46701740610").withMessageType(MessageType.SMS);
+		final var recipient2 = new RecipientEntity().withPhoneNumber("+46701740620").withMessageType(MessageType.SMS);
+		final var recipients = List.of(recipient1, recipient2);
+		final var messageEntity = MessageEntity.create().withId("messageId");
+
+		when(messagingIntegrationMock.sendSmsBatch(messageEntity, recipients)).thenThrow(Problem.valueOf(BAD_GATEWAY, "Messaging unavailable"));
+
+		messageService.deliverBatch(MessageType.SMS, messageEntity, recipients);
+
+		assertThat(recipients).allSatisfy(recipient -> {
+			assertThat(recipient.getStatus()).isEqualTo(FAILED);
+			assertThat(recipient.getStatusDetail()).contains("Messaging unavailable");
+		});
+		verify(messagingIntegrationMock).sendSmsBatch(messageEntity, recipients);
+		verify(recipientStatusWriterMock).writeAll(recipients);
+	}
+
+	@Test
+	void deliverBatch_failureRetryScheduledPerRecipient() {
+		final var recipient1 = new RecipientEntity().withPhoneNumber("+46701740610").withMessageType(MessageType.SMS).withStatus(PENDING);
+		final var recipient2 = new RecipientEntity().withPhoneNumber("+46701740620").withMessageType(MessageType.SMS).withStatus(PENDING);
+		final var recipients = List.of(recipient1, recipient2);
+		final var messageEntity = MessageEntity.create().withId("messageId");
+		final var exception = Problem.valueOf(BAD_GATEWAY, "Messaging unavailable");
+
+		when(messagingIntegrationMock.sendSmsBatch(messageEntity, recipients)).thenThrow(exception);
+		doReturn(true).when(deliveryRetryPolicy).scheduleRetry(recipient1, exception);
+		doReturn(false).when(deliveryRetryPolicy).scheduleRetry(recipient2, exception);
+
+		messageService.deliverBatch(MessageType.SMS, messageEntity, recipients);
+
+		assertThat(recipient1.getStatus()).isEqualTo(PENDING);
+		assertThat(recipient2.getStatus()).isEqualTo(FAILED);
+		assertThat(recipient2.getStatusDetail()).isEqualTo("Messaging unavailable");
+		verify(messagingIntegrationMock).sendSmsBatch(messageEntity, recipients);
+		verify(recipientStatusWriterMock).writeAll(recipients);
+	}
+
 	/**
-	 * Makes the mocked delivery executor run submitted tasks synchronously on the calling thread, so delivery behavior
-	 * is deterministic in unit tests.
+	 * Makes the mocked delivery scheduler run submitted deliveries synchronously on the calling thread, so delivery
+	 * behavior is deterministic in unit tests.
 	 */
 	private void runDeliveryExecutorInline() {
 		doAnswer(invocation -> {
-			invocation.getArgument(0, Runnable.class).run();
+			invocation.getArgument(2, MessageService.Delivery.class).task().run();
 			return null;
-		}).when(deliveryExecutorMock).execute(any());
+		}).when(deliverySchedulerMock).submit(any(), any(), any());
 	}
 
 	@Test
@@ -625,8 +952,11 @@ class MessageServiceTest {
 
 		assertThat(recipient.getStatus()).isEqualTo(MessageStatus.SENT.toString());
 		assertThat(recipient.getExternalId()).isEqualTo(uuid.toString());
+		verify(deliveryConcurrencyLimiter).execute(eq(MessageType.SMS), eq(DeliveryOperation.SEND_SMS), any());
+		verify(deliveryMetrics).recordCall(eq(messageEntity), eq(MessageType.SMS), eq(DeliveryOperation.SEND_SMS), any());
+		verify(deliveryMetrics).recordOutcome(messageEntity, recipient);
 		verify(messagingIntegrationMock).sendSms(messageEntity, recipient);
-		verify(recipientRepositoryMock).save(recipient);
+		verify(recipientStatusWriterMock).write(recipient);
 	}
 
 	@Test
@@ -647,8 +977,9 @@ class MessageServiceTest {
 
 		assertThat(recipient.getStatus()).isEqualTo(MessageStatus.SENT.toString());
 		assertThat(recipient.getExternalId()).isEqualTo(uuid.toString());
+		verify(deliveryConcurrencyLimiter).execute(eq(MessageType.DIGITAL_MAIL), eq(DeliveryOperation.SEND_DIGITAL_MAIL), any());
 		verify(messagingIntegrationMock).sendDigitalMail(messageEntity, recipient);
-		verify(recipientRepositoryMock).save(recipient);
+		verify(recipientStatusWriterMock).write(recipient);
 	}
 
 	@Test
@@ -667,8 +998,26 @@ class MessageServiceTest {
 
 		assertThat(recipient.getStatus()).isEqualTo(MessageStatus.SENT.toString());
 		assertThat(recipient.getExternalId()).isEqualTo(uuid.toString());
+		verify(deliveryConcurrencyLimiter).execute(eq(MessageType.SNAIL_MAIL), eq(DeliveryOperation.SEND_SNAIL_MAIL), any());
+		verify(messagingIntegrationMock).sendSnailMail(messageEntity, recipient);
+		verify(recipientStatusWriterMock).write(recipient);
+		verify(snailMailBatchServiceMock).triggerWhenComplete(messageEntity, recipient);
+	}
+
+	@Test
+	void deliver_snailMail_exception() {
+		final var recipient = new RecipientEntity().withFirstName("john").withMessageType(MessageType.SNAIL_MAIL);
+		final var messageEntity = MessageEntity.create().withRecipients(List.of(recipient));
+
+		when(messagingIntegrationMock.sendSnailMail(messageEntity, recipient)).thenThrow(new RuntimeException("Simulated exception"));
+
+		messageService.deliver(messageEntity, recipient, SETTINGS_MAP);
+
+		// A failed recipient is handled too, so it must not hold back the batch of the other recipients
+		assertThat(recipient.getStatus()).isEqualTo(FAILED);
 		verify(messagingIntegrationMock).sendSnailMail(messageEntity, recipient);
-		verify(recipientRepositoryMock).save(recipient);
+		verify(recipientStatusWriterMock).write(recipient);
+		verify(snailMailBatchServiceMock).triggerWhenComplete(messageEntity, recipient);
 	}
 
 	@Test
@@ -691,8 +1040,9 @@ class MessageServiceTest {
 
 		assertThat(recipient.getStatus()).isEqualTo(MessageStatus.SENT.toString());
 		assertThat(recipient.getExternalId()).isEqualTo(uuid.toString());
+		verify(deliveryConcurrencyLimiter).execute(eq(MessageType.SNAIL_MAIL), eq(DeliveryOperation.SEND_CALLBACK_EMAIL), any());
 		verify(messagingIntegrationMock).sendCallbackEmail(messageEntity, recipient, callbackSettingsMap);
-		verify(recipientRepositoryMock).save(recipient);
+		verify(recipientStatusWriterMock).write(recipient);
 	}
 
 	@Test
@@ -704,7 +1054,7 @@ class MessageServiceTest {
 
 		assertThat(recipient.getStatus()).isEqualTo(FAILED);
 		assertThat(recipient.getStatusDetail()).isEqualTo("Unsupported message type: LETTER");
-		verify(recipientRepositoryMock).save(recipient);
+		verify(recipientStatusWriterMock).write(recipient);
 	}
 
 	@Test
@@ -719,7 +1069,24 @@ class MessageServiceTest {
 		assertThat(recipient.getStatus()).isEqualTo(MessageStatus.FAILED.toString());
 		assertThat(recipient.getStatusDetail()).isEqualTo("Simulated exception");
 		verify(messagingIntegrationMock).sendSms(messageEntity, recipient);
-		verify(recipientRepositoryMock).save(recipient);
+		verify(recipientStatusWriterMock).write(recipient);
+	}
+
+	@Test
+	void deliver_retryScheduled() {
+		final var recipient = new RecipientEntity().withFirstName("john").withMessageType(MessageType.SMS).withStatus(PENDING);
+		final var messageEntity = MessageEntity.create().withRecipients(List.of(recipient));
+		final var exception = Problem.valueOf(BAD_GATEWAY, "Messaging unavailable");
+
+		when(messagingIntegrationMock.sendSms(messageEntity, recipient)).thenThrow(exception);
+		doReturn(true).when(deliveryRetryPolicy).scheduleRetry(recipient, exception);
+
+		messageService.deliver(messageEntity, recipient, SETTINGS_MAP);
+
+		assertThat(recipient.getStatus()).isEqualTo(PENDING);
+		verify(deliveryRetryPolicy).scheduleRetry(recipient, exception);
+		verify(messagingIntegrationMock).sendSms(messageEntity, recipient);
+		verify(recipientStatusWriterMock).write(recipient);
 	}
 
 	@Test
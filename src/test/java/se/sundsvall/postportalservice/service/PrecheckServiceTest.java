@@ -8,22 +8,31 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.time.Duration;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Answers;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.web.multipart.MultipartFile;
 import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.dept44.support.Identifier;
 import se.sundsvall.dept44.test.annotation.resource.Load;
 import se.sundsvall.dept44.test.extension.ResourceLoaderExtension;
 import se.sundsvall.postportalservice.api.model.PrecheckResponse.PrecheckRecipient;
+import se.sundsvall.postportalservice.configuration.PrecheckConfiguration.PrecheckProperties;
 import se.sundsvall.postportalservice.integration.citizen.CitizenIntegration;
 import se.sundsvall.postportalservice.integration.db.RecipientEntity;
 import se.sundsvall.postportalservice.integration.db.converter.MessageType;
@@ -34,6 +43,7 @@ import se.sundsvall.postportalservice.service.MailboxStatusService.MailboxStatus
 import se.sundsvall.postportalservice.service.mapper.EntityMapper;
 import se.sundsvall.postportalservice.service.util.PrecheckUtil;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.tuple;
@@ -41,6 +51,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -74,9 +85,16 @@ class PrecheckServiceTest {
 	@Mock(answer = Answers.CALLS_REAL_METHODS)
 	private EntityMapper entityMapperMock;
 
-	@InjectMocks
+	private final SimpleAsyncTaskExecutor precheckExecutor = new SimpleAsyncTaskExecutor("precheck-");
+
 	private PrecheckService precheckService;
 
+	@BeforeEach
+	void setUp() {
+		precheckService = new PrecheckService(digitalRegisteredLetterIntegrationMock, citizenIntegrationMock, mailboxStatusServiceMock, entityMapperMock,
+			partyIntegrationMock, null, legalEntityIntegrationMock, precheckExecutor, new PrecheckProperties(true, Duration.ofSeconds(10), 1000, 4));
+	}
+
 	@AfterEach
 	void noMoreInteractions() {
 		verifyNoMoreInteractions(citizenIntegrationMock, entityMapperMock, mailboxStatusServiceMock,
@@ -626,4 +644,264 @@ class PrecheckServiceTest {
 		assertThat(precheckService.precheckLegalIds(MUNICIPALITY_ID, List.of(), List.of())).isEmpty();
 	}
 
+	@Test
+	void precheckLegalIds_privateAndEnterpriseRunConcurrently() {
+		final var privateLegalId = generateLegalId(35, "0000");
+		final var privatePartyId = UUID.randomUUID().toString();
+		final var enterpriseLegalId = "5523456789";
+		final var enterprisePartyId = "5c1b2636-5ffc-467d-95be-156aeb73ec8e";
+		final var bothStarted = new CountDownLatch(2);
+		final var identifiers = new CopyOnWriteArrayList<Identifier>();
+
+		// Each branch waits for the other to start, so the precheck only completes if they run concurrently
+		when(partyIntegrationMock.getPartyIds(MUNICIPALITY_ID, List.of(privateLegalId))).thenAnswer(_ -> {
+			identifiers.add(Identifier.get());
+			countDownAndAwait(bothStarted);
+			return Map.of(privateLegalId, privatePartyId);
+		});
+		when(partyIntegrationMock.getEnterprisePartyIds(MUNICIPALITY_ID, List.of(enterpriseLegalId))).thenAnswer(_ -> {
+			identifiers.add(Identifier.get());
+			countDownAndAwait(bothStarted);
+			return Map.of(enterpriseLegalId, enterprisePartyId);
+		});
+		when(mailboxStatusServiceMock.checkMailboxStatus(MUNICIPALITY_ID, List.of(privatePartyId))).thenReturn(new MailboxStatus(List.of(privatePartyId), List.of()));
+		when(mailboxStatusServiceMock.checkMailboxStatus(MUNICIPALITY_ID, List.of(enterprisePartyId))).thenReturn(new MailboxStatus(List.of(enterprisePartyId), List.of()));
+		when(citizenIntegrationMock.getCitizens(MUNICIPALITY_ID, List.of(privatePartyId))).thenReturn(List.of(new CitizenExtended().personId(UUID.fromString(privatePartyId))));
+
+		Identifier.set(Identifier.create().withType(Identifier.Type.AD_ACCOUNT).withValue("user"));
+		final List<RecipientEntity> result;
+		try {
+			result = precheckService.precheckLegalIds(MUNICIPALITY_ID, List.of(privateLegalId), List.of(enterpriseLegalId));
+		} finally {
+			Identifier.remove();
+		}
+
+		// Private recipients first, as when run one after the other
+		assertThat(result)
+			.extracting(RecipientEntity::getPartyId, RecipientEntity::getMessageType)
+			.containsExactly(tuple(privatePartyId, MessageType.DIGITAL_MAIL), tuple(enterprisePartyId, MessageType.DIGITAL_MAIL));
+		// Both branches run as the user of the request
+		assertThat(identifiers).hasSize(2).allSatisfy(identifier -> assertThat(identifier.getValue()).isEqualTo("user"));
+		verify(partyIntegrationMock).getPartyIds(MUNICIPALITY_ID, List.of(privateLegalId));
+		verify(partyIntegrationMock).getEnterprisePartyIds(MUNICIPALITY_ID, List.of(enterpriseLegalId));
+		verify(mailboxStatusServiceMock).checkMailboxStatus(MUNICIPALITY_ID, List.of(privatePartyId));
+		verify(mailboxStatusServiceMock).checkMailboxStatus(MUNICIPALITY_ID, List.of(enterprisePartyId));
+		verify(citizenIntegrationMock).getCitizens(MUNICIPALITY_ID, List.of(privatePartyId));
+		verify(legalEntityIntegrationMock).getLegalEntities(MUNICIPALITY_ID, List.of());
+		verify(entityMapperMock).toDigitalMailRecipientEntity(eq(privatePartyId), any());
+		verify(entityMapperMock).toEnterpriseDigitalMailRecipientEntity(enterprisePartyId);
+	}
+
+	@Test
+	void precheckLegalIds_privateAndEnterprise_branchThrows() {
+		final var privateLegalId = generateLegalId(35, "0000");
+		final var enterpriseLegalId = "5523456789";
+
+		when(partyIntegrationMock.getPartyIds(MUNICIPALITY_ID, List.of(privateLegalId))).thenReturn(Map.of());
+		when(mailboxStatusServiceMock.checkMailboxStatus(MUNICIPALITY_ID, List.of())).thenReturn(new MailboxStatus(List.of(), List.of()));
+		when(partyIntegrationMock.getEnterprisePartyIds(MUNICIPALITY_ID, List.of(enterpriseLegalId))).thenThrow(Problem.valueOf(BAD_GATEWAY, "Failed to retrieve party data"));
+
+		assertThatThrownBy(() -> precheckService.precheckLegalIds(MUNICIPALITY_ID, List.of(privateLegalId), List.of(enterpriseLegalId)))
+			.isInstanceOf(Problem.class)
+			.hasMessageContaining("Bad Gateway: Failed to retrieve party data");
+
+		verify(partyIntegrationMock).getPartyIds(MUNICIPALITY_ID, List.of(privateLegalId));
+		verify(partyIntegrationMock).getEnterprisePartyIds(MUNICIPALITY_ID, List.of(enterpriseLegalId));
+		verify(mailboxStatusServiceMock).checkMailboxStatus(MUNICIPALITY_ID, List.of());
+		verify(citizenIntegrationMock).getCitizens(MUNICIPALITY_ID, List.of());
+	}
+
+	@Test
+	void precheckPartyIds_privateAndEnterprise_deadlineExceeded() {
+		final var privatePartyId = "7c1b2636-5ffc-467d-95be-156aeb73ec8e";
+		final var enterprisePartyId = "5c1b2636-5ffc-467d-95be-156aeb73ec8e";
+		final var partyIds = List.of(privatePartyId, enterprisePartyId);
+		final var never = new CountDownLatch(1);
+		precheckService = new PrecheckService(digitalRegisteredLetterIntegrationMock, citizenIntegrationMock, mailboxStatusServiceMock, entityMapperMock,
+			partyIntegrationMock, null, legalEntityIntegrationMock, precheckExecutor, new PrecheckProperties(true, Duration.ofMillis(500), 1000, 4));
+
+		when(partyIntegrationMock.getPartyTypes(MUNICIPALITY_ID, partyIds)).thenReturn(Map.of(enterprisePartyId, ENTERPRISE));
+		when(mailboxStatusServiceMock.checkMailboxStatus(MUNICIPALITY_ID, List.of(privatePartyId))).thenAnswer(_ -> {
+			// Interrupted when the deadline has passed
+			never.await();
+			return new MailboxStatus(List.of(), List.of());
+		});
+		when(mailboxStatusServiceMock.checkMailboxStatus(MUNICIPALITY_ID, List.of(enterprisePartyId))).thenReturn(new MailboxStatus(List.of(enterprisePartyId), List.of()));
+
+		assertThatThrownBy(() -> precheckService.precheckPartyIds(MUNICIPALITY_ID, partyIds))
+			.isInstanceOf(Problem.class)
+			.hasMessageContaining("Gateway Timeout: Precheck did not complete within PT0.5S");
+
+		verify(partyIntegrationMock).getPartyTypes(MUNICIPALITY_ID, partyIds);
+		verify(mailboxStatusServiceMock).checkMailboxStatus(MUNICIPALITY_ID, List.of(privatePartyId));
+		verify(mailboxStatusServiceMock).checkMailboxStatus(MUNICIPALITY_ID, List.of(enterprisePartyId));
+		verify(legalEntityIntegrationMock).getLegalEntities(MUNICIPALITY_ID, List.of());
+	}
+
+	@Test
+	void precheckPartyIds_privateOnly_deadlineExceeded() {
+		final var privatePartyId = "7c1b2636-5ffc-467d-95be-156aeb73ec8e";
+		final var partyIds = List.of(privatePartyId);
+		final var never = new CountDownLatch(1);
+		precheckService = new PrecheckService(digitalRegisteredLetterIntegrationMock, citizenIntegrationMock, mailboxStatusServiceMock, entityMapperMock,
+			partyIntegrationMock, null, legalEntityIntegrationMock, precheckExecutor, new PrecheckProperties(true, Duration.ofMillis(500), 1000, 4));
+
+		when(partyIntegrationMock.getPartyTypes(MUNICIPALITY_ID, partyIds)).thenReturn(Map.of());
+		when(mailboxStatusServiceMock.checkMailboxStatus(MUNICIPALITY_ID, partyIds)).thenAnswer(_ -> {
+			// Interrupted when the deadline has passed
+			never.await();
+			return new MailboxStatus(List.of(), List.of());
+		});
+
+		assertThatThrownBy(() -> precheckService.precheckPartyIds(MUNICIPALITY_ID, partyIds))
+			.isInstanceOf(Problem.class)
+			.hasMessageContaining("Gateway Timeout: Precheck did not complete within PT0.5S");
+
+		verify(partyIntegrationMock).getPartyTypes(MUNICIPALITY_ID, partyIds);
+		verify(mailboxStatusServiceMock).checkMailboxStatus(MUNICIPALITY_ID, partyIds);
+	}
+
+	@Test
+	void precheckPartyIds_privateAndEnterprise_notConcurrent_deadlineExceeded() {
+		final var privatePartyId = "7c1b2636-5ffc-467d-95be-156aeb73ec8e";
+		final var enterprisePartyId = "5c1b2636-5ffc-467d-95be-156aeb73ec8e";
+		final var partyIds = List.of(privatePartyId, enterprisePartyId);
+		final var never = new CountDownLatch(1);
+		precheckService = new PrecheckService(digitalRegisteredLetterIntegrationMock, citizenIntegrationMock, mailboxStatusServiceMock, entityMapperMock,
+			partyIntegrationMock, null, legalEntityIntegrationMock, precheckExecutor, new PrecheckProperties(false, Duration.ofMillis(500), 1000, 4));
+
+		when(partyIntegrationMock.getPartyTypes(MUNICIPALITY_ID, partyIds)).thenReturn(Map.of(enterprisePartyId, ENTERPRISE));
+		when(mailboxStatusServiceMock.checkMailboxStatus(MUNICIPALITY_ID, List.of(privatePartyId))).thenAnswer(_ -> {
+			// Interrupted when the deadline has passed
+			never.await();
+			return new MailboxStatus(List.of(), List.of());
+		});
+
+		assertThatThrownBy(() -> precheckService.precheckPartyIds(MUNICIPALITY_ID, partyIds))
+			.isInstanceOf(Problem.class)
+			.hasMessageContaining("Gateway Timeout: Precheck did not complete within PT0.5S");
+
+		// The enterprise branch is never started
+		verify(partyIntegrationMock).getPartyTypes(MUNICIPALITY_ID, partyIds);
+		verify(mailboxStatusServiceMock).checkMailboxStatus(MUNICIPALITY_ID, List.of(privatePartyId));
+	}
+
+	@Test
+	void precheckLegalIds_privateAndEnterprise_noDeadline() {
+		final var privateLegalId = generateLegalId(35, "0000");
+		final var enterpriseLegalId = "5523456789";
+		precheckService = new PrecheckService(digitalRegisteredLetterIntegrationMock, citizenIntegrationMock, mailboxStatusServiceMock, entityMapperMock,
+			partyIntegrationMock, null, legalEntityIntegrationMock, precheckExecutor, new PrecheckProperties(true, Duration.ofMillis(1), 1000, 4));
+
+		when(partyIntegrationMock.getPartyIds(MUNICIPALITY_ID, List.of(privateLegalId))).thenAnswer(_ -> {
+			// Outlasts the timeout, which doesn't apply to CSV sends
+			Thread.sleep(100);
+			return Map.of();
+		});
+		when(mailboxStatusServiceMock.checkMailboxStatus(MUNICIPALITY_ID, List.of())).thenReturn(new MailboxStatus(List.of(), List.of()));
+		when(partyIntegrationMock.getEnterprisePartyIds(MUNICIPALITY_ID, List.of(enterpriseLegalId))).thenReturn(Map.of());
+
+		assertThat(precheckService.precheckLegalIds(MUNICIPALITY_ID, List.of(privateLegalId), List.of(enterpriseLegalId))).isEmpty();
+
+		verify(partyIntegrationMock).getPartyIds(MUNICIPALITY_ID, List.of(privateLegalId));
+		verify(partyIntegrationMock).getEnterprisePartyIds(MUNICIPALITY_ID, List.of(enterpriseLegalId));
+		verify(mailboxStatusServiceMock).checkMailboxStatus(MUNICIPALITY_ID, List.of());
+		verify(citizenIntegrationMock).getCitizens(MUNICIPALITY_ID, List.of());
+	}
+
+	@Test
+	void precheckLegalIds_privateAndEnterprise_notConcurrent() {
+		final var privateLegalId = generateLegalId(35, "0000");
+		final var enterpriseLegalId = "5523456789";
+		final var threads = new CopyOnWriteArrayList<Thread>();
+		precheckService = new PrecheckService(digitalRegisteredLetterIntegrationMock, citizenIntegrationMock, mailboxStatusServiceMock, entityMapperMock,
+			partyIntegrationMock, null, legalEntityIntegrationMock, precheckExecutor, new PrecheckProperties(false, Duration.ofSeconds(10), 1000, 4));
+
+		when(partyIntegrationMock.getPartyIds(MUNICIPALITY_ID, List.of(privateLegalId))).thenAnswer(_ -> {
+			threads.add(Thread.currentThread());
+			return Map.of();
+		});
+		when(mailboxStatusServiceMock.checkMailboxStatus(MUNICIPALITY_ID, List.of())).thenReturn(new MailboxStatus(List.of(), List.of()));
+		when(partyIntegrationMock.getEnterprisePartyIds(MUNICIPALITY_ID, List.of(enterpriseLegalId))).thenAnswer(_ -> {
+			threads.add(Thread.currentThread());
+			return Map.of();
+		});
+
+		assertThat(precheckService.precheckLegalIds(MUNICIPALITY_ID, List.of(privateLegalId), List.of(enterpriseLegalId))).isEmpty();
+
+		// Both branches run on the calling thread
+		assertThat(threads).containsExactly(Thread.currentThread(), Thread.currentThread());
+		verify(partyIntegrationMock).getPartyIds(MUNICIPALITY_ID, List.of(privateLegalId));
+		verify(partyIntegrationMock).getEnterprisePartyIds(MUNICIPALITY_ID, List.of(enterpriseLegalId));
+		verify(mailboxStatusServiceMock).checkMailboxStatus(MUNICIPALITY_ID, List.of());
+		verify(citizenIntegrationMock).getCitizens(MUNICIPALITY_ID, List.of());
+	}
+
+	@Test
+	void precheckLegalIds_privateInChunks() {
+		final var legalIds = IntStream.range(0, 5).mapToObj(i -> generateLegalId(30, "000" + i)).toList();
+		final var partyIds = legalIds.stream().map(_ -> UUID.randomUUID().toString()).toList();
+		final var started = new CountDownLatch(2);
+		final var inFlight = new AtomicInteger();
+		final var maxInFlight = new AtomicInteger();
+		precheckService = new PrecheckService(digitalRegisteredLetterIntegrationMock, citizenIntegrationMock, mailboxStatusServiceMock, entityMapperMock,
+			partyIntegrationMock, null, legalEntityIntegrationMock, precheckExecutor, new PrecheckProperties(true, Duration.ofSeconds(10), 2, 2));
+
+		for (var from = 0; from < legalIds.size(); from += 2) {
+			final var chunkLegalIds = legalIds.subList(from, Math.min(from + 2, legalIds.size()));
+			final var chunkPartyIds = partyIds.subList(from, Math.min(from + 2, partyIds.size()));
+			final var legalIdToPartyIdMap = new LinkedHashMap<String, String>();
+			chunkLegalIds.forEach(legalId -> legalIdToPartyIdMap.put(legalId, partyIds.get(legalIds.indexOf(legalId))));
+
+			when(partyIntegrationMock.getPartyIds(MUNICIPALITY_ID, chunkLegalIds)).thenAnswer(_ -> {
+				maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+				// The first two chunks are in flight at the same time
+				countDownAndAwait(started);
+				return legalIdToPartyIdMap;
+			});
+			when(mailboxStatusServiceMock.checkMailboxStatus(MUNICIPALITY_ID, chunkPartyIds)).thenReturn(new MailboxStatus(chunkPartyIds, List.of()));
+			when(citizenIntegrationMock.getCitizens(MUNICIPALITY_ID, chunkPartyIds)).thenAnswer(_ -> {
+				inFlight.decrementAndGet();
+				return List.of();
+			});
+		}
+
+		final var result = precheckService.precheckLegalIds(MUNICIPALITY_ID, legalIds, List.of());
+
+		// Results are returned in chunk order, with no more than two chunks in flight at a time
+		assertThat(result).extracting(RecipientEntity::getPartyId).containsExactlyElementsOf(partyIds);
+		assertThat(maxInFlight).hasValue(2);
+		for (var from = 0; from < legalIds.size(); from += 2) {
+			final var chunkPartyIds = partyIds.subList(from, Math.min(from + 2, partyIds.size()));
+			verify(partyIntegrationMock).getPartyIds(MUNICIPALITY_ID, legalIds.subList(from, Math.min(from + 2, legalIds.size())));
+			verify(mailboxStatusServiceMock).checkMailboxStatus(MUNICIPALITY_ID, chunkPartyIds);
+			verify(citizenIntegrationMock).getCitizens(MUNICIPALITY_ID, chunkPartyIds);
+		}
+		verify(entityMapperMock, times(5)).toDigitalMailRecipientEntity(any(), any());
+	}
+
+	@Test
+	void precheckLegalIds_privateInChunks_chunkThrows() {
+		final var legalIds = List.of(generateLegalId(30, "0000"), generateLegalId(30, "0001"), generateLegalId(30, "0002"));
+		precheckService = new PrecheckService(digitalRegisteredLetterIntegrationMock, citizenIntegrationMock, mailboxStatusServiceMock, entityMapperMock,
+			partyIntegrationMock, null, legalEntityIntegrationMock, precheckExecutor, new PrecheckProperties(true, Duration.ofSeconds(10), 1, 3));
+
+		when(partyIntegrationMock.getPartyIds(MUNICIPALITY_ID, List.of(legalIds.get(0)))).thenReturn(Map.of());
+		when(partyIntegrationMock.getPartyIds(MUNICIPALITY_ID, List.of(legalIds.get(1)))).thenReturn(Map.of());
+		when(partyIntegrationMock.getPartyIds(MUNICIPALITY_ID, List.of(legalIds.get(2)))).thenThrow(Problem.valueOf(BAD_GATEWAY, "Failed to retrieve party data"));
+		when(mailboxStatusServiceMock.checkMailboxStatus(MUNICIPALITY_ID, List.of())).thenReturn(new MailboxStatus(List.of(), List.of()));
+
+		assertThatThrownBy(() -> precheckService.precheckLegalIds(MUNICIPALITY_ID, legalIds, List.of()))
+			.isInstanceOf(Problem.class)
+			.hasMessageContaining("Bad Gateway: Failed to retrieve party data");
+
+		legalIds.forEach(legalId -> verify(partyIntegrationMock).getPartyIds(MUNICIPALITY_ID, List.of(legalId)));
+		verify(mailboxStatusServiceMock, times(2)).checkMailboxStatus(MUNICIPALITY_ID, List.of());
+		verify(citizenIntegrationMock, times(2)).getCitizens(MUNICIPALITY_ID, List.of());
+	}
+
+	private static void countDownAndAwait(final CountDownLatch latch) throws InterruptedException {
+		latch.countDown();
+		assertThat(latch.await(5, SECONDS)).isTrue();
+	}
 }
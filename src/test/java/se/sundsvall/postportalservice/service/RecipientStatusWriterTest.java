@@ -0,0 +1,158 @@
+package se.sundsvall.postportalservice.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import se.sundsvall.postportalservice.configuration.DeliveryExecutorConfiguration.DeliveryStatusWriterProperties;
+import se.sundsvall.postportalservice.integration.db.RecipientEntity;
+import se.sundsvall.postportalservice.integration.db.dao.RecipientStatusRepository;
+import se.sundsvall.postportalservice.integration.db.dao.RecipientStatusRepository.RecipientStatus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static se.sundsvall.postportalservice.Constants.FAILED;
+import static se.sundsvall.postportalservice.Constants.PENDING;
+
+@ExtendWith(MockitoExtension.class)
+class RecipientStatusWriterTest {
+
+	@Mock
+	private RecipientStatusRepository recipientStatusRepositoryMock;
+
+	@Captor
+	private ArgumentCaptor<Collection<RecipientStatus>> statusesCaptor;
+
+	@AfterEach
+	void tearDown() {
+		verifyNoMoreInteractions(recipientStatusRepositoryMock);
+	}
+
+	@Test
+	void write_disabled() {
+		final var writer = createWriter(false, 2);
+		final var recipient = createRecipient("recipientId1", "SENT");
+
+		writer.write(recipient);
+
+		assertThat(writer.getPending()).isZero();
+		verify(recipientStatusRepositoryMock).updateStatuses(List.of(RecipientStatus.of(recipient)));
+	}
+
+	@Test
+	void writeAll_disabled() {
+		final var writer = createWriter(false, 2);
+		final var recipients = List.of(createRecipient("recipientId1", "SENT"), createRecipient("recipientId2", "SENT"));
+
+		writer.writeAll(recipients);
+
+		verify(recipientStatusRepositoryMock).updateStatuses(recipients.stream().map(RecipientStatus::of).toList());
+	}
+
+	@Test
+	void write_flushedWhenBatchIsFull() {
+		final var writer = createWriter(true, 2);
+		final var recipient1 = createRecipient("recipientId1", "SENT");
+		final var recipient2 = createRecipient("recipientId2", "SENT");
+
+		writer.write(recipient1);
+
+		assertThat(writer.getPending()).isEqualTo(1);
+
+		writer.write(recipient2);
+
+		assertThat(writer.getPending()).isZero();
+		verify(recipientStatusRepositoryMock).updateStatuses(statusesCaptor.capture());
+		assertThat(statusesCaptor.getValue()).containsExactlyInAnyOrder(RecipientStatus.of(recipient1), RecipientStatus.of(recipient2));
+	}
+
+	@Test
+	void write_coalescesUpdatesOfTheSameRecipient() {
+		final var writer = createWriter(true, 10);
+		final var recipient = createRecipient("recipientId1", PENDING);
+
+		writer.write(recipient);
+		recipient.setStatus("SENT");
+		recipient.setExternalId("externalId");
+		writer.write(recipient);
+
+		assertThat(writer.getPending()).isEqualTo(1);
+
+		writer.flush();
+
+		verify(recipientStatusRepositoryMock).updateStatuses(List.of(RecipientStatus.of(recipient)));
+	}
+
+	@Test
+	void writeAll_flushedWhenBatchIsFull() {
+		final var writer = createWriter(true, 2);
+		final var recipient1 = createRecipient("recipientId1", "SENT");
+		final var recipient2 = createRecipient("recipientId2", FAILED);
+
+		writer.writeAll(List.of(recipient1, recipient2));
+
+		assertThat(writer.getPending()).isZero();
+		verify(recipientStatusRepositoryMock).updateStatuses(statusesCaptor.capture());
+		assertThat(statusesCaptor.getValue()).containsExactlyInAnyOrder(RecipientStatus.of(recipient1), RecipientStatus.of(recipient2));
+	}
+
+	@Test
+	void flush_nothingPending() {
+		final var writer = createWriter(true, 10);
+
+		writer.flush();
+	}
+
+	@Test
+	void flush_failureIsRetriedOnNextFlush() {
+		final var writer = createWriter(true, 10);
+		final var recipient = createRecipient("recipientId1", "SENT");
+		final var statuses = List.of(RecipientStatus.of(recipient));
+		doThrow(new RuntimeException("Database unavailable")).doNothing().when(recipientStatusRepositoryMock).updateStatuses(statuses);
+
+		writer.write(recipient);
+		writer.flush();
+
+		assertThat(writer.getPending()).isEqualTo(1);
+
+		writer.flush();
+
+		assertThat(writer.getPending()).isZero();
+		verify(recipientStatusRepositoryMock, times(2)).updateStatuses(statuses);
+	}
+
+	@Test
+	void close() {
+		final var writer = createWriter(true, 10);
+		final var recipient1 = createRecipient("recipientId1", "SENT");
+		final var recipient2 = createRecipient("recipientId2", "SENT");
+
+		writer.write(recipient1);
+		writer.close();
+
+		verify(recipientStatusRepositoryMock).updateStatuses(List.of(RecipientStatus.of(recipient1)));
+
+		// Written right away once closed
+		writer.write(recipient2);
+
+		assertThat(writer.getPending()).isZero();
+		verify(recipientStatusRepositoryMock).updateStatuses(List.of(RecipientStatus.of(recipient2)));
+	}
+
+	private RecipientStatusWriter createWriter(final boolean enabled, final int batchSize) {
+		return new RecipientStatusWriter(recipientStatusRepositoryMock, new DeliveryStatusWriterProperties(enabled, batchSize, Duration.ofSeconds(1)));
+	}
+
+	private static RecipientEntity createRecipient(final String id, final String status) {
+		return RecipientEntity.create().withId(id).withStatus(status);
+	}
+}
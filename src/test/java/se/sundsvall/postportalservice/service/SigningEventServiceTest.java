@@ -1,6 +1,6 @@
 package se.sundsvall.postportalservice.service;
 
-import java.sql.Blob;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -9,18 +9,22 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import se.sundsvall.dept44.problem.Problem;
 import se.sundsvall.postportalservice.api.model.EventSignatory;
 import se.sundsvall.postportalservice.api.model.SignedDocument;
 import se.sundsvall.postportalservice.api.model.SigningEvent;
+import se.sundsvall.postportalservice.integration.db.AttachmentEntity;
 import se.sundsvall.postportalservice.integration.db.MessageEntity;
 import se.sundsvall.postportalservice.integration.db.RecipientEntity;
 import se.sundsvall.postportalservice.integration.db.SigningEntity;
+import se.sundsvall.postportalservice.integration.db.dao.AttachmentContentRepository;
+import se.sundsvall.postportalservice.integration.db.dao.MessageProgressRepository;
 import se.sundsvall.postportalservice.integration.db.dao.RecipientRepository;
 import se.sundsvall.postportalservice.integration.db.dao.SigningRepository;
-import se.sundsvall.postportalservice.service.util.BlobUtil;
+import se.sundsvall.postportalservice.service.util.SpooledContent;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.mock;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -31,38 +35,85 @@ class SigningEventServiceTest {
 
 	private static final String MUNICIPALITY_ID = "2281";
 	private static final String MESSAGE_ID = "550e8400-e29b-41d4-a716-446655440000";
+	// SHA-256 of "signed"
+	private static final String SIGNED_CONTENT_HASH = "4a3cdfae6f291c8f544daea5b72905cf9e74c1ed427d831ad0d7ca00c73c794d";
 
 	@Mock
 	private RecipientRepository recipientRepositoryMock;
 	@Mock
+	private MessageProgressRepository messageProgressRepositoryMock;
+	@Mock
 	private SigningRepository signingRepositoryMock;
 	@Mock
-	private BlobUtil blobUtilMock;
+	private AttachmentContentRepository attachmentContentRepositoryMock;
 
 	@InjectMocks
 	private SigningEventService service;
 
 	@Test
-	void handleSigningEvent_completedStoresSignedDocumentOnSigning() {
+	void handleSigningEvent_completedStoresSignedDocumentOnSigning() throws IOException {
 		final var message = MessageEntity.create().withId(MESSAGE_ID);
 		final var signing = SigningEntity.create().withId("s1").withStatus("PENDING").withMessage(message);
-		final var blob = mock(Blob.class);
 		final var event = SigningEvent.create().withStatus("SIGNED")
-			.withSignedDocument(SignedDocument.create().withFileName("signed.pdf").withMimeType("application/pdf").withContent("c2lnbmVk"));
+			.withSignedDocument(SignedDocument.create().withFileName("signed.pdf").withMimeType("application/pdf"));
 
 		when(signingRepositoryMock.findByMessageId(MESSAGE_ID)).thenReturn(Optional.of(signing));
-		when(blobUtilMock.convertBase64ToBlob("c2lnbmVk")).thenReturn(blob);
 
-		service.handleSigningEvent(MUNICIPALITY_ID, MESSAGE_ID, event);
+		try (var content = SpooledContent.spool(output -> output.write("signed".getBytes()))) {
+			service.handleSigningEvent(MUNICIPALITY_ID, MESSAGE_ID, event, content);
+
+			verify(attachmentContentRepositoryMock).store(SIGNED_CONTENT_HASH, content, 6L);
+		}
 
 		assertThat(signing.getStatus()).isEqualTo("SIGNED");
 		assertThat(message.getAttachments()).isEmpty();
 		final var signedAttachment = signing.getAttachment();
 		assertThat(signedAttachment.getFileName()).isEqualTo("signed.pdf");
 		assertThat(signedAttachment.getContentType()).isEqualTo("application/pdf");
-		assertThat(signedAttachment.getContent()).isSameAs(blob);
+		assertThat(signedAttachment.getContentHash()).isEqualTo(SIGNED_CONTENT_HASH);
+		verify(signingRepositoryMock).save(signing);
+		verifyNoInteractions(recipientRepositoryMock, messageProgressRepositoryMock);
+	}
+
+	@Test
+	void handleSigningEvent_completedRedeliveredIgnoresStoredSignedDocument() throws IOException {
+		final var message = MessageEntity.create().withId(MESSAGE_ID);
+		final var signedAttachment = AttachmentEntity.create().withFileName("signed.pdf").withContentHash(SIGNED_CONTENT_HASH);
+		final var signing = SigningEntity.create().withId("s1").withStatus("SIGNED").withMessage(message).withAttachment(signedAttachment);
+		final var event = SigningEvent.create().withStatus("SIGNED")
+			.withSignedDocument(SignedDocument.create().withFileName("signed.pdf").withMimeType("application/pdf"));
+
+		when(signingRepositoryMock.findByMessageId(MESSAGE_ID)).thenReturn(Optional.of(signing));
+
+		try (var content = SpooledContent.spool(output -> output.write("signed".getBytes()))) {
+			service.handleSigningEvent(MUNICIPALITY_ID, MESSAGE_ID, event, content);
+		}
+
+		assertThat(signing.getAttachment()).isSameAs(signedAttachment);
+		verify(signingRepositoryMock).save(signing);
+		verifyNoInteractions(recipientRepositoryMock, messageProgressRepositoryMock, attachmentContentRepositoryMock);
+	}
+
+	@Test
+	void handleSigningEvent_completedReplacesPreviousSignedDocument() throws IOException {
+		final var message = MessageEntity.create().withId(MESSAGE_ID);
+		final var previousAttachment = AttachmentEntity.create().withFileName("previous.pdf").withContentHash("previousHash");
+		final var signing = SigningEntity.create().withId("s1").withStatus("PENDING").withMessage(message).withAttachment(previousAttachment);
+		final var event = SigningEvent.create().withStatus("SIGNED")
+			.withSignedDocument(SignedDocument.create().withFileName("signed.pdf"));
+
+		when(signingRepositoryMock.findByMessageId(MESSAGE_ID)).thenReturn(Optional.of(signing));
+
+		try (var content = SpooledContent.spool(output -> output.write("signed".getBytes()))) {
+			service.handleSigningEvent(MUNICIPALITY_ID, MESSAGE_ID, event, content);
+
+			verify(attachmentContentRepositoryMock).store(SIGNED_CONTENT_HASH, content, 6L);
+		}
+
+		assertThat(signing.getAttachment().getContentHash()).isEqualTo(SIGNED_CONTENT_HASH);
+		verify(attachmentContentRepositoryMock).release("previousHash");
 		verify(signingRepositoryMock).save(signing);
-		verifyNoInteractions(recipientRepositoryMock);
+		verifyNoInteractions(recipientRepositoryMock, messageProgressRepositoryMock);
 	}
 
 	@Test
@@ -75,12 +126,13 @@ class SigningEventServiceTest {
 
 		when(signingRepositoryMock.findByMessageId(MESSAGE_ID)).thenReturn(Optional.of(signing));
 
-		service.handleSigningEvent(MUNICIPALITY_ID, MESSAGE_ID, event);
+		service.handleSigningEvent(MUNICIPALITY_ID, MESSAGE_ID, event, null);
 
 		assertThat(recipient.getStatus()).isEqualTo("SIGNED");
 		verify(recipientRepositoryMock).save(recipient);
+		verify(messageProgressRepositoryMock).transition(MESSAGE_ID, "PENDING", "SIGNED");
 		verify(signingRepositoryMock).save(signing);
-		verifyNoInteractions(blobUtilMock);
+		verifyNoInteractions(attachmentContentRepositoryMock);
 	}
 
 	@Test
@@ -93,12 +145,13 @@ class SigningEventServiceTest {
 
 		when(signingRepositoryMock.findByMessageId(MESSAGE_ID)).thenReturn(Optional.of(signing));
 
-		service.handleSigningEvent(MUNICIPALITY_ID, MESSAGE_ID, event);
+		service.handleSigningEvent(MUNICIPALITY_ID, MESSAGE_ID, event, null);
 
 		assertThat(recipient.getStatus()).isEqualTo("DECLINED");
 		assertThat(recipient.getStatusDetail()).isEqualTo("Not authorised");
 		assertThat(signing.getStatus()).isEqualTo("FAILED");
 		verify(recipientRepositoryMock).save(recipient);
+		verify(messageProgressRepositoryMock).transition(MESSAGE_ID, "PENDING", "DECLINED");
 	}
 
 	@Test
@@ -109,21 +162,40 @@ class SigningEventServiceTest {
 
 		when(signingRepositoryMock.findByMessageId(MESSAGE_ID)).thenReturn(Optional.of(signing));
 
-		service.handleSigningEvent(MUNICIPALITY_ID, MESSAGE_ID, event);
+		service.handleSigningEvent(MUNICIPALITY_ID, MESSAGE_ID, event, null);
 
 		assertThat(signing.getStatus()).isEqualTo("SIGNED");
 		verify(signingRepositoryMock).save(signing);
-		verifyNoInteractions(recipientRepositoryMock, blobUtilMock);
+		verifyNoInteractions(recipientRepositoryMock, messageProgressRepositoryMock, attachmentContentRepositoryMock);
 	}
 
 	@Test
 	void handleSigningEvent_noSigningCaseIgnored() {
 		when(signingRepositoryMock.findByMessageId("unknown")).thenReturn(Optional.empty());
 
-		service.handleSigningEvent(MUNICIPALITY_ID, "unknown", SigningEvent.create().withStatus("SIGNED"));
+		service.handleSigningEvent(MUNICIPALITY_ID, "unknown", SigningEvent.create().withStatus("SIGNED"), null);
 
 		verify(signingRepositoryMock).findByMessageId("unknown");
 		verifyNoMoreInteractions(signingRepositoryMock);
-		verifyNoInteractions(recipientRepositoryMock, blobUtilMock);
+		verifyNoInteractions(recipientRepositoryMock, messageProgressRepositoryMock, attachmentContentRepositoryMock);
+	}
+
+	@Test
+	void handleSigningEvent_signedDocumentWithoutContent() {
+		final var message = MessageEntity.create().withId(MESSAGE_ID);
+		final var signing = SigningEntity.create().withId("s1").withStatus("PENDING").withMessage(message);
+		final var event = SigningEvent.create().withStatus("SIGNED")
+			.withSignedDocument(SignedDocument.create().withFileName("signed.pdf"));
+
+		when(signingRepositoryMock.findByMessageId(MESSAGE_ID)).thenReturn(Optional.of(signing));
+
+		assertThatThrownBy(() -> service.handleSigningEvent(MUNICIPALITY_ID, MESSAGE_ID, event, null))
+			.isInstanceOf(Problem.class)
+			.hasMessageContaining("Bad Request: No content received for signed document");
+
+		assertThat(signing.getAttachment()).isNull();
+		verify(signingRepositoryMock).findByMessageId(MESSAGE_ID);
+		verifyNoMoreInteractions(signingRepositoryMock);
+		verifyNoInteractions(recipientRepositoryMock, messageProgressRepositoryMock, attachmentContentRepositoryMock);
 	}
 }
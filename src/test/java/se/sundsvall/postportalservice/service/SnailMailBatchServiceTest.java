@@ -0,0 +1,118 @@
+package se.sundsvall.postportalservice.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.postportalservice.integration.db.MessageEntity;
+import se.sundsvall.postportalservice.integration.db.RecipientEntity;
+import se.sundsvall.postportalservice.integration.db.dao.SnailMailBatchRepository;
+import se.sundsvall.postportalservice.integration.messaging.MessagingIntegration;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpStatus.BAD_GATEWAY;
+import static se.sundsvall.postportalservice.Constants.FAILED;
+import static se.sundsvall.postportalservice.Constants.TRIGGERED;
+
+@ExtendWith(MockitoExtension.class)
+class SnailMailBatchServiceTest {
+
+	private static final String MESSAGE_ID = "messageId";
+	private static final String RECIPIENT_ID = "recipientId";
+	private static final MessageEntity MESSAGE = MessageEntity.create().withId(MESSAGE_ID);
+	private static final RecipientEntity ACCEPTED = RecipientEntity.create().withId(RECIPIENT_ID).withStatus("SENT").withExternalId("externalId");
+
+	@Mock
+	private SnailMailBatchRepository snailMailBatchRepositoryMock;
+
+	@Mock
+	private MessagingIntegration messagingIntegrationMock;
+
+	@InjectMocks
+	private SnailMailBatchService snailMailBatchService;
+
+	@AfterEach
+	void tearDown() {
+		verifyNoMoreInteractions(snailMailBatchRepositoryMock, messagingIntegrationMock);
+	}
+
+	@Test
+	void triggerWhenComplete() {
+		when(snailMailBatchRepositoryMock.claimTrigger(MESSAGE_ID, RECIPIENT_ID, true)).thenReturn(true);
+
+		snailMailBatchService.triggerWhenComplete(MESSAGE, ACCEPTED);
+
+		verify(snailMailBatchRepositoryMock).claimTrigger(MESSAGE_ID, RECIPIENT_ID, true);
+		verify(messagingIntegrationMock).triggerSnailMailBatch(MESSAGE);
+		verify(snailMailBatchRepositoryMock).recordOutcome(MESSAGE_ID, TRIGGERED);
+	}
+
+	@Test
+	void triggerWhenComplete_notComplete() {
+		when(snailMailBatchRepositoryMock.claimTrigger(MESSAGE_ID, RECIPIENT_ID, true)).thenReturn(false);
+
+		snailMailBatchService.triggerWhenComplete(MESSAGE, ACCEPTED);
+
+		verify(snailMailBatchRepositoryMock).claimTrigger(MESSAGE_ID, RECIPIENT_ID, true);
+		verifyNoInteractions(messagingIntegrationMock);
+	}
+
+	@Test
+	void triggerWhenComplete_claimFails() {
+		when(snailMailBatchRepositoryMock.claimTrigger(MESSAGE_ID, RECIPIENT_ID, true)).thenThrow(new DataAccessResourceFailureException("Database unavailable"));
+
+		snailMailBatchService.triggerWhenComplete(MESSAGE, ACCEPTED);
+
+		verify(snailMailBatchRepositoryMock).claimTrigger(MESSAGE_ID, RECIPIENT_ID, true);
+		verifyNoInteractions(messagingIntegrationMock);
+	}
+
+	@Test
+	void triggerWhenComplete_triggerFails() {
+		when(snailMailBatchRepositoryMock.claimTrigger(MESSAGE_ID, RECIPIENT_ID, true)).thenReturn(true);
+		doThrow(Problem.valueOf(BAD_GATEWAY, "Messaging unavailable")).when(messagingIntegrationMock).triggerSnailMailBatch(MESSAGE);
+
+		snailMailBatchService.triggerWhenComplete(MESSAGE, ACCEPTED);
+
+		verify(snailMailBatchRepositoryMock).claimTrigger(MESSAGE_ID, RECIPIENT_ID, true);
+		verify(messagingIntegrationMock).triggerSnailMailBatch(MESSAGE);
+		verify(snailMailBatchRepositoryMock).recordOutcome(MESSAGE_ID, FAILED);
+	}
+
+	@Test
+	void triggerWhenComplete_recordingOutcomeFails() {
+		when(snailMailBatchRepositoryMock.claimTrigger(MESSAGE_ID, RECIPIENT_ID, true)).thenReturn(true);
+		doThrow(new DataAccessResourceFailureException("Database unavailable")).when(snailMailBatchRepositoryMock).recordOutcome(MESSAGE_ID, TRIGGERED);
+
+		snailMailBatchService.triggerWhenComplete(MESSAGE, ACCEPTED);
+
+		verify(snailMailBatchRepositoryMock).claimTrigger(MESSAGE_ID, RECIPIENT_ID, true);
+		verify(messagingIntegrationMock).triggerSnailMailBatch(MESSAGE);
+		verify(snailMailBatchRepositoryMock).recordOutcome(MESSAGE_ID, TRIGGERED);
+	}
+
+	@Test
+	void triggerWhenComplete_recipientFailed() {
+		when(snailMailBatchRepositoryMock.claimTrigger(MESSAGE_ID, RECIPIENT_ID, false)).thenReturn(false);
+
+		snailMailBatchService.triggerWhenComplete(MESSAGE, RecipientEntity.create().withId(RECIPIENT_ID).withStatus(FAILED));
+
+		verify(snailMailBatchRepositoryMock).claimTrigger(MESSAGE_ID, RECIPIENT_ID, false);
+		verifyNoInteractions(messagingIntegrationMock);
+	}
+
+	@Test
+	void triggerWhenComplete_recipientScheduledForRetry() {
+		snailMailBatchService.triggerWhenComplete(MESSAGE, RecipientEntity.create().withStatus("PENDING"));
+
+		verifyNoInteractions(snailMailBatchRepositoryMock, messagingIntegrationMock);
+	}
+}
@@ -1,7 +1,8 @@
 package se.sundsvall.postportalservice.service.mapper;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.sql.Blob;
-import java.sql.SQLException;
 import java.util.List;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
@@ -11,67 +12,123 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.multipart.MultipartFile;
+import se.sundsvall.postportalservice.integration.db.AttachmentEntity;
+import se.sundsvall.postportalservice.integration.db.dao.AttachmentContentRepository;
+import se.sundsvall.postportalservice.service.AttachmentPayloadCache;
 import se.sundsvall.postportalservice.service.util.BlobUtil;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class AttachmentMapperTest {
 
+	// SHA-256 of the bytes 1, 2 and 3
+	private static final String CONTENT_HASH = "039058c6f2c0cb492c533b0a4d14ef77cc0f78abccced5287d84a1a2011cfb81";
+
 	@Mock
 	private BlobUtil blobUtil;
 
+	@Mock
+	private AttachmentContentRepository attachmentContentRepositoryMock;
+
+	@Mock
+	private AttachmentPayloadCache attachmentPayloadCacheMock;
+
 	@InjectMocks
 	private AttachmentMapper attachmentMapper;
 
 	@AfterEach
 	void ensureNoInteractionsWereMissed() {
-		verifyNoMoreInteractions(blobUtil);
+		verifyNoMoreInteractions(blobUtil, attachmentContentRepositoryMock, attachmentPayloadCacheMock);
 	}
 
 	@Test
-	void toAttachmentEntities() throws SQLException {
-		var blob = Mockito.mock(Blob.class);
-		when(blob.length()).thenReturn(3L);
-		when(blob.getBytes(1L, 3)).thenReturn(new byte[] {
-			1, 2, 3
-		});
-		var multipartFile = Mockito.mock(MultipartFile.class);
-		when(multipartFile.getOriginalFilename()).thenReturn("file");
-		when(multipartFile.getContentType()).thenReturn("application/pdf");
-		when(blobUtil.convertToBlob(multipartFile)).thenReturn(blob);
-
-		var files = List.of(multipartFile, multipartFile);
+	void toAttachmentEntities() throws IOException {
+		var multipartFile = createMultipartFile();
 
-		var attachmentEntities = attachmentMapper.toAttachmentEntities(files);
+		var attachmentEntities = attachmentMapper.toAttachmentEntities(List.of(multipartFile, multipartFile));
 
-		assertThat(attachmentEntities).isNotNull().isNotEmpty().allSatisfy(attachment -> {
+		assertThat(attachmentEntities).hasSize(2).allSatisfy(attachment -> {
 			assertThat(attachment.getFileName()).isEqualTo("file");
 			assertThat(attachment.getContentType()).isEqualTo("application/pdf");
-			assertThat(attachment.getContent()).isEqualTo(blob);
+			assertThat(attachment.getContentHash()).isEqualTo(CONTENT_HASH);
+			// Neither the upload nor its encoded content is held by the attachment
+			assertThat(attachment.getContent()).isNull();
+			assertThat(attachment.getContentString()).isNull();
 		});
+		verify(attachmentContentRepositoryMock, times(2)).store(CONTENT_HASH, multipartFile, 3L);
 	}
 
 	@Test
-	void toAttachmentEntity() throws SQLException {
+	void toAttachmentEntitiesWithContent() throws IOException {
 		var blob = Mockito.mock(Blob.class);
-		when(blob.length()).thenReturn(3L);
-		when(blob.getBytes(1L, 3)).thenReturn(new byte[] {
-			1, 2, 3
-		});
-		var multipartFile = Mockito.mock(MultipartFile.class);
-		when(multipartFile.getOriginalFilename()).thenReturn("file");
-		when(multipartFile.getContentType()).thenReturn("application/pdf");
+		var multipartFile = createMultipartFile();
 		when(blobUtil.convertToBlob(multipartFile)).thenReturn(blob);
 
+		var attachmentEntities = attachmentMapper.toAttachmentEntitiesWithContent(List.of(multipartFile));
+
+		assertThat(attachmentEntities).singleElement().satisfies(attachment -> {
+			assertThat(attachment.getContentHash()).isEqualTo(CONTENT_HASH);
+			assertThat(attachment.getContent()).isEqualTo(blob);
+			assertThat(attachment.getContentString()).isNull();
+		});
+		verify(attachmentContentRepositoryMock).store(CONTENT_HASH, multipartFile, 3L);
+		verify(blobUtil).convertToBlob(multipartFile);
+	}
+
+	@Test
+	void toAttachmentEntity() throws IOException {
+		var multipartFile = createMultipartFile();
+
 		var attachmentEntity = attachmentMapper.toAttachmentEntity(multipartFile);
 
 		assertThat(attachmentEntity).isNotNull();
 		assertThat(attachmentEntity.getFileName()).isEqualTo("file");
 		assertThat(attachmentEntity.getContentType()).isEqualTo("application/pdf");
-		assertThat(attachmentEntity.getContent()).isEqualTo(blob);
+		assertThat(attachmentEntity.getContentHash()).isEqualTo(CONTENT_HASH);
+		assertThat(attachmentEntity.getContent()).isNull();
+		assertThat(attachmentEntity.getContentString()).isNull();
+		verify(attachmentContentRepositoryMock).store(CONTENT_HASH, multipartFile, 3L);
+	}
+
+	@Test
+	void encodeContent() {
+		var stored = AttachmentEntity.create().withContentHash(CONTENT_HASH);
+		var encoded = AttachmentEntity.create().withContentHash(CONTENT_HASH).withContentString("already encoded");
+		var withoutContent = AttachmentEntity.create();
+		when(attachmentPayloadCacheMock.getBase64(CONTENT_HASH)).thenReturn("AQID");
+
+		attachmentMapper.encodeContent(List.of(stored, encoded, withoutContent));
+
+		assertThat(stored.getContentString()).isEqualTo("AQID");
+		assertThat(encoded.getContentString()).isEqualTo("already encoded");
+		assertThat(withoutContent.getContentString()).isNull();
+		verify(attachmentPayloadCacheMock).getBase64(CONTENT_HASH);
+	}
+
+	@Test
+	void encodeContent_null() {
+		attachmentMapper.encodeContent(null);
+	}
+
+	@Test
+	void toAttachmentEntity_null() {
+		assertThat(attachmentMapper.toAttachmentEntity(null)).isNull();
+	}
+
+	private static MultipartFile createMultipartFile() throws IOException {
+		var multipartFile = Mockito.mock(MultipartFile.class);
+		when(multipartFile.getOriginalFilename()).thenReturn("file");
+		when(multipartFile.getContentType()).thenReturn("application/pdf");
+		when(multipartFile.getInputStream()).thenAnswer(_ -> new ByteArrayInputStream(new byte[] {
+			1, 2, 3
+		}));
+		when(multipartFile.getSize()).thenReturn(3L);
+		return multipartFile;
 	}
 
 }
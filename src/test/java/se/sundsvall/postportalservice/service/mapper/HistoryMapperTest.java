@@ -8,6 +8,7 @@ import org.junit.jupiter.api.Test;
 import se.sundsvall.postportalservice.integration.db.AttachmentEntity;
 import se.sundsvall.postportalservice.integration.db.MessageEntity;
 import se.sundsvall.postportalservice.integration.db.RecipientEntity;
+import se.sundsvall.postportalservice.integration.db.dao.MessageProgressRepository.Progress;
 
 import static java.time.ZoneOffset.UTC;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -470,4 +471,23 @@ class HistoryMapperTest {
 	void toSigningStatusFromNull() {
 		assertThat(HISTORY_MAPPER.toSigningStatus(null)).isNull();
 	}
+
+	@Test
+	void toMessageProgress() {
+		final var result = HISTORY_MAPPER.toMessageProgress("messageId", new Progress(40, 30, 10, 15, 5));
+
+		assertThat(result).isNotNull().hasNoNullFieldsOrProperties();
+		assertThat(result.getMessageId()).isEqualTo("messageId");
+		assertThat(result.getTotal()).isEqualTo(100);
+		assertThat(result.getPending()).isEqualTo(40);
+		assertThat(result.getSent()).isEqualTo(30);
+		assertThat(result.getDelivered()).isEqualTo(10);
+		assertThat(result.getFailed()).isEqualTo(15);
+		assertThat(result.getUndeliverable()).isEqualTo(5);
+	}
+
+	@Test
+	void toMessageProgressFromNull() {
+		assertThat(HISTORY_MAPPER.toMessageProgress("messageId", null)).isNull();
+	}
 }
@@ -1,27 +1,33 @@
 package se.sundsvall.postportalservice.service.util;
 
 import jakarta.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.sql.Blob;
-import java.sql.SQLException;
+import java.util.Base64;
+import java.util.Random;
 import org.hibernate.LobHelper;
 import org.hibernate.Session;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.web.multipart.MultipartFile;
 import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.postportalservice.integration.attachmentstore.AttachmentStore.StoredContent;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -51,33 +57,13 @@ class BlobUtilTest {
 		assertThat(result).isEqualTo(session);
 	}
 
-	@Test
-	void convertBase64ToBlob_OK() {
-		final var spy = spy(blobUtil);
-		final var session = mock(Session.class);
-		when(spy.getSession()).thenReturn(session);
-		final var lobHelper = mock(LobHelper.class);
-		when(session.getLobHelper()).thenReturn(lobHelper);
-		final var blob = mock(Blob.class);
-		when(lobHelper.createBlob(any(), eq(6L))).thenReturn(blob); // "c2lnbmVk" decodes to 6 bytes
-
-		final var result = spy.convertBase64ToBlob("c2lnbmVk");
-
-		assertThat(result).isSameAs(blob);
-		verify(entityManagerMock).unwrap(any());
-	}
-
-	@Test
-	void convertBase64ToBlob_null() {
-		assertThat(blobUtil.convertBase64ToBlob(null)).isNull();
-	}
-
 	@Test
 	void createBlob_OK() throws IOException {
 		final var spy = Mockito.spy(blobUtil);
 		final var multipartFile = Mockito.mock(MultipartFile.class);
 
-		when(multipartFile.getBytes()).thenReturn(new byte[123]);
+		when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[123]));
+		when(multipartFile.getSize()).thenReturn(123L);
 
 		final var session = Mockito.mock(Session.class);
 		when(spy.getSession()).thenReturn(session);
@@ -92,6 +78,8 @@ class BlobUtilTest {
 
 		assertThat(result).isEqualTo(blob);
 		verify(entityManagerMock).unwrap(any());
+		verify(lobHelper).createBlob(any(BlobUtil.UploadInputStream.class), eq(123L));
+		verify(multipartFile, never()).getBytes();
 	}
 
 	@Test
@@ -100,7 +88,7 @@ class BlobUtilTest {
 		final var multipartFile = Mockito.mock(MultipartFile.class);
 		when(multipartFile.getOriginalFilename()).thenReturn("TestFile.txt");
 
-		when(multipartFile.getBytes()).thenThrow(new IOException("Test exception"));
+		when(multipartFile.getInputStream()).thenThrow(new IOException("Test exception"));
 
 		assertThatThrownBy(() -> spy.createBlob(multipartFile))
 			.isInstanceOf(Problem.class)
@@ -112,7 +100,7 @@ class BlobUtilTest {
 		final var spy = Mockito.spy(blobUtil);
 		final var multipartFile = Mockito.mock(MultipartFile.class);
 
-		when(multipartFile.getBytes()).thenReturn(new byte[123]);
+		when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[123]));
 
 		final var session = Mockito.mock(Session.class);
 		when(spy.getSession()).thenReturn(session);
@@ -130,25 +118,61 @@ class BlobUtilTest {
 	}
 
 	@Test
-	void convertBlobToBase64StringTest() throws SQLException {
-		final var blob = Mockito.mock(Blob.class);
+	void convertStoredContentToBase64String() throws IOException {
+		final var inputStream = Mockito.spy(new ByteArrayInputStream("test".getBytes()));
 
-		when(blob.getBytes(1, (int) blob.length())).thenReturn("test".getBytes());
-
-		final var result = BlobUtil.convertBlobToBase64String(blob);
+		final var result = BlobUtil.convertStoredContentToBase64String(new StoredContent(inputStream, 4));
 
 		assertThat(result).isEqualTo("dGVzdA==");
+		verify(inputStream).close();
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {
+		0, 1, 2, 3, 1000, 1001, 1002
+	})
+	void encodeToBase64String(final int length) throws IOException {
+		final var content = new byte[length];
+		new Random(length).nextBytes(content);
+
+		final var result = BlobUtil.encodeToBase64String(new ByteArrayInputStream(content), length);
+
+		assertThat(result).isEqualTo(Base64.getEncoder().encodeToString(content));
 	}
 
 	@Test
-	void convertToBlob_SQLException() throws SQLException {
-		final var blob = Mockito.mock(Blob.class);
-		when(blob.length()).thenThrow(new SQLException("Test exception"));
+	void sha256Hex() {
+		final var result = BlobUtil.sha256Hex(new ByteArrayResource("test".getBytes()));
+
+		assertThat(result).isEqualTo("9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08");
+	}
+
+	@Test
+	void sha256Hex_IOException() throws IOException {
+		final var multipartFile = Mockito.mock(MultipartFile.class);
+		when(multipartFile.getInputStream()).thenThrow(new IOException("Test exception"));
 
-		assertThatThrownBy(() -> BlobUtil.convertBlobToBase64String(blob))
+		assertThatThrownBy(() -> BlobUtil.sha256Hex(multipartFile))
 			.isInstanceOf(Problem.class)
-			.hasMessage("Internal Server Error: Could not convert Blob to Base64 string: Test exception");
+			.hasMessage("Internal Server Error: Could not calculate hash of content: Test exception");
+	}
+
+	@Test
+	void uploadInputStream_reset() throws IOException {
+		final var multipartFile = Mockito.mock(MultipartFile.class);
+		when(multipartFile.getInputStream())
+			.thenReturn(new ByteArrayInputStream("test".getBytes()))
+			.thenReturn(new ByteArrayInputStream("test".getBytes()));
+
+		try (final var inputStream = new BlobUtil.UploadInputStream(multipartFile)) {
+			assertThat(inputStream.markSupported()).isTrue();
+			assertThat(inputStream.readAllBytes()).isEqualTo("test".getBytes());
+
+			inputStream.reset();
 
+			assertThat(inputStream.readAllBytes()).isEqualTo("test".getBytes());
+		}
+		verify(multipartFile, times(2)).getInputStream();
 	}
 
 }
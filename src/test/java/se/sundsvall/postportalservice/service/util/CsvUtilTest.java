@@ -9,6 +9,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.Mockito;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.web.multipart.MultipartFile;
 import se.sundsvall.dept44.problem.Problem;
 import se.sundsvall.dept44.test.annotation.resource.Load;
@@ -90,6 +91,16 @@ class CsvUtilTest {
 		assertThat(result.privateIds()).containsKey("201901012391");
 	}
 
+	@Test
+	void parseLetterCsvFromStoredContent() {
+		final var csv = "Identitetsnummer\n201901012391\n5523456789\n";
+
+		var result = CsvUtil.parseLetterCsv(new ByteArrayResource(csv.getBytes(StandardCharsets.UTF_8)));
+
+		assertThat(result.privateIds()).containsExactlyInAnyOrderEntriesOf(java.util.Map.of("201901012391", 1));
+		assertThat(result.enterpriseIds()).containsExactlyInAnyOrderEntriesOf(java.util.Map.of("5523456789", 1));
+	}
+
 	@Test
 	void parseLetterCsvRejectsTenDigitEnskildFirma() throws IOException {
 		final var csv = "Identitetsnummer\n5513456789\n";
@@ -4,7 +4,9 @@ import java.util.HashMap;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
 import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.postportalservice.integration.db.DepartmentEntity;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatNoException;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.springframework.http.HttpStatus.BAD_GATEWAY;
@@ -126,6 +128,23 @@ class MessagingSettingsUtilTest {
 		assertThatNoException().isThrownBy(() -> MessagingSettingsUtil.validateMessagingSettings(settingsMap, USER, MUNICIPALITY_ID));
 	}
 
+	@Test
+	void applyDepartmentSettings() {
+		final var settingsMap = createValidSettingsMap();
+		final var department = DepartmentEntity.create().withName("Department 44");
+
+		final var result = MessagingSettingsUtil.applyDepartmentSettings(department, settingsMap);
+
+		assertThat(result).isSameAs(department);
+		assertThat(result.getName()).isEqualTo("Department 44");
+		assertThat(result.getFolderName()).isEqualTo("TestFolder");
+		assertThat(result.getOrganizationNumber()).isEqualTo("1234567890");
+		assertThat(result.getSupportText()).isEqualTo("Support text");
+		assertThat(result.getContactInformationUrl()).isEqualTo("https://example.com");
+		assertThat(result.getContactInformationPhoneNumber()).isEqualTo("0123456789");
+		assertThat(result.getContactInformationEmail()).isEqualTo("test@example.com");
+	}
+
 	private Map<String, String> createValidSettingsMap() {
 		final var map = new HashMap<String, String>();
 		map.put(ORGANIZATION_NUMBER, "1234567890");
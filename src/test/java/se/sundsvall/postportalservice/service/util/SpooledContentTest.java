@@ -0,0 +1,47 @@
+package se.sundsvall.postportalservice.service.util;
+
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SpooledContentTest {
+
+	// SHA-256 of "test"
+	private static final String HASH = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+	@Test
+	void spool() throws IOException {
+		try (var content = SpooledContent.spool(output -> output.write("test".getBytes()))) {
+			assertThat(content.getHash()).isEqualTo(HASH);
+			assertThat(content.getLength()).isEqualTo(4);
+			// The content can be read any number of times
+			try (var input = content.getInputStream()) {
+				assertThat(input.readAllBytes()).isEqualTo("test".getBytes());
+			}
+			try (var input = content.getInputStream()) {
+				assertThat(input.readAllBytes()).isEqualTo("test".getBytes());
+			}
+		}
+	}
+
+	@Test
+	void close() throws IOException {
+		final var content = SpooledContent.spool(output -> output.write("test".getBytes()));
+
+		content.close();
+
+		assertThatThrownBy(content::getInputStream).isInstanceOf(IOException.class);
+	}
+
+	@Test
+	void spool_writerFails() {
+		assertThatThrownBy(() -> SpooledContent.spool(output -> {
+			output.write("te".getBytes());
+			throw new IOException("Test exception");
+		}))
+			.isInstanceOf(IOException.class)
+			.hasMessage("Test exception");
+	}
+}
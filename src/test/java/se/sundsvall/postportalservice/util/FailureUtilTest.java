@@ -0,0 +1,32 @@
+package se.sundsvall.postportalservice.util;
+
+import feign.RetryableException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import se.sundsvall.dept44.exception.ClientProblem;
+import se.sundsvall.dept44.exception.ServerProblem;
+import se.sundsvall.dept44.problem.Problem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.HttpStatus.BAD_GATEWAY;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+class FailureUtilTest {
+
+	@Test
+	void isTransient() {
+		// As decoded by the ProblemErrorDecoder from a server error response
+		assertThat(FailureUtil.isTransient(new ServerProblem(BAD_GATEWAY, "messaging error: {status: 503}"))).isTrue();
+		assertThat(FailureUtil.isTransient(Mockito.mock(RetryableException.class))).isTrue();
+	}
+
+	@Test
+	void isTransient_permanent() {
+		// As decoded by the ProblemErrorDecoder from a client error response
+		assertThat(FailureUtil.isTransient(new ClientProblem(BAD_GATEWAY, "messaging error: {status: 400}"))).isFalse();
+		assertThat(FailureUtil.isTransient(Problem.valueOf(SERVICE_UNAVAILABLE, "Service unavailable"))).isFalse();
+		assertThat(FailureUtil.isTransient(Mockito.mock(CallNotPermittedException.class))).isFalse();
+		assertThat(FailureUtil.isTransient(new IllegalArgumentException())).isFalse();
+	}
+}
@@ -1,11 +1,11 @@
 
     create table attachment (
         created DATETIME,
+        content_hash VARCHAR(64),
         content_type VARCHAR(50),
         file_name VARCHAR(150),
         id VARCHAR(36) not null,
         message_id VARCHAR(36),
-        content LONGBLOB,
         primary key (id)
     ) engine=InnoDB;
 
@@ -19,12 +19,14 @@
 
     create table message (
         created DATETIME,
+        snail_mail_batch_triggered DATETIME,
         body TEXT,
         content_type VARCHAR(100),
         department_id VARCHAR(36),
         display_name VARCHAR(100),
         id VARCHAR(36) not null,
         municipality_id VARCHAR(6),
+        snail_mail_batch_status VARCHAR(20),
         subject VARCHAR(255),
         user_id VARCHAR(36),
         message_type VARCHAR(50),
@@ -32,12 +34,16 @@
     ) engine=InnoDB;
 
     create table recipient (
+        attempts INT,
         created DATETIME,
+        lease_expires DATETIME,
+        next_attempt DATETIME,
         address VARCHAR(255),
         apartment_number VARCHAR(20),
         care_of VARCHAR(100),
         city VARCHAR(100),
         country VARCHAR(100),
+        delivery_state VARCHAR(20),
         email VARCHAR(150),
         external_id VARCHAR(36),
         first_name VARCHAR(100),
@@ -93,6 +99,9 @@
     create index IDX_RECIPIENT_MESSAGE_TYPE 
        on recipient (type);
 
+    create index IDX_RECIPIENT_DELIVERY_STATE 
+       on recipient (delivery_state, lease_expires);
+
     alter table if exists signing 
        add constraint UKo2hm9s2h9lhcicc3dg6wp1mhl unique (attachment_id);
 